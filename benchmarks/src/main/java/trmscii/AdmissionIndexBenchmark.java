@@ -0,0 +1,134 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Lookups by admission number on StudentRegistry, next to a boxed HashMap
+ * and the scan over every student that the roster needed before. A churn
+ * phase then has writer threads re-admitting students under new admission
+ * numbers while readers look them up both ways, and checks afterwards that
+ * the roll number and admission number indexes agree exactly.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.AdmissionIndexBenchmark [students]
+ */
+public class AdmissionIndexBenchmark {
+    private static final int LOOKUPS = 5_000_000;
+    private static final int FIRST_ADMISSION = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        StudentRegistry registry = new StudentRegistry();
+        Map<Integer, SchoolManagementSystem.Student> boxed = new HashMap<>();
+        for (int roll = 1; roll <= count; roll++) {
+            SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                    roll, "Student " + roll, "Mother", "Father", FIRST_ADMISSION + roll);
+            registry.put(student);
+            boxed.put(student.getAdmissionNumber(), student);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        int[] keys = new int[4096];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = FIRST_ADMISSION + 1 + random.nextInt(count);
+        }
+        for (int round = 0; round < 2; round++) {
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                sink += registry.getByAdmissionNumber(keys[i & 4095]).getRollNumber();
+            }
+            double indexed = (System.nanoTime() - start) / (double) LOOKUPS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                sink += boxed.get(keys[i & 4095]).getRollNumber();
+            }
+            double hashMap = (System.nanoTime() - start) / (double) LOOKUPS;
+
+            int scans = 20;
+            start = System.nanoTime();
+            for (int i = 0; i < scans; i++) {
+                for (SchoolManagementSystem.Student student : registry.values()) {
+                    if (student.getAdmissionNumber() == keys[i]) {
+                        sink += student.getRollNumber();
+                        break;
+                    }
+                }
+            }
+            double scanned = (System.nanoTime() - start) / (double) scans;
+
+            if (round == 1) {
+                System.out.printf("%,d students\n", count);
+                System.out.printf("  StudentRegistry:   %8.1f ns\n", indexed);
+                System.out.printf("  HashMap<Integer>:  %8.1f ns\n", hashMap);
+                System.out.printf("  scan of values():  %8.0f ns\n", scanned);
+            }
+            if (sink == 42) {
+                System.out.print("");
+            }
+        }
+
+        churn(registry, count);
+    }
+
+    // Writers move students between two admission numbers; afterwards each must be found by exactly its current one
+    private static void churn(StudentRegistry registry, int count) throws Exception {
+        int writers = 2;
+        int readers = Math.max(1, Runtime.getRuntime().availableProcessors() - writers);
+        int rounds = 200_000;
+        ExecutorService pool = Executors.newFixedThreadPool(writers + readers);
+        List<Future<?>> tasks = new ArrayList<>();
+        CountDownLatch writing = new CountDownLatch(writers);
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            tasks.add(pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(writer);
+                for (int i = 0; i < rounds; i++) {
+                    // Each writer owns its own rolls, so the moves of one roll are ordered
+                    int roll = 1 + writer + writers * random.nextInt(count / writers);
+                    int admission = registry.get(roll).getAdmissionNumber();
+                    int next = admission > 2 * FIRST_ADMISSION ? FIRST_ADMISSION + roll : 3 * FIRST_ADMISSION + roll;
+                    registry.put(new SchoolManagementSystem.Student(roll, "Student " + roll, "Mother", "Father", next));
+                }
+                writing.countDown();
+                return null;
+            }));
+        }
+        long[] reads = new long[readers];
+        for (int r = 0; r < readers; r++) {
+            int reader = r;
+            tasks.add(pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(100 + reader);
+                while (writing.getCount() > 0) {
+                    int roll = 1 + random.nextInt(count);
+                    SchoolManagementSystem.Student byAdmission = registry.getByAdmissionNumber(FIRST_ADMISSION + roll);
+                    if (byAdmission != null && byAdmission.getRollNumber() != roll) {
+                        throw new IllegalStateException("Admission number of roll " + roll + " found on another student");
+                    }
+                    reads[reader]++;
+                }
+                return null;
+            }));
+        }
+        long start = System.nanoTime();
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        for (int roll = 1; roll <= count; roll++) {
+            SchoolManagementSystem.Student current = registry.get(roll);
+            int other = current.getAdmissionNumber() > 2 * FIRST_ADMISSION ? FIRST_ADMISSION + roll : 3 * FIRST_ADMISSION + roll;
+            if (registry.getByAdmissionNumber(current.getAdmissionNumber()) != current
+                    || registry.getByAdmissionNumber(other) != null) {
+                throw new IllegalStateException("Indexes disagree for roll " + roll);
+            }
+        }
+        System.out.printf("Churn: %,d re-admissions by %d writers and %,d lookups by %d readers in %.2fs; indexes agree\n",
+                writers * rounds, writers, Arrays.stream(reads).sum(), readers, seconds);
+    }
+}
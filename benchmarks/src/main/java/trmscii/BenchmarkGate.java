@@ -0,0 +1,148 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the JMH suite with the allocation profiler and checks it against a
+ * baseline, so a change that slows a hot path down or makes it allocate
+ * more fails the build instead of going unnoticed.
+ *
+ * The baseline is a TSV of benchmark@size, time per call and bytes
+ * allocated per call. Times only compare on the machine that wrote the
+ * baseline; allocation is the same everywhere, so it is held to a tighter
+ * bound.
+ *
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.BenchmarkGate [options] [include regex]
+ *     --baseline FILE        compare with FILE; exits with 1 on a regression
+ *     --write-baseline FILE  record this run as the new baseline
+ *     --sizes 10,1000        roster sizes to run, instead of all of them
+ *     --tolerance PERCENT    slowdown allowed before failing, 25 by default
+ *     --quick                shorter warm-up and measurement, for a first look
+ */
+public final class BenchmarkGate {
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    // Allocation may wobble by a few bytes a call, e.g. when a cache entry is replaced
+    private static final double ALLOCATION_SLACK_BYTES = 16;
+
+    private BenchmarkGate() {
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        Path baseline = null;
+        Path writeBaseline = null;
+        String sizes = null;
+        double tolerance = 25;
+        boolean quick = false;
+        String include = HotPathBenchmarks.class.getSimpleName();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--baseline") && i + 1 < args.length) {
+                baseline = Paths.get(args[++i]);
+            } else if (args[i].equals("--write-baseline") && i + 1 < args.length) {
+                writeBaseline = Paths.get(args[++i]);
+            } else if (args[i].equals("--sizes") && i + 1 < args.length) {
+                sizes = args[++i];
+            } else if (args[i].equals("--tolerance") && i + 1 < args.length) {
+                tolerance = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--quick")) {
+                quick = true;
+            } else {
+                include = args[i];
+            }
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class);
+        if (sizes != null) {
+            options.param("size", sizes.split(","));
+        }
+        if (quick) {
+            options.warmupIterations(2).warmupTime(TimeValue.milliseconds(500))
+                    .measurementIterations(3).measurementTime(TimeValue.milliseconds(500));
+        }
+        Map<String, double[]> measured = new TreeMap<>();
+        for (RunResult run : new Runner(options.build()).run()) {
+            Result<?> primary = run.getPrimaryResult();
+            Result<?> allocation = run.getSecondaryResults().get(ALLOCATION);
+            measured.put(label(run), new double[] {primary.getScore(), allocation == null ? Double.NaN : allocation.getScore()});
+        }
+
+        System.out.printf("%n%-50s %14s %14s%n", "benchmark@size", "ns/call", "bytes/call");
+        for (Map.Entry<String, double[]> entry : measured.entrySet()) {
+            System.out.printf("%-50s %14.1f %14.1f%n", entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+        if (writeBaseline != null) {
+            write(writeBaseline, measured);
+            System.out.println("\nWrote baseline " + writeBaseline);
+        }
+        if (baseline != null && !compare(read(baseline), measured, tolerance)) {
+            System.exit(1);
+        }
+    }
+
+    // "HotPathBenchmarks.authenticateStudent@1000"
+    private static String label(RunResult run) {
+        String benchmark = run.getParams().getBenchmark();
+        String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        String size = run.getParams().getParam("size");
+        return size == null ? name : name + "@" + size;
+    }
+
+    private static boolean compare(Map<String, double[]> baseline, Map<String, double[]> measured, double tolerance) {
+        boolean passed = true;
+        System.out.println();
+        for (Map.Entry<String, double[]> entry : measured.entrySet()) {
+            double[] before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.println("NEW   " + entry.getKey());
+                continue;
+            }
+            double[] now = entry.getValue();
+            double slowdown = (now[0] / before[0] - 1) * 100;
+            boolean slower = slowdown > tolerance;
+            // Allocation is deterministic enough for a tenth of the time tolerance
+            boolean allocates = now[1] > before[1] * (1 + tolerance / 1000) + ALLOCATION_SLACK_BYTES;
+            if (slower || allocates) {
+                passed = false;
+            }
+            System.out.printf("%-5s %-50s time %+6.1f%%, allocation %.0f -> %.0f bytes%n",
+                    slower || allocates ? "FAIL" : "ok", entry.getKey(), slowdown, before[1], now[1]);
+        }
+        System.out.println(passed ? "\nNo regressions against the baseline" : "\nRegressions against the baseline");
+        return passed;
+    }
+
+    private static Map<String, double[]> read(Path file) throws IOException {
+        Map<String, double[]> baseline = new HashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            baseline.put(fields[0], new double[] {Double.parseDouble(fields[1]), Double.parseDouble(fields[2])});
+        }
+        return baseline;
+    }
+
+    private static void write(Path file, Map<String, double[]> measured) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# benchmark@size\tns/call\tbytes/call; " + Runtime.getRuntime().availableProcessors()
+                    + " cores, " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version") + "\n");
+            for (Map.Entry<String, double[]> entry : measured.entrySet()) {
+                out.write(String.format(Locale.ROOT, "%s\t%.1f\t%.1f%n", entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+            }
+        }
+    }
+}
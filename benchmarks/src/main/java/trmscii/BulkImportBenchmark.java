@@ -0,0 +1,91 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Imports a generated roster, a marks file and a fee file through
+ * BulkImporter and reports how long each takes. One row in every
+ * thousand is deliberately malformed so the error path is exercised too.
+ * The default marks file has 1,000,000 rows: 100,000 students times ten
+ * subjects.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.BulkImportBenchmark [students]
+ */
+public class BulkImportBenchmark {
+    private static final String[] SUBJECTS = {
+        "English Literature", "English Language", "Mathematics", "Biology", "Chemistry",
+        "Physics", "Geography", "History and Civics", "Hindi", "Computer"
+    };
+    private static final int FIRST_ROLL = 1001;
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path dir = Files.createTempDirectory("trmscii-import");
+        Path roster = dir.resolve("students.csv");
+        Path marks = dir.resolve("marks.csv");
+        Path fees = dir.resolve("fees.csv");
+        generate(students, roster, marks, fees);
+        System.out.printf("Generated %,d students, %,d marks and %,d payments (%,d bytes)\n",
+                students, students * SUBJECTS.length, students * 2L,
+                Files.size(roster) + Files.size(marks) + Files.size(fees));
+
+        SchoolManagementSystem system = new SchoolManagementSystem();
+        Runtime runtime = Runtime.getRuntime();
+        try (BulkImporter importer = new BulkImporter(system)) {
+            for (Object[] run : new Object[][] {
+                    {BulkImporter.Kind.STUDENTS, roster},
+                    {BulkImporter.Kind.MARKS, marks},
+                    {BulkImporter.Kind.FEES, fees}}) {
+                BulkImporter.ImportReport report = importer.importFile((BulkImporter.Kind) run[0], (Path) run[1]);
+                System.out.println(report);
+                if (!report.getErrors().isEmpty()) {
+                    System.out.println("  first error: " + report.getErrors().get(0));
+                }
+            }
+        }
+        System.gc();
+        System.out.printf("Heap in use after import: %,d MB\n", (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static void generate(int students, Path roster, Path marks, Path fees) throws IOException {
+        // Fixed seed so every run imports the same files
+        Random random = new Random(42);
+        try (PrintWriter r = writer(roster); PrintWriter m = writer(marks); PrintWriter f = writer(fees)) {
+            r.println("roll,name,mother,father,admission");
+            m.println("roll,subject,mark");
+            f.println("roll,amount,date,method,receipt");
+            long row = 0;
+            // Numbered clear of the sample students so every roster row is new
+            for (int roll = FIRST_ROLL; roll < FIRST_ROLL + students; roll++) {
+                r.printf("%d,\"Student %d\",Mother %d,Father %d,%d\n", roll, roll, roll, roll, 1_000_000 + roll);
+                for (String subject : SUBJECTS) {
+                    if (++row % 1000 == 0) {
+                        m.println(roll + "," + subject + ",not-a-mark");
+                    } else {
+                        m.println(roll + "," + subject + "," + random.nextInt(41));
+                    }
+                }
+                LocalDate may = LocalDate.of(2025, 5, 1 + random.nextInt(16));
+                LocalDate september = LocalDate.of(2025, 9, 1 + random.nextInt(16));
+                f.println(roll + ",5000.00," + may + ",Online Transfer,RCT" + roll + "A");
+                f.println(roll + ",5000.00," + september + ",Online Transfer,RCT" + roll + "B");
+            }
+        }
+    }
+
+    private static PrintWriter writer(Path file) throws IOException {
+        return new PrintWriter(new BufferedWriter(Files.newBufferedWriter(file), 1 << 16));
+    }
+}
@@ -0,0 +1,451 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * BinaryCodec against Java serialization and JSON lines, over a generated
+ * school's students and its notices and tests. Each format writes every
+ * record into one stream, independently of the others, then reads the
+ * stream back; the benchmark reports bytes per record and records per
+ * second each way, best of several rounds, and checks that every format
+ * gives back what it was given.
+ *
+ * The model classes are not Serializable, so Java serialization writes
+ * record mirrors of them. JSON is written with JsonWriter and read with a
+ * minimal parser here, as the project has no JSON library.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.CodecBenchmark [students] [rounds]
+ */
+public class CodecBenchmark {
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        SyntheticSchool school = new SyntheticSchool(42, LocalDate.of(2026, 10, 1));
+        List<Object> students = new ArrayList<>(school.students(count));
+        SchoolManagementSystem system = new SchoolManagementSystem(new StudentRegistry());
+        school.addNotices(system, SyntheticSchool.NOTICES);
+        school.addTests(system, SyntheticSchool.TESTS);
+        List<Object> schoolRecords = new ArrayList<>(system.getNotices());
+        schoolRecords.addAll(system.getUpcomingTests());
+
+        Format[] formats = {new Binary(), new Serialized(), new JsonLines()};
+        for (List<Object> records : List.of(students, schoolRecords)) {
+            System.out.printf("%,d %s\n", records.size(), records == students ? "students" : "notices and tests");
+            System.out.printf("  %-14s %10s %16s %16s\n", "Format", "bytes/rec", "encode rec/s", "decode rec/s");
+            for (Format format : formats) {
+                byte[] encoded = null;
+                long bestEncode = Long.MAX_VALUE;
+                long bestDecode = Long.MAX_VALUE;
+                for (int round = 0; round < rounds; round++) {
+                    long start = System.nanoTime();
+                    encoded = format.encode(records);
+                    bestEncode = Math.min(bestEncode, System.nanoTime() - start);
+                    start = System.nanoTime();
+                    List<Object> decoded = format.decode(encoded, records.size());
+                    bestDecode = Math.min(bestDecode, System.nanoTime() - start);
+                    if (round == 0) {
+                        check(format, records, decoded);
+                    }
+                }
+                System.out.printf("  %-14s %10.1f %,16.0f %,16.0f\n", format.name(),
+                        (double) encoded.length / records.size(),
+                        records.size() / (bestEncode / 1e9), records.size() / (bestDecode / 1e9));
+            }
+        }
+
+        // A direct buffer decodes the same as a heap one
+        byte[] encoded = new Binary().encode(students);
+        ByteBuffer direct = ByteBuffer.allocateDirect(encoded.length).put(encoded).flip();
+        List<Object> fromDirect = new ArrayList<>();
+        while (direct.hasRemaining()) {
+            fromDirect.add(BinaryCodec.read(direct));
+        }
+        check(new Binary(), students, fromDirect);
+        System.out.println("Round trips match: ok");
+    }
+
+    interface Format {
+        String name();
+
+        byte[] encode(List<Object> records) throws IOException;
+
+        List<Object> decode(byte[] bytes, int count) throws IOException;
+    }
+
+    static final class Binary implements Format {
+        private final BinaryCodec.Writer writer = new BinaryCodec.Writer(1 << 20);
+
+        @Override
+        public String name() {
+            return "BinaryCodec";
+        }
+
+        @Override
+        public byte[] encode(List<Object> records) {
+            writer.reset();
+            for (Object record : records) {
+                if (record instanceof SchoolManagementSystem.Student) {
+                    writer.student((SchoolManagementSystem.Student) record);
+                } else if (record instanceof SchoolManagementSystem.Notice) {
+                    writer.notice((SchoolManagementSystem.Notice) record);
+                } else {
+                    writer.test((SchoolManagementSystem.Test) record);
+                }
+            }
+            return writer.toByteArray();
+        }
+
+        @Override
+        public List<Object> decode(byte[] bytes, int count) {
+            List<Object> records = new ArrayList<>(count);
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            while (in.hasRemaining()) {
+                records.add(BinaryCodec.read(in));
+            }
+            return records;
+        }
+    }
+
+    record PaymentRecord(double amount, LocalDate date, String method, String receipt) implements Serializable {
+    }
+
+    record StudentRecord(int roll, int admission, String name, String mother, String father,
+            LinkedHashMap<String, Integer> marks, ArrayList<PaymentRecord> payments,
+            String school, String className, String section) implements Serializable {
+    }
+
+    record NoticeRecord(String title, String content, LocalDate posted, LocalDate expiry) implements Serializable {
+    }
+
+    record TestRecord(String subject, String description, LocalDate date, String syllabus, int maxMarks)
+            implements Serializable {
+    }
+
+    static final class Serialized implements Format {
+        @Override
+        public String name() {
+            return "Serialization";
+        }
+
+        @Override
+        public byte[] encode(List<Object> records) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                for (Object record : records) {
+                    out.writeObject(mirror(record));
+                    // Each record stands alone, with no back-references into earlier ones
+                    out.reset();
+                }
+            }
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public List<Object> decode(byte[] bytes, int count) throws IOException {
+            List<Object> records = new ArrayList<>(count);
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                for (int i = 0; i < count; i++) {
+                    records.add(model(in.readObject()));
+                }
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+            return records;
+        }
+
+        private static Object mirror(Object record) {
+            if (record instanceof SchoolManagementSystem.Student) {
+                SchoolManagementSystem.Student student = (SchoolManagementSystem.Student) record;
+                ArrayList<PaymentRecord> payments = new ArrayList<>();
+                for (SchoolManagementSystem.FeePayment payment : student.getFeePayments()) {
+                    payments.add(new PaymentRecord(payment.getAmount(), payment.getPaymentDate(),
+                            payment.getPaymentMethod(), payment.getReceiptNumber()));
+                }
+                Enrolment enrolment = student.getEnrolment();
+                return new StudentRecord(student.getRollNumber(), student.getAdmissionNumber(), student.getName(),
+                        student.getMotherName(), student.getFatherName(), new LinkedHashMap<>(student.getMarks()),
+                        payments, enrolment.getSchool(), enrolment.getClassName(), enrolment.getSection());
+            } else if (record instanceof SchoolManagementSystem.Notice) {
+                SchoolManagementSystem.Notice notice = (SchoolManagementSystem.Notice) record;
+                return new NoticeRecord(notice.getTitle(), notice.getContent(), notice.getPostDate(),
+                        notice.getExpiryDate());
+            }
+            SchoolManagementSystem.Test test = (SchoolManagementSystem.Test) record;
+            return new TestRecord(test.getSubject(), test.getDescription(), test.getTestDate(), test.getSyllabus(),
+                    test.getMaxMarks());
+        }
+
+        private static Object model(Object mirror) {
+            if (mirror instanceof StudentRecord) {
+                StudentRecord record = (StudentRecord) mirror;
+                SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(record.roll(),
+                        record.name(), record.mother(), record.father(), record.admission(),
+                        Enrolment.of(record.school(), record.className(), record.section()));
+                record.marks().forEach(student::addMarks);
+                for (PaymentRecord payment : record.payments()) {
+                    student.addFeePayment(new SchoolManagementSystem.FeePayment(payment.amount(), payment.date(),
+                            payment.method(), payment.receipt()));
+                }
+                return student;
+            } else if (mirror instanceof NoticeRecord) {
+                NoticeRecord record = (NoticeRecord) mirror;
+                return new SchoolManagementSystem.Notice(record.title(), record.content(), record.posted(),
+                        record.expiry());
+            }
+            TestRecord record = (TestRecord) mirror;
+            return new SchoolManagementSystem.Test(record.subject(), record.description(), record.date(),
+                    record.syllabus(), record.maxMarks());
+        }
+    }
+
+    static final class JsonLines implements Format {
+        private final StringBuilder text = new StringBuilder(1 << 20);
+        private final JsonWriter json = new JsonWriter(text);
+
+        @Override
+        public String name() {
+            return "JSON lines";
+        }
+
+        @Override
+        public byte[] encode(List<Object> records) {
+            text.setLength(0);
+            for (Object record : records) {
+                json.reset().beginObject();
+                if (record instanceof SchoolManagementSystem.Student) {
+                    SchoolManagementSystem.Student student = (SchoolManagementSystem.Student) record;
+                    json.field("type", "student")
+                            .field("roll", student.getRollNumber())
+                            .field("admission", student.getAdmissionNumber())
+                            .field("name", student.getName())
+                            .field("mother", student.getMotherName())
+                            .field("father", student.getFatherName())
+                            .name("marks").beginObject();
+                    for (Map.Entry<String, Integer> mark : student.getMarks().entrySet()) {
+                        json.field(mark.getKey(), mark.getValue());
+                    }
+                    json.endObject().name("payments").beginArray();
+                    for (SchoolManagementSystem.FeePayment payment : student.getFeePayments()) {
+                        json.beginObject()
+                                .field("amount", payment.getAmount())
+                                .field("date", payment.getPaymentDate().toString())
+                                .field("method", payment.getPaymentMethod())
+                                .field("receipt", payment.getReceiptNumber())
+                                .endObject();
+                    }
+                    json.endArray()
+                            .field("school", student.getEnrolment().getSchool())
+                            .field("class", student.getEnrolment().getClassName())
+                            .field("section", student.getEnrolment().getSection());
+                } else if (record instanceof SchoolManagementSystem.Notice) {
+                    SchoolManagementSystem.Notice notice = (SchoolManagementSystem.Notice) record;
+                    json.field("type", "notice")
+                            .field("title", notice.getTitle())
+                            .field("content", notice.getContent())
+                            .field("posted", notice.getPostDate().toString())
+                            .field("expiry", notice.getExpiryDate().toString());
+                } else {
+                    SchoolManagementSystem.Test test = (SchoolManagementSystem.Test) record;
+                    json.field("type", "test")
+                            .field("subject", test.getSubject())
+                            .field("description", test.getDescription())
+                            .field("date", test.getTestDate().toString())
+                            .field("syllabus", test.getSyllabus())
+                            .field("maxMarks", test.getMaxMarks());
+                }
+                json.endObject();
+                text.append('\n');
+            }
+            return text.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<Object> decode(byte[] bytes, int count) {
+            List<Object> records = new ArrayList<>(count);
+            Parser parser = new Parser(new String(bytes, StandardCharsets.UTF_8));
+            while (parser.skipWhitespace()) {
+                Map<String, Object> object = (Map<String, Object>) parser.value();
+                switch ((String) object.get("type")) {
+                    case "student":
+                        SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                                integer(object, "roll"), (String) object.get("name"), (String) object.get("mother"),
+                                (String) object.get("father"), integer(object, "admission"),
+                                Enrolment.of((String) object.get("school"), (String) object.get("class"),
+                                        (String) object.get("section")));
+                        ((Map<String, Object>) object.get("marks")).forEach(
+                                (subject, mark) -> student.addMarks(subject, ((Number) mark).intValue()));
+                        for (Object element : (List<Object>) object.get("payments")) {
+                            Map<String, Object> payment = (Map<String, Object>) element;
+                            student.addFeePayment(new SchoolManagementSystem.FeePayment(
+                                    ((Number) payment.get("amount")).doubleValue(),
+                                    LocalDate.parse((String) payment.get("date")),
+                                    (String) payment.get("method"), (String) payment.get("receipt")));
+                        }
+                        records.add(student);
+                        break;
+                    case "notice":
+                        records.add(new SchoolManagementSystem.Notice((String) object.get("title"),
+                                (String) object.get("content"), LocalDate.parse((String) object.get("posted")),
+                                LocalDate.parse((String) object.get("expiry"))));
+                        break;
+                    default:
+                        records.add(new SchoolManagementSystem.Test((String) object.get("subject"),
+                                (String) object.get("description"), LocalDate.parse((String) object.get("date")),
+                                (String) object.get("syllabus"), integer(object, "maxMarks")));
+                }
+            }
+            return records;
+        }
+
+        private static int integer(Map<String, Object> object, String name) {
+            return ((Number) object.get(name)).intValue();
+        }
+    }
+
+    // Just enough JSON for what JsonWriter writes: objects, arrays, strings and numbers
+    static final class Parser {
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        // Steps over whitespace; false at the end of the text
+        boolean skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            return position < text.length();
+        }
+
+        Object value() {
+            skipWhitespace();
+            char c = text.charAt(position);
+            if (c == '{') {
+                Map<String, Object> object = new LinkedHashMap<>();
+                position++;
+                while (next() != '}') {
+                    String name = string();
+                    expect(':');
+                    object.put(name, value());
+                    if (next() == ',') {
+                        position++;
+                    }
+                }
+                position++;
+                return object;
+            } else if (c == '[') {
+                List<Object> array = new ArrayList<>();
+                position++;
+                while (next() != ']') {
+                    array.add(value());
+                    if (next() == ',') {
+                        position++;
+                    }
+                }
+                position++;
+                return array;
+            } else if (c == '"') {
+                return string();
+            }
+            int start = position;
+            boolean integral = true;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                integral &= Character.isDigit(text.charAt(position)) || text.charAt(position) == '-';
+                position++;
+            }
+            String number = text.substring(start, position);
+            return integral ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        }
+
+        private char next() {
+            skipWhitespace();
+            return text.charAt(position);
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw new IllegalArgumentException("Expected " + c + " at " + position);
+            }
+            position++;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = null;
+            int start = position;
+            while (true) {
+                char c = text.charAt(position);
+                if (c == '"') {
+                    String tail = text.substring(start, position++);
+                    return value == null ? tail : value.append(tail).toString();
+                } else if (c == '\\') {
+                    if (value == null) {
+                        value = new StringBuilder();
+                    }
+                    value.append(text, start, position);
+                    char escape = text.charAt(position + 1);
+                    switch (escape) {
+                        case 'n': value.append('\n'); break;
+                        case 'r': value.append('\r'); break;
+                        case 't': value.append('\t'); break;
+                        case 'u': value.append((char) Integer.parseInt(text.substring(position + 2, position + 6), 16));
+                            position += 4;
+                            break;
+                        default: value.append(escape);
+                    }
+                    position += 2;
+                    start = position;
+                } else {
+                    position++;
+                }
+            }
+        }
+    }
+
+    private static void check(Format format, List<Object> expected, List<Object> actual) {
+        if (expected.size() != actual.size()) {
+            throw new IllegalStateException(format.name() + " gave back " + actual.size() + " of "
+                    + expected.size() + " records");
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!describe(expected.get(i)).equals(describe(actual.get(i)))) {
+                throw new IllegalStateException(format.name() + " changed record " + i + ":\n  "
+                        + describe(expected.get(i)) + "\n  " + describe(actual.get(i)));
+            }
+        }
+    }
+
+    // Every field of a record, for comparing a round trip
+    private static String describe(Object record) {
+        if (record instanceof SchoolManagementSystem.Student) {
+            SchoolManagementSystem.Student student = (SchoolManagementSystem.Student) record;
+            StringBuilder text = new StringBuilder();
+            text.append(student.getRollNumber()).append('|').append(student.getAdmissionNumber()).append('|')
+                    .append(student.getName()).append('|').append(student.getMotherName()).append('|')
+                    .append(student.getFatherName()).append('|').append(student.getEnrolment()).append('|')
+                    .append(new TreeMap<>(student.getMarks()));
+            for (SchoolManagementSystem.FeePayment payment : student.getFeePayments()) {
+                text.append('|').append(payment.getAmount()).append(',').append(payment.getPaymentDate())
+                        .append(',').append(payment.getPaymentMethod()).append(',').append(payment.getReceiptNumber());
+            }
+            return text.toString();
+        } else if (record instanceof SchoolManagementSystem.Notice) {
+            SchoolManagementSystem.Notice notice = (SchoolManagementSystem.Notice) record;
+            return notice.getTitle() + "|" + notice.getContent() + "|" + notice.getPostDate() + "|"
+                    + notice.getExpiryDate();
+        }
+        SchoolManagementSystem.Test test = (SchoolManagementSystem.Test) record;
+        return test.getSubject() + "|" + test.getDescription() + "|" + test.getTestDate() + "|"
+                + test.getSyllabus() + "|" + test.getMaxMarks();
+    }
+}
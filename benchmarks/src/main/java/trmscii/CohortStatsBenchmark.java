@@ -0,0 +1,172 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH comparison of cohort statistics over a large generated school:
+ * CohortStats with the scalar kernels and with the best ones available,
+ * next to the loop over every student's getMarks() map that the same
+ * numbers need without it. The three must agree on every figure before
+ * anything is timed.
+ *
+ * The forks add the incubator module, so the vector kernels are measured
+ * whenever the benchmarks were built with the vector profile; otherwise
+ * "best" is the scalar kernels again:
+ *   mvn -B package -DskipTests -Pvector
+ *   java -jar benchmarks/target/benchmarks.jar CohortStatsBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g", "--add-modules", "jdk.incubator.vector"})
+public class CohortStatsBenchmark {
+    private static final String[] SUBJECTS = {
+        "English Literature", "English Language", "Mathematics", "Biology", "Chemistry",
+        "Physics", "Geography", "History and Civics", "Hindi", "Assamese", "Computer", "Economics"
+    };
+
+    @State(Scope.Benchmark)
+    public static class School {
+        @Param({"100000", "1000000"})
+        public int size;
+
+        List<SchoolManagementSystem.Student> students;
+        CohortKernels best;
+
+        @Setup(Level.Trial)
+        public void build() {
+            SplittableRandom random = new SplittableRandom(42);
+            students = new ArrayList<>(size);
+            for (int roll = 1; roll <= size; roll++) {
+                SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                        roll, "Student " + roll, "Mother", "Father", 1_000_000 + roll);
+                // A shared ability makes the subjects correlate
+                double ability = random.nextGaussian();
+                for (int s = 0; s < 8; s++) {
+                    student.addMarks(SUBJECTS[s], mark(random, ability));
+                }
+                student.addMarks(SUBJECTS[8 + random.nextInt(2)], mark(random, ability));
+                student.addMarks(SUBJECTS[10 + random.nextInt(2)], mark(random, ability));
+                students.add(student);
+            }
+            best = CohortKernels.best();
+
+            Naive naive = Naive.of(students);
+            check(naive, CohortStats.of(students, CohortKernels.SCALAR));
+            check(naive, CohortStats.of(students, best));
+        }
+    }
+
+    @Benchmark
+    public Object loopOverGetMarks(School school) {
+        return Naive.of(school.students);
+    }
+
+    @Benchmark
+    public CohortStats scalarKernels(School school) {
+        return CohortStats.of(school.students, CohortKernels.SCALAR);
+    }
+
+    @Benchmark
+    public CohortStats bestKernels(School school) {
+        return CohortStats.of(school.students, school.best);
+    }
+
+    private static int mark(SplittableRandom random, double ability) {
+        return Math.min(40, Math.max(0, (int) Math.round(26 + 5 * ability + 4 * random.nextGaussian())));
+    }
+
+    private static void check(Naive naive, CohortStats stats) {
+        for (String subject : SUBJECTS) {
+            CohortStats.SubjectStats s = stats.getSubject(subject);
+            long[] sums = naive.sums.get(subject);
+            double mean = (double) sums[1] / sums[0];
+            double sd = Math.sqrt((double) sums[2] / sums[0] - mean * mean);
+            expect(s.getCount() == sums[0] && Math.abs(s.getMean() - mean) < 1e-9
+                    && Math.abs(s.getStandardDeviation() - sd) < 1e-9, subject + " mean and deviation");
+            expect(s.getMin() == sums[3] && s.getMax() == sums[4], subject + " lowest and highest");
+            for (ReportCard.Grade grade : ReportCard.Grade.values()) {
+                expect(s.getGradeCount(grade) == naive.grades.get(subject).getOrDefault(grade, 0), subject + " grade " + grade);
+            }
+            for (String other : SUBJECTS) {
+                if (!other.equals(subject)) {
+                    double r = naive.correlation(subject, other);
+                    double got = stats.getCorrelation(subject, other);
+                    expect(Double.isNaN(r) ? Double.isNaN(got) : Math.abs(r - got) < 1e-9, subject + " with " + other);
+                }
+            }
+        }
+        for (ReportCard.Grade grade : ReportCard.Grade.values()) {
+            expect(stats.getGradeCount(grade) == naive.overall.getOrDefault(grade, 0), "overall grade " + grade);
+        }
+    }
+
+    private static void expect(boolean condition, String what) {
+        if (!condition) {
+            throw new IllegalStateException("Check failed: " + what);
+        }
+    }
+
+    // The same figures from the boxed marks map, one student at a time
+    private static final class Naive {
+        // count, sum, sum of squares, min, max
+        final Map<String, long[]> sums = new HashMap<>();
+        final Map<String, Map<ReportCard.Grade, Integer>> grades = new HashMap<>();
+        final Map<ReportCard.Grade, Integer> overall = new EnumMap<>(ReportCard.Grade.class);
+        // n, x, y, xx, yy, xy keyed by "first|second"
+        final Map<String, long[]> pairs = new HashMap<>();
+
+        static Naive of(List<SchoolManagementSystem.Student> students) {
+            Naive naive = new Naive();
+            for (SchoolManagementSystem.Student student : students) {
+                Map<String, Integer> marks = student.getMarks();
+                int total = 0;
+                for (Map.Entry<String, Integer> entry : marks.entrySet()) {
+                    int mark = entry.getValue();
+                    total += mark;
+                    long[] s = naive.sums.computeIfAbsent(entry.getKey(), k -> new long[] {0, 0, 0, Long.MAX_VALUE, -1});
+                    s[0]++;
+                    s[1] += mark;
+                    s[2] += mark * mark;
+                    s[3] = Math.min(s[3], mark);
+                    s[4] = Math.max(s[4], mark);
+                    ReportCard.Grade grade = ReportCard.Grade.of(mark * 100.0 / ReportCard.MAX_MARK);
+                    naive.grades.computeIfAbsent(entry.getKey(), k -> new EnumMap<>(ReportCard.Grade.class))
+                            .merge(grade, 1, Integer::sum);
+                    for (Map.Entry<String, Integer> other : marks.entrySet()) {
+                        if (!other.getKey().equals(entry.getKey())) {
+                            int y = other.getValue();
+                            long[] p = naive.pairs.computeIfAbsent(entry.getKey() + "|" + other.getKey(), k -> new long[6]);
+                            p[0]++;
+                            p[1] += mark;
+                            p[2] += y;
+                            p[3] += mark * mark;
+                            p[4] += y * y;
+                            p[5] += mark * y;
+                        }
+                    }
+                }
+                if (!marks.isEmpty()) {
+                    naive.overall.merge(ReportCard.Grade.of(total * 100.0 / (marks.size() * ReportCard.MAX_MARK)), 1, Integer::sum);
+                }
+            }
+            return naive;
+        }
+
+        double correlation(String first, String second) {
+            long[] p = pairs.get(first + "|" + second);
+            if (p == null) {
+                return Double.NaN;
+            }
+            double n = p[0];
+            double covariance = n * p[5] - (double) p[1] * p[2];
+            double vx = n * p[3] - (double) p[1] * p[1];
+            double vy = n * p[4] - (double) p[2] * p[2];
+            return n < 2 || vx <= 0 || vy <= 0 ? Double.NaN : covariance / Math.sqrt(vx * vy);
+        }
+    }
+}
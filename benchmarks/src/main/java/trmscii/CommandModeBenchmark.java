@@ -0,0 +1,122 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Commands per second through CommandMode, as JSON lines and as TSV, for a
+ * script of profile, marks, fees and payments lookups on random students.
+ * The same lookups driven through the interactive menus, logging in and
+ * out for each one, are timed alongside.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.CommandModeBenchmark [students] [commands]
+ */
+public class CommandModeBenchmark {
+    private static final String[] SUBJECTS = {
+        "English Literature", "English Language", "Mathematics", "Biology", "Chemistry",
+        "Physics", "Geography", "History and Civics", "Hindi", "Computer"
+    };
+    private static final String[] COMMANDS = {"profile", "marks", "fees", "payments"};
+    // The menu choice in the student portal for each command
+    private static final String[] MENU_CHOICES = {"1", "3", "2", "2"};
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int commands = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        SplittableRandom random = new SplittableRandom(42);
+        StudentRegistry registry = new StudentRegistry();
+        for (int roll = 1; roll <= count; roll++) {
+            SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                    roll, "Student " + roll, "Mother", "Father", 1_000_000 + roll);
+            for (String subject : SUBJECTS) {
+                student.addMarks(subject, random.nextInt(ReportCard.MAX_MARK + 1));
+            }
+            for (int year = 2024; year <= 2026; year++) {
+                student.addFeePayment(new SchoolManagementSystem.FeePayment(5000, LocalDate.of(year, 5, 10),
+                        "Online Transfer", "RCT" + roll + "-" + year));
+            }
+            registry.put(student);
+        }
+        SchoolManagementSystem system = new SchoolManagementSystem(registry);
+
+        StringBuilder script = new StringBuilder();
+        StringBuilder menus = new StringBuilder();
+        for (int i = 0; i < commands; i++) {
+            int roll = 1 + random.nextInt(count);
+            int command = random.nextInt(COMMANDS.length);
+            script.append(COMMANDS[command]).append(' ').append(roll).append('\n');
+            // Log in, view, press Enter, log out
+            menus.append("1\n").append(roll).append('\n').append(MENU_CHOICES[command]).append("\n\n8\n");
+        }
+        String input = script.toString();
+        String menuInput = menus.toString();
+        LocalDate today = LocalDate.of(2026, 10, 1);
+
+        for (int round = 0; round < 3; round++) {
+            CountingWriter json = new CountingWriter();
+            long start = System.nanoTime();
+            CommandMode mode = new CommandMode(system, CommandMode.Format.JSON, today);
+            mode.run(new BufferedReader(new StringReader(input)), json);
+            double jsonSeconds = (System.nanoTime() - start) / 1e9;
+
+            CountingWriter tsv = new CountingWriter();
+            start = System.nanoTime();
+            new CommandMode(system, CommandMode.Format.TSV, today).run(new BufferedReader(new StringReader(input)), tsv);
+            double tsvSeconds = (System.nanoTime() - start) / 1e9;
+
+            // The menus are much slower; a tenth of the lookups is enough to time them
+            int menuCommands = commands / 10;
+            String menuPart = menuInput.substring(0, nthLine(menuInput, menuCommands * 6));
+            start = System.nanoTime();
+            system.newSession(new BufferedReader(new StringReader(menuPart)),
+                    new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8)).run();
+            double menuSeconds = (System.nanoTime() - start) / 1e9;
+
+            if (mode.getErrors() != 0) {
+                throw new IllegalStateException(mode.getErrors() + " commands failed");
+            }
+            if (round == 2) {
+                System.out.printf("%,d students, %,d commands\n", count, commands);
+                System.out.printf("  JSON lines:   %,10.0f commands/s (%,d bytes)\n", commands / jsonSeconds, json.chars);
+                System.out.printf("  TSV:          %,10.0f commands/s (%,d bytes)\n", commands / tsvSeconds, tsv.chars);
+                System.out.printf("  menus:        %,10.0f lookups/s\n", menuCommands / menuSeconds);
+            }
+        }
+    }
+
+    // Index just past the n-th newline
+    private static int nthLine(String text, int n) {
+        int index = 0;
+        for (int i = 0; i < n; i++) {
+            index = text.indexOf('\n', index) + 1;
+        }
+        return index;
+    }
+
+    private static final class CountingWriter extends Writer {
+        long chars;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            chars += length;
+        }
+
+        @Override
+        public Writer append(CharSequence text) {
+            chars += text.length();
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package trmscii;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * The fee defaulter job over a large generated school: a full run, an
+ * incremental one after the next instalment comes in from most students,
+ * and another the day after with nothing new. The incremental run must
+ * find exactly what a full run finds, and both must match a plain walk
+ * over every payment history.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -Xmx3g -cp benchmarks/target/benchmarks.jar trmscii.FeeDefaulterBenchmark [students] [workers]
+ */
+public class FeeDefaulterBenchmark {
+    private static final LocalDate FIRST_RUN = LocalDate.of(2026, 6, 1);
+    private static final LocalDate SECOND_RUN = LocalDate.of(2026, 10, 1);
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        SplittableRandom random = new SplittableRandom(42);
+        List<SchoolManagementSystem.Student> students = new ArrayList<>(count);
+        for (int roll = 1; roll <= count; roll++) {
+            SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                    roll, "Student " + roll, "Mother", "Father", 1_000_000 + roll);
+            // Most pay every instalment, some late or short, a few never
+            for (int year = 2024; year <= 2026; year++) {
+                for (int month : new int[] {5, 9}) {
+                    if (year == 2026 && month == 9) {
+                        break;
+                    }
+                    int behaviour = random.nextInt(100);
+                    if (behaviour < 97) {
+                        pay(student, 5000, LocalDate.of(year, month, 1 + random.nextInt(16)));
+                    } else if (behaviour < 99) {
+                        pay(student, 5000, LocalDate.of(year, month, 1).plusDays(16 + random.nextInt(60)));
+                    } else if (random.nextBoolean()) {
+                        pay(student, 2500, LocalDate.of(year, month, 1 + random.nextInt(16)));
+                    }
+                }
+            }
+            students.add(student);
+        }
+
+        Path directory = Files.createTempDirectory("defaulters");
+        FeeDefaulterJob job = new FeeDefaulterJob(FeeSchedule.standard(), workers);
+        // Warm up on a throwaway directory
+        job.run(students, FIRST_RUN, Files.createTempDirectory("defaulters"));
+        FeeDefaulterJob.Result full = job.run(students, FIRST_RUN, directory);
+        System.out.println(full);
+
+        // All but one student in twenty pay the September 2026 instalment before the second run
+        for (int i = 0; i < count; i++) {
+            if (i % 20 != 0) {
+                pay(students.get(i), 5000, LocalDate.of(2026, 9, 10));
+            }
+        }
+        FeeDefaulterJob.Result incremental = job.run(students, SECOND_RUN, directory);
+        System.out.println(incremental);
+        List<String> incrementalReport = sortedReport(directory);
+
+        Path fresh = Files.createTempDirectory("defaulters");
+        FeeDefaulterJob.Result again = job.run(students, SECOND_RUN, fresh);
+        System.out.println(again);
+        if (!incrementalReport.equals(sortedReport(fresh)) || incremental.getDefaulters() != again.getDefaulters()) {
+            throw new IllegalStateException("Incremental run differs from a full run");
+        }
+        System.out.println(job.run(students, SECOND_RUN.plusDays(1), directory));
+
+        long start = System.nanoTime();
+        int naive = naiveDefaulters(students, SECOND_RUN);
+        System.out.printf("Walk over every payment history: %d defaulters in %dms\n",
+                naive, (System.nanoTime() - start) / 1_000_000);
+        if (naive != again.getDefaulters()) {
+            throw new IllegalStateException("Job found " + again.getDefaulters() + " defaulters, walk found " + naive);
+        }
+        System.out.println("Incremental, full and walked results agree");
+    }
+
+    private static void pay(SchoolManagementSystem.Student student, double amount, LocalDate date) {
+        student.addFeePayment(new SchoolManagementSystem.FeePayment(amount, date, "Online Transfer",
+                "RCT" + student.getRollNumber() + "-" + date));
+    }
+
+    private static List<String> sortedReport(Path directory) throws IOException {
+        List<String> lines = Files.readAllLines(directory.resolve(FeeDefaulterJob.REPORT));
+        Collections.sort(lines);
+        return lines;
+    }
+
+    // Adds up each history against every closed window, the way it is done without the ledger's sums
+    private static int naiveDefaulters(List<SchoolManagementSystem.Student> students, LocalDate asOf) {
+        List<FeeSchedule.Instalment> closed = new ArrayList<>();
+        for (FeeSchedule.Instalment instalment : FeeSchedule.standard().instalmentsUpTo(asOf)) {
+            if (instalment.getWindowEnd().isBefore(asOf)) {
+                closed.add(instalment);
+            }
+        }
+        int defaulters = 0;
+        for (SchoolManagementSystem.Student student : students) {
+            double due = 0;
+            for (FeeSchedule.Instalment instalment : closed) {
+                due += instalment.getAmount();
+                double paid = 0;
+                for (SchoolManagementSystem.FeePayment payment : student.getFeePayments()) {
+                    if (!payment.getPaymentDate().isAfter(instalment.getWindowEnd())) {
+                        paid += payment.getAmount();
+                    }
+                }
+                if (paid < due) {
+                    defaulters++;
+                    break;
+                }
+            }
+        }
+        return defaulters;
+    }
+}
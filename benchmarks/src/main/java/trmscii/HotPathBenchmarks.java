@@ -0,0 +1,144 @@
+package trmscii;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH suite for the portal's hot paths, at roster sizes from 10 to 1M:
+ * logging in, the latest fee payment, the academic performance screen, the
+ * notice board's active filter and the time table. Screens are written to
+ * a stream that only counts bytes, and each call returns the count.
+ *
+ * The notice board is the same at every roster size: 1,000 notices of
+ * which one in twenty is still active, so its figures show the filter and
+ * rendering on their own.
+ *
+ * Run with allocation rates, or through BenchmarkGate to compare against
+ * the baseline:
+ *   mvn -B package -DskipTests
+ *   java -jar benchmarks/target/benchmarks.jar HotPathBenchmarks -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class HotPathBenchmarks {
+    private static final String[] SUBJECTS = {
+        "English Literature", "English Language", "Mathematics", "Biology", "Chemistry",
+        "Physics", "Geography", "History and Civics", "Hindi", "Computer"
+    };
+    // Students probed in turn, so lookups are spread over the whole roster
+    private static final int SAMPLE = 4096;
+
+    @State(Scope.Benchmark)
+    public static class Roster {
+        @Param({"10", "1000", "100000", "1000000"})
+        public int size;
+
+        SchoolManagementSystem system;
+        int[] rolls;
+        SchoolManagementSystem.Student[] students;
+
+        @Setup(Level.Trial)
+        public void build() {
+            SplittableRandom random = new SplittableRandom(42);
+            StudentRegistry registry = new StudentRegistry();
+            for (int roll = 1; roll <= size; roll++) {
+                SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                        roll, "Student " + roll, "Mother " + roll, "Father " + roll, 1_000_000 + roll);
+                for (String subject : SUBJECTS) {
+                    student.addMarks(subject, random.nextInt(ReportCard.MAX_MARK + 1));
+                }
+                for (int year = 2024; year <= 2026; year++) {
+                    student.addFeePayment(new SchoolManagementSystem.FeePayment(5000, LocalDate.of(year, 5, 10),
+                            "Online Transfer", "RCT" + roll + "-" + year));
+                }
+                registry.put(student);
+            }
+            system = new SchoolManagementSystem(registry);
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < 1000; i++) {
+                LocalDate expiry = i % 20 == 0 ? today.plusDays(30) : today.minusDays(1 + i % 300);
+                system.addNotice(new SchoolManagementSystem.Notice("Notice " + i,
+                        "Circular number " + i + " for all students and parents.", expiry.minusDays(30), expiry));
+            }
+            // Build the ranking up front rather than in the first measured call
+            system.getRankingEngine();
+
+            rolls = new int[SAMPLE];
+            students = new SchoolManagementSystem.Student[SAMPLE];
+            for (int i = 0; i < SAMPLE; i++) {
+                rolls[i] = 1 + random.nextInt(size);
+                students[i] = registry.get(rolls[i]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        CountingOutputStream bytes;
+        SchoolManagementSystem.PortalSession portal;
+        int next;
+
+        @Setup(Level.Trial)
+        public void open(Roster roster) {
+            bytes = new CountingOutputStream();
+            portal = roster.system.newSession(new BufferedReader(Reader.nullReader()), new PrintStream(bytes));
+            portal.authenticateStudent(roster.rolls[0]);
+        }
+
+        int nextIndex() {
+            next = (next + 1) & (SAMPLE - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public boolean authenticateStudent(Roster roster, Session session) {
+        return session.portal.authenticateStudent(roster.rolls[session.nextIndex()]);
+    }
+
+    @Benchmark
+    public SchoolManagementSystem.FeePayment getLastFeePayment(Roster roster, Session session) {
+        return roster.students[session.nextIndex()].getLastFeePayment();
+    }
+
+    @Benchmark
+    public long displayAcademicPerformance(Roster roster, Session session) {
+        session.portal.authenticateStudent(roster.rolls[session.nextIndex()]);
+        session.portal.displayAcademicPerformance();
+        return session.bytes.count;
+    }
+
+    @Benchmark
+    public long displayNoticeBoard(Session session) {
+        session.portal.displayNoticeBoard();
+        return session.bytes.count;
+    }
+
+    @Benchmark
+    public long displayTimeTable(Session session) {
+        session.portal.displayTimeTable();
+        return session.bytes.count;
+    }
+
+    // Discards what the screens print, keeping only how much
+    static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
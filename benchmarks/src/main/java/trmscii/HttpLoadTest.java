@@ -0,0 +1,228 @@
+package trmscii;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Drives the HTTP API of an in-process school of generated students with
+ * many keep-alive clients, each on its own virtual thread, for a fixed
+ * time after a warm-up. Every client is a parent following one student,
+ * now and then moving on to another at random: it asks for a mix of the
+ * student's profile, marks, fees and timetable and the school's notices,
+ * tests and timetables, accepts gzip, and sends back the ETag it last got
+ * for a URL on most requests, as a browser or the parents' app would.
+ * Only sections with a timetable answer for the students' timetables; the
+ * rest are 404s, counted apart.
+ *
+ * Reports the sustained rate, overall and for the slowest and fastest
+ * second, latency percentiles as the clients saw them, the share of 304s,
+ * the bytes gzip saved, and then the server's own figures per endpoint.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.HttpLoadTest [clients] [seconds] [students] [revalidate %]
+ */
+public class HttpLoadTest {
+    private static final String[] PATHS = {"", "/marks", "/fees", "/fees?offset=2&limit=2", "/timetable"};
+    private static final int WARM_UP_SECONDS = 5;
+
+    // One client's tallies, merged once the run is over
+    private static final class Tally {
+        long[] latencies = new long[1 << 12];
+        int count;
+        long ok;
+        long notModified;
+        long notFound;
+        long failed;
+        long wireBytes;
+        long plainBytes;
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int students = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int revalidatePercent = args.length > 3 ? Integer.parseInt(args[3]) : 80;
+
+        SyntheticSchool school = new SyntheticSchool(42, LocalDate.now(), 1);
+        PartitionedStudentStore roster = new PartitionedStudentStore();
+        school.fill(roster, students);
+        SchoolManagementSystem system = new SchoolManagementSystem(roster);
+        school.addNotices(system, SyntheticSchool.NOTICES);
+        school.addTests(system, SyntheticSchool.TESTS);
+        system.getRankingEngine();
+
+        HttpApi api = new HttpApi(system, 0);
+        api.start();
+        String base = "http://localhost:" + api.getPort() + "/api/";
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.printf("%d clients, %d students, %d%% of requests revalidate, %ds warm-up then %ds measured, %d cores\n",
+                clients, students, revalidatePercent, WARM_UP_SECONDS, seconds, Runtime.getRuntime().availableProcessors());
+
+        LongAdder completed = new LongAdder();
+        long warmUpEnds = System.nanoTime() + WARM_UP_SECONDS * 1_000_000_000L;
+        long runEnds = warmUpEnds + seconds * 1_000_000_000L;
+        List<Tally> tallies = new ArrayList<>();
+        List<Future<?>> running = new ArrayList<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < clients; i++) {
+            Tally tally = new Tally();
+            tallies.add(tally);
+            long seed = i;
+            running.add(executor.submit(() -> {
+                runClient(client, base, new SplittableRandom(seed), students, revalidatePercent,
+                        warmUpEnds, runEnds, tally, completed);
+                return null;
+            }));
+        }
+
+        // Completed requests per measured second
+        Thread.sleep(Math.max(0, (warmUpEnds - System.nanoTime()) / 1_000_000));
+        long[] perSecond = new long[seconds];
+        long before = completed.sum();
+        for (int second = 0; second < seconds; second++) {
+            Thread.sleep(1000);
+            long now = completed.sum();
+            perSecond[second] = now - before;
+            before = now;
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        executor.shutdown();
+        api.close();
+
+        Tally all = new Tally();
+        for (Tally tally : tallies) {
+            for (int i = 0; i < tally.count; i++) {
+                all.record(tally.latencies[i]);
+            }
+            all.ok += tally.ok;
+            all.notModified += tally.notModified;
+            all.notFound += tally.notFound;
+            all.failed += tally.failed;
+            all.wireBytes += tally.wireBytes;
+            all.plainBytes += tally.plainBytes;
+        }
+        long[] latencies = Arrays.copyOf(all.latencies, all.count);
+        Arrays.sort(latencies);
+        long[] sortedSeconds = perSecond.clone();
+        Arrays.sort(sortedSeconds);
+
+        System.out.printf("Requests: %,d (%,d ok, %,d not modified, %,d not found, %,d failed)\n",
+                all.count, all.ok, all.notModified, all.notFound, all.failed);
+        System.out.printf("Sustained: %,.0f requests/s; slowest second %,d, fastest %,d\n",
+                all.count / (double) seconds, sortedSeconds[0], sortedSeconds[seconds - 1]);
+        System.out.printf("Latency: p50 %.0fus, p99 %.0fus, p99.9 %.0fus, max %.0fus\n",
+                percentile(latencies, 0.5) / 1e3, percentile(latencies, 0.99) / 1e3,
+                percentile(latencies, 0.999) / 1e3, latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e3);
+        System.out.printf("304s: %.1f%% of answers; bodies rendered on the server: %,d\n",
+                100.0 * all.notModified / Math.max(1, all.ok + all.notModified), api.getRenderedCount());
+        System.out.printf("Bodies: %,d bytes on the wire for %,d bytes of JSON (gzip saved %.1f%%)\n",
+                all.wireBytes, all.plainBytes, all.plainBytes == 0 ? 0.0 : 100.0 * (all.plainBytes - all.wireBytes) / all.plainBytes);
+        System.out.println();
+        System.out.print(system.getMetrics().toText());
+        if (all.failed > 0) {
+            throw new IllegalStateException(all.failed + " requests failed");
+        }
+    }
+
+    private static void runClient(HttpClient client, String base, SplittableRandom random, int students,
+            int revalidatePercent, long warmUpEnds, long runEnds, Tally tally, LongAdder completed) throws InterruptedException {
+        // The last ETag seen per URL, as a browser cache would keep it
+        Map<String, String> etags = new HashMap<>();
+        int roll = 1 + random.nextInt(students);
+        long now;
+        while ((now = System.nanoTime()) < runEnds) {
+            if (random.nextInt(50) == 0) {
+                roll = 1 + random.nextInt(students);
+            }
+            String url = url(base, random, roll);
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                    .header("Accept-Encoding", "gzip")
+                    .timeout(Duration.ofSeconds(30));
+            String etag = etags.get(url);
+            if (etag != null && random.nextInt(100) < revalidatePercent) {
+                request.header("If-None-Match", etag);
+            }
+            boolean measured = now >= warmUpEnds;
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                long elapsed = System.nanoTime() - start;
+                int status = response.statusCode();
+                response.headers().firstValue("ETag").ifPresent(value -> etags.put(url, value));
+                if (!measured) {
+                    continue;
+                }
+                tally.record(elapsed);
+                completed.increment();
+                if (status == 304) {
+                    tally.notModified++;
+                } else if (status == 404) {
+                    tally.notFound++;
+                } else if (status == 200) {
+                    tally.ok++;
+                    byte[] body = response.body();
+                    tally.wireBytes += body.length;
+                    tally.plainBytes += response.headers().firstValue("Content-Encoding").orElse("").equals("gzip")
+                            ? gunzip(body).length : body.length;
+                } else {
+                    tally.failed++;
+                }
+            } catch (IOException e) {
+                if (measured) {
+                    tally.failed++;
+                }
+            }
+        }
+    }
+
+    // The student's own views three times in four; otherwise notices, tests or 10A's week
+    private static String url(String base, SplittableRandom random, int roll) {
+        int pick = random.nextInt(16);
+        if (pick < 12) {
+            return base + "students/" + roll + PATHS[pick % PATHS.length];
+        }
+        switch (pick) {
+            case 12: return base + "notices";
+            case 13: return base + "notices?offset=50&limit=100";
+            case 14: return base + "tests";
+            default: return base + "timetable/10A";
+        }
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
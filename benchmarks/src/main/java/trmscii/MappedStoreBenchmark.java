@@ -0,0 +1,126 @@
+package trmscii;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Compares the heap roster with the memory-mapped column store: open time,
+ * retained heap and roll-number lookup latency.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -Xmx4g -cp benchmarks/target/benchmarks.jar trmscii.MappedStoreBenchmark 1000000
+ */
+public class MappedStoreBenchmark {
+    private static final String[] SUBJECTS = {"English Literature", "English Language", "Mathematics", "Biology",
+            "Chemistry", "Physics", "Geography", "History and Civics", "Hindi", "Economics"};
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("column-store");
+        try {
+            long start = System.nanoTime();
+            MappedStudentStore.write(dir, generated(count));
+            System.out.printf("Wrote %,d students in %.0fms (%,d bytes on disk)\n",
+                    count, (System.nanoTime() - start) / 1e6, directorySize(dir));
+
+            long heapBefore = usedHeap();
+            start = System.nanoTime();
+            MappedStudentStore mapped = MappedStudentStore.open(dir);
+            long openNanos = System.nanoTime() - start;
+            long mappedHeap = Math.max(0, usedHeap() - heapBefore);
+            System.out.printf("Mapped store:  open %.2fms, retained heap %,d bytes\n", openNanos / 1e6, mappedHeap);
+            measureLookups("Mapped store", mapped, count);
+
+            heapBefore = usedHeap();
+            start = System.nanoTime();
+            StudentRegistry heap = new StudentRegistry();
+            for (SchoolManagementSystem.Student student : generated(count)) {
+                heap.put(student);
+            }
+            long loadNanos = System.nanoTime() - start;
+            long heapRetained = usedHeap() - heapBefore;
+            System.out.printf("Heap store:    load %.2fms, retained heap %,d bytes\n", loadNanos / 1e6, heapRetained);
+            measureLookups("Heap store", heap, count);
+        } finally {
+            try (var paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void measureLookups(String label, StudentStore store, int count) {
+        Random random = new Random(42);
+        int lookups = 5_000_000;
+        int found = 0;
+        // Warm up, then measure authenticateStudent-style existence checks
+        for (int i = 0; i < lookups; i++) {
+            found += store.contains(1 + random.nextInt(count)) ? 1 : 0;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            found += store.contains(1 + random.nextInt(count)) ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-14s contains(): %.1f ns/lookup (%d hits)\n", label, (double) elapsed / lookups, found);
+
+        start = System.nanoTime();
+        int materialised = 100_000;
+        for (int i = 0; i < materialised; i++) {
+            found += store.get(1 + random.nextInt(count)).getRollNumber() > 0 ? 1 : 0;
+        }
+        elapsed = System.nanoTime() - start;
+        System.out.printf("%-14s get():      %.1f ns/lookup\n", label, (double) elapsed / materialised);
+    }
+
+    // Students are generated on demand so writing the store never holds the whole roster
+    private static Collection<SchoolManagementSystem.Student> generated(int count) {
+        return new AbstractCollection<SchoolManagementSystem.Student>() {
+            @Override
+            public Iterator<SchoolManagementSystem.Student> iterator() {
+                return new Iterator<SchoolManagementSystem.Student>() {
+                    private int roll = 1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return roll <= count;
+                    }
+
+                    @Override
+                    public SchoolManagementSystem.Student next() {
+                        int r = roll++;
+                        SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                                r, "Student " + r, "Mother " + r, "Father " + r, 10_000 + r);
+                        for (int s = 0; s < SUBJECTS.length; s++) {
+                            student.addMarks(SUBJECTS[s], (r * 31 + s * 7) % 41);
+                        }
+                        student.addFeePayment(new SchoolManagementSystem.FeePayment(
+                                5000.00, LocalDate.of(2025, 9, 1 + r % 16), "Online Transfer", "RCT" + r));
+                        return student;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        try (var paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package trmscii;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Per-student marks memory and total/percentage cost: the old
+ * HashMap<String, Integer> layout against the primitive arrays in Student.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -Xmx2g -cp benchmarks/target/benchmarks.jar trmscii.MarksMemoryBenchmark
+ */
+public class MarksMemoryBenchmark {
+    private static final String[] SUBJECTS = {"English Literature", "English Language", "Mathematics", "Biology",
+            "Chemistry", "Physics", "Geography", "History and Civics", "Hindi", "Economics"};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        long before = usedHeap();
+        List<Map<String, Integer>> maps = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Integer> marks = new HashMap<>();
+            for (int s = 0; s < SUBJECTS.length; s++) {
+                marks.put(SUBJECTS[s], (i + s * 7) % 41);
+            }
+            maps.add(marks);
+        }
+        double mapBytes = (usedHeap() - before) / (double) count;
+        java.lang.ref.Reference.reachabilityFence(maps);
+
+        // A student's marks are its short[] (sized to the registry) plus the 8-byte subject mask
+        before = usedHeap();
+        List<short[]> arrays = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            arrays.add(new short[SubjectRegistry.shared().size()]);
+        }
+        double arrayBytes = (usedHeap() - before) / (double) count + Long.BYTES;
+        java.lang.ref.Reference.reachabilityFence(arrays);
+
+        List<SchoolManagementSystem.Student> students = newStudents(count);
+        for (int i = 0; i < count; i++) {
+            for (int s = 0; s < SUBJECTS.length; s++) {
+                students.get(i).addMarks(SUBJECTS[s], (i + s * 7) % 41);
+            }
+        }
+
+        System.out.printf("Marks memory per student: HashMap %.1f bytes, primitive arrays %.1f bytes (%.1fx smaller)\n",
+                mapBytes, arrayBytes, mapBytes / arrayBytes);
+
+        // Warm up both paths before measuring time and allocation
+        long sink = 0;
+        for (int round = 0; round < 5; round++) {
+            sink += percentageFromMaps(maps) + percentageFromArrays(students);
+        }
+        measure("HashMap entry iteration", () -> percentageFromMaps(maps), count);
+        measure("Primitive arrays", () -> percentageFromArrays(students), count);
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    private interface Workload {
+        long run();
+    }
+
+    private static void measure(String label, Workload workload, int count) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long sink = workload.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-24s %6.1f ns/student, %6.1f bytes allocated/student (checksum %d)\n",
+                label, (double) elapsed / count, (double) allocated / count, sink);
+    }
+
+    private static long percentageFromMaps(List<Map<String, Integer>> maps) {
+        long sum = 0;
+        for (Map<String, Integer> marks : maps) {
+            int total = 0;
+            int subjects = 0;
+            for (Map.Entry<String, Integer> entry : marks.entrySet()) {
+                total += entry.getValue();
+                subjects++;
+            }
+            sum += (long) ((double) total / (subjects * 40) * 10_000);
+        }
+        return sum;
+    }
+
+    private static long percentageFromArrays(List<SchoolManagementSystem.Student> students) {
+        long sum = 0;
+        for (SchoolManagementSystem.Student student : students) {
+            int total = student.getTotalMarks();
+            int subjects = student.getSubjectCount();
+            sum += (long) ((double) total / (subjects * 40) * 10_000);
+        }
+        return sum;
+    }
+
+    private static List<SchoolManagementSystem.Student> newStudents(int count) {
+        List<SchoolManagementSystem.Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(new SchoolManagementSystem.Student(i + 1, "Student", "Mother", "Father", i));
+        }
+        return students;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
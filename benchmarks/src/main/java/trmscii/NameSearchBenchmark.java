@@ -0,0 +1,146 @@
+package trmscii;
+
+import java.util.*;
+
+/**
+ * Name and parent name lookups on NameIndex over a large generated roster,
+ * next to the scan over every student that a lookup without an index needs.
+ * Families of one to three children share both parents' names, so a query
+ * for a parent should bring back all of them; a short check up front
+ * confirms that, along with prefix and misspelt queries.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -Xmx2g -cp benchmarks/target/benchmarks.jar trmscii.NameSearchBenchmark [students]
+ */
+public class NameSearchBenchmark {
+    private static final String[] MALE = {
+        "Rajiv", "Sunil", "Raktim", "Sumon", "Mintu", "Sanjiv", "Ojha", "Dhiren", "Niresh", "Ashok",
+        "Arjun", "Dhirendra", "Jyotismoye", "Keshabh", "Bikash", "Pranjal", "Hemanta", "Dipankar", "Nayan",
+        "Manash", "Rupam", "Kaushik", "Partha", "Bhaskar", "Utpal", "Ranjit", "Anup", "Gautam", "Rituraj",
+        "Abhijit", "Pankaj", "Jayanta", "Diganta", "Mrinal", "Prasanta", "Rahul", "Amit", "Vikram", "Rohit"
+    };
+    private static final String[] FEMALE = {
+        "Nisha", "Seema", "Neema", "Nirma", "Emon", "Bharti", "Monti", "Sangita", "Sneha", "Manali",
+        "Bhavna", "Debasmita", "Anjali", "Priyanka", "Rashmi", "Pallavi", "Juri", "Moushumi", "Bornali",
+        "Chandana", "Dipali", "Gitanjali", "Jonali", "Kabita", "Lakhi", "Mousumi", "Nabanita", "Puja",
+        "Rimjhim", "Smita", "Trishna", "Upasana", "Barnali", "Ankita", "Priya", "Riya", "Kavita", "Meena"
+    };
+    private static final String[] SURNAMES = {
+        "Borah", "Boruah", "Gogoi", "Deka", "Agarwal", "Mehta", "Jain", "Kalita", "Saikia", "Baruah",
+        "Hazarika", "Phukan", "Dutta", "Sharma", "Das", "Bhuyan", "Chetia", "Konwar", "Handique", "Rajkhowa",
+        "Bordoloi", "Goswami", "Mahanta", "Nath", "Medhi", "Talukdar", "Choudhury", "Sonowal", "Tamuli",
+        "Barman", "Chutia", "Dowerah", "Gohain", "Khound", "Lahon", "Neog", "Pegu", "Rabha", "Sarmah", "Thakuria"
+    };
+    private static final String[] QUERIES = {
+        "Mrs. Anjali Borah", "Rajiv Gogoi", "priy bor", "Hazarka", "Bordoloi", "Mr Dipankar Saikia", "kau"
+    };
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) {
+        check();
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        SplittableRandom random = new SplittableRandom(42);
+        StudentRegistry registry = new StudentRegistry();
+        NameIndex index = new NameIndex(registry);
+        long start = System.nanoTime();
+        int roll = 1;
+        while (roll <= count) {
+            String surname = SURNAMES[random.nextInt(SURNAMES.length)];
+            String father = MALE[random.nextInt(MALE.length)] + " " + surname;
+            String mother = FEMALE[random.nextInt(FEMALE.length)] + " " + surname;
+            for (int child = 1 + random.nextInt(3); child > 0 && roll <= count; child--, roll++) {
+                String first = random.nextBoolean() ? MALE[random.nextInt(MALE.length)] : FEMALE[random.nextInt(FEMALE.length)];
+                SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                        roll, first + " " + surname, mother, father, 1_000_000 + roll);
+                registry.put(student);
+                index.add(student);
+            }
+        }
+        System.out.printf("Indexed %,d students in %.0fms\n", index.size(), (System.nanoTime() - start) / 1e6);
+
+        List<SchoolManagementSystem.Student> roster = new ArrayList<>(registry.values());
+        for (String query : QUERIES) {
+            for (int i = 0; i < 50; i++) {
+                index.search(query, 10);
+                index.families(query, 10);
+            }
+        }
+        System.out.printf("%-22s | %10s | %10s | %12s\n", "query", "students", "families", "scan");
+        for (String query : QUERIES) {
+            long begin = System.nanoTime();
+            List<NameIndex.Match> matches = null;
+            for (int i = 0; i < ROUNDS; i++) {
+                matches = index.search(query, 10);
+            }
+            double searchMicros = (System.nanoTime() - begin) / 1e3 / ROUNDS;
+
+            begin = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                index.families(query, 10);
+            }
+            double familyMicros = (System.nanoTime() - begin) / 1e3 / ROUNDS;
+
+            // The scan only matches exact substrings of the words after a title, less than the index offers
+            String[] words = query.toLowerCase(Locale.ROOT).replaceFirst("^(mrs?\\.?) ", "").split(" ");
+            begin = System.nanoTime();
+            int scanned = 0;
+            for (int i = 0; i < 5; i++) {
+                scanned = scan(roster, words);
+            }
+            double scanMicros = (System.nanoTime() - begin) / 1e3 / 5;
+            System.out.printf("%-22s | %8.1fus | %8.1fus | %10.0fus   (%d hits, scan found %,d)\n",
+                    query, searchMicros, familyMicros, scanMicros, matches.size(), scanned);
+        }
+    }
+
+    private static int scan(List<SchoolManagementSystem.Student> roster, String[] words) {
+        int found = 0;
+        for (SchoolManagementSystem.Student student : roster) {
+            String names = (student.getName() + " " + student.getMotherName() + " " + student.getFatherName())
+                    .toLowerCase(Locale.ROOT);
+            boolean all = true;
+            for (String word : words) {
+                all &= names.contains(word);
+            }
+            if (all) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static void check() {
+        StudentRegistry registry = new StudentRegistry();
+        NameIndex index = new NameIndex(registry);
+        String[][] students = {
+            {"Debasmita Borah", "Nirma Borah", "Sumon Borah"},
+            {"Mintu Borah", "Nirma Borah", "Sumon Borah"},
+            {"Nisha Boruah", "Sangita Boruah", "Dhiren Boruah"},
+            {"Priyanka Gogoi", "Anjali Gogoi", "Raktim Gogoi"}
+        };
+        for (int i = 0; i < students.length; i++) {
+            SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                    i + 1, students[i][0], students[i][1], students[i][2], 100 + i);
+            registry.put(student);
+            index.add(student);
+        }
+        index.add(registry.get(1));
+        expect(index.size() == 4, "a student added twice is indexed once");
+
+        List<NameIndex.Family> families = index.families("Mrs. Nirma Borah", 10);
+        expect(families.size() == 1 && families.get(0).getChildren().size() == 2, "both children of a mother");
+        expect(families.get(0).getSurname().equals("Borah"), "family surname");
+        expect(index.families("Mr Nirma", 10).isEmpty(), "Mr limits a query to fathers");
+        expect(index.search("priy", 10).get(0).getStudent().getRollNumber() == 4, "prefix");
+        expect(index.search("Boruha", 10).get(0).getStudent().getRollNumber() == 3, "transposed letters");
+        expect(index.search("Debasmita Borah", 10).get(0).getStudent().getRollNumber() == 1, "full name first");
+        expect(index.search("Zzyzx", 10).isEmpty(), "no match");
+    }
+
+    private static void expect(boolean condition, String what) {
+        if (!condition) {
+            throw new IllegalStateException("Check failed: " + what);
+        }
+    }
+}
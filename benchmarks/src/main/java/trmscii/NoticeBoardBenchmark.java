@@ -0,0 +1,118 @@
+package trmscii;
+
+import java.time.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of "active today" and "posted in the last week" as the history of
+ * notices grows, on the indexed NoticeBoard against the full scan the
+ * notice board used to do. The board runs on a hand-advanced clock, so the
+ * run also checks that crossing midnight retires the notices that expired.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.NoticeBoardBenchmark
+ */
+public class NoticeBoardBenchmark {
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+    private static final int QUERIES = 2_000;
+
+    // A clock that only moves when told to
+    private static final class ManualClock extends Clock {
+        private volatile Instant now;
+
+        ManualClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    public static void main(String[] args) {
+        checkExpiry();
+        System.out.printf("%10s | %14s | %14s | %14s | %14s\n",
+                "notices", "active (index)", "active (scan)", "week (index)", "week (scan)");
+        for (int count = 1_000; count <= 1_000_000; count *= 10) {
+            ManualClock clock = new ManualClock(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant());
+            NoticeBoard board = new NoticeBoard(clock);
+            List<SchoolManagementSystem.Notice> list = new ArrayList<>(count);
+            // Spread over the past ten years, each open for a month; the newest few are still active
+            for (int i = 0; i < count; i++) {
+                LocalDate posted = TODAY.minusDays(3650L * (count - 1 - i) / count);
+                SchoolManagementSystem.Notice notice = new SchoolManagementSystem.Notice(
+                        "Notice " + i, "Content of notice " + i, posted, posted.plusDays(30));
+                board.add(notice);
+                list.add(notice);
+            }
+            LocalDate weekAgo = TODAY.minusDays(6);
+
+            double activeIndexed = time(() -> board.active().size());
+            double activeScan = time(() -> list.stream()
+                    .filter(notice -> !TODAY.isAfter(notice.getExpiryDate()))
+                    .collect(Collectors.toList()).size());
+            double weekIndexed = time(() -> board.postedInLast(7).size());
+            double weekScan = time(() -> list.stream()
+                    .filter(notice -> !notice.getPostDate().isBefore(weekAgo) && !notice.getPostDate().isAfter(TODAY))
+                    .collect(Collectors.toList()).size());
+            System.out.printf("%,10d | %11.2fus | %11.2fus | %11.2fus | %11.2fus\n",
+                    count, activeIndexed, activeScan, weekIndexed, weekScan);
+        }
+    }
+
+    private interface Query {
+        int run();
+    }
+
+    // Mean microseconds per query
+    private static double time(Query query) {
+        long sink = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            sink += query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            sink += query.run();
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / QUERIES;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return micros;
+    }
+
+    private static void checkExpiry() {
+        ManualClock clock = new ManualClock(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant());
+        NoticeBoard board = new NoticeBoard(clock);
+        board.add(new SchoolManagementSystem.Notice("Short", "Ends today", TODAY.minusDays(3), TODAY));
+        board.add(new SchoolManagementSystem.Notice("Long", "Ends next week", TODAY, TODAY.plusDays(7)));
+        board.add(new SchoolManagementSystem.Notice("Old", "Ended last year", TODAY.minusYears(1), TODAY.minusYears(1)));
+        if (board.active().size() != 2) {
+            throw new IllegalStateException("Expected 2 active notices, found " + board.active().size());
+        }
+        clock.advance(Duration.ofDays(1));
+        if (board.active().size() != 1 || !board.active().get(0).getTitle().equals("Long")) {
+            throw new IllegalStateException("Expired notice still active after midnight");
+        }
+        if (board.postedInLast(7).size() != 2) {
+            throw new IllegalStateException("Expected 2 notices posted in the last week");
+        }
+    }
+}
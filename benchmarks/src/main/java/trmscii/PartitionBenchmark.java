@@ -0,0 +1,70 @@
+package trmscii;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * The flat StudentRegistry against the PartitionedStudentStore as a group
+ * grows from one school to many, at a fixed number of students per school:
+ * filling the roster, looking every student up by roll number, and the fee
+ * totals per section, summed in one pass over the flat roster and fanned
+ * out over the partitions. Reports students per second, best of several
+ * rounds; with a core per few schools the fanned-out totals should keep
+ * pace as schools are added. Both rosters must give the same totals.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -Xmx3g -cp benchmarks/target/benchmarks.jar trmscii.PartitionBenchmark [students per school] [max schools] [rounds]
+ */
+public class PartitionBenchmark {
+    public static void main(String[] args) {
+        int perSchool = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int maxSchools = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        System.out.printf("%d students per school, %d cores\n", perSchool, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %-12s %14s %14s %14s\n", "Schools", "Roster", "fill/s", "lookup/s", "totals/s");
+
+        for (int schools = 1; schools <= maxSchools; schools *= 2) {
+            int count = perSchool * schools;
+            List<SchoolManagementSystem.Student> students =
+                    new ArrayList<>(new SyntheticSchool(42, LocalDate.of(2026, 10, 1), schools).students(count));
+            String flatTotals = null;
+            for (boolean partitioned : new boolean[] {false, true}) {
+                long bestFill = Long.MAX_VALUE;
+                long bestLookup = Long.MAX_VALUE;
+                long bestTotals = Long.MAX_VALUE;
+                String totals = null;
+                for (int round = 0; round < rounds; round++) {
+                    StudentStore store = partitioned ? new PartitionedStudentStore() : new StudentRegistry();
+                    long start = System.nanoTime();
+                    for (SchoolManagementSystem.Student student : students) {
+                        store.put(student);
+                    }
+                    bestFill = Math.min(bestFill, System.nanoTime() - start);
+
+                    start = System.nanoTime();
+                    long found = 0;
+                    for (int roll = 1; roll <= count; roll++) {
+                        found += store.get(roll).getAdmissionNumber();
+                    }
+                    bestLookup = Math.min(bestLookup, System.nanoTime() - start);
+                    if (found == 0) {
+                        throw new IllegalStateException();
+                    }
+
+                    start = System.nanoTime();
+                    totals = FeeTotals.of(store).toTsv();
+                    bestTotals = Math.min(bestTotals, System.nanoTime() - start);
+                }
+                if (!partitioned) {
+                    flatTotals = totals;
+                } else if (!totals.equals(flatTotals)) {
+                    throw new IllegalStateException("Partitioned fee totals differ from the flat roster's");
+                }
+                System.out.printf("%-8d %-12s %,14.0f %,14.0f %,14.0f\n", schools, partitioned ? "partitioned" : "flat",
+                        count / (bestFill / 1e9), count / (bestLookup / 1e9), count / (bestTotals / 1e9));
+            }
+        }
+        System.out.println("Flat and partitioned totals match: ok");
+    }
+}
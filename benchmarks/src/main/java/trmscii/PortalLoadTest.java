@@ -0,0 +1,95 @@
+package trmscii;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens thousands of simultaneous portal sessions against an in-process
+ * PortalServer. Every client logs in and views its profile, then holds its
+ * session open until all clients are connected, so the reported peak is the
+ * real concurrency level the server sustained. The portal's own latency
+ * figures for the logins and profile views follow the totals.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.PortalLoadTest 5000
+ */
+public class PortalLoadTest {
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        SchoolManagementSystem system = new SchoolManagementSystem();
+        PortalServer server = new PortalServer(system, 0, 60_000);
+        server.start();
+
+        CountDownLatch allLoggedIn = new CountDownLatch(clients);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int rollNumber = 1 + i % 10;
+                executor.execute(() -> {
+                    try {
+                        runClient(server.getPort(), rollNumber, allLoggedIn);
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                        allLoggedIn.countDown();
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        server.close();
+
+        System.out.printf("Clients: %d, failures: %d\n", clients, failures.get());
+        System.out.printf("Peak concurrent sessions: %d\n", server.getPeakSessions());
+        System.out.printf("Total time: %.0fms (%.0f sessions/s)\n", elapsed / 1e6, clients / (elapsed / 1e9));
+        System.out.println();
+        System.out.print(system.getMetrics().toText());
+    }
+
+    private static void runClient(int port, int rollNumber, CountDownLatch allLoggedIn) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            Reader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+
+            readUntil(in, "Enter your choice: ");
+            send(out, "1");
+            readUntil(in, "): ");
+            send(out, String.valueOf(rollNumber));
+            readUntil(in, "Enter your choice: ");
+            send(out, "1");
+            readUntil(in, "Press Enter to continue...");
+            send(out, "");
+            readUntil(in, "Enter your choice: ");
+
+            // Hold the session open until every client has logged in
+            allLoggedIn.countDown();
+            allLoggedIn.await();
+
+            send(out, "9");
+            readUntil(in, "betterment of every child.");
+        }
+    }
+
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write("\n");
+        out.flush();
+    }
+
+    private static void readUntil(Reader in, String marker) throws IOException {
+        StringBuilder received = new StringBuilder();
+        int c;
+        while ((c = in.read()) >= 0) {
+            received.append((char) c);
+            if (received.length() >= marker.length()
+                    && received.lastIndexOf(marker, received.length() - marker.length()) >= 0) {
+                return;
+            }
+        }
+        throw new EOFException("Server closed the connection before \"" + marker + "\"");
+    }
+}
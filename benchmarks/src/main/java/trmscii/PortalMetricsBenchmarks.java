@@ -0,0 +1,46 @@
+package trmscii;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * What timing a portal action costs: both clock reads and the record into
+ * the histogram, on one thread and on four threads recording the same
+ * action at once. It has to stay well under 100ns to be left on in
+ * production.
+ *
+ *   mvn -B package -DskipTests
+ *   java -jar benchmarks/target/benchmarks.jar PortalMetricsBenchmarks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortalMetricsBenchmarks {
+    private final PortalMetrics metrics = new PortalMetrics();
+
+    @Benchmark
+    @Threads(1)
+    public void recordOneThread() {
+        long start = System.nanoTime();
+        metrics.record(PortalMetrics.Action.PROFILE, System.nanoTime() - start, false);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordFourThreads() {
+        long start = System.nanoTime();
+        metrics.record(PortalMetrics.Action.PROFILE, System.nanoTime() - start, false);
+    }
+
+    // The clock reads alone, to tell them apart from the recording
+    @Benchmark
+    @Threads(1)
+    public long clockOnly() {
+        long start = System.nanoTime();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,135 @@
+package trmscii;
+
+import java.util.*;
+
+/**
+ * Rank, percentile and top 10 from RankingEngine on a large generated class,
+ * next to sorting every student's marks per request, which is what ranking
+ * without the engine takes. Also times entering marks with the engine
+ * following them, and checks its answers against brute force after a run
+ * of random re-marks.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -Xmx2g -cp benchmarks/target/benchmarks.jar trmscii.RankingBenchmark [students]
+ */
+public class RankingBenchmark {
+    private static final String[] SUBJECTS = {
+        "English Literature", "English Language", "Mathematics", "Biology", "Chemistry",
+        "Physics", "Geography", "History and Civics", "Hindi", "Computer"
+    };
+    private static final int QUERIES = 100_000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        SplittableRandom random = new SplittableRandom(42);
+        StudentRegistry registry = new StudentRegistry();
+        for (int roll = 1; roll <= count; roll++) {
+            SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                    roll, "Student " + roll, "Mother", "Father", 1_000_000 + roll);
+            for (String subject : SUBJECTS) {
+                student.addMarks(subject, mark(random));
+            }
+            registry.put(student);
+        }
+        SchoolManagementSystem.Student[] students = registry.values().toArray(new SchoolManagementSystem.Student[0]);
+
+        long start = System.nanoTime();
+        RankingEngine engine = new RankingEngine(registry);
+        engine.addAll(registry.values());
+        System.out.printf("Ranked %,d students in %d subjects in %.0fms\n",
+                engine.rankedCount(), SUBJECTS.length, (System.nanoTime() - start) / 1e6);
+
+        int updates = 1_000_000;
+        start = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            students[random.nextInt(count)].addMarks(SUBJECTS[random.nextInt(SUBJECTS.length)], mark(random));
+        }
+        System.out.printf("Re-marked %,d times while ranked: %.0f ns per mark\n",
+                updates, (System.nanoTime() - start) / (double) updates);
+        check(engine, students);
+
+        for (int round = 0; round < 2; round++) {
+            long sink = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += engine.rank(students[i % count]);
+            }
+            double rank = (System.nanoTime() - start) / (double) QUERIES;
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += (long) engine.percentile(students[i % count], "Mathematics");
+            }
+            double percentile = (System.nanoTime() - start) / (double) QUERIES;
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += engine.top("Physics", 10).size();
+            }
+            double top = (System.nanoTime() - start) / (double) QUERIES;
+
+            int sorts = 5;
+            start = System.nanoTime();
+            for (int i = 0; i < sorts; i++) {
+                sink += sortedRank(students, students[i]);
+            }
+            double sorted = (System.nanoTime() - start) / (double) sorts;
+
+            if (round == 1) {
+                System.out.printf("  rank in class:          %8.0f ns (sorting all: %,.0f ns)\n", rank, sorted);
+                System.out.printf("  percentile in Maths:    %8.0f ns\n", percentile);
+                System.out.printf("  top 10 in Physics:      %8.0f ns\n", top);
+            }
+            if (sink == 42) {
+                System.out.print("");
+            }
+        }
+    }
+
+    // Roughly bell-shaped around 26 out of 40
+    private static int mark(SplittableRandom random) {
+        return Math.min(40, Math.max(0, (int) Math.round(26 + 7 * random.nextGaussian())));
+    }
+
+    // Ranking the way a request would without the engine: percentage of everyone, sorted
+    private static int sortedRank(SchoolManagementSystem.Student[] students, SchoolManagementSystem.Student of) {
+        double[] percentages = new double[students.length];
+        for (int i = 0; i < students.length; i++) {
+            percentages[i] = ReportCard.of(students[i]).getPercentage();
+        }
+        Arrays.sort(percentages);
+        double mine = ReportCard.of(of).getPercentage();
+        int above = 0;
+        for (int i = percentages.length - 1; i >= 0 && percentages[i] > mine; i--) {
+            above++;
+        }
+        return above + 1;
+    }
+
+    private static void check(RankingEngine engine, SchoolManagementSystem.Student[] students) {
+        SplittableRandom random = new SplittableRandom(7);
+        int subject = SubjectRegistry.shared().lookup("Physics");
+        for (int i = 0; i < 20; i++) {
+            SchoolManagementSystem.Student student = students[random.nextInt(students.length)];
+            int above = 0;
+            for (SchoolManagementSystem.Student other : students) {
+                if (other.getMark(subject) > student.getMark(subject)) {
+                    above++;
+                }
+            }
+            if (engine.rank(student, "Physics") != above + 1) {
+                throw new IllegalStateException("Physics rank of roll " + student.getRollNumber() + " is off");
+            }
+        }
+        List<SchoolManagementSystem.Student> top = engine.top("Physics", 10);
+        SchoolManagementSystem.Student[] expected = students.clone();
+        Arrays.sort(expected, Comparator.comparingInt((SchoolManagementSystem.Student s) -> -s.getMark(subject))
+                .thenComparingInt(SchoolManagementSystem.Student::getRollNumber));
+        for (int i = 0; i < 10; i++) {
+            if (top.get(i) != expected[i]) {
+                throw new IllegalStateException("Top 10 in Physics differs at " + (i + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package trmscii;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read throughput of the striped StudentRegistry as reader threads are added,
+ * next to a synchronized HashMap, while one writer keeps entering marks and
+ * payments. Each read is what a report view does: look the student up, total
+ * the marks and fetch the last fee payment.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.RegistryScalingBenchmark
+ */
+public class RegistryScalingBenchmark {
+    private static final int STUDENTS = 100_000;
+    private static final long RUN_MILLIS = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        StudentRegistry registry = new StudentRegistry();
+        Map<Integer, SchoolManagementSystem.Student> locked = Collections.synchronizedMap(new HashMap<>());
+        for (int roll = 1; roll <= STUDENTS; roll++) {
+            SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                    roll, "Student " + roll, "Mother", "Father", 10_000 + roll);
+            student.addMarks("Mathematics", roll % 41);
+            student.addMarks("Physics", (roll * 7) % 41);
+            student.addFeePayment(new SchoolManagementSystem.FeePayment(
+                    5000.00, LocalDate.of(2025, 5, 1 + roll % 16), "Online Transfer", "RCT" + roll));
+            registry.put(student);
+            locked.put(roll, student);
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%8s | %22s | %22s\n", "readers", "StudentRegistry ops/s", "synchronized map ops/s");
+        double registryBase = 0;
+        for (int readers = 1; readers <= cores; readers *= 2) {
+            double registryRate = measure(readers, registry::get);
+            double lockedRate = measure(readers, locked::get);
+            if (readers == 1) {
+                registryBase = registryRate;
+            }
+            System.out.printf("%8d | %,15.0f (%4.1fx) | %,22.0f\n",
+                    readers, registryRate, registryRate / registryBase, lockedRate);
+        }
+    }
+
+    private interface Lookup {
+        SchoolManagementSystem.Student get(int rollNumber);
+    }
+
+    private static double measure(int readers, Lookup lookup) throws Exception {
+        LongAdder operations = new LongAdder();
+        ExecutorService pool = Executors.newFixedThreadPool(readers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+
+        // One writer entering marks and payments throughout the run
+        pool.execute(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                SchoolManagementSystem.Student student = lookup.get(1 + random.nextInt(STUDENTS));
+                student.addMarks("Chemistry", random.nextInt(41));
+                if (random.nextInt(8) == 0) {
+                    student.addFeePayment(new SchoolManagementSystem.FeePayment(
+                            5000.00, LocalDate.of(2025, 9, 1 + random.nextInt(16)), "Online Transfer", "RCT"));
+                }
+            }
+        });
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                long sink = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 256; i++) {
+                        SchoolManagementSystem.Student student = lookup.get(1 + random.nextInt(STUDENTS));
+                        sink += student.getTotalMarks();
+                        sink += student.getLastFeePayment().getPaymentDate().getDayOfMonth();
+                    }
+                    local += 256;
+                }
+                operations.add(local);
+                return sink;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return operations.sum() / (RUN_MILLIS / 1000.0);
+    }
+}
@@ -0,0 +1,132 @@
+package trmscii;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Views per second when sessions render profiles, academic performance,
+ * notices and tests afresh on every view, against the same views served
+ * through RenderCache. A writer keeps entering marks and revising a notice,
+ * so the cached side also pays for invalidation.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.RenderCacheBenchmark [viewer threads]
+ */
+public class RenderCacheBenchmark {
+    private static final int STUDENTS = 1_000;
+    private static final long RUN_MILLIS = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        int viewers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        SchoolManagementSystem system = new SchoolManagementSystem();
+        for (int roll = 11; roll < 11 + STUDENTS; roll++) {
+            SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                    roll, "Student " + roll, "Mother " + roll, "Father " + roll, 50_000 + roll);
+            student.addMarks("Mathematics", roll % 41);
+            student.addMarks("Physics", (roll * 7) % 41);
+            student.addMarks("Chemistry", (roll * 13) % 41);
+            system.addStudent(student);
+        }
+        SchoolManagementSystem.Student[] roster = system.getStudents().toArray(new SchoolManagementSystem.Student[0]);
+        List<SchoolManagementSystem.Notice> notices = system.getNotices();
+        List<SchoolManagementSystem.Test> tests = system.getUpcomingTests();
+        RenderCache cache = system.getRenderCache();
+
+        checkInvalidation(system, cache, roster[0], notices.get(0));
+
+        Viewer direct = (student, notice, test) -> student.displayProfile().length()
+                + ReportCard.of(student).toText().length() + notice.toString().length() + test.toString().length();
+        Viewer cached = (student, notice, test) ->
+                cache.get(RenderCache.View.PROFILE, student, 0, SchoolManagementSystem.Student::displayProfile).length()
+                + cache.get(RenderCache.View.ACADEMIC_PERFORMANCE, student, student.getVersion(),
+                        s -> ReportCard.of(s).toText()).length()
+                + cache.get(RenderCache.View.NOTICE, notice, notice.getVersion(),
+                        SchoolManagementSystem.Notice::toString).length()
+                + cache.get(RenderCache.View.TEST, test, 0, SchoolManagementSystem.Test::toString).length();
+
+        // Warm up both paths first
+        measure(viewers, roster, notices, tests, system, direct);
+        measure(viewers, roster, notices, tests, system, cached);
+
+        double directRate = measure(viewers, roster, notices, tests, system, direct);
+        double cachedRate = measure(viewers, roster, notices, tests, system, cached);
+        System.out.printf("%d viewers, %,d students\n", viewers, roster.length);
+        System.out.printf("  rendered every time: %,12.0f views/s\n", directRate);
+        System.out.printf("  through the cache:   %,12.0f views/s (%.1fx)\n", cachedRate, cachedRate / directRate);
+        System.out.println("  cache: " + cache);
+    }
+
+    private interface Viewer {
+        int view(SchoolManagementSystem.Student student, SchoolManagementSystem.Notice notice,
+                 SchoolManagementSystem.Test test);
+    }
+
+    private static void checkInvalidation(SchoolManagementSystem system, RenderCache cache,
+                                          SchoolManagementSystem.Student student,
+                                          SchoolManagementSystem.Notice notice) {
+        String before = cache.get(RenderCache.View.ACADEMIC_PERFORMANCE, student, student.getVersion(),
+                s -> ReportCard.of(s).toText());
+        student.addMarks("Economics", 33);
+        String after = cache.get(RenderCache.View.ACADEMIC_PERFORMANCE, student, student.getVersion(),
+                s -> ReportCard.of(s).toText());
+        system.updateNotice(notice, notice.getTitle(), "Revised: " + notice.getContent(), notice.getExpiryDate());
+        String noticeText = cache.get(RenderCache.View.NOTICE, notice, notice.getVersion(),
+                SchoolManagementSystem.Notice::toString);
+        if (before.equals(after) || !after.contains("Economics") || !noticeText.contains("Revised: ")) {
+            throw new IllegalStateException("Cache served a stale rendering");
+        }
+    }
+
+    private static double measure(int viewers, SchoolManagementSystem.Student[] roster,
+                                  List<SchoolManagementSystem.Notice> notices,
+                                  List<SchoolManagementSystem.Test> tests,
+                                  SchoolManagementSystem system, Viewer viewer) throws Exception {
+        LongAdder views = new LongAdder();
+        ExecutorService pool = Executors.newFixedThreadPool(viewers + 1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+
+        // Marks every millisecond or so, and a notice revision every 100ms
+        pool.execute(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long nextRevision = 0;
+            while (System.nanoTime() < deadline) {
+                roster[random.nextInt(roster.length)].addMarks("Biology", random.nextInt(41));
+                if (System.nanoTime() > nextRevision) {
+                    SchoolManagementSystem.Notice notice = notices.get(random.nextInt(notices.size()));
+                    system.updateNotice(notice, notice.getTitle(), notice.getContent(), LocalDate.now().plusDays(30));
+                    nextRevision = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        });
+
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int v = 0; v < viewers; v++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                long sink = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 64; i++) {
+                        sink += viewer.view(roster[random.nextInt(roster.length)],
+                                notices.get(random.nextInt(notices.size())),
+                                tests.get(random.nextInt(tests.size())));
+                    }
+                    local += 64;
+                }
+                views.add(local);
+                return sink;
+            }));
+        }
+        for (Future<Long> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return views.sum() / (RUN_MILLIS / 1000.0);
+    }
+}
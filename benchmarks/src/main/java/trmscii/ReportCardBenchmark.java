@@ -0,0 +1,72 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Time to grade the whole school: the fork-join ReportCardGenerator against
+ * a sequential loop over the same roster, with a growing number of workers.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.ReportCardBenchmark [students]
+ */
+public class ReportCardBenchmark {
+    private static final String[] SUBJECTS = {
+        "English Literature", "English Language", "Mathematics", "Biology", "Chemistry",
+        "Physics", "Geography", "History and Civics", "Hindi", "Computer"
+    };
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        SplittableRandom random = new SplittableRandom(42);
+        List<SchoolManagementSystem.Student> students = new ArrayList<>(count);
+        for (int roll = 1; roll <= count; roll++) {
+            SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                    roll, "Student " + roll, "Mother", "Father", 10_000 + roll);
+            for (String subject : SUBJECTS) {
+                student.addMarks(subject, random.nextInt(ReportCard.MAX_MARK + 1));
+            }
+            students.add(student);
+        }
+        // Shuffle so both sides pay for putting the cards back in roll order
+        Collections.shuffle(students, new Random(42));
+
+        // Warm both paths up before timing either
+        best(() -> ReportCardGenerator.generateSequentially(students));
+        best(() -> new ReportCardGenerator().generate(students));
+
+        double sequential = best(() -> ReportCardGenerator.generateSequentially(students));
+        System.out.printf("%,d students, best of %d rounds\n", count, ROUNDS);
+        System.out.printf("%12s | %10s | %8s\n", "workers", "time", "speed-up");
+        System.out.printf("%12s | %8.1fms | %7.2fx\n", "sequential", sequential, 1.0);
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int workers = 1; workers <= cores; workers *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            ReportCardGenerator generator = new ReportCardGenerator(pool);
+            double forkJoin = best(() -> generator.generate(students));
+            pool.shutdown();
+            System.out.printf("%12d | %8.1fms | %7.2fx\n", workers, forkJoin, sequential / forkJoin);
+        }
+    }
+
+    private interface Run {
+        ReportCard[] get();
+    }
+
+    private static double best(Run run) {
+        double best = Double.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            ReportCard[] cards = run.get();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            sink += cards[cards.length - 1].getTotalMarks();
+        }
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return best;
+    }
+}
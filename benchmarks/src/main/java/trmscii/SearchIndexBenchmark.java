@@ -0,0 +1,166 @@
+package trmscii;
+
+import java.time.*;
+import java.util.*;
+
+/**
+ * Query latency of SearchIndex over a large generated archive of notices
+ * and tests, for single terms, prefixes, phrases and combinations. Words
+ * are drawn from a Zipf distribution over a few thousand terms, as in real
+ * text, with school words placed at the common end. The index runs on a
+ * fixed clock so expiry is deterministic; a short check up front confirms
+ * phrase, prefix, stop word and expiry behaviour on known documents.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.SearchIndexBenchmark [documents]
+ */
+public class SearchIndexBenchmark {
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+    private static final String[] WORDS = {
+        "annual", "sports", "meet", "registration", "fees", "installment", "holiday", "examination",
+        "practical", "physics", "chemistry", "mathematics", "trigonometry", "statistics", "library",
+        "assembly", "parents", "meeting", "uniform", "bus", "route", "science", "exhibition", "project",
+        "submission", "chapter", "syllabus", "revision", "schedule", "classes", "morning", "evening",
+        "school", "students", "teachers", "notice", "online", "payment", "late", "fine", "week", "day"
+    };
+    private static final int VOCABULARY = 5_000;
+    private static final String[] QUERIES = {
+        "sports", "trigonom*", "\"annual sports meet\"", "physics practical", "exam*", "\"late fine\" fees",
+        "s*", "library revision schedule"
+    };
+
+    public static void main(String[] args) {
+        check();
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        Clock clock = Clock.fixed(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+        SearchIndex index = new SearchIndex(clock);
+        SplittableRandom random = new SplittableRandom(42);
+        String[] vocabulary = new String[VOCABULARY];
+        double[] cumulative = new double[VOCABULARY];
+        double total = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            vocabulary[rank] = rank < WORDS.length ? WORDS[rank] : "w" + Integer.toString(rank, 36);
+            total += 1.0 / (rank + 1);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            cumulative[rank] /= total;
+        }
+        Text text = new Text(vocabulary, cumulative, random);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            LocalDate posted = TODAY.minusDays(random.nextInt(30));
+            LocalDate until = TODAY.plusDays(1 + random.nextInt(365));
+            if (i % 4 == 0) {
+                index.add(new SchoolManagementSystem.Test(text.words(1), text.words(6), until, text.words(20), 50));
+            } else {
+                index.add(new SchoolManagementSystem.Notice(text.words(4), text.words(40), posted, until));
+            }
+        }
+        System.out.printf("Indexed %,d documents in %.0fms\n", index.size(), (System.nanoTime() - start) / 1e6);
+
+        for (String query : QUERIES) {
+            for (int i = 0; i < 50; i++) {
+                index.search(query, 10);
+            }
+        }
+        System.out.printf("%-28s | %10s | %10s\n", "query", "mean", "top score");
+        for (String query : QUERIES) {
+            int rounds = 200;
+            List<SearchIndex.Hit> hits = null;
+            long begin = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                hits = index.search(query, 10);
+            }
+            double micros = (System.nanoTime() - begin) / 1e3 / rounds;
+            System.out.printf("%-28s | %8.1fus | %10.2f\n", query, micros, hits.isEmpty() ? 0 : hits.get(0).getScore());
+        }
+    }
+
+    private static final class Text {
+        final String[] vocabulary;
+        final double[] cumulative;
+        final SplittableRandom random;
+
+        Text(String[] vocabulary, double[] cumulative, SplittableRandom random) {
+            this.vocabulary = vocabulary;
+            this.cumulative = cumulative;
+            this.random = random;
+        }
+
+        String words(int count) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    text.append(' ');
+                }
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+                text.append(vocabulary[Math.min(vocabulary.length - 1, rank < 0 ? -rank - 1 : rank)]);
+            }
+            return text.toString();
+        }
+    }
+
+    private static void check() {
+        MutableClock clock = new MutableClock(TODAY);
+        SearchIndex index = new SearchIndex(clock);
+        SchoolManagementSystem.Notice sports = new SchoolManagementSystem.Notice("Annual Sports Meet Announcement",
+                "The Annual Sports Meet will be held from March 15-20.", TODAY.minusDays(10), TODAY.plusDays(4));
+        SchoolManagementSystem.Test maths = new SchoolManagementSystem.Test("Mathematics",
+                "Unit Test - Trigonometry and Statistics", TODAY.plusDays(9), "Chapter 8 (Trigonometry)", 50);
+        index.add(sports);
+        index.add(maths);
+        expect(index.search("trigonom*", 10), maths);
+        expect(index.search("\"sports meet\"", 10), sports);
+        expect(index.search("\"meet sports\"", 10));
+        expect(index.search("SPORTS march", 10), sports);
+        expect(index.search("\"meet will be held\"", 10), sports);
+        expect(index.search("the", 10));
+
+        sports.update("Sports Meet Postponed", "The meet moves to April.", TODAY.plusDays(4));
+        index.update(sports);
+        expect(index.search("march", 10));
+        expect(index.search("april", 10), sports);
+
+        clock.today = TODAY.plusDays(5);
+        expect(index.search("sports", 10));
+        expect(index.search("trigonometry", 10), maths);
+        clock.today = TODAY.plusDays(10);
+        expect(index.search("trigonometry", 10));
+    }
+
+    private static void expect(List<SearchIndex.Hit> hits, Object... documents) {
+        if (hits.size() != documents.length) {
+            throw new IllegalStateException("Expected " + documents.length + " hits, got " + hits.size());
+        }
+        for (int i = 0; i < documents.length; i++) {
+            if (hits.get(i).getDocument() != documents[i]) {
+                throw new IllegalStateException("Unexpected hit at " + i);
+            }
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        volatile LocalDate today;
+
+        MutableClock(LocalDate today) {
+            this.today = today;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return today.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Time from launching the JVM to the portal's first prompt, the cost a
+ * cron job pays on every run. Each configuration starts a fresh JVM
+ * several times and reports the median:
+ *   the built-in sample data;
+ *   a prebuilt image of a generated school;
+ *   the same image with an AppCDS archive, recorded by a training run first;
+ *   and with AppCDS, C1 only and the serial collector, for short-lived runs.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.StartupBenchmark [students] [runs]
+ */
+public class StartupBenchmark {
+    private static final String PROMPT = "Enter your choice: ";
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+
+        Path image = Files.createTempDirectory("image");
+        long start = System.nanoTime();
+        SyntheticSchool school = new SyntheticSchool(42, LocalDate.of(2026, 10, 1));
+        MappedStudentStore.write(image, Arrays.asList(SyntheticSchool.SUBJECTS), school.students(count));
+        SchoolManagementSystem system = new SchoolManagementSystem(MappedStudentStore.open(image));
+        school.addNotices(system, SyntheticSchool.NOTICES);
+        school.addTests(system, SyntheticSchool.TESTS);
+        DatabaseImage.writeSchool(image, system);
+        System.out.printf("Built an image of %,d students in %dms\n", count, (System.nanoTime() - start) / 1_000_000);
+
+        Path archive = image.resolve("trmscii.jsa");
+        // Training run: log in, look around and exit, then dump the loaded classes
+        launch(List.of("-XX:ArchiveClassesAtExit=" + archive), List.of("--image", image.toString()),
+                "1\n1\n\n2\n\n3\n\n4\n\n9\n");
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("The training run did not write " + archive);
+        }
+
+        report("Sample data", List.of(), List.of(), runs);
+        report("Image", List.of(), List.of("--image", image.toString()), runs);
+        report("Image + AppCDS", List.of("-XX:SharedArchiveFile=" + archive),
+                List.of("--image", image.toString()), runs);
+        report("Image + AppCDS, C1, serial GC", List.of("-XX:SharedArchiveFile=" + archive,
+                "-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC"), List.of("--image", image.toString()), runs);
+    }
+
+    private static void report(String label, List<String> jvmOptions, List<String> arguments, int runs)
+            throws IOException, InterruptedException {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = launch(jvmOptions, arguments, "5\n");
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-32s median %4dms, best %4dms\n", label, millis[runs / 2], millis[0]);
+    }
+
+    // Starts the portal, waits for its first prompt, then feeds it input until it exits
+    private static long launch(List<String> jvmOptions, List<String> arguments, String input)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SchoolManagementSystem.class.getName());
+        command.addAll(arguments);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        Reader out = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8);
+        int matched = 0;
+        while (matched < PROMPT.length()) {
+            int c = out.read();
+            if (c < 0) {
+                throw new IllegalStateException("The portal exited before its first prompt");
+            }
+            matched = c == PROMPT.charAt(matched) ? matched + 1 : (c == PROMPT.charAt(0) ? 1 : 0);
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        try (Writer in = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
+            in.write(input);
+        }
+        out.transferTo(Writer.nullWriter());
+        process.waitFor();
+        return elapsed;
+    }
+}
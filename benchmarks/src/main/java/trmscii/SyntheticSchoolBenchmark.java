@@ -0,0 +1,111 @@
+package trmscii;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Generates a synthetic school three ways: into nothing but a digest, into
+ * the in-memory registry, and streamed into a memory-mapped store. The
+ * digest must come out the same on a second run and for the first half of
+ * a school twice the size, and the store must hold the generated students.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -Xmx3g -cp benchmarks/target/benchmarks.jar trmscii.SyntheticSchoolBenchmark [students]
+ */
+public class SyntheticSchoolBenchmark {
+    private static final LocalDate AS_OF = LocalDate.of(2026, 10, 1);
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        SyntheticSchool school = new SyntheticSchool(42, AS_OF);
+
+        // Warm up
+        digest(school.students(Math.min(count, 100_000)), count);
+
+        long start = System.nanoTime();
+        long first = digest(school.students(count), count);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Generate only:       %,d students in %dms (%,.0f students/s)\n",
+                count, elapsed / 1_000_000, count / (elapsed / 1e9));
+        if (digest(school.students(count), count) != first) {
+            throw new IllegalStateException("Same seed generated a different school");
+        }
+        if (digest(school.students(count * 2), count) != first) {
+            throw new IllegalStateException("Students depend on how many were generated");
+        }
+        if (digest(new SyntheticSchool(43, AS_OF).students(count), count) == first) {
+            throw new IllegalStateException("Different seeds generated the same school");
+        }
+        System.out.println("Same seed, same school: ok");
+
+        System.gc();
+        long heapBefore = usedHeap();
+        start = System.nanoTime();
+        StudentRegistry registry = new StudentRegistry();
+        school.fill(registry, count);
+        elapsed = System.nanoTime() - start;
+        System.gc();
+        System.out.printf("Into the registry:   %,d students in %dms, %dMB of heap\n",
+                registry.size(), elapsed / 1_000_000, (usedHeap() - heapBefore) >> 20);
+        verify(school, count, registry, 1);
+        registry = null;
+
+        Path directory = Files.createTempDirectory("synthetic");
+        start = System.nanoTime();
+        MappedStudentStore.write(directory, Arrays.asList(SyntheticSchool.SUBJECTS), school.students(count));
+        elapsed = System.nanoTime() - start;
+        MappedStudentStore store = MappedStudentStore.open(directory);
+        System.out.printf("Into a mapped store: %,d students in %dms\n", store.size(), elapsed / 1_000_000);
+        // Spot-check about a thousand students
+        verify(school, count, store, Math.max(1, count / 1000));
+        System.out.println("Registry and store match the generator: ok");
+    }
+
+    // Compares about one in every students of the store with the generator
+    private static void verify(SyntheticSchool school, int count, StudentStore store, int every) {
+        SplittableRandom random = new SplittableRandom(7);
+        Iterator<SchoolManagementSystem.Student> generated = school.students(count).iterator();
+        for (int roll = 1; roll <= count; roll++) {
+            SchoolManagementSystem.Student expected = generated.next();
+            if (random.nextInt(every) == 0 && !same(expected, store.get(roll))) {
+                throw new IllegalStateException("Store differs from the generator at roll " + roll);
+            }
+        }
+    }
+
+    // Order-sensitive hash over the first limit students
+    private static long digest(Collection<SchoolManagementSystem.Student> students, int limit) {
+        long hash = 17;
+        int seen = 0;
+        for (SchoolManagementSystem.Student student : students) {
+            if (seen++ == limit) {
+                break;
+            }
+            hash = hash * 31 + student.getRollNumber();
+            hash = hash * 31 + student.getAdmissionNumber();
+            hash = hash * 31 + student.getName().hashCode();
+            hash = hash * 31 + student.getMotherName().hashCode();
+            hash = hash * 31 + student.getFatherName().hashCode();
+            hash = hash * 31 + new TreeMap<>(student.getMarks()).hashCode();
+            for (SchoolManagementSystem.FeePayment payment : student.getFeePayments()) {
+                hash = hash * 31 + Double.hashCode(payment.getAmount());
+                hash = hash * 31 + payment.getPaymentDate().hashCode();
+                hash = hash * 31 + payment.getPaymentMethod().hashCode();
+                hash = hash * 31 + payment.getReceiptNumber().hashCode();
+            }
+        }
+        return hash;
+    }
+
+    private static boolean same(SchoolManagementSystem.Student a, SchoolManagementSystem.Student b) {
+        return b != null && digest(List.of(a), 1) == digest(List.of(b), 1);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,103 @@
+package trmscii;
+
+import java.time.*;
+import java.util.*;
+
+/**
+ * Lookups on a school of many sections: "what is on now" and "where is
+ * Mathematics taught" on TimeTable, against the same questions answered
+ * from the day-name/period-string maps the portal used to keep.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.TimeTableBenchmark [sections]
+ */
+public class TimeTableBenchmark {
+    private static final String[] SUBJECTS = {
+        "Geography", "Chemistry", "Economics/Computer", "Mathematics", "Physics", "English",
+        "Hindi/Assamese", "Games", "History and Civics", "Biology", "SUPW", "P.T.", "Library", "V.E.D."
+    };
+    private static final int LOOKUPS = 5_000_000;
+
+    public static void main(String[] args) {
+        int sectionCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        SplittableRandom random = new SplittableRandom(42);
+        TimeTable timeTable = new TimeTable();
+        TimeTable.Section[] sections = new TimeTable.Section[sectionCount];
+        List<Map<String, Map<String, String>>> maps = new ArrayList<>(sectionCount);
+        for (int s = 0; s < sectionCount; s++) {
+            sections[s] = timeTable.section("Section " + s);
+            Map<String, Map<String, String>> days = new HashMap<>();
+            for (DayOfWeek day : EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)) {
+                Map<String, String> periods = new HashMap<>();
+                for (int period = 1; period <= TimeTable.PERIODS; period++) {
+                    String subject = period == 5 ? "BREAK" : SUBJECTS[random.nextInt(SUBJECTS.length)];
+                    timeTable.assign(sections[s], day, period, subject);
+                    periods.put(String.valueOf(period), subject);
+                }
+                String name = day.toString().charAt(0) + day.toString().substring(1).toLowerCase();
+                days.put(name, periods);
+            }
+            maps.add(days);
+        }
+
+        LocalDateTime[] moments = new LocalDateTime[1024];
+        for (int i = 0; i < moments.length; i++) {
+            moments[i] = LocalDateTime.of(2025, 3, 3 + random.nextInt(5), 8 + random.nextInt(6), random.nextInt(60));
+        }
+
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1;
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                String subject = timeTable.subjectAt(sections[i % sectionCount], moments[i & 1023]);
+                sink += subject == null ? 0 : subject.length();
+            }
+            double nowEngine = (System.nanoTime() - start) / (double) LOOKUPS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                LocalDateTime moment = moments[i & 1023];
+                String day = moment.getDayOfWeek().toString();
+                day = day.charAt(0) + day.substring(1).toLowerCase();
+                int minutes = moment.getHour() * 60 + moment.getMinute() - 8 * 60;
+                int period = minutes < 0 ? 0 : Math.min(TimeTable.PERIODS, minutes / 40 + 1);
+                Map<String, String> periods = maps.get(i % sectionCount).get(day);
+                String subject = periods == null ? null : periods.get(String.valueOf(period));
+                sink += subject == null ? 0 : subject.length();
+            }
+            double nowMaps = (System.nanoTime() - start) / (double) LOOKUPS;
+
+            int queries = LOOKUPS / 100;
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                sink += Long.bitCount(timeTable.slotsOf(sections[i % sectionCount], "Mathematics"));
+            }
+            double whereEngine = (System.nanoTime() - start) / (double) queries;
+
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                int count = 0;
+                for (Map<String, String> periods : maps.get(i % sectionCount).values()) {
+                    for (String subject : periods.values()) {
+                        if (subject.equals("Mathematics")) {
+                            count++;
+                        }
+                    }
+                }
+                sink += count;
+            }
+            double whereMaps = (System.nanoTime() - start) / (double) queries;
+
+            if (report) {
+                System.out.printf("%,d sections\n", sectionCount);
+                System.out.printf("  what is on now:        %6.1f ns (maps: %6.1f ns)\n", nowEngine, nowMaps);
+                System.out.printf("  where is Mathematics:  %6.1f ns (maps: %6.1f ns)\n", whereEngine, whereMaps);
+            }
+            if (sink == 42) {
+                System.out.print("");
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measures fee-payment ingestion through the write-ahead log, with each
+ * payment waiting until it is durable (group commit, the default) and with
+ * asynchronous commit, and how long crash recovery takes as the log tail
+ * grows.
+ *
+ * Run from the repository root:
+ *   mvn -B package -DskipTests
+ *   java -cp benchmarks/target/benchmarks.jar trmscii.WalBenchmark
+ */
+public class WalBenchmark {
+    public static void main(String[] args) throws Exception {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        System.out.println("Ingestion (" + payments + " fee payments)");
+        for (int threads : new int[] {1, 4, 16}) {
+            Path dir = Files.createTempDirectory("wal-bench");
+            try {
+                measureIngestion(Files.createTempDirectory(dir, "async"), payments, threads, true);
+                // Every payment waits for a force here, so fewer of them
+                measureIngestion(Files.createTempDirectory(dir, "durable"), Math.min(payments, 20_000), threads, false);
+            } finally {
+                deleteRecursively(dir);
+            }
+        }
+
+        System.out.println("\nRecovery time against log size");
+        System.out.printf("%12s | %12s | %10s\n", "records", "log bytes", "recovery");
+        for (int records : new int[] {10_000, 100_000, 1_000_000}) {
+            Path dir = Files.createTempDirectory("wal-recovery");
+            try {
+                measureRecovery(dir, records);
+            } finally {
+                deleteRecursively(dir);
+            }
+        }
+    }
+
+    private static void measureIngestion(Path dir, int payments, int threads, boolean asyncCommit)
+            throws Exception {
+        DatabaseJournal journal = new DatabaseJournal(dir, new WriteAheadLog(dir.resolve("wal")), 100_000, asyncCommit);
+        SchoolManagementSystem system = new SchoolManagementSystem(new StudentRegistry());
+        journal.recover(system); // empty directory: only opens the log
+        journal.attach(system);
+        // One student per thread, as each parent pays only their own child's fees
+        List<SchoolManagementSystem.Student> students = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                    1000 + t, "Student " + t, "Mother " + t, "Father " + t, 90_000 + t);
+            system.addStudent(student);
+            students.add(student);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int perThread = payments / threads;
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            futures.add(pool.submit(() -> {
+                SchoolManagementSystem.Student student = students.get(offset);
+                for (int i = 0; i < perThread; i++) {
+                    student.addFeePayment(new SchoolManagementSystem.FeePayment(
+                            5000.00, LocalDate.of(2025, 9, 1).plusDays(i / 100), "Online Transfer", "RCT" + offset + "-" + i));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        // Async commit only counts once its payments are durable too
+        journal.sync();
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        journal.close();
+
+        double perSecond = perThread * (double) threads / (elapsed / 1e9);
+        System.out.printf("  %2d thread(s), %-18s %,12.0f payments/s\n",
+                threads, asyncCommit ? "async commit:" : "group commit:", perSecond);
+    }
+
+    private static void measureRecovery(Path dir, int records) throws Exception {
+        // Disable periodic snapshots so the whole log has to be replayed; close() makes it all durable
+        WriteAheadLog log = new WriteAheadLog(dir.resolve("wal"));
+        DatabaseJournal journal = new DatabaseJournal(dir, log, Integer.MAX_VALUE, true);
+        SchoolManagementSystem system = new SchoolManagementSystem();
+        journal.recover(system); // empty directory: only opens the log
+        journal.attach(system);
+        journal.checkpoint();
+        SchoolManagementSystem.Student student = system.getStudent(1);
+        for (int i = 0; i < records; i++) {
+            student.addFeePayment(new SchoolManagementSystem.FeePayment(
+                    5000.00, LocalDate.of(2025, 9, 1).plusDays(i / 100), "Online Transfer", "RCT" + i));
+        }
+        journal.close();
+        long logBytes = 0;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(dir.resolve("wal"))) {
+            for (Path segment : segments) {
+                logBytes += Files.size(segment);
+            }
+        }
+
+        long start = System.nanoTime();
+        SchoolManagementSystem recovered = SchoolManagementSystem.open(dir);
+        long elapsed = System.nanoTime() - start;
+        int replayed = recovered.getStudent(1).getFeePayments().size();
+        recovered.close();
+        if (replayed < records) {
+            throw new IllegalStateException("Recovered " + replayed + " of " + records + " payments");
+        }
+        System.out.printf("%,12d | %,12d | %8.1fms\n", records, logBytes, elapsed / 1e6);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (var paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
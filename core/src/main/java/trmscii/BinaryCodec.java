@@ -0,0 +1,414 @@
+package trmscii;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Compact binary records for students, fee payments, notices and tests,
+ * for moving them between processes or onto disk.
+ *
+ * Every record is a type byte, a version byte and a varint body length,
+ * then the body:
+ *   student      roll, admission (varints), name, mother, father (strings),
+ *                mark count, then subject (dictionary) and mark (varint) pairs,
+ *                payment count, then each payment body with its length in front,
+ *                then school, class, section (strings; since version 2)
+ *   fee payment  amount in paise, payment date (zigzag varints), method
+ *                (dictionary), receipt (string)
+ *   notice       title, content (strings), post date (zigzag varint),
+ *                days from post to expiry (zigzag varint)
+ *   test         subject (dictionary), description (string), test date
+ *                (zigzag varint), syllabus (string), maximum marks (varint)
+ * Strings are a varint byte length and UTF-8. A dictionary entry is a
+ * varint: 0 followed by the string itself, or 1 + its index in a fixed
+ * list of the school's subjects or payment methods.
+ *
+ * Schema evolution: fields are only ever appended to a body. A reader takes
+ * the fields it knows and skips the rest of the body, so older readers
+ * accept newer records, and fields missing from an older record decode to
+ * defaults. The dictionaries are frozen: an older reader could not name a
+ * code added after it, so a new subject or payment method is always written
+ * inline, and a code past the end of a list means the record is corrupt.
+ *
+ * Decoding reads straight from the ByteBuffer, heap or direct, advancing its
+ * position; strings are built from the buffer's backing array when it has
+ * one, so nothing is copied twice.
+ */
+final class BinaryCodec {
+    static final byte STUDENT = 1;
+    static final byte FEE_PAYMENT = 2;
+    static final byte NOTICE = 3;
+    static final byte TEST = 4;
+    static final int VERSION = 2;
+
+    // Frozen, see the class comment: never reorder, remove or add entries
+    private static final String[] SUBJECTS = {
+        "English Literature", "English Language", "Mathematics", "Biology", "Chemistry",
+        "Physics", "Geography", "History and Civics", "Hindi", "Assamese", "Computer", "Economics", "Science"
+    };
+    private static final String[] METHODS = {"Online Transfer", "Cash", "Cheque", "Demand Draft"};
+    private static final Map<String, Integer> SUBJECT_CODES = codes(SUBJECTS);
+    private static final Map<String, Integer> METHOD_CODES = codes(METHODS);
+
+    private BinaryCodec() {
+    }
+
+    private static Map<String, Integer> codes(String[] entries) {
+        Map<String, Integer> codes = new HashMap<>();
+        for (int i = 0; i < entries.length; i++) {
+            codes.put(entries[i], i + 1);
+        }
+        return codes;
+    }
+
+    /**
+     * Appends records to a growable byte array. Reuse one per thread with
+     * reset() to avoid allocating per record.
+     */
+    static final class Writer {
+        private byte[] bytes;
+        private int size;
+
+        Writer() {
+            this(256);
+        }
+
+        Writer(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        Writer reset() {
+            size = 0;
+            return this;
+        }
+
+        int size() {
+            return size;
+        }
+
+        // The records written so far, without copying; valid until the next write or reset
+        ByteBuffer buffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        Writer student(SchoolManagementSystem.Student student) {
+            int body = begin(STUDENT);
+            varint(student.getRollNumber());
+            varint(student.getAdmissionNumber());
+            string(student.getName());
+            string(student.getMotherName());
+            string(student.getFatherName());
+            Map<String, Integer> marks = student.getMarks();
+            varint(marks.size());
+            for (Map.Entry<String, Integer> mark : marks.entrySet()) {
+                dictionary(SUBJECT_CODES, mark.getKey());
+                varint(mark.getValue());
+            }
+            List<SchoolManagementSystem.FeePayment> payments = student.getFeePayments();
+            varint(payments.size());
+            for (SchoolManagementSystem.FeePayment payment : payments) {
+                int nested = reserveLength();
+                paymentBody(payment);
+                endLength(nested);
+            }
+            Enrolment enrolment = student.getEnrolment();
+            string(enrolment.getSchool());
+            string(enrolment.getClassName());
+            string(enrolment.getSection());
+            return end(body);
+        }
+
+        Writer feePayment(SchoolManagementSystem.FeePayment payment) {
+            int body = begin(FEE_PAYMENT);
+            paymentBody(payment);
+            return end(body);
+        }
+
+        Writer notice(SchoolManagementSystem.Notice notice) {
+            int body = begin(NOTICE);
+            string(notice.getTitle());
+            string(notice.getContent());
+            long posted = notice.getPostDate().toEpochDay();
+            zigzag(posted);
+            zigzag(notice.getExpiryDate().toEpochDay() - posted);
+            return end(body);
+        }
+
+        Writer test(SchoolManagementSystem.Test test) {
+            int body = begin(TEST);
+            dictionary(SUBJECT_CODES, test.getSubject());
+            string(test.getDescription());
+            zigzag(test.getTestDate().toEpochDay());
+            string(test.getSyllabus());
+            varint(test.getMaxMarks());
+            return end(body);
+        }
+
+        private void paymentBody(SchoolManagementSystem.FeePayment payment) {
+            zigzag(Math.round(payment.getAmount() * 100));
+            zigzag(payment.getPaymentDate().toEpochDay());
+            dictionary(METHOD_CODES, payment.getPaymentMethod());
+            string(payment.getReceiptNumber());
+        }
+
+        private int begin(byte type) {
+            ensure(2);
+            bytes[size++] = type;
+            bytes[size++] = (byte) VERSION;
+            return reserveLength();
+        }
+
+        private Writer end(int body) {
+            endLength(body);
+            return this;
+        }
+
+        // Bodies are almost always under 16KB, so two bytes are set aside for the length
+        private int reserveLength() {
+            ensure(2);
+            size += 2;
+            return size;
+        }
+
+        // Writes the length in front of the body, moving the body if it needs more than two bytes
+        private void endLength(int bodyStart) {
+            int length = size - bodyStart;
+            int width = varintWidth(length);
+            if (width != 2) {
+                ensure(width - 2);
+                System.arraycopy(bytes, bodyStart, bytes, bodyStart + width - 2, length);
+                size += width - 2;
+            }
+            int position = bodyStart - 2;
+            for (int i = 0; i < width - 1; i++) {
+                bytes[position++] = (byte) (length & 0x7F | 0x80);
+                length >>>= 7;
+            }
+            bytes[position] = (byte) length;
+        }
+
+        private void dictionary(Map<String, Integer> codes, String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                varint(code);
+            } else {
+                varint(0);
+                string(value);
+            }
+        }
+
+        private void string(String value) {
+            // Plain ASCII, as nearly all of the school's text is, is written without an encoder
+            int length = value.length();
+            ensure(5 + length);
+            int lengthAt = size;
+            boolean ascii = true;
+            varint(length);
+            for (int i = 0; i < length && ascii; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[size++] = (byte) c;
+                } else {
+                    ascii = false;
+                }
+            }
+            if (!ascii) {
+                size = lengthAt;
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                varint(utf8.length);
+                ensure(utf8.length);
+                System.arraycopy(utf8, 0, bytes, size, utf8.length);
+                size += utf8.length;
+            }
+        }
+
+        private void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        private void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+            }
+        }
+    }
+
+    private static int varintWidth(int value) {
+        int width = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            width++;
+        }
+        return width;
+    }
+
+    // The type of the next record, without consuming it
+    static byte peekType(ByteBuffer in) {
+        return in.get(in.position());
+    }
+
+    // Decodes the next record, whatever its type
+    static Object read(ByteBuffer in) {
+        switch (peekType(in)) {
+            case STUDENT:
+                return readStudent(in);
+            case FEE_PAYMENT:
+                return readFeePayment(in);
+            case NOTICE:
+                return readNotice(in);
+            case TEST:
+                return readTest(in);
+            default:
+                throw new IllegalArgumentException("Unknown record type " + peekType(in) + " at " + in.position());
+        }
+    }
+
+    static SchoolManagementSystem.Student readStudent(ByteBuffer in) {
+        int end = begin(in, STUDENT);
+        int roll = (int) varint(in);
+        int admission = (int) varint(in);
+        String name = readString(in);
+        String mother = readString(in);
+        String father = readString(in);
+        int markCount = (int) varint(in);
+        String[] subjects = new String[markCount];
+        int[] marks = new int[markCount];
+        for (int i = 0; i < markCount; i++) {
+            subjects[i] = dictionary(in, SUBJECTS);
+            marks[i] = (int) varint(in);
+        }
+        int paymentCount = (int) varint(in);
+        SchoolManagementSystem.FeePayment[] payments = new SchoolManagementSystem.FeePayment[paymentCount];
+        for (int i = 0; i < paymentCount; i++) {
+            int paymentEnd = (int) varint(in);
+            paymentEnd += in.position();
+            payments[i] = paymentBody(in);
+            in.position(paymentEnd);
+        }
+        // Version 1 records end here
+        Enrolment enrolment = in.position() < end
+                ? Enrolment.of(readString(in), readString(in), readString(in)) : Enrolment.DEFAULT;
+        in.position(end);
+
+        SchoolManagementSystem.Student student =
+                new SchoolManagementSystem.Student(roll, name, mother, father, admission, enrolment);
+        for (int i = 0; i < markCount; i++) {
+            student.addMarks(subjects[i], marks[i]);
+        }
+        for (SchoolManagementSystem.FeePayment payment : payments) {
+            student.addFeePayment(payment);
+        }
+        return student;
+    }
+
+    static SchoolManagementSystem.FeePayment readFeePayment(ByteBuffer in) {
+        int end = begin(in, FEE_PAYMENT);
+        SchoolManagementSystem.FeePayment payment = paymentBody(in);
+        in.position(end);
+        return payment;
+    }
+
+    static SchoolManagementSystem.Notice readNotice(ByteBuffer in) {
+        int end = begin(in, NOTICE);
+        String title = readString(in);
+        String content = readString(in);
+        long posted = zigzag(in);
+        LocalDate postDate = LocalDate.ofEpochDay(posted);
+        LocalDate expiryDate = LocalDate.ofEpochDay(posted + zigzag(in));
+        in.position(end);
+        return new SchoolManagementSystem.Notice(title, content, postDate, expiryDate);
+    }
+
+    static SchoolManagementSystem.Test readTest(ByteBuffer in) {
+        int end = begin(in, TEST);
+        String subject = dictionary(in, SUBJECTS);
+        String description = readString(in);
+        LocalDate testDate = LocalDate.ofEpochDay(zigzag(in));
+        String syllabus = readString(in);
+        int maxMarks = (int) varint(in);
+        in.position(end);
+        return new SchoolManagementSystem.Test(subject, description, testDate, syllabus, maxMarks);
+    }
+
+    private static SchoolManagementSystem.FeePayment paymentBody(ByteBuffer in) {
+        double amount = zigzag(in) / 100.0;
+        LocalDate date = LocalDate.ofEpochDay(zigzag(in));
+        String method = dictionary(in, METHODS);
+        String receipt = readString(in);
+        return new SchoolManagementSystem.FeePayment(amount, date, method, receipt);
+    }
+
+    // Checks the header and returns where the body ends
+    private static int begin(ByteBuffer in, byte type) {
+        byte actual = in.get();
+        if (actual != type) {
+            throw new IllegalArgumentException("Expected record type " + type + " but found " + actual);
+        }
+        in.get(); // Version: newer records only add fields at the end, which are skipped
+        int length = (int) varint(in);
+        int end = in.position() + length;
+        if (end > in.limit()) {
+            throw new BufferUnderflowException();
+        }
+        return end;
+    }
+
+    private static String dictionary(ByteBuffer in, String[] entries) {
+        int code = (int) varint(in);
+        if (code == 0) {
+            return readString(in);
+        }
+        if (code > entries.length) {
+            throw new IllegalArgumentException("Unknown dictionary code " + code);
+        }
+        return entries[code - 1];
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) varint(in);
+        int position = in.position();
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(position, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(position + length);
+        return value;
+    }
+
+    private static long zigzag(ByteBuffer in) {
+        long value = varint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long varint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at " + in.position());
+    }
+}
@@ -0,0 +1,374 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Streams roster, marks and fee-payment CSV files into the system.
+ * One thread reads lines and cuts them into chunks; a worker pool parses,
+ * validates and loads each chunk as a batch. At most a few chunks per
+ * worker are in flight at once, so memory stays bounded however large the
+ * file is. Bad rows are reported with their line number and skipped.
+ *
+ * Every file starts with a header row. Expected columns:
+ *   students: roll,name,mother,father,admission[,school,class,section]
+ *             (without the last three, students are in Enrolment.DEFAULT)
+ *   marks:    roll,subject,mark
+ *   fees:     roll,amount,date (yyyy-MM-dd),method,receipt
+ */
+class BulkImporter implements Closeable {
+    enum Kind { STUDENTS, MARKS, FEES }
+
+    static final int MAX_MARK = 40;
+    private static final int CHUNK_LINES = 8192;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    static final class RowError {
+        final long line;
+        final String message;
+
+        RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    static final class ImportReport {
+        private final String source;
+        private long rowsRead;
+        private long rowsLoaded;
+        private long errorCount;
+        private final List<RowError> errors = new ArrayList<>();
+        private long elapsedNanos;
+
+        ImportReport(String source) {
+            this.source = source;
+        }
+
+        public long getRowsRead() { return rowsRead; }
+        public long getRowsLoaded() { return rowsLoaded; }
+        public long getErrorCount() { return errorCount; }
+        // Only the first errors are kept, so a hopeless file cannot exhaust memory
+        public List<RowError> getErrors() { return errors; }
+
+        private synchronized void merge(int read, int loaded, List<RowError> chunkErrors) {
+            rowsRead += read;
+            rowsLoaded += loaded;
+            errorCount += chunkErrors.size();
+            for (RowError error : chunkErrors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                }
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("%s: %,d rows read, %,d loaded, %,d rejected in %.0fms",
+                    source, rowsRead, rowsLoaded, errorCount, elapsedNanos / 1e6);
+        }
+    }
+
+    private final SchoolManagementSystem system;
+    private final ExecutorService workers;
+    private final int maxChunksInFlight;
+    // Roll and admission numbers already taken, claimed atomically so two
+    // chunks carrying the same number cannot both load it
+    private final Set<Integer> rollNumbers = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> admissionNumbers = ConcurrentHashMap.newKeySet();
+
+    BulkImporter(SchoolManagementSystem system) {
+        this(system, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Throws IllegalArgumentException for a read-only roster, whose loaded rows would be thrown away
+    BulkImporter(SchoolManagementSystem system, int threads) {
+        if (system.isRosterReadOnly()) {
+            throw new IllegalArgumentException("Cannot import into a read-only roster");
+        }
+        this.system = system;
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxChunksInFlight = threads * 2;
+        for (SchoolManagementSystem.Student student : system.getStudents()) {
+            rollNumbers.add(student.getRollNumber());
+            admissionNumbers.add(student.getAdmissionNumber());
+        }
+    }
+
+    ImportReport importFile(Kind kind, Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(kind, reader, file.toString());
+        }
+    }
+
+    ImportReport importFrom(Kind kind, BufferedReader reader, String source) throws IOException {
+        ImportReport report = new ImportReport(source);
+        long start = System.nanoTime();
+        Semaphore inFlight = new Semaphore(maxChunksInFlight);
+        List<Future<?>> pending = new ArrayList<>();
+
+        String header = reader.readLine();
+        if (header == null) {
+            report.elapsedNanos = System.nanoTime() - start;
+            return report;
+        }
+        long lineNumber = 1;
+        List<String> chunk = new ArrayList<>(CHUNK_LINES);
+        long chunkStart = 2;
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                chunk.add(line);
+                if (chunk.size() == CHUNK_LINES) {
+                    pending.add(submit(kind, chunk, chunkStart, report, inFlight));
+                    chunk = new ArrayList<>(CHUNK_LINES);
+                    chunkStart = lineNumber + 1;
+                    // Forget chunks that are done so the list stays short
+                    pending.removeIf(Future::isDone);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submit(kind, chunk, chunkStart, report, inFlight));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Import of " + source + " failed", e.getCause());
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private Future<?> submit(Kind kind, List<String> lines, long firstLine, ImportReport report, Semaphore inFlight)
+            throws InterruptedException {
+        // Block the reader while enough chunks are queued
+        inFlight.acquire();
+        return workers.submit(() -> {
+            try {
+                loadChunk(kind, lines, firstLine, report);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void loadChunk(Kind kind, List<String> lines, long firstLine, ImportReport report) {
+        List<RowError> errors = new ArrayList<>();
+        List<String> fields = new ArrayList<>(8);
+        int loaded = 0;
+        int read = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            long lineNumber = firstLine + i;
+            if (line.isEmpty()) {
+                continue;
+            }
+            read++;
+            String error = splitCsv(line, fields);
+            if (error == null) {
+                switch (kind) {
+                    case STUDENTS:
+                        error = loadStudent(fields);
+                        break;
+                    case MARKS:
+                        error = loadMark(fields);
+                        break;
+                    case FEES:
+                        error = loadFeePayment(fields);
+                        break;
+                }
+            }
+            if (error == null) {
+                loaded++;
+            } else {
+                errors.add(new RowError(lineNumber, error));
+            }
+        }
+        report.merge(read, loaded, errors);
+    }
+
+    private String loadStudent(List<String> fields) {
+        if (fields.size() != 5 && fields.size() != 8) {
+            return "expected 5 or 8 columns (roll,name,mother,father,admission[,school,class,section]) but found "
+                    + fields.size();
+        }
+        int rollNumber = parsePositiveInt(fields.get(0));
+        if (rollNumber <= 0) {
+            return "invalid roll number '" + fields.get(0) + "'";
+        }
+        int admissionNumber = parsePositiveInt(fields.get(4));
+        if (admissionNumber <= 0) {
+            return "invalid admission number '" + fields.get(4) + "'";
+        }
+        for (int i = 1; i <= 3; i++) {
+            if (fields.get(i).isBlank()) {
+                return "empty name column " + (i + 1);
+            }
+        }
+        for (int i = 5; i < fields.size(); i++) {
+            if (fields.get(i).isBlank()) {
+                return "empty enrolment column " + (i + 1);
+            }
+        }
+        Enrolment enrolment = fields.size() == 8
+                ? Enrolment.of(fields.get(5), fields.get(6), fields.get(7)) : Enrolment.DEFAULT;
+        if (!rollNumbers.add(rollNumber)) {
+            return "roll number " + rollNumber + " already exists";
+        }
+        if (!admissionNumbers.add(admissionNumber)) {
+            rollNumbers.remove(rollNumber);
+            return "admission number " + admissionNumber + " already exists";
+        }
+        system.addStudent(new SchoolManagementSystem.Student(rollNumber, fields.get(1).trim(), fields.get(2).trim(),
+                fields.get(3).trim(), admissionNumber, enrolment));
+        return null;
+    }
+
+    private String loadMark(List<String> fields) {
+        if (fields.size() != 3) {
+            return "expected 3 columns (roll,subject,mark) but found " + fields.size();
+        }
+        SchoolManagementSystem.Student student = existingStudent(fields.get(0));
+        if (student == null) {
+            return "unknown roll number '" + fields.get(0) + "'";
+        }
+        String subject = fields.get(1).trim();
+        if (subject.isEmpty()) {
+            return "empty subject";
+        }
+        int mark = parsePositiveInt(fields.get(2));
+        if (mark < 0 || mark > MAX_MARK) {
+            return "mark must be between 0 and " + MAX_MARK + " but was '" + fields.get(2) + "'";
+        }
+        try {
+            student.addMarks(subject, mark);
+        } catch (IllegalStateException e) {
+            // The subject registry is full
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private String loadFeePayment(List<String> fields) {
+        if (fields.size() != 5) {
+            return "expected 5 columns (roll,amount,date,method,receipt) but found " + fields.size();
+        }
+        SchoolManagementSystem.Student student = existingStudent(fields.get(0));
+        if (student == null) {
+            return "unknown roll number '" + fields.get(0) + "'";
+        }
+        double amount;
+        LocalDate date;
+        try {
+            amount = Double.parseDouble(fields.get(1).trim());
+            date = LocalDate.parse(fields.get(2).trim());
+        } catch (NumberFormatException e) {
+            return "invalid amount '" + fields.get(1) + "'";
+        } catch (DateTimeParseException e) {
+            return "invalid date '" + fields.get(2) + "', expected yyyy-MM-dd";
+        }
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            return "amount must be a positive number";
+        }
+        if (fields.get(3).isBlank() || fields.get(4).isBlank()) {
+            return "payment method and receipt number are required";
+        }
+        student.addFeePayment(new SchoolManagementSystem.FeePayment(amount, date, fields.get(3).trim(), fields.get(4).trim()));
+        return null;
+    }
+
+    private SchoolManagementSystem.Student existingStudent(String roll) {
+        int rollNumber = parsePositiveInt(roll);
+        return rollNumber > 0 ? system.getStudent(rollNumber) : null;
+    }
+
+    // Parses a non-negative decimal without throwing; -1 when it is not one
+    static int parsePositiveInt(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end || end - start > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Splits one RFC 4180 line into fields; returns an error message for malformed quoting
+    static String splitCsv(String line, List<String> fields) {
+        fields.clear();
+        int length = line.length();
+        int i = 0;
+        while (true) {
+            if (i < length && line.charAt(i) == '"') {
+                StringBuilder field = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        return "unterminated quoted field";
+                    }
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < length && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                }
+                fields.add(field.toString());
+                if (i < length && line.charAt(i) != ',') {
+                    return "unexpected character after quoted field";
+                }
+            } else {
+                int comma = line.indexOf(',', i);
+                int end = comma < 0 ? length : comma;
+                fields.add(line.substring(i, end));
+                i = end;
+            }
+            if (i >= length) {
+                return null;
+            }
+            i++; // skip the comma
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,117 @@
+package trmscii;
+
+/**
+ * The inner loops of CohortStats, over one chunk of a marks column or a pair
+ * of them. Absent marks are stored as -1 and every present mark is within
+ * 0..ReportCard.MAX_MARK, so a chunk of up to CohortStats.CHUNK rows cannot
+ * overflow an int accumulator.
+ *
+ * The scalar loops here always work. VectorCohortKernels, in src/vector/java,
+ * does the same with the JDK Vector API; it is only compiled with the vector
+ * profile and loaded when the jdk.incubator.vector module is added, and
+ * best() falls back to these otherwise.
+ */
+interface CohortKernels {
+    // Slots of the summary array; AT_LEAST + i counts marks of at least thresholds[i]
+    int COUNT = 0;
+    int SUM = 1;
+    int SUM_OF_SQUARES = 2;
+    int MIN = 3;
+    int MAX = 4;
+    int AT_LEAST = 5;
+
+    // Slots of the pair array, over the rows where both marks are present
+    int PAIRS = 0;
+    int SUM_X = 1;
+    int SUM_Y = 2;
+    int SUM_XX = 3;
+    int SUM_YY = 4;
+    int SUM_XY = 5;
+    int PAIR_SLOTS = 6;
+
+    CohortKernels SCALAR = new Scalar();
+
+    String name();
+
+    // Adds rows from..to of the column into the summary; MIN and MAX must start at MAX_VALUE and -1
+    void summarize(int[] column, int from, int to, int[] thresholds, long[] summary);
+
+    // Adds rows from..to of the two columns into the pair sums
+    void pair(int[] x, int[] y, int from, int to, long[] sums);
+
+    static CohortKernels best() {
+        try {
+            return (CohortKernels) Class.forName("trmscii.VectorCohortKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+
+    final class Scalar implements CohortKernels {
+        @Override
+        public String name() {
+            return "scalar";
+        }
+
+        @Override
+        public void summarize(int[] column, int from, int to, int[] thresholds, long[] summary) {
+            // A histogram over the few possible marks, folded into the summary afterwards
+            int[] histogram = new int[ReportCard.MAX_MARK + 2];
+            for (int i = from; i < to; i++) {
+                histogram[column[i] + 1]++;
+            }
+            int count = 0;
+            int sum = 0;
+            int sumOfSquares = 0;
+            for (int mark = 0; mark <= ReportCard.MAX_MARK; mark++) {
+                int n = histogram[mark + 1];
+                if (n == 0) {
+                    continue;
+                }
+                count += n;
+                sum += n * mark;
+                sumOfSquares += n * mark * mark;
+                summary[MIN] = Math.min(summary[MIN], mark);
+                summary[MAX] = Math.max(summary[MAX], mark);
+                for (int t = 0; t < thresholds.length; t++) {
+                    if (mark >= thresholds[t]) {
+                        summary[AT_LEAST + t] += n;
+                    }
+                }
+            }
+            summary[COUNT] += count;
+            summary[SUM] += sum;
+            summary[SUM_OF_SQUARES] += sumOfSquares;
+        }
+
+        @Override
+        public void pair(int[] x, int[] y, int from, int to, long[] sums) {
+            int pairs = 0;
+            int sumX = 0;
+            int sumY = 0;
+            int sumXX = 0;
+            int sumYY = 0;
+            int sumXY = 0;
+            for (int i = from; i < to; i++) {
+                int a = x[i];
+                int b = y[i];
+                // All ones when both are present, zero when either is -1
+                int both = ((a | b) >> 31) ^ -1;
+                a &= both;
+                b &= both;
+                pairs -= both;
+                sumX += a;
+                sumY += b;
+                sumXX += a * a;
+                sumYY += b * b;
+                sumXY += a * b;
+            }
+            sums[PAIRS] += pairs;
+            sums[SUM_X] += sumX;
+            sums[SUM_Y] += sumY;
+            sums[SUM_XX] += sumXX;
+            sums[SUM_YY] += sumYY;
+            sums[SUM_XY] += sumXY;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package trmscii;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Mark statistics for a whole cohort: per subject mean, standard deviation,
+ * lowest and highest mark and grade distribution, the distribution of
+ * overall grades, and the correlation between every pair of subjects.
+ *
+ * The students' marks are first copied into one primitive column per
+ * subject, -1 where a student has no mark. The rows are then cut into
+ * chunks that are reduced in parallel, each chunk in a single pass over its
+ * columns with CohortKernels, and the per-chunk sums are added up at the
+ * end. Marks above the paper's maximum count as the maximum, as they do in
+ * RankingEngine.
+ */
+final class CohortStats {
+    // Rows per chunk: small enough to stay in cache and for int accumulators
+    static final int CHUNK = 1 << 16;
+    private static final int MISSING = -1;
+
+    private static final ReportCard.Grade[] GRADES = ReportCard.Grade.values();
+    // The lowest mark of each grade but F, best grade first
+    private static final int[] THRESHOLDS = new int[GRADES.length - 1];
+
+    static {
+        for (int g = 0; g < THRESHOLDS.length; g++) {
+            THRESHOLDS[g] = (GRADES[g].getMinimumPercentage() * ReportCard.MAX_MARK + 99) / 100;
+        }
+    }
+
+    private final int studentCount;
+    private final List<SubjectStats> subjects;
+    private final int[] gradeCounts;
+    private final double[][] correlations;
+
+    private CohortStats(int studentCount, List<SubjectStats> subjects, int[] gradeCounts, double[][] correlations) {
+        this.studentCount = studentCount;
+        this.subjects = subjects;
+        this.gradeCounts = gradeCounts;
+        this.correlations = correlations;
+    }
+
+    static CohortStats of(Collection<SchoolManagementSystem.Student> students) {
+        return of(students, CohortKernels.best());
+    }
+
+    static CohortStats of(Collection<SchoolManagementSystem.Student> students, CohortKernels kernels) {
+        SchoolManagementSystem.Student[] roster = students.toArray(new SchoolManagementSystem.Student[0]);
+        int rows = roster.length;
+        int width = SubjectRegistry.shared().size();
+        int[][] columns = new int[width][rows];
+        byte[] grades = new byte[rows];
+        IntStream.range(0, chunks(rows)).parallel().forEach(chunk -> {
+            for (int row = chunk * CHUNK, end = Math.min(rows, row + CHUNK); row < end; row++) {
+                fill(roster[row], row, columns, grades);
+            }
+        });
+        Partial total = IntStream.range(0, chunks(rows)).parallel()
+                .mapToObj(chunk -> reduce(chunk, rows, columns, grades, kernels))
+                .reduce(Partial::merge)
+                .orElseGet(() -> new Partial(width));
+        return total.finish(rows);
+    }
+
+    private static int chunks(int rows) {
+        return (rows + CHUNK - 1) / CHUNK;
+    }
+
+    private static void fill(SchoolManagementSystem.Student student, int row, int[][] columns, byte[] grades) {
+        long mask = student.getSubjectMask();
+        int total = 0;
+        for (int id = 0; id < columns.length; id++) {
+            int mark = MISSING;
+            if ((mask & 1L << id) != 0) {
+                mark = Math.min(student.getMark(id), ReportCard.MAX_MARK);
+                total += mark;
+            }
+            columns[id][row] = mark;
+        }
+        int count = Long.bitCount(mask);
+        grades[row] = count == 0 ? MISSING
+                : (byte) ReportCard.Grade.of((double) total / (count * ReportCard.MAX_MARK) * 100).ordinal();
+    }
+
+    private static Partial reduce(int chunk, int rows, int[][] columns, byte[] grades, CohortKernels kernels) {
+        int from = chunk * CHUNK;
+        int to = Math.min(rows, from + CHUNK);
+        Partial partial = new Partial(columns.length);
+        for (int a = 0; a < columns.length; a++) {
+            kernels.summarize(columns[a], from, to, THRESHOLDS, partial.summaries[a]);
+            for (int b = a + 1; b < columns.length; b++) {
+                kernels.pair(columns[a], columns[b], from, to, partial.pairs[a][b]);
+            }
+        }
+        for (int row = from; row < to; row++) {
+            if (grades[row] >= 0) {
+                partial.gradeCounts[grades[row]]++;
+            }
+        }
+        return partial;
+    }
+
+    public int getStudentCount() { return studentCount; }
+
+    // Subjects at least one student has a mark in, in subject ID order
+    public List<SubjectStats> getSubjects() { return subjects; }
+
+    public SubjectStats getSubject(String name) {
+        for (SubjectStats subject : subjects) {
+            if (subject.getName().equals(name)) {
+                return subject;
+            }
+        }
+        return null;
+    }
+
+    // Students whose overall percentage earns the grade
+    public int getGradeCount(ReportCard.Grade grade) {
+        return gradeCounts[grade.ordinal()];
+    }
+
+    // Pearson correlation over the students with marks in both, NaN when it is undefined
+    public double getCorrelation(String first, String second) {
+        int a = subjects.indexOf(getSubject(first));
+        int b = subjects.indexOf(getSubject(second));
+        return a < 0 || b < 0 ? Double.NaN : correlations[a][b];
+    }
+
+    // Rows and columns in the order of getSubjects()
+    public double[][] getCorrelationMatrix() {
+        double[][] copy = new double[correlations.length][];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = correlations[i].clone();
+        }
+        return copy;
+    }
+
+    String toText() {
+        StringBuilder text = new StringBuilder(4096);
+        text.append(String.format("Cohort of %d students\n", studentCount));
+        text.append(String.format("\n%-20s %8s %7s %7s %5s %5s", "Subject", "Students", "Mean", "SD", "Min", "Max"));
+        for (ReportCard.Grade grade : GRADES) {
+            text.append(String.format(" %6s", grade.getLabel()));
+        }
+        text.append('\n');
+        for (SubjectStats subject : subjects) {
+            text.append(String.format("%-20s %8d %7.2f %7.2f %5d %5d", subject.getName(), subject.getCount(),
+                    subject.getMean(), subject.getStandardDeviation(), subject.getMin(), subject.getMax()));
+            for (ReportCard.Grade grade : GRADES) {
+                text.append(String.format(" %6d", subject.getGradeCount(grade)));
+            }
+            text.append('\n');
+        }
+        text.append(String.format("%-20s %8s %7s %7s %5s %5s", "Overall", "", "", "", "", ""));
+        for (ReportCard.Grade grade : GRADES) {
+            text.append(String.format(" %6d", getGradeCount(grade)));
+        }
+        text.append("\n\nCorrelation between subjects:\n");
+        text.append(String.format("%-20s", ""));
+        for (int b = 0; b < subjects.size(); b++) {
+            text.append(String.format(" %6s", abbreviate(subjects.get(b).getName())));
+        }
+        text.append('\n');
+        for (int a = 0; a < subjects.size(); a++) {
+            text.append(String.format("%-20s", subjects.get(a).getName()));
+            for (int b = 0; b < subjects.size(); b++) {
+                text.append(String.format(" %6.2f", correlations[a][b]));
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String abbreviate(String name) {
+        return name.length() <= 6 ? name : name.substring(0, 6);
+    }
+
+    // Sums from one or more chunks
+    private static final class Partial {
+        final long[][] summaries;
+        // pairs[a][b] for a < b
+        final long[][][] pairs;
+        final int[] gradeCounts = new int[GRADES.length];
+
+        Partial(int width) {
+            summaries = new long[width][CohortKernels.AT_LEAST + THRESHOLDS.length];
+            pairs = new long[width][width][];
+            for (int a = 0; a < width; a++) {
+                summaries[a][CohortKernels.MIN] = Integer.MAX_VALUE;
+                summaries[a][CohortKernels.MAX] = -1;
+                for (int b = a + 1; b < width; b++) {
+                    pairs[a][b] = new long[CohortKernels.PAIR_SLOTS];
+                }
+            }
+        }
+
+        Partial merge(Partial other) {
+            for (int a = 0; a < summaries.length; a++) {
+                long[] mine = summaries[a];
+                long[] theirs = other.summaries[a];
+                for (int i = 0; i < mine.length; i++) {
+                    if (i == CohortKernels.MIN) {
+                        mine[i] = Math.min(mine[i], theirs[i]);
+                    } else if (i == CohortKernels.MAX) {
+                        mine[i] = Math.max(mine[i], theirs[i]);
+                    } else {
+                        mine[i] += theirs[i];
+                    }
+                }
+                for (int b = a + 1; b < summaries.length; b++) {
+                    for (int i = 0; i < CohortKernels.PAIR_SLOTS; i++) {
+                        pairs[a][b][i] += other.pairs[a][b][i];
+                    }
+                }
+            }
+            for (int g = 0; g < gradeCounts.length; g++) {
+                gradeCounts[g] += other.gradeCounts[g];
+            }
+            return this;
+        }
+
+        CohortStats finish(int rows) {
+            SubjectRegistry registry = SubjectRegistry.shared();
+            List<SubjectStats> subjects = new ArrayList<>();
+            List<Integer> ids = new ArrayList<>();
+            for (int id = 0; id < summaries.length; id++) {
+                if (summaries[id][CohortKernels.COUNT] > 0) {
+                    subjects.add(new SubjectStats(registry.nameOf(id), summaries[id]));
+                    ids.add(id);
+                }
+            }
+            double[][] correlations = new double[ids.size()][ids.size()];
+            for (int a = 0; a < ids.size(); a++) {
+                correlations[a][a] = 1;
+                for (int b = a + 1; b < ids.size(); b++) {
+                    double r = correlation(pairs[ids.get(a)][ids.get(b)]);
+                    correlations[a][b] = r;
+                    correlations[b][a] = r;
+                }
+            }
+            return new CohortStats(rows, Collections.unmodifiableList(subjects), gradeCounts, correlations);
+        }
+
+        private static double correlation(long[] sums) {
+            double n = sums[CohortKernels.PAIRS];
+            double covariance = n * sums[CohortKernels.SUM_XY] - (double) sums[CohortKernels.SUM_X] * sums[CohortKernels.SUM_Y];
+            double varianceX = n * sums[CohortKernels.SUM_XX] - (double) sums[CohortKernels.SUM_X] * sums[CohortKernels.SUM_X];
+            double varianceY = n * sums[CohortKernels.SUM_YY] - (double) sums[CohortKernels.SUM_Y] * sums[CohortKernels.SUM_Y];
+            return n < 2 || varianceX <= 0 || varianceY <= 0 ? Double.NaN : covariance / Math.sqrt(varianceX * varianceY);
+        }
+    }
+
+    static final class SubjectStats {
+        private final String name;
+        private final int count;
+        private final double mean;
+        private final double standardDeviation;
+        private final int min;
+        private final int max;
+        private final int[] gradeCounts = new int[GRADES.length];
+
+        private SubjectStats(String name, long[] summary) {
+            this.name = name;
+            this.count = (int) summary[CohortKernels.COUNT];
+            this.mean = (double) summary[CohortKernels.SUM] / count;
+            double variance = (double) summary[CohortKernels.SUM_OF_SQUARES] / count - mean * mean;
+            this.standardDeviation = Math.sqrt(Math.max(0, variance));
+            this.min = (int) summary[CohortKernels.MIN];
+            this.max = (int) summary[CohortKernels.MAX];
+            // Marks of at least each threshold, less those of at least the next grade up
+            long above = 0;
+            for (int g = 0; g < THRESHOLDS.length; g++) {
+                long atLeast = summary[CohortKernels.AT_LEAST + g];
+                gradeCounts[g] = (int) (atLeast - above);
+                above = atLeast;
+            }
+            gradeCounts[GRADES.length - 1] = (int) (count - above);
+        }
+
+        public String getName() { return name; }
+        public int getCount() { return count; }
+        public double getMean() { return mean; }
+        // Over the cohort itself, not a sample of it
+        public double getStandardDeviation() { return standardDeviation; }
+        public int getMin() { return min; }
+        public int getMax() { return max; }
+
+        // Students whose mark in this subject, as a percentage, earns the grade
+        public int getGradeCount(ReportCard.Grade grade) {
+            return gradeCounts[grade.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package trmscii;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Headless command mode for scripts and nightly jobs.
+ * Reads one command per line, e.g. "profile 7", "marks 3", "fees --all" or
+ * "notices --active", and answers with flat records, one per line, as JSON
+ * objects or tab-separated values. Every record starts with its type, so
+ * the answers to a whole script can go through one pipe. A command that
+ * cannot be answered gets an error record and the run carries on.
+ *
+ * Input is split and numbers are parsed by hand, without exceptions, and
+ * output is buffered and only flushed when no more input is waiting, so a
+ * piped script runs at tens of thousands of commands a second while an
+ * interactive caller still sees each answer at once.
+ */
+final class CommandMode {
+    // What parseInt returns for anything that is not a decimal int
+    static final long INVALID = Long.MIN_VALUE;
+
+    private static final int FLUSH_AT = 1 << 16;
+
+    private static final String HELP =
+            "profile ROLL|--admission N\tname, parents and admission number\n"
+            + "marks ROLL|--admission N\tone mark record per subject, then the result and class rank\n"
+            + "fees ROLL|--admission N|--all\tpaid, outstanding and late fees\n"
+            + "payments ROLL|--admission N\tone record per fee payment\n"
+            + "notices [--active]\tthe notice board\n"
+            + "tests\tupcoming tests\n"
+            + "search QUERY\tnotices and tests matching the query\n"
+            + "find QUERY\tstudents whose or whose parents' names match\n"
+            + "help\tthis list";
+
+    enum Format { JSON, TSV }
+
+    private final SchoolManagementSystem system;
+    private final LocalDate today;
+    private final FeeSchedule schedule = FeeSchedule.standard();
+    private final FeeDefaulterJob.Windows windows;
+    private final Sink sink;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_AT + 4096);
+    private int commands;
+    private int errors;
+
+    CommandMode(SchoolManagementSystem system, Format format, LocalDate today) {
+        this.system = system;
+        this.today = today;
+        this.windows = new FeeDefaulterJob.Windows(schedule, today);
+        this.sink = format == Format.JSON ? new JsonSink(buffer) : new TsvSink(buffer);
+    }
+
+    public int getCommands() { return commands; }
+    public int getErrors() { return errors; }
+
+    // Runs commands until the input ends
+    void run(BufferedReader in, Writer out) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            execute(line);
+            if (buffer.length() >= FLUSH_AT || !in.ready()) {
+                out.append(buffer);
+                buffer.setLength(0);
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        }
+        out.append(buffer);
+        buffer.setLength(0);
+        out.flush();
+    }
+
+    void execute(String line) {
+        int start = skipSpaces(line, 0);
+        if (start == line.length() || line.charAt(start) == '#') {
+            return;
+        }
+        int end = start;
+        while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+            end++;
+        }
+        String command = line.substring(start, end);
+        String argument = line.substring(skipSpaces(line, end)).trim();
+        commands++;
+        switch (command) {
+            case "profile":
+                profile(line, argument);
+                break;
+            case "marks":
+                marks(line, argument);
+                break;
+            case "fees":
+                fees(line, argument);
+                break;
+            case "payments":
+                payments(line, argument);
+                break;
+            case "notices":
+                notices(line, argument);
+                break;
+            case "tests":
+                tests();
+                break;
+            case "search":
+                search(argument);
+                break;
+            case "find":
+                find(argument);
+                break;
+            case "help":
+                help();
+                break;
+            default:
+                error(line, "Unknown command \"" + command + "\"; try help");
+        }
+    }
+
+    private void profile(String line, String argument) {
+        SchoolManagementSystem.Student student = student(line, argument);
+        if (student == null) {
+            return;
+        }
+        sink.begin("profile");
+        sink.field("roll", student.getRollNumber());
+        sink.field("admission", student.getAdmissionNumber());
+        sink.field("name", student.getName());
+        sink.field("mother", student.getMotherName());
+        sink.field("father", student.getFatherName());
+        sink.end();
+    }
+
+    private void marks(String line, String argument) {
+        SchoolManagementSystem.Student student = student(line, argument);
+        if (student == null) {
+            return;
+        }
+        ReportCard card = ReportCard.of(student);
+        SubjectRegistry registry = SubjectRegistry.shared();
+        int i = 0;
+        for (long remaining = card.getSubjectMask(); remaining != 0; remaining &= remaining - 1) {
+            sink.begin("mark");
+            sink.field("roll", card.getRollNumber());
+            sink.field("subject", registry.nameOf(Long.numberOfTrailingZeros(remaining)));
+            sink.field("mark", card.getMarkAt(i++));
+            sink.field("max", ReportCard.MAX_MARK);
+            sink.end();
+        }
+        RankingEngine ranking = system.getRankingEngine();
+        sink.begin("result");
+        sink.field("roll", card.getRollNumber());
+        sink.field("subjects", card.getSubjectCount());
+        sink.field("total", card.getTotalMarks());
+        sink.field("max_total", card.getMaxTotal());
+        sink.field("percentage", round(card.getPercentage()));
+        sink.field("grade", card.getGrade().getLabel());
+        sink.field("rank", ranking.rank(student));
+        sink.field("ranked", ranking.rankedCount());
+        sink.end();
+    }
+
+    private void fees(String line, String argument) {
+        if (argument.equals("--all")) {
+            for (SchoolManagementSystem.Student student : system.getStudents()) {
+                fees(student);
+            }
+            return;
+        }
+        SchoolManagementSystem.Student student = student(line, argument);
+        if (student != null) {
+            fees(student);
+        }
+    }
+
+    private void fees(SchoolManagementSystem.Student student) {
+        FeeLedger ledger = student.getFeeLedger();
+        long missed = windows.missed(ledger, 0, 0);
+        sink.begin("fees");
+        sink.field("roll", student.getRollNumber());
+        sink.field("admission", student.getAdmissionNumber());
+        sink.field("payments", ledger.size());
+        sink.field("paid", round(ledger.totalPaid()));
+        sink.field("due", round(schedule.amountDueBy(today)));
+        sink.field("missed_windows", Long.bitCount(missed));
+        sink.field("late_fee", round(windows.lateFees(missed)));
+        sink.field("balance", round(windows.balance(ledger, missed)));
+        sink.end();
+    }
+
+    private void payments(String line, String argument) {
+        SchoolManagementSystem.Student student = student(line, argument);
+        if (student == null) {
+            return;
+        }
+        for (SchoolManagementSystem.FeePayment payment : student.getFeeLedger().asList()) {
+            sink.begin("payment");
+            sink.field("roll", student.getRollNumber());
+            sink.field("date", payment.getPaymentDate().toString());
+            sink.field("amount", round(payment.getAmount()));
+            sink.field("method", payment.getPaymentMethod());
+            sink.field("receipt", payment.getReceiptNumber());
+            sink.end();
+        }
+    }
+
+    private void notices(String line, String argument) {
+        boolean activeOnly = argument.equals("--active");
+        if (!activeOnly && !argument.isEmpty()) {
+            error(line, "notices takes no argument but --active");
+            return;
+        }
+        List<SchoolManagementSystem.Notice> notices = activeOnly
+                ? system.getNoticeBoard().active() : system.getNotices();
+        for (SchoolManagementSystem.Notice notice : notices) {
+            notice(notice);
+        }
+    }
+
+    private void notice(SchoolManagementSystem.Notice notice) {
+        sink.begin("notice");
+        sink.field("title", notice.getTitle());
+        sink.field("posted", notice.getPostDate().toString());
+        sink.field("expires", notice.getExpiryDate().toString());
+        sink.field("active", notice.isActive());
+        sink.field("content", notice.getContent());
+        sink.end();
+    }
+
+    private void tests() {
+        for (SchoolManagementSystem.Test test : system.getUpcomingTests()) {
+            test(test);
+        }
+    }
+
+    private void test(SchoolManagementSystem.Test test) {
+        sink.begin("test");
+        sink.field("subject", test.getSubject());
+        sink.field("description", test.getDescription());
+        sink.field("date", test.getTestDate().toString());
+        sink.field("max_marks", test.getMaxMarks());
+        sink.field("syllabus", test.getSyllabus());
+        sink.end();
+    }
+
+    private void search(String query) {
+        for (SearchIndex.Hit hit : system.getSearchIndex().search(query, 10)) {
+            if (hit.getDocument() instanceof SchoolManagementSystem.Notice) {
+                notice((SchoolManagementSystem.Notice) hit.getDocument());
+            } else {
+                test((SchoolManagementSystem.Test) hit.getDocument());
+            }
+        }
+    }
+
+    private void find(String query) {
+        for (NameIndex.Match match : system.getNameIndex().search(query, 10)) {
+            SchoolManagementSystem.Student student = match.getStudent();
+            sink.begin("student");
+            sink.field("roll", student.getRollNumber());
+            sink.field("name", student.getName());
+            sink.field("mother", student.getMotherName());
+            sink.field("father", student.getFatherName());
+            sink.field("score", round(match.getScore()));
+            sink.end();
+        }
+    }
+
+    private void help() {
+        for (String entry : HELP.split("\n")) {
+            int tab = entry.indexOf('\t');
+            sink.begin("help");
+            sink.field("usage", entry.substring(0, tab));
+            sink.field("gives", entry.substring(tab + 1));
+            sink.end();
+        }
+    }
+
+    // The student named by "ROLL" or "--admission N", or null after writing an error record
+    private SchoolManagementSystem.Student student(String line, String argument) {
+        boolean byAdmission = argument.startsWith("--admission");
+        String number = byAdmission ? argument.substring("--admission".length()).trim() : argument;
+        long value = parseInt(number);
+        if (value == INVALID || value <= 0) {
+            error(line, byAdmission ? "Expected --admission and a positive admission number" : "Expected a roll number");
+            return null;
+        }
+        SchoolManagementSystem.Student student = byAdmission
+                ? system.getStudentByAdmissionNumber((int) value) : system.getStudent((int) value);
+        if (student == null) {
+            error(line, (byAdmission ? "No student with admission number " : "No student with roll number ") + value);
+        }
+        return student;
+    }
+
+    private void error(String line, String message) {
+        errors++;
+        sink.begin("error");
+        sink.field("command", line.trim());
+        sink.field("message", message);
+        sink.end();
+    }
+
+    /**
+     * Parses an optionally signed decimal int without throwing, returning
+     * INVALID for anything else, including values out of the int range.
+     */
+    static long parseInt(String text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i = 1;
+        }
+        if (i == length) {
+            return INVALID;
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return INVALID;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? INVALID : value;
+    }
+
+    private static int skipSpaces(String line, int from) {
+        while (from < line.length() && Character.isWhitespace(line.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    // Money and percentages to two places
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    // Writes one record at a time: its type, then its fields in order
+    private interface Sink {
+        void begin(String type);
+        void field(String name, String value);
+        void field(String name, long value);
+        void field(String name, double value);
+        void field(String name, boolean value);
+        void end();
+    }
+
+    // {"type":"profile","roll":7,...} per line
+    private static final class JsonSink implements Sink {
+        private final JsonWriter json;
+
+        JsonSink(StringBuilder out) {
+            this.json = new JsonWriter(out);
+        }
+
+        @Override
+        public void begin(String type) {
+            json.reset().beginObject().field("type", type);
+        }
+
+        @Override
+        public void field(String name, String value) {
+            json.field(name, value);
+        }
+
+        @Override
+        public void field(String name, long value) {
+            json.field(name, value);
+        }
+
+        @Override
+        public void field(String name, double value) {
+            json.field(name, value);
+        }
+
+        @Override
+        public void field(String name, boolean value) {
+            json.field(name, value);
+        }
+
+        @Override
+        public void end() {
+            json.endObject().builder().append('\n');
+        }
+    }
+
+    // The type, then the values in field order; tabs, newlines and backslashes are escaped
+    private static final class TsvSink implements Sink {
+        private final StringBuilder out;
+
+        TsvSink(StringBuilder out) {
+            this.out = out;
+        }
+
+        @Override
+        public void begin(String type) {
+            out.append(type);
+        }
+
+        @Override
+        public void field(String name, String value) {
+            out.append('\t');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\t': out.append("\\t"); break;
+                    case '\n': out.append("\\n"); break;
+                    case '\r': out.append("\\r"); break;
+                    case '\\': out.append("\\\\"); break;
+                    default: out.append(c);
+                }
+            }
+        }
+
+        @Override
+        public void field(String name, long value) {
+            out.append('\t').append(value);
+        }
+
+        @Override
+        public void field(String name, double value) {
+            out.append('\t').append(value);
+        }
+
+        @Override
+        public void field(String name, boolean value) {
+            out.append('\t').append(value);
+        }
+
+        @Override
+        public void end() {
+            out.append('\n');
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Prebuilt image of the whole database for instant start: the roster as a
+ * MappedStudentStore, plus school.img with the notices, tests and timetable.
+ * Opening an image maps the roster and builds students only as they are
+ * looked up, so startup costs the same for ten students or ten million.
+ * The school file is small and read whole, but only when something first
+ * needs a notice, test or the timetable; batch jobs over the roster and
+ * the portal's first prompt never read it.
+ *
+ * school.img is versioned on its own, separately from the roster columns:
+ *   magic, version, notices, tests, timetable, CRC32C of everything before it
+ */
+final class DatabaseImage {
+    static final String SCHOOL_FILE = "school.img";
+    private static final long MAGIC = 0x54524D494D414731L; // "TRMIMAG1"
+    private static final int VERSION = 1;
+
+    private DatabaseImage() {
+    }
+
+    static void write(Path directory, SchoolManagementSystem system) throws IOException {
+        MappedStudentStore.write(directory, system.getStudents());
+        writeSchool(directory, system);
+    }
+
+    // Everything but the roster, for when the roster was written on its own
+    static void writeSchool(Path directory, SchoolManagementSystem system) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(MAGIC);
+        out.writeInt(VERSION);
+        List<SchoolManagementSystem.Notice> notices = system.getNotices();
+        out.writeInt(notices.size());
+        for (SchoolManagementSystem.Notice notice : notices) {
+            DatabaseJournal.writeNotice(out, notice);
+        }
+        List<SchoolManagementSystem.Test> tests = system.getUpcomingTests();
+        out.writeInt(tests.size());
+        for (SchoolManagementSystem.Test test : tests) {
+            DatabaseJournal.writeTest(out, test);
+        }
+        SnapshotFile.writeTimeTable(out, system.getTimeTable());
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        Path target = directory.resolve(SCHOOL_FILE);
+        Path temp = directory.resolve(SCHOOL_FILE + ".tmp");
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // What school.img holds, read whole
+    static final class School {
+        final List<SchoolManagementSystem.Notice> notices;
+        final List<SchoolManagementSystem.Test> tests;
+        final TimeTable timeTable;
+
+        School(List<SchoolManagementSystem.Notice> notices, List<SchoolManagementSystem.Test> tests, TimeTable timeTable) {
+            this.notices = notices;
+            this.tests = tests;
+            this.timeTable = timeTable;
+        }
+    }
+
+    static School readSchool(Path directory) throws IOException {
+        Path file = directory.resolve(SCHOOL_FILE);
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 16) {
+            throw new IOException("Not a database image: " + file);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length - 4);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readLong() != MAGIC) {
+            throw new IOException("Not a database image: " + file);
+        }
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported database image version " + version + ": " + file);
+        }
+        int noticeCount = in.readInt();
+        List<SchoolManagementSystem.Notice> notices = new ArrayList<>(noticeCount);
+        for (int i = 0; i < noticeCount; i++) {
+            notices.add(DatabaseJournal.readNotice(in));
+        }
+        int testCount = in.readInt();
+        List<SchoolManagementSystem.Test> tests = new ArrayList<>(testCount);
+        for (int i = 0; i < testCount; i++) {
+            tests.add(DatabaseJournal.readTest(in));
+        }
+        TimeTable timeTable = new TimeTable();
+        SnapshotFile.readTimeTable(in, timeTable);
+        if (in.readInt() != (int) crc.getValue()) {
+            throw new IOException("Database image checksum mismatch: " + file);
+        }
+        return new School(notices, tests, timeTable);
+    }
+}
@@ -0,0 +1,394 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Durability layer for SchoolManagementSystem.
+ * Every mutation is appended to the write-ahead log before it is applied in
+ * memory. Once enough records pile up the whole database is written to a
+ * compacted snapshot and the log segments it covers are deleted; recovery
+ * loads the newest snapshot and replays the log tail after it.
+ *
+ * Mutations from many threads hold the shared side of a read-write lock
+ * while they are logged and applied; a checkpoint takes the exclusive side,
+ * so a snapshot never contains a change whose record is still in the tail.
+ * Checkpoints run on a background thread once the threshold is crossed.
+ *
+ * A mutation returns only once its record has been forced to disk. It waits
+ * in awaitCommit, which the system calls after releasing every lock the
+ * mutation took, student monitors included, so the log's group commit
+ * shares each force among every writer waiting at the time. With asyncCommit a mutation returns as
+ * soon as its record is buffered, so a crash may lose the last few
+ * milliseconds of acknowledged changes; sync() still waits for them.
+ */
+class DatabaseJournal implements SchoolManagementSystem.MutationListener, Closeable {
+    // Logged before students had an enrolment; still replayed, into Enrolment.DEFAULT
+    static final byte STUDENT_WITHOUT_ENROLMENT = 1;
+    static final byte MARKS = 2;
+    static final byte FEE_PAYMENT = 3;
+    static final byte NOTICE = 4;
+    static final byte TEST = 5;
+    static final byte NOTICE_UPDATE = 6;
+    static final byte STUDENT = 7;
+
+    private static final int DEFAULT_SNAPSHOT_EVERY = 100_000;
+
+    private final Path directory;
+    private final WriteAheadLog log;
+    private final int snapshotEvery;
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final AtomicInteger recordsSinceSnapshot = new AtomicInteger();
+    private final AtomicBoolean checkpointPending = new AtomicBoolean();
+    private final ExecutorService checkpointer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final boolean asyncCommit;
+    // LSN of the last record the current thread's mutation appended, or 0
+    private final ThreadLocal<long[]> uncommitted = ThreadLocal.withInitial(() -> new long[1]);
+    private volatile SchoolManagementSystem system;
+
+    DatabaseJournal(Path directory) {
+        this(directory, new WriteAheadLog(directory.resolve("wal")), DEFAULT_SNAPSHOT_EVERY, false);
+    }
+
+    DatabaseJournal(Path directory, WriteAheadLog log, int snapshotEvery) {
+        this(directory, log, snapshotEvery, false);
+    }
+
+    DatabaseJournal(Path directory, WriteAheadLog log, int snapshotEvery, boolean asyncCommit) {
+        this.directory = directory;
+        this.log = log;
+        this.snapshotEvery = snapshotEvery;
+        this.asyncCommit = asyncCommit;
+    }
+
+    /**
+     * Rebuilds system from the newest snapshot plus the log tail. A student
+     * the roster rejects is reported on stderr and skipped; any other record
+     * that cannot be applied stops recovery with an IOException.
+     * Returns false when the directory does not hold a database yet.
+     */
+    boolean recover(SchoolManagementSystem system) throws IOException {
+        Files.createDirectories(directory);
+        long snapshotLsn = SnapshotFile.loadLatest(directory, system);
+        boolean[] replayed = {false};
+        long lastLsn = log.recover(Math.max(snapshotLsn, 0), (lsn, type, payload) -> {
+            apply(system, type, payload);
+            replayed[0] = true;
+            recordsSinceSnapshot.incrementAndGet();
+        });
+        return snapshotLsn >= 0 || replayed[0] || lastLsn > 0;
+    }
+
+    // Starts journaling every mutation made to system from now on
+    void attach(SchoolManagementSystem system) {
+        this.system = system;
+        system.setMutationListener(this);
+    }
+
+    // Writes a snapshot of the current state and drops the log it makes redundant
+    void checkpoint() throws IOException {
+        checkpointLock.writeLock().lock();
+        try {
+            long lsn = log.rollSegment();
+            SnapshotFile.write(directory, lsn, system);
+            log.compactUpTo(lsn);
+            recordsSinceSnapshot.set(0);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    // Blocks until every mutation journaled so far is on disk
+    void sync() throws IOException {
+        log.sync();
+    }
+
+    @Override
+    public void close() throws IOException {
+        checkpointer.shutdown();
+        try {
+            checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+
+    @Override
+    public void beginMutation() {
+        checkpointLock.readLock().lock();
+    }
+
+    @Override
+    public void endMutation() {
+        checkpointLock.readLock().unlock();
+        if (recordsSinceSnapshot.get() >= snapshotEvery && system != null
+                && checkpointPending.compareAndSet(false, true)) {
+            checkpointer.execute(() -> {
+                try {
+                    checkpoint();
+                } catch (IOException e) {
+                    System.err.println("Checkpoint failed, the log keeps growing: " + e.getMessage());
+                } finally {
+                    checkpointPending.set(false);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void awaitCommit() {
+        if (asyncCommit) {
+            return;
+        }
+        long[] lsn = uncommitted.get();
+        if (lsn[0] == 0) {
+            return;
+        }
+        try {
+            log.awaitDurable(lsn[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Mutation was applied but could not be made durable", e);
+        } finally {
+            lsn[0] = 0;
+        }
+    }
+
+    @Override
+    public void studentAdded(SchoolManagementSystem.Student student) {
+        append(STUDENT, out -> writeStudentIdentity(out, student));
+    }
+
+    @Override
+    public void marksAdded(SchoolManagementSystem.Student student, String subject, int mark) {
+        append(MARKS, out -> {
+            out.writeInt(student.getRollNumber());
+            out.writeUTF(subject);
+            out.writeInt(mark);
+        });
+    }
+
+    @Override
+    public void feePaymentAdded(SchoolManagementSystem.Student student, SchoolManagementSystem.FeePayment payment) {
+        append(FEE_PAYMENT, out -> {
+            out.writeInt(student.getRollNumber());
+            writeFeePayment(out, payment);
+        });
+    }
+
+    @Override
+    public void noticeAdded(SchoolManagementSystem.Notice notice) {
+        append(NOTICE, out -> writeNotice(out, notice));
+    }
+
+    @Override
+    public void noticeUpdated(int index, String title, String content, LocalDate expiryDate) {
+        append(NOTICE_UPDATE, out -> {
+            out.writeInt(index);
+            out.writeUTF(title);
+            writeLongString(out, content);
+            out.writeLong(expiryDate.toEpochDay());
+        });
+    }
+
+    @Override
+    public void testAdded(SchoolManagementSystem.Test test) {
+        append(TEST, out -> writeTest(out, test));
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(byte type, RecordWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writer.write(out);
+            out.flush();
+            long lsn = log.append(type, bytes.toByteArray());
+            recordsSinceSnapshot.incrementAndGet();
+            if (!asyncCommit) {
+                uncommitted.get()[0] = lsn;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal mutation", e);
+        }
+    }
+
+    private static void apply(SchoolManagementSystem system, byte type, ByteBuffer payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(payload));
+        switch (type) {
+            case STUDENT_WITHOUT_ENROLMENT:
+                replayStudent(system, readStudentIdentity(in, false));
+                break;
+            case STUDENT:
+                replayStudent(system, readStudentIdentity(in, true));
+                break;
+            case MARKS: {
+                SchoolManagementSystem.Student student = requireStudent(system, in.readInt());
+                student.addMarks(in.readUTF(), in.readInt());
+                break;
+            }
+            case FEE_PAYMENT: {
+                SchoolManagementSystem.Student student = requireStudent(system, in.readInt());
+                student.addFeePayment(readFeePayment(in));
+                break;
+            }
+            case NOTICE:
+                system.addNotice(readNotice(in));
+                break;
+            case TEST:
+                system.addTest(readTest(in));
+                break;
+            case NOTICE_UPDATE: {
+                int index = in.readInt();
+                List<SchoolManagementSystem.Notice> notices = system.getNotices();
+                if (index < 0 || index >= notices.size()) {
+                    throw new IOException("Journal refers to unknown notice " + index);
+                }
+                system.updateNotice(notices.get(index), in.readUTF(), readLongString(in), LocalDate.ofEpochDay(in.readLong()));
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    // Logs written before the roster checked a student ahead of journaling it can
+    // hold one it rejects; the roster never kept that student, so nothing is lost
+    private static void replayStudent(SchoolManagementSystem system, SchoolManagementSystem.Student student) {
+        try {
+            system.addStudent(student);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Skipped journaled student " + student.getRollNumber() + ": " + e.getMessage());
+        }
+    }
+
+    private static SchoolManagementSystem.Student requireStudent(SchoolManagementSystem system, int rollNumber)
+            throws IOException {
+        SchoolManagementSystem.Student student = system.getStudent(rollNumber);
+        if (student == null) {
+            throw new IOException("Journal refers to unknown roll number " + rollNumber);
+        }
+        return student;
+    }
+
+    // Entity encodings shared by log records and snapshots
+    static void writeStudentIdentity(DataOutput out, SchoolManagementSystem.Student student) throws IOException {
+        out.writeInt(student.getRollNumber());
+        out.writeUTF(student.getName());
+        out.writeUTF(student.getMotherName());
+        out.writeUTF(student.getFatherName());
+        out.writeInt(student.getAdmissionNumber());
+        Enrolment enrolment = student.getEnrolment();
+        out.writeUTF(enrolment.getSchool());
+        out.writeUTF(enrolment.getClassName());
+        out.writeUTF(enrolment.getSection());
+    }
+
+    // Without an enrolment, as older logs and snapshots wrote it, the student is in Enrolment.DEFAULT
+    static SchoolManagementSystem.Student readStudentIdentity(DataInput in, boolean enrolled) throws IOException {
+        int rollNumber = in.readInt();
+        String name = in.readUTF();
+        String motherName = in.readUTF();
+        String fatherName = in.readUTF();
+        int admissionNumber = in.readInt();
+        Enrolment enrolment = enrolled ? Enrolment.of(in.readUTF(), in.readUTF(), in.readUTF()) : Enrolment.DEFAULT;
+        return new SchoolManagementSystem.Student(rollNumber, name, motherName, fatherName, admissionNumber, enrolment);
+    }
+
+    static void writeFeePayment(DataOutput out, SchoolManagementSystem.FeePayment payment) throws IOException {
+        out.writeDouble(payment.getAmount());
+        out.writeLong(payment.getPaymentDate().toEpochDay());
+        out.writeUTF(payment.getPaymentMethod());
+        out.writeUTF(payment.getReceiptNumber());
+    }
+
+    static SchoolManagementSystem.FeePayment readFeePayment(DataInput in) throws IOException {
+        double amount = in.readDouble();
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        String method = in.readUTF();
+        String receipt = in.readUTF();
+        return new SchoolManagementSystem.FeePayment(amount, date, method, receipt);
+    }
+
+    static void writeNotice(DataOutput out, SchoolManagementSystem.Notice notice) throws IOException {
+        out.writeUTF(notice.getTitle());
+        writeLongString(out, notice.getContent());
+        out.writeLong(notice.getPostDate().toEpochDay());
+        out.writeLong(notice.getExpiryDate().toEpochDay());
+    }
+
+    static SchoolManagementSystem.Notice readNotice(DataInput in) throws IOException {
+        String title = in.readUTF();
+        String content = readLongString(in);
+        LocalDate postDate = LocalDate.ofEpochDay(in.readLong());
+        LocalDate expiryDate = LocalDate.ofEpochDay(in.readLong());
+        return new SchoolManagementSystem.Notice(title, content, postDate, expiryDate);
+    }
+
+    static void writeTest(DataOutput out, SchoolManagementSystem.Test test) throws IOException {
+        out.writeUTF(test.getSubject());
+        writeLongString(out, test.getDescription());
+        out.writeLong(test.getTestDate().toEpochDay());
+        writeLongString(out, test.getSyllabus());
+        out.writeInt(test.getMaxMarks());
+    }
+
+    static SchoolManagementSystem.Test readTest(DataInput in) throws IOException {
+        String subject = in.readUTF();
+        String description = readLongString(in);
+        LocalDate testDate = LocalDate.ofEpochDay(in.readLong());
+        String syllabus = readLongString(in);
+        int maxMarks = in.readInt();
+        return new SchoolManagementSystem.Test(subject, description, testDate, syllabus, maxMarks);
+    }
+
+    // writeUTF is limited to 64KB, which notice bodies may exceed
+    private static void writeLongString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readLongString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
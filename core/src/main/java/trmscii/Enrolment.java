@@ -0,0 +1,102 @@
+package trmscii;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Where a student studies: the school, the class and the section, e.g.
+ * CARMEL SCHOOL - JORHAT, class 10, section A. It is also the key the
+ * roster is partitioned by.
+ *
+ * Instances are interned, so the students of a section share one object
+ * and equal enrolments are usually the same reference. They sort by school,
+ * then class (numerically when both are numbers), then section.
+ */
+final class Enrolment implements Comparable<Enrolment> {
+    private static final ConcurrentHashMap<Enrolment, Enrolment> INTERNED = new ConcurrentHashMap<>();
+
+    // Where every student was before the group had more than one school
+    static final Enrolment DEFAULT = of("CARMEL SCHOOL - JORHAT", "10", "A");
+
+    private final String school;
+    private final String className;
+    private final String section;
+    private final int hash;
+
+    private Enrolment(String school, String className, String section) {
+        this.school = school;
+        this.className = className;
+        this.section = section;
+        this.hash = Objects.hash(school, className, section);
+    }
+
+    static Enrolment of(String school, String className, String section) {
+        if (school.isBlank() || className.isBlank() || section.isBlank()) {
+            throw new IllegalArgumentException("School, class and section must not be empty");
+        }
+        Enrolment enrolment = new Enrolment(school.trim(), className.trim(), section.trim());
+        Enrolment existing = INTERNED.putIfAbsent(enrolment, enrolment);
+        return existing != null ? existing : enrolment;
+    }
+
+    String getSchool() { return school; }
+    String getClassName() { return className; }
+    String getSection() { return section; }
+
+    // The timetable's name for the section, e.g. "10A"
+    String getSectionName() {
+        return className + section;
+    }
+
+    @Override
+    public int compareTo(Enrolment other) {
+        int bySchool = school.compareTo(other.school);
+        if (bySchool != 0) {
+            return bySchool;
+        }
+        int byClass = compareClasses(className, other.className);
+        return byClass != 0 ? byClass : section.compareTo(other.section);
+    }
+
+    // "9" before "10"; names that are not numbers sort after numbers, alphabetically
+    private static int compareClasses(String a, String b) {
+        boolean aNumber = isNumber(a);
+        boolean bNumber = isNumber(b);
+        if (aNumber && bNumber) {
+            return a.length() != b.length() ? Integer.compare(a.length(), b.length()) : a.compareTo(b);
+        }
+        return aNumber != bNumber ? (aNumber ? -1 : 1) : a.compareTo(b);
+    }
+
+    private static boolean isNumber(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return value.charAt(0) != '0' || value.length() == 1;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Enrolment)) {
+            return false;
+        }
+        Enrolment that = (Enrolment) other;
+        return hash == that.hash && school.equals(that.school) && className.equals(that.className)
+                && section.equals(that.section);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return school + " / " + className + " / " + section;
+    }
+}
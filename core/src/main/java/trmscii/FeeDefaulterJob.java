@@ -0,0 +1,446 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Finds the students who missed instalment windows and works out their
+ * late fees, for the whole school at once.
+ *
+ * A window is missed when the payments dated up to its last day fall short
+ * of everything due up to and including that instalment; each missed window
+ * costs the schedule's late fee. Windows still open on the as-of date are
+ * not judged yet.
+ *
+ * The roster is streamed once in batches that workers take from a bounded
+ * queue, so memory holds a few batches and one small record per student
+ * rather than anybody's payment history. Each worker writes its own part of
+ * the report and of the state file; the parts are joined at the end.
+ *
+ * The state file remembers, per student, how many payments were on record
+ * and which windows were missed. On the next run a student with no new
+ * payments keeps those results and is only judged against windows that
+ * closed since. Windows are tracked as a bitmask from the schedule's first
+ * one, so a calendar can hold at most 64.
+ */
+final class FeeDefaulterJob {
+    static final String REPORT = "defaulters.csv";
+    static final String SUMMARY = "defaulters-summary.txt";
+    static final String STATE = "defaulters.state";
+    static final String CSV_HEADER = "roll,name,admission,missed_windows,late_fee,balance,missed";
+
+    private static final long MAGIC = 0x54524D4445464C54L; // "TRMDEFLT"
+    private static final int VERSION = 1;
+    private static final int BATCH = 1024;
+    private static final int MAX_WINDOWS = 64;
+
+    private final FeeSchedule schedule;
+    private final int workers;
+
+    FeeDefaulterJob() {
+        this(FeeSchedule.standard(), Runtime.getRuntime().availableProcessors());
+    }
+
+    FeeDefaulterJob(FeeSchedule schedule, int workers) {
+        this.schedule = schedule;
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * The windows closed by a date, with what had to be paid by the end of
+     * each. Shared by the batch job and the portal's fee screen.
+     */
+    static final class Windows {
+        private final FeeSchedule schedule;
+        private final LocalDate asOf;
+        private final List<FeeSchedule.Instalment> closed = new ArrayList<>();
+        // dueThrough[w] is everything due up to and including window w, in paise
+        private final long[] dueThrough;
+
+        Windows(FeeSchedule schedule, LocalDate asOf) {
+            this.schedule = schedule;
+            this.asOf = asOf;
+            for (FeeSchedule.Instalment instalment : schedule.instalmentsUpTo(asOf)) {
+                if (instalment.getWindowEnd().isBefore(asOf)) {
+                    closed.add(instalment);
+                }
+            }
+            if (closed.size() > MAX_WINDOWS) {
+                throw new IllegalStateException("Cannot track more than " + MAX_WINDOWS + " instalment windows");
+            }
+            dueThrough = new long[closed.size()];
+            long due = 0;
+            for (int w = 0; w < dueThrough.length; w++) {
+                due += toPaise(closed.get(w).getAmount());
+                dueThrough[w] = due;
+            }
+        }
+
+        int size() {
+            return closed.size();
+        }
+
+        FeeSchedule.Instalment get(int window) {
+            return closed.get(window);
+        }
+
+        // Adds windows from..size() that the ledger's payments missed to the mask
+        long missed(FeeLedger ledger, int from, long mask) {
+            for (int w = from; w < dueThrough.length; w++) {
+                if (toPaise(ledger.totalPaidUpTo(closed.get(w).getWindowEnd())) < dueThrough[w]) {
+                    mask |= 1L << w;
+                }
+            }
+            return mask;
+        }
+
+        double lateFees(long mask) {
+            return Long.bitCount(mask) * schedule.getLateFee();
+        }
+
+        // Outstanding instalments and late fees together
+        double balance(FeeLedger ledger, long mask) {
+            return Math.max(0, schedule.amountDueBy(asOf) - ledger.totalPaid()) + lateFees(mask);
+        }
+
+        // "First installment 2024; Second installment 2025"
+        String describe(long mask) {
+            StringBuilder text = new StringBuilder();
+            for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                FeeSchedule.Instalment instalment = closed.get(Long.numberOfTrailingZeros(remaining));
+                if (text.length() > 0) {
+                    text.append("; ");
+                }
+                text.append(instalment.getName()).append(' ').append(instalment.getWindowStart().getYear());
+            }
+            return text.toString();
+        }
+    }
+
+    static final class Result {
+        private final LocalDate asOf;
+        private final boolean incremental;
+        private final int students;
+        private final int reassessed;
+        private final int defaulters;
+        private final double lateFees;
+        private final Windows windows;
+        private final int[] missedPerWindow;
+        private final long elapsedMillis;
+
+        private Result(LocalDate asOf, boolean incremental, int students, int reassessed, int defaulters,
+                double lateFees, Windows windows, int[] missedPerWindow, long elapsedMillis) {
+            this.asOf = asOf;
+            this.incremental = incremental;
+            this.students = students;
+            this.reassessed = reassessed;
+            this.defaulters = defaulters;
+            this.lateFees = lateFees;
+            this.windows = windows;
+            this.missedPerWindow = missedPerWindow;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public LocalDate getAsOf() { return asOf; }
+        public boolean isIncremental() { return incremental; }
+        public int getStudents() { return students; }
+        // Students whose payments changed since the last run, or every student on a full run
+        public int getReassessed() { return reassessed; }
+        public int getDefaulters() { return defaulters; }
+        public double getLateFees() { return lateFees; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public int getMissed(int window) {
+            return missedPerWindow[window];
+        }
+
+        String toText() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("Fee defaulters as of %s\n", asOf.format(DateTimeFormatter.ISO_LOCAL_DATE)));
+            text.append(String.format("Students: %d, defaulters: %d, late fees: Rs. %.2f\n", students, defaulters, lateFees));
+            text.append("\nMissed windows:\n");
+            for (int w = 0; w < windows.size(); w++) {
+                FeeSchedule.Instalment instalment = windows.get(w);
+                text.append(String.format("%-20s %d: %d students\n", instalment.getName(),
+                        instalment.getWindowStart().getYear(), missedPerWindow[w]));
+            }
+            return text.toString();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Fee defaulters as of %s: %d of %d students owe Rs. %.2f in late fees "
+                    + "(%s run, %d reassessed, %dms)", asOf, defaulters, students, lateFees,
+                    incremental ? "incremental" : "full", reassessed, elapsedMillis);
+        }
+    }
+
+    /**
+     * Judges every student against the windows closed by asOf and writes
+     * the report, a summary and the state for the next run into directory.
+     */
+    Result run(Collection<SchoolManagementSystem.Student> students, LocalDate asOf, Path directory) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        Windows windows = new Windows(schedule, asOf);
+        PreviousRun previous = PreviousRun.load(directory.resolve(STATE));
+        if (previous != null && (previous.asOf.isAfter(asOf) || previous.closed > windows.size())) {
+            previous = null;
+        }
+
+        BlockingQueue<Partition> free = new ArrayBlockingQueue<>(workers);
+        List<Partition> partitions = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            for (int p = 0; p < workers; p++) {
+                Partition partition = new Partition(directory, p, windows, previous);
+                partitions.add(partition);
+                free.add(partition);
+            }
+            // Caps the batches read ahead of the workers
+            Semaphore inFlight = new Semaphore(workers * 2);
+            List<Future<?>> tasks = new ArrayList<>();
+            List<SchoolManagementSystem.Student> batch = new ArrayList<>(BATCH);
+            for (SchoolManagementSystem.Student student : students) {
+                batch.add(student);
+                if (batch.size() == BATCH) {
+                    tasks.add(submit(pool, inFlight, free, batch));
+                    batch = new ArrayList<>(BATCH);
+                }
+            }
+            if (!batch.isEmpty()) {
+                tasks.add(submit(pool, inFlight, free, batch));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Fee defaulter run interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            pool.shutdown();
+            for (Partition partition : partitions) {
+                partition.close();
+            }
+        }
+
+        int total = 0;
+        int reassessed = 0;
+        int defaulters = 0;
+        long lateFeePaise = 0;
+        int[] missedPerWindow = new int[windows.size()];
+        for (Partition partition : partitions) {
+            total += partition.students;
+            reassessed += partition.reassessed;
+            defaulters += partition.defaulters;
+            lateFeePaise += partition.lateFeePaise;
+            for (int w = 0; w < missedPerWindow.length; w++) {
+                missedPerWindow[w] += partition.missedPerWindow[w];
+            }
+        }
+        writeReport(directory, partitions);
+        writeState(directory, asOf, windows.size(), total, partitions);
+        for (Partition partition : partitions) {
+            partition.delete();
+        }
+        Result result = new Result(asOf, previous != null, total, reassessed, defaulters, lateFeePaise / 100.0,
+                windows, missedPerWindow, (System.nanoTime() - start) / 1_000_000);
+        Files.write(directory.resolve(SUMMARY), result.toText().getBytes(StandardCharsets.UTF_8));
+        return result;
+    }
+
+    private static Future<?> submit(ExecutorService pool, Semaphore inFlight, BlockingQueue<Partition> free,
+            List<SchoolManagementSystem.Student> batch) throws InterruptedException {
+        inFlight.acquire();
+        return pool.submit(() -> {
+            Partition partition = free.take();
+            try {
+                for (SchoolManagementSystem.Student student : batch) {
+                    partition.assess(student);
+                }
+            } finally {
+                free.add(partition);
+                inFlight.release();
+            }
+            return null;
+        });
+    }
+
+    private static void writeReport(Path directory, List<Partition> partitions) throws IOException {
+        Path target = directory.resolve(REPORT);
+        Path temp = directory.resolve(REPORT + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            out.write((CSV_HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+            for (Partition partition : partitions) {
+                Files.copy(partition.reportFile, out);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeState(Path directory, LocalDate asOf, int closed, int records, List<Partition> partitions)
+            throws IOException {
+        Path target = directory.resolve(STATE);
+        Path temp = directory.resolve(STATE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(asOf.toEpochDay());
+            out.writeInt(closed);
+            out.writeInt(records);
+            for (Partition partition : partitions) {
+                Files.copy(partition.stateFile, out);
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long toPaise(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // One worker's share of the output; only the worker holding it writes to it
+    private static final class Partition implements Closeable {
+        final Path reportFile;
+        final Path stateFile;
+        final Windows windows;
+        final PreviousRun previous;
+        final Writer report;
+        final DataOutputStream state;
+        final int[] missedPerWindow;
+        int students;
+        int reassessed;
+        int defaulters;
+        long lateFeePaise;
+
+        Partition(Path directory, int index, Windows windows, PreviousRun previous) throws IOException {
+            this.reportFile = directory.resolve(REPORT + ".part" + index);
+            this.stateFile = directory.resolve(STATE + ".part" + index);
+            this.windows = windows;
+            this.previous = previous;
+            this.report = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8);
+            this.state = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(stateFile), 1 << 16));
+            this.missedPerWindow = new int[windows.size()];
+        }
+
+        void assess(SchoolManagementSystem.Student student) throws IOException {
+            FeeLedger ledger = student.getFeeLedger();
+            int payments = ledger.size();
+            long paid = toPaise(ledger.totalPaid());
+            long mask = 0;
+            int from = 0;
+            int known = previous == null ? -1 : previous.find(student.getRollNumber());
+            if (known >= 0 && previous.payments[known] == payments && previous.paid[known] == paid) {
+                mask = previous.missed[known];
+                from = previous.closed;
+            } else {
+                reassessed++;
+            }
+            mask = windows.missed(ledger, from, mask);
+
+            students++;
+            state.writeInt(student.getRollNumber());
+            state.writeInt(payments);
+            state.writeLong(paid);
+            state.writeLong(mask);
+            if (mask == 0) {
+                return;
+            }
+            defaulters++;
+            lateFeePaise += toPaise(windows.lateFees(mask));
+            for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                missedPerWindow[Long.numberOfTrailingZeros(remaining)]++;
+            }
+            report.write(student.getRollNumber() + "," + ReportCard.csvField(student.getName()) + ","
+                    + student.getAdmissionNumber() + "," + Long.bitCount(mask) + ","
+                    + String.format(Locale.ROOT, "%.2f,%.2f", windows.lateFees(mask), windows.balance(ledger, mask)) + ","
+                    + ReportCard.csvField(windows.describe(mask)) + "\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            report.close();
+            state.close();
+        }
+
+        void delete() throws IOException {
+            Files.deleteIfExists(reportFile);
+            Files.deleteIfExists(stateFile);
+        }
+    }
+
+    // What the last run recorded, sorted by roll number for lookups
+    private static final class PreviousRun {
+        final LocalDate asOf;
+        final int closed;
+        final int[] rolls;
+        final int[] payments;
+        final long[] paid;
+        final long[] missed;
+
+        private PreviousRun(LocalDate asOf, int closed, int count) {
+            this.asOf = asOf;
+            this.closed = closed;
+            this.rolls = new int[count];
+            this.payments = new int[count];
+            this.paid = new long[count];
+            this.missed = new long[count];
+        }
+
+        // Null when there is no usable state, which makes the run a full one
+        static PreviousRun load(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                if (in.readLong() != MAGIC || in.readInt() != VERSION) {
+                    return null;
+                }
+                LocalDate asOf = LocalDate.ofEpochDay(in.readLong());
+                int closed = in.readInt();
+                int count = in.readInt();
+                // Records come in worker order; sort them by roll number through packed (roll, index) keys
+                long[] order = new long[count];
+                int[] rolls = new int[count];
+                int[] payments = new int[count];
+                long[] paid = new long[count];
+                long[] missed = new long[count];
+                for (int i = 0; i < count; i++) {
+                    rolls[i] = in.readInt();
+                    payments[i] = in.readInt();
+                    paid[i] = in.readLong();
+                    missed[i] = in.readLong();
+                    order[i] = (long) rolls[i] << 32 | i;
+                }
+                Arrays.sort(order);
+                PreviousRun previous = new PreviousRun(asOf, closed, count);
+                for (int i = 0; i < count; i++) {
+                    int from = (int) order[i];
+                    previous.rolls[i] = rolls[from];
+                    previous.payments[i] = payments[from];
+                    previous.paid[i] = paid[from];
+                    previous.missed[i] = missed[from];
+                }
+                return previous;
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        int find(int roll) {
+            int index = Arrays.binarySearch(rolls, roll);
+            return index >= 0 ? index : -1;
+        }
+    }
+}
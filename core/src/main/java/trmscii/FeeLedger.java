@@ -0,0 +1,138 @@
+package trmscii;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * A student's fee payments kept in payment-date order.
+ * Alongside the payments it keeps prefix sums in paise, so the latest
+ * payment and the running total are O(1) and date-range queries and totals
+ * are two binary searches. Payments normally arrive in date order and are
+ * appended; a back-dated payment is inserted and the sums after it rebuilt.
+ *
+ * Readers never lock: every query works on one immutable view of the
+ * ledger. Writers are serialised by the owning Student. An append writes
+ * past the end of the arrays, which no published view can see, and then
+ * publishes a longer view; an insert or a resize copies the arrays first.
+ */
+class FeeLedger {
+    private static final class View {
+        final SchoolManagementSystem.FeePayment[] payments;
+        // paidBefore[i] is the total of the first i payments, in paise
+        final long[] paidBefore;
+        final int size;
+
+        View(SchoolManagementSystem.FeePayment[] payments, long[] paidBefore, int size) {
+            this.payments = payments;
+            this.paidBefore = paidBefore;
+            this.size = size;
+        }
+
+        // First index whose date is on or after date
+        int lowerBound(LocalDate date) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (payments[mid].getPaymentDate().isBefore(date)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First index whose date is after date
+        int upperBound(LocalDate date) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (payments[mid].getPaymentDate().isAfter(date)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        List<SchoolManagementSystem.FeePayment> list(int from, int to) {
+            return Collections.unmodifiableList(Arrays.asList(payments).subList(from, to));
+        }
+    }
+
+    private volatile View view = new View(new SchoolManagementSystem.FeePayment[0], new long[1], 0);
+
+    // Callers must serialise writes; Student does so under its own lock
+    void add(SchoolManagementSystem.FeePayment payment) {
+        View current = view;
+        int size = current.size;
+        // Insert after any payment on the same date, so ties keep arrival order
+        int position = current.upperBound(payment.getPaymentDate());
+
+        SchoolManagementSystem.FeePayment[] payments = current.payments;
+        long[] paidBefore = current.paidBefore;
+        if (position < size || size == payments.length) {
+            int capacity = size == payments.length ? Math.max(4, size * 2) : payments.length;
+            payments = Arrays.copyOf(payments, capacity);
+            paidBefore = Arrays.copyOf(paidBefore, capacity + 1);
+            System.arraycopy(payments, position, payments, position + 1, size - position);
+        }
+        payments[position] = payment;
+        for (int i = position; i <= size; i++) {
+            paidBefore[i + 1] = paidBefore[i] + toPaise(payments[i].getAmount());
+        }
+        view = new View(payments, paidBefore, size + 1);
+    }
+
+    int size() {
+        return view.size;
+    }
+
+    SchoolManagementSystem.FeePayment latest() {
+        View current = view;
+        return current.size == 0 ? null : current.payments[current.size - 1];
+    }
+
+    double totalPaid() {
+        return totalPaidPaise() / 100.0;
+    }
+
+    long totalPaidPaise() {
+        View current = view;
+        return current.paidBefore[current.size];
+    }
+
+    // Payments dated from..to inclusive, in date order
+    List<SchoolManagementSystem.FeePayment> between(LocalDate from, LocalDate to) {
+        View current = view;
+        int start = current.lowerBound(from);
+        int end = current.upperBound(to);
+        return start >= end ? Collections.emptyList() : current.list(start, end);
+    }
+
+    double totalPaidBetween(LocalDate from, LocalDate to) {
+        View current = view;
+        int start = current.lowerBound(from);
+        int end = current.upperBound(to);
+        return start >= end ? 0 : (current.paidBefore[end] - current.paidBefore[start]) / 100.0;
+    }
+
+    // Total of the payments dated on or before date
+    double totalPaidUpTo(LocalDate date) {
+        View current = view;
+        return current.paidBefore[current.upperBound(date)] / 100.0;
+    }
+
+    // Read-only view of every payment in date order
+    List<SchoolManagementSystem.FeePayment> asList() {
+        View current = view;
+        return current.list(0, current.size);
+    }
+
+    private static long toPaise(double amount) {
+        return Math.round(amount * 100);
+    }
+}
@@ -0,0 +1,122 @@
+package trmscii;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * The instalment calendar: fee windows that recur every year from the
+ * first academic year onwards, each with the amount due in that window.
+ */
+final class FeeSchedule {
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("MMMM");
+
+    static final class Instalment {
+        private final String name;
+        private final LocalDate windowStart;
+        private final LocalDate windowEnd;
+        private final double amount;
+
+        Instalment(String name, LocalDate windowStart, LocalDate windowEnd, double amount) {
+            this.name = name;
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            this.amount = amount;
+        }
+
+        public String getName() { return name; }
+        public LocalDate getWindowStart() { return windowStart; }
+        public LocalDate getWindowEnd() { return windowEnd; }
+        public double getAmount() { return amount; }
+
+        @Override
+        public String toString() {
+            return String.format("The %s of fees is due between %s %d-%d, %d.", name.toLowerCase(),
+                    windowStart.format(MONTH), windowStart.getDayOfMonth(), windowEnd.getDayOfMonth(), windowEnd.getYear());
+        }
+    }
+
+    private static final class Window {
+        final String name;
+        final MonthDay start;
+        final MonthDay end;
+        final double amount;
+
+        Window(String name, MonthDay start, MonthDay end, double amount) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+            this.amount = amount;
+        }
+    }
+
+    private static final FeeSchedule STANDARD = new FeeSchedule(2024, 50.00, Arrays.asList(
+            new Window("First installment", MonthDay.of(5, 1), MonthDay.of(5, 16), 5000.00),
+            new Window("Second installment", MonthDay.of(9, 1), MonthDay.of(9, 16), 5000.00)));
+
+    private final int firstYear;
+    private final double lateFee;
+    private final List<Window> windows;
+
+    private FeeSchedule(int firstYear, double lateFee, List<Window> windows) {
+        this.firstYear = firstYear;
+        this.lateFee = lateFee;
+        this.windows = windows;
+    }
+
+    // Two instalments of Rs. 5000 a year (May 1-16 and September 1-16), Rs. 50 late fee
+    static FeeSchedule standard() {
+        return STANDARD;
+    }
+
+    double getLateFee() {
+        return lateFee;
+    }
+
+    // Every instalment whose window has opened on or before date, oldest first
+    List<Instalment> instalmentsUpTo(LocalDate date) {
+        List<Instalment> instalments = new ArrayList<>();
+        for (int year = firstYear; year <= date.getYear(); year++) {
+            for (Window window : windows) {
+                Instalment instalment = instalment(window, year);
+                if (!instalment.getWindowStart().isAfter(date)) {
+                    instalments.add(instalment);
+                }
+            }
+        }
+        return instalments;
+    }
+
+    // Total of all instalments that have opened by date; O(1)
+    double amountDueBy(LocalDate date) {
+        if (date.getYear() < firstYear) {
+            return 0;
+        }
+        double perYear = 0;
+        double thisYear = 0;
+        for (Window window : windows) {
+            perYear += window.amount;
+            if (!window.start.atYear(date.getYear()).isAfter(date)) {
+                thisYear += window.amount;
+            }
+        }
+        return perYear * (date.getYear() - firstYear) + thisYear;
+    }
+
+    // The first instalment whose window has not closed yet on date
+    Instalment nextDue(LocalDate date) {
+        for (int year = Math.max(firstYear, date.getYear()); ; year++) {
+            for (Window window : windows) {
+                Instalment instalment = instalment(window, year);
+                if (!instalment.getWindowEnd().isBefore(date)) {
+                    return instalment;
+                }
+            }
+        }
+    }
+
+    private static Instalment instalment(Window window, int year) {
+        return new Instalment(window.name, window.start.atYear(year), window.end.atYear(year), window.amount);
+    }
+}
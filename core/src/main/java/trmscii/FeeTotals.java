@@ -0,0 +1,99 @@
+package trmscii;
+
+import java.util.*;
+
+/**
+ * Students, payments and fees collected per school, class and section.
+ * A partitioned roster sums every section on its own partition's executor,
+ * all at once; any other store is summed in one pass over its students.
+ */
+final class FeeTotals {
+    // One section's sums, or a school's, or the whole group's
+    static final class Total {
+        private int students;
+        private long payments;
+        private long paidPaise;
+
+        void add(SchoolManagementSystem.Student student) {
+            FeeLedger ledger = student.getFeeLedger();
+            students++;
+            payments += ledger.size();
+            paidPaise += ledger.totalPaidPaise();
+        }
+
+        void add(Total other) {
+            students += other.students;
+            payments += other.payments;
+            paidPaise += other.paidPaise;
+        }
+
+        public int getStudents() { return students; }
+        public long getPayments() { return payments; }
+        public long getPaidPaise() { return paidPaise; }
+    }
+
+    private final SortedMap<Enrolment, Total> sections;
+
+    private FeeTotals(SortedMap<Enrolment, Total> sections) {
+        this.sections = sections;
+    }
+
+    static FeeTotals of(StudentStore students) {
+        if (students instanceof PartitionedStudentStore) {
+            return new FeeTotals(((PartitionedStudentStore) students).queryEach(PartitionedStudentStore.all(), part -> {
+                Total total = new Total();
+                for (SchoolManagementSystem.Student student : part) {
+                    total.add(student);
+                }
+                return total;
+            }));
+        }
+        SortedMap<Enrolment, Total> sections = new TreeMap<>();
+        for (SchoolManagementSystem.Student student : students.values()) {
+            sections.computeIfAbsent(student.getEnrolment(), enrolment -> new Total()).add(student);
+        }
+        return new FeeTotals(sections);
+    }
+
+    SortedMap<Enrolment, Total> getSections() {
+        return Collections.unmodifiableSortedMap(sections);
+    }
+
+    SortedMap<String, Total> getSchools() {
+        SortedMap<String, Total> schools = new TreeMap<>();
+        for (Map.Entry<Enrolment, Total> section : sections.entrySet()) {
+            schools.computeIfAbsent(section.getKey().getSchool(), school -> new Total()).add(section.getValue());
+        }
+        return schools;
+    }
+
+    Total getGroup() {
+        Total group = new Total();
+        for (Total section : sections.values()) {
+            group.add(section);
+        }
+        return group;
+    }
+
+    // Tab-separated: a row per section, then one per school and one for the group with "*" for what they span
+    String toTsv() {
+        StringBuilder tsv = new StringBuilder(64 * (sections.size() + 8));
+        tsv.append("school\tclass\tsection\tstudents\tpayments\tpaid\n");
+        for (Map.Entry<Enrolment, Total> section : sections.entrySet()) {
+            Enrolment enrolment = section.getKey();
+            row(tsv, enrolment.getSchool(), enrolment.getClassName(), enrolment.getSection(), section.getValue());
+        }
+        for (Map.Entry<String, Total> school : getSchools().entrySet()) {
+            row(tsv, school.getKey(), "*", "*", school.getValue());
+        }
+        row(tsv, "*", "*", "*", getGroup());
+        return tsv.toString();
+    }
+
+    private static void row(StringBuilder tsv, String school, String className, String section, Total total) {
+        tsv.append(school).append('\t').append(className).append('\t').append(section).append('\t')
+                .append(total.students).append('\t').append(total.payments).append('\t')
+                .append(total.paidPaise / 100).append('.').append(String.format("%02d", total.paidPaise % 100))
+                .append('\n');
+    }
+}
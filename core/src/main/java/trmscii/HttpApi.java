@@ -0,0 +1,562 @@
+package trmscii;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-only JSON API over HTTP for the parents' app and the school website,
+ * on the JDK's HttpServer with a virtual thread per request:
+ *
+ *   GET /api/students/{roll}             profile and enrolment
+ *   GET /api/students/{roll}/marks       marks per subject, result and class rank
+ *   GET /api/students/{roll}/fees        paid, outstanding and late fees, and the payments
+ *   GET /api/students/{roll}/timetable   the week of the student's section
+ *   GET /api/notices                     active notices
+ *   GET /api/tests                       upcoming tests
+ *   GET /api/timetable/{section}         the week of a section, e.g. 10A
+ *
+ * Lists take ?offset=N&limit=N, 50 items by default and at most 500, and
+ * answer with the total alongside the page. Field names are those of the
+ * command mode.
+ *
+ * Every answer carries a weak ETag made from the versions of what it shows:
+ * the student's, the notice board's, the section's. A student's versions
+ * count again when another student takes over the roll number, so views of
+ * a student also carry the roster's version, bumped by every such
+ * replacement. Those versions live only in memory and count again from a
+ * restart, so every ETag also carries an epoch drawn when the API starts; a
+ * client's ETag from before a restart never matches again. The ETag is worked
+ * out before anything is rendered, so a client revalidating with If-None-Match
+ * gets its 304 without the view being built again. A 200 is rendered once
+ * per ETag as well: bodies are kept per URL in lock-striped LRU segments,
+ * with their gzipped form made the first time a client accepts it. Bodies
+ * over a kilobyte go gzipped to clients that accept it, and every answer has
+ * a Content-Length, so connections stay open for the next request.
+ */
+final class HttpApi implements Closeable {
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+    static final int CACHE_CAPACITY = 16_384;
+    // Smaller bodies fit one packet either way, so gzip would only cost time
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final int SEGMENTS = 16;
+
+    private final SchoolManagementSystem system;
+    private final FeeSchedule schedule = FeeSchedule.standard();
+    private final HttpServer server;
+    private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder rendered = new LongAdder();
+    // Random per start, so versions counted again after a restart make new ETags
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    HttpApi(SchoolManagementSystem system, int port) throws IOException {
+        this.system = system;
+        this.server = HttpServer.create(new InetSocketAddress(port), 4096);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(requests);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(CACHE_CAPACITY / SEGMENTS);
+        }
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Answers that were 304 Not Modified, and bodies that had to be rendered
+    public long getNotModifiedCount() { return notModified.sum(); }
+    public long getRenderedCount() { return rendered.sum(); }
+
+    void start() {
+        server.start();
+    }
+
+    // Blocks until the server is closed
+    void awaitTermination() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() {
+        // Lets requests in progress finish for up to a second
+        server.stop(1);
+        requests.shutdown();
+        closed.countDown();
+    }
+
+    // One resource's answer: its cache key and ETag, and how to render it if the client has not got it
+    private static final class View {
+        final PortalMetrics.Action action;
+        final String key;
+        final String etag;
+        final Consumer<JsonWriter> renderer;
+
+        View(PortalMetrics.Action action, String key, String etag, Consumer<JsonWriter> renderer) {
+            this.action = action;
+            this.key = key;
+            this.etag = etag;
+            this.renderer = renderer;
+        }
+    }
+
+    // Thrown while routing for a 4xx answer
+    @SuppressWarnings("serial")
+    private static final class Problem extends Exception {
+        final int status;
+        final PortalMetrics.Action action;
+
+        Problem(int status, PortalMetrics.Action action, String message) {
+            super(message, null, false, false);
+            this.status = status;
+            this.action = action;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        PortalMetrics.Action action = null;
+        boolean failed = true;
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                throw new Problem(405, null, "Only GET is supported");
+            }
+            View view = route(exchange.getRequestURI().getRawPath(), exchange.getRequestURI().getRawQuery());
+            action = view.action;
+            respond(exchange, view);
+            failed = false;
+        } catch (Problem problem) {
+            action = problem.action;
+            error(exchange, problem.status, problem.getMessage());
+        } catch (RuntimeException e) {
+            error(exchange, 500, "Internal error");
+            System.err.println("Failed to answer " + exchange.getRequestURI() + ": " + e);
+        } finally {
+            exchange.close();
+            if (action != null) {
+                system.getMetrics().record(action, System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    private View route(String path, String query) throws Problem {
+        String[] parts = path.substring("/api/".length()).split("/", -1);
+        if (parts.length == 1 && parts[0].equals("notices")) {
+            return notices(page(query, PortalMetrics.Action.NOTICES));
+        }
+        if (parts.length == 1 && parts[0].equals("tests")) {
+            return tests(page(query, PortalMetrics.Action.TESTS));
+        }
+        if (parts.length == 2 && parts[0].equals("timetable")) {
+            TimeTable.Section section = system.getTimeTable().findSection(parts[1]);
+            if (section == null) {
+                throw new Problem(404, PortalMetrics.Action.TIMETABLE, "No timetable for section " + parts[1]);
+            }
+            // Not reached through a student, so no roster version
+            return timetable(path, section, 0);
+        }
+        if (parts[0].equals("students") && (parts.length == 2 || parts.length == 3)) {
+            String what = parts.length == 3 ? parts[2] : "";
+            PortalMetrics.Action action;
+            switch (what) {
+                case "": action = PortalMetrics.Action.PROFILE; break;
+                case "marks": action = PortalMetrics.Action.MARKS; break;
+                case "fees": action = PortalMetrics.Action.FEES; break;
+                case "timetable": action = PortalMetrics.Action.TIMETABLE; break;
+                default: throw new Problem(404, null, "No such resource: " + path);
+            }
+            long roll = CommandMode.parseInt(parts[1]);
+            if (roll == CommandMode.INVALID || roll <= 0) {
+                throw new Problem(400, action, "Expected a roll number, got " + parts[1]);
+            }
+            long roster = system.getRosterVersion();
+            SchoolManagementSystem.Student student = system.getStudent((int) roll);
+            if (student == null) {
+                throw new Problem(404, action, "No student with roll number " + roll);
+            }
+            switch (action) {
+                case PROFILE:
+                    return profile(path, student, roster);
+                case MARKS:
+                    return marks(path, student, roster);
+                case FEES:
+                    return fees(path, student, roster, page(query, action));
+                default:
+                    String sectionName = student.getEnrolment().getSectionName();
+                    TimeTable.Section section = system.getTimeTable().findSection(sectionName);
+                    if (section == null) {
+                        throw new Problem(404, action, "No timetable for section " + sectionName);
+                    }
+                    return timetable(path, section, roster);
+            }
+        }
+        throw new Problem(404, null, "No such resource: " + path);
+    }
+
+    // Nothing shown here changes short of the student being replaced, so the roster's version is enough
+    private View profile(String path, SchoolManagementSystem.Student student, long roster) {
+        return new View(PortalMetrics.Action.PROFILE, path, etag("p", roster), json -> {
+            Enrolment enrolment = student.getEnrolment();
+            json.beginObject();
+            json.field("roll", student.getRollNumber());
+            json.field("admission", student.getAdmissionNumber());
+            json.field("name", student.getName());
+            json.field("mother", student.getMotherName());
+            json.field("father", student.getFatherName());
+            json.field("school", enrolment.getSchool());
+            json.field("class", enrolment.getClassName());
+            json.field("section", enrolment.getSection());
+            json.endObject();
+        });
+    }
+
+    // The rank moves with everyone else's marks, so it is part of the ETag
+    private View marks(String path, SchoolManagementSystem.Student student, long roster) {
+        RankingEngine ranking = system.getRankingEngine();
+        int version = student.getVersion();
+        int rank = ranking.rank(student);
+        int ranked = ranking.rankedCount();
+        return new View(PortalMetrics.Action.MARKS, path, etag("m", roster, version, rank, ranked), json -> {
+            ReportCard card = ReportCard.of(student);
+            SubjectRegistry registry = SubjectRegistry.shared();
+            json.beginObject();
+            json.field("roll", card.getRollNumber());
+            json.name("marks").beginArray();
+            int i = 0;
+            for (long remaining = card.getSubjectMask(); remaining != 0; remaining &= remaining - 1) {
+                json.beginObject();
+                json.field("subject", registry.nameOf(Long.numberOfTrailingZeros(remaining)));
+                json.field("mark", card.getMarkAt(i++));
+                json.field("max", ReportCard.MAX_MARK);
+                json.endObject();
+            }
+            json.endArray();
+            json.field("subjects", card.getSubjectCount());
+            json.field("total", card.getTotalMarks());
+            json.field("max_total", card.getMaxTotal());
+            json.field("percentage", round(card.getPercentage()));
+            json.field("grade", card.getGrade().getLabel());
+            json.field("rank", rank);
+            json.field("ranked", ranked);
+            json.endObject();
+        });
+    }
+
+    // Late fees grow with the date, so today is part of the ETag
+    private View fees(String path, SchoolManagementSystem.Student student, long roster, int[] page) {
+        LocalDate today = LocalDate.now();
+        int version = student.getVersion();
+        String etag = etag("f", roster, version, today.toEpochDay());
+        return new View(PortalMetrics.Action.FEES, key(path, page), etag, json -> {
+            FeeDefaulterJob.Windows windows = new FeeDefaulterJob.Windows(schedule, today);
+            FeeLedger ledger = student.getFeeLedger();
+            List<SchoolManagementSystem.FeePayment> payments = ledger.asList();
+            long missed = windows.missed(ledger, 0, 0);
+            json.beginObject();
+            json.field("roll", student.getRollNumber());
+            json.field("admission", student.getAdmissionNumber());
+            json.field("payments", payments.size());
+            json.field("paid", round(ledger.totalPaid()));
+            json.field("due", round(schedule.amountDueBy(today)));
+            json.field("missed_windows", Long.bitCount(missed));
+            json.field("late_fee", round(windows.lateFees(missed)));
+            json.field("balance", round(windows.balance(ledger, missed)));
+            json.name("history");
+            page(json, payments, page, payment -> {
+                json.beginObject();
+                json.field("date", payment.getPaymentDate().toString());
+                json.field("amount", round(payment.getAmount()));
+                json.field("method", payment.getPaymentMethod());
+                json.field("receipt", payment.getReceiptNumber());
+                json.endObject();
+            });
+            json.endObject();
+        });
+    }
+
+    // The version is taken first: a list newer than its ETag is only rendered again, never served as current
+    private View notices(int[] page) {
+        NoticeBoard board = system.getNoticeBoard();
+        int version = board.activeVersion();
+        List<SchoolManagementSystem.Notice> notices = board.active();
+        return new View(PortalMetrics.Action.NOTICES, key("/api/notices", page), etag("n", version), json ->
+                page(json, notices, page, notice -> {
+                    json.beginObject();
+                    json.field("title", notice.getTitle());
+                    json.field("posted", notice.getPostDate().toString());
+                    json.field("expires", notice.getExpiryDate().toString());
+                    json.field("active", notice.isActive());
+                    json.field("content", notice.getContent());
+                    json.endObject();
+                }));
+    }
+
+    // Tests are only ever added, so their count versions the list
+    private View tests(int[] page) {
+        List<SchoolManagementSystem.Test> tests = system.getUpcomingTests();
+        int count = tests.size();
+        return new View(PortalMetrics.Action.TESTS, key("/api/tests", page), etag("t", count), json ->
+                page(json, tests.subList(0, count), page, test -> {
+                    json.beginObject();
+                    json.field("subject", test.getSubject());
+                    json.field("description", test.getDescription());
+                    json.field("date", test.getTestDate().toString());
+                    json.field("max_marks", test.getMaxMarks());
+                    json.field("syllabus", test.getSyllabus());
+                    json.endObject();
+                }));
+    }
+
+    // Days with nothing scheduled are left out; a free period is null
+    private View timetable(String path, TimeTable.Section section, long roster) {
+        TimeTable timeTable = system.getTimeTable();
+        return new View(PortalMetrics.Action.TIMETABLE, path, etag("w", roster, section.getVersion()), json -> {
+            long occupied = timeTable.occupiedSlots(section);
+            json.beginObject();
+            json.field("section", section.getName());
+            json.name("days").beginArray();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if ((occupied & TimeTable.dayMask(day)) == 0) {
+                    continue;
+                }
+                json.beginObject();
+                json.field("day", day.toString());
+                json.name("periods").beginArray();
+                for (int period = 1; period <= TimeTable.PERIODS; period++) {
+                    json.value(timeTable.subjectAt(section, day, period));
+                }
+                json.endArray();
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        });
+    }
+
+    // {"offset":..,"limit":..,"total":..,"items":[..]}
+    private static <T> void page(JsonWriter json, List<T> items, int[] page, Consumer<T> item) {
+        int from = Math.min(page[0], items.size());
+        int to = (int) Math.min((long) from + page[1], items.size());
+        json.beginObject();
+        json.field("offset", page[0]);
+        json.field("limit", page[1]);
+        json.field("total", items.size());
+        json.name("items").beginArray();
+        for (T element : items.subList(from, to)) {
+            item.accept(element);
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    // Offset and limit from the query string; anything else in it is ignored
+    private static int[] page(String query, PortalMetrics.Action action) throws Problem {
+        int[] page = {0, DEFAULT_LIMIT};
+        if (query == null) {
+            return page;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            if (!name.equals("offset") && !name.equals("limit")) {
+                continue;
+            }
+            long value = equals < 0 ? CommandMode.INVALID : CommandMode.parseInt(parameter.substring(equals + 1));
+            if (name.equals("offset")) {
+                if (value == CommandMode.INVALID || value < 0) {
+                    throw new Problem(400, action, "offset must be a number from 0");
+                }
+                page[0] = (int) value;
+            } else {
+                if (value == CommandMode.INVALID || value < 1 || value > MAX_LIMIT) {
+                    throw new Problem(400, action, "limit must be a number from 1 to " + MAX_LIMIT);
+                }
+                page[1] = (int) value;
+            }
+        }
+        return page;
+    }
+
+    private static String key(String path, int[] page) {
+        return path + '?' + page[0] + ',' + page[1];
+    }
+
+    private String etag(String kind, long... versions) {
+        StringBuilder etag = new StringBuilder(48).append("W/\"").append(epoch).append('-').append(kind);
+        for (long version : versions) {
+            etag.append('-').append(version);
+        }
+        return etag.append('"').toString();
+    }
+
+    private void respond(HttpExchange exchange, View view) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", view.etag);
+        // Clients may keep answers, but must revalidate them before use
+        headers.set("Cache-Control", "no-cache");
+        headers.set("Vary", "Accept-Encoding");
+        if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), view.etag)) {
+            notModified.increment();
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        Body body = body(view);
+        byte[] bytes = body.plain;
+        if (bytes.length >= GZIP_MIN_BYTES && acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            bytes = body.gzipped();
+            headers.set("Content-Encoding", "gzip");
+        }
+        headers.set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /*
+     * The cached body for the view's ETag, or a fresh rendering that then
+     * replaces it. Should two renderings race, the last one stored wins; if
+     * that is the older, the next request simply renders again.
+     */
+    private Body body(View view) {
+        Segment segment = segments[spread(view.key.hashCode()) & (SEGMENTS - 1)];
+        Body body;
+        synchronized (segment) {
+            body = segment.get(view.key);
+        }
+        if (body != null && body.etag.equals(view.etag)) {
+            return body;
+        }
+        rendered.increment();
+        StringBuilder text = new StringBuilder(1024);
+        view.renderer.accept(new JsonWriter(text));
+        body = new Body(view.etag, text.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+        synchronized (segment) {
+            segment.put(view.key, body);
+        }
+        return body;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder text = new StringBuilder(64 + message.length());
+        new JsonWriter(text).beginObject().field("error", message).endObject();
+        byte[] bytes = text.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+        Headers headers = exchange.getResponseHeaders();
+        headers.remove("ETag");
+        headers.set("Content-Type", "application/json; charset=utf-8");
+        headers.set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // If-None-Match holds "*" or a list of ETags, compared weakly as RFC 9110 asks
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // gzip listed without ;q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    // A rendered body and the ETag it was rendered for; gzipped the first time a client accepts it
+    private static final class Body {
+        final String etag;
+        final byte[] plain;
+        private volatile byte[] gzipped;
+
+        Body(String etag, byte[] plain) {
+            this.etag = etag;
+            this.plain = plain;
+        }
+
+        // Two threads may both compress it once; either result will do
+        byte[] gzipped() {
+            byte[] bytes = gzipped;
+            if (bytes == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out, 1024)) {
+                    gzip.write(plain);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                bytes = out.toByteArray();
+                gzipped = bytes;
+            }
+            return bytes;
+        }
+    }
+
+    // Access-ordered, so the eldest entry is the least recently requested URL
+    @SuppressWarnings("serial")
+    private static final class Segment extends LinkedHashMap<String, Body> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Body> eldest) {
+            return size() > capacity;
+        }
+    }
+}
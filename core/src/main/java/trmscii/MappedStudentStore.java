@@ -0,0 +1,477 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Off-heap, read-only roster backed by memory-mapped column files.
+ * Every attribute is a fixed-width column indexed by row; names and receipt
+ * numbers live in a shared string heap and are referenced by offset. Roll
+ * and admission numbers are resolved through open-addressing indexes that
+ * are themselves mapped, so lookups touch only a few pages and allocate
+ * nothing. Student objects are only built when a caller asks for one.
+ *
+ * Directory layout:
+ *   roster.meta        row count, subject, payment-method and enrolment dictionaries
+ *   roll.col           int per row
+ *   admission.col      int per row
+ *   names.col          long per row, offset of name/mother/father in strings.heap
+ *   marks-N.col        short per row for subject N, -1 when not taken
+ *   fee_total.col      long per row, total paid in paise
+ *   fee_last.col       int per row, epoch day of the latest payment
+ *   fee_start.col      long per row + 1, first payment row in payments.col
+ *   payments.col       fixed 24-byte payment rows
+ *   roll.idx           (roll, row + 1) pairs, open addressing
+ *   admission.idx      (admission, row + 1) pairs, open addressing; since version 2
+ *   enrolment.col      int per row, index into the enrolment dictionary; since version 3,
+ *                      and every student of an older store is in Enrolment.DEFAULT
+ */
+class MappedStudentStore implements StudentStore {
+    private static final long MAGIC = 0x54524D434F4C5331L; // "TRMCOLS1"
+    private static final int VERSION = 3;
+    private static final int PAYMENT_WIDTH = 8 + 4 + 4 + 8;
+    private static final short NO_MARK = -1;
+    static final int NO_PAYMENT = Integer.MIN_VALUE;
+
+    private final int rows;
+    private final String[] subjects;
+    private final String[] paymentMethods;
+    // Null for stores older than version 3
+    private final Enrolment[] enrolments;
+    private final int indexMask;
+    private final int admissionIndexMask;
+    private final Path directory;
+    // Mapped on the first query: the JVM's first file mapping alone costs tens of milliseconds
+    private volatile Columns columns;
+
+    private static final class Columns {
+        final MappedRegion rolls;
+        final MappedRegion admissions;
+        final MappedRegion names;
+        final MappedRegion[] marks;
+        final MappedRegion feeTotals;
+        final MappedRegion feeLast;
+        final MappedRegion feeStart;
+        final MappedRegion payments;
+        final MappedRegion strings;
+        final MappedRegion index;
+        // Null for version 1 stores, which are searched column-wise instead
+        final MappedRegion admissionIndex;
+        final MappedRegion enrolments;
+
+        Columns(Path directory, int subjectCount, boolean admissionIndexed, boolean enrolled) throws IOException {
+            rolls = MappedRegion.map(directory.resolve("roll.col"));
+            admissions = MappedRegion.map(directory.resolve("admission.col"));
+            names = MappedRegion.map(directory.resolve("names.col"));
+            marks = new MappedRegion[subjectCount];
+            for (int i = 0; i < subjectCount; i++) {
+                marks[i] = MappedRegion.map(directory.resolve("marks-" + i + ".col"));
+            }
+            feeTotals = MappedRegion.map(directory.resolve("fee_total.col"));
+            feeLast = MappedRegion.map(directory.resolve("fee_last.col"));
+            feeStart = MappedRegion.map(directory.resolve("fee_start.col"));
+            payments = MappedRegion.map(directory.resolve("payments.col"));
+            strings = MappedRegion.map(directory.resolve("strings.heap"));
+            index = MappedRegion.map(directory.resolve("roll.idx"));
+            admissionIndex = admissionIndexed ? MappedRegion.map(directory.resolve("admission.idx")) : null;
+            enrolments = enrolled ? MappedRegion.map(directory.resolve("enrolment.col")) : null;
+        }
+    }
+
+    private MappedStudentStore(Path directory) throws IOException {
+        this.directory = directory;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(directory.resolve("roster.meta"))))) {
+            int version;
+            if (in.readLong() != MAGIC || (version = in.readInt()) < 1 || version > VERSION) {
+                throw new IOException("Not a column store: " + directory);
+            }
+            rows = in.readInt();
+            subjects = new String[in.readInt()];
+            for (int i = 0; i < subjects.length; i++) {
+                subjects[i] = in.readUTF();
+            }
+            paymentMethods = new String[in.readInt()];
+            for (int i = 0; i < paymentMethods.length; i++) {
+                paymentMethods[i] = in.readUTF();
+            }
+            indexMask = in.readInt() - 1;
+            admissionIndexMask = version >= 2 ? in.readInt() - 1 : -1;
+            if (version >= 3) {
+                enrolments = new Enrolment[in.readInt()];
+                for (int i = 0; i < enrolments.length; i++) {
+                    enrolments[i] = Enrolment.of(in.readUTF(), in.readUTF(), in.readUTF());
+                }
+            } else {
+                enrolments = null;
+            }
+        }
+    }
+
+    // Only reads the metadata; the columns are mapped on the first query and read as they are used
+    static MappedStudentStore open(Path directory) throws IOException {
+        return new MappedStudentStore(directory);
+    }
+
+    private Columns columns() {
+        Columns mapped = columns;
+        return mapped != null ? mapped : map();
+    }
+
+    private synchronized Columns map() {
+        if (columns == null) {
+            try {
+                columns = new Columns(directory, subjects.length, admissionIndexMask >= 0, enrolments != null);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map the roster in " + directory, e);
+            }
+        }
+        return columns;
+    }
+
+    // Row of the given roll number, or -1. Probes the mapped index without allocating.
+    int rowOf(int rollNumber) {
+        return probe(columns().index, indexMask, rollNumber);
+    }
+
+    // Row of the given admission number, or -1
+    int rowOfAdmission(int admissionNumber) {
+        MappedRegion admissionIndex = columns().admissionIndex;
+        if (admissionIndex != null) {
+            return probe(admissionIndex, admissionIndexMask, admissionNumber);
+        }
+        for (int row = 0; row < rows; row++) {
+            if (admissionNumberAt(row) == admissionNumber) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private static int probe(MappedRegion index, int mask, int key) {
+        int slot = mix(key) & mask;
+        while (true) {
+            long entry = (long) slot * 8;
+            int storedRow = index.getInt(entry + 4);
+            if (storedRow == 0) {
+                return -1;
+            }
+            if (index.getInt(entry) == key) {
+                return storedRow - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public boolean contains(int rollNumber) {
+        return rowOf(rollNumber) >= 0;
+    }
+
+    @Override
+    public SchoolManagementSystem.Student get(int rollNumber) {
+        int row = rowOf(rollNumber);
+        return row < 0 ? null : materialise(row);
+    }
+
+    @Override
+    public SchoolManagementSystem.Student getByAdmissionNumber(int admissionNumber) {
+        int row = rowOfAdmission(admissionNumber);
+        return row < 0 ? null : materialise(row);
+    }
+
+    @Override
+    public void put(SchoolManagementSystem.Student student, Consumer<SchoolManagementSystem.Student> commit) {
+        throw new UnsupportedOperationException("The mapped roster is read-only; rebuild it with MappedStudentStore.write");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public Collection<SchoolManagementSystem.Student> values() {
+        return new AbstractCollection<SchoolManagementSystem.Student>() {
+            @Override
+            public Iterator<SchoolManagementSystem.Student> iterator() {
+                return new Iterator<SchoolManagementSystem.Student>() {
+                    private int row = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return row < rows;
+                    }
+
+                    @Override
+                    public SchoolManagementSystem.Student next() {
+                        if (row >= rows) {
+                            throw new NoSuchElementException();
+                        }
+                        return materialise(row++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return rows;
+            }
+        };
+    }
+
+    // Column accessors for callers that want to avoid building Student objects
+    int rollNumberAt(int row) {
+        return columns().rolls.getInt((long) row * 4);
+    }
+
+    int admissionNumberAt(int row) {
+        return columns().admissions.getInt((long) row * 4);
+    }
+
+    Enrolment enrolmentAt(int row) {
+        return enrolments == null ? Enrolment.DEFAULT : enrolments[columns().enrolments.getInt((long) row * 4)];
+    }
+
+    int subjectCount() {
+        return subjects.length;
+    }
+
+    String subjectName(int subject) {
+        return subjects[subject];
+    }
+
+    // -1 when the student does not take the subject
+    int markAt(int row, int subject) {
+        return columns().marks[subject].getShort((long) row * 2);
+    }
+
+    long feeTotalPaiseAt(int row) {
+        return columns().feeTotals.getLong((long) row * 8);
+    }
+
+    // Epoch day of the latest payment, or NO_PAYMENT
+    int lastPaymentDayAt(int row) {
+        return columns().feeLast.getInt((long) row * 4);
+    }
+
+    SchoolManagementSystem.Student materialise(int row) {
+        Columns columns = columns();
+        MappedRegion strings = columns.strings;
+        long offset = columns.names.getLong((long) row * 8);
+        String name = readString(strings, offset);
+        offset += 4 + strings.getInt(offset);
+        String motherName = readString(strings, offset);
+        offset += 4 + strings.getInt(offset);
+        String fatherName = readString(strings, offset);
+
+        SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                rollNumberAt(row), name, motherName, fatherName, admissionNumberAt(row), enrolmentAt(row));
+        for (int subject = 0; subject < subjects.length; subject++) {
+            int mark = markAt(row, subject);
+            if (mark != NO_MARK) {
+                student.addMarks(subjects[subject], mark);
+            }
+        }
+        long first = columns.feeStart.getLong((long) row * 8);
+        long last = columns.feeStart.getLong((long) (row + 1) * 8);
+        MappedRegion payments = columns.payments;
+        for (long payment = first; payment < last; payment++) {
+            long base = payment * PAYMENT_WIDTH;
+            student.addFeePayment(new SchoolManagementSystem.FeePayment(
+                    payments.getLong(base) / 100.0,
+                    LocalDate.ofEpochDay(payments.getInt(base + 8)),
+                    paymentMethods[payments.getInt(base + 12)],
+                    readString(strings, payments.getLong(base + 16))));
+        }
+        return student;
+    }
+
+    private static String readString(MappedRegion strings, long offset) {
+        int length = strings.getInt(offset);
+        byte[] bytes = new byte[length];
+        strings.get(offset + 4, bytes, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Writes students as a column store in directory. The collection is
+     * iterated twice (once to collect the subject dictionary), so it may be
+     * a lazily materialising view.
+     */
+    static void write(Path directory, Collection<SchoolManagementSystem.Student> students) throws IOException {
+        Set<String> subjects = new LinkedHashSet<>();
+        for (SchoolManagementSystem.Student student : students) {
+            subjects.addAll(student.getMarks().keySet());
+        }
+        write(directory, subjects, students);
+    }
+
+    /**
+     * Writes students when every subject they may have marks in is known up
+     * front, iterating the collection only once; a generated roster can be
+     * streamed to disk this way without building it twice.
+     */
+    static void write(Path directory, Collection<String> subjects, Collection<SchoolManagementSystem.Student> students)
+            throws IOException {
+        Files.createDirectories(directory);
+        Map<String, Integer> subjectIds = new LinkedHashMap<>();
+        for (String subject : subjects) {
+            subjectIds.putIfAbsent(subject, subjectIds.size());
+        }
+        Map<String, Integer> methodIds = new LinkedHashMap<>();
+        Map<Enrolment, Integer> enrolmentIds = new LinkedHashMap<>();
+
+        int rows = 0;
+        long stringOffset = 0;
+        long paymentRow = 0;
+        try (DataOutputStream rollOut = column(directory, "roll.col");
+             DataOutputStream admissionOut = column(directory, "admission.col");
+             DataOutputStream namesOut = column(directory, "names.col");
+             DataOutputStream totalOut = column(directory, "fee_total.col");
+             DataOutputStream lastOut = column(directory, "fee_last.col");
+             DataOutputStream startOut = column(directory, "fee_start.col");
+             DataOutputStream paymentsOut = column(directory, "payments.col");
+             DataOutputStream stringsOut = column(directory, "strings.heap");
+             DataOutputStream enrolmentOut = column(directory, "enrolment.col")) {
+            DataOutputStream[] marksOut = new DataOutputStream[subjectIds.size()];
+            try {
+                for (int i = 0; i < marksOut.length; i++) {
+                    marksOut[i] = column(directory, "marks-" + i + ".col");
+                }
+
+                for (SchoolManagementSystem.Student student : students) {
+                    rollOut.writeInt(student.getRollNumber());
+                    admissionOut.writeInt(student.getAdmissionNumber());
+                    enrolmentOut.writeInt(enrolmentIds.computeIfAbsent(student.getEnrolment(), e -> enrolmentIds.size()));
+                    namesOut.writeLong(stringOffset);
+                    stringOffset += writeString(stringsOut, student.getName());
+                    stringOffset += writeString(stringsOut, student.getMotherName());
+                    stringOffset += writeString(stringsOut, student.getFatherName());
+
+                    short[] row = new short[marksOut.length];
+                    Arrays.fill(row, NO_MARK);
+                    for (Map.Entry<String, Integer> mark : student.getMarks().entrySet()) {
+                        int value = mark.getValue();
+                        if (value < 0 || value > Short.MAX_VALUE) {
+                            throw new IllegalArgumentException("Mark out of range for roll " + student.getRollNumber());
+                        }
+                        Integer subject = subjectIds.get(mark.getKey());
+                        if (subject == null) {
+                            throw new IllegalArgumentException("Unexpected subject " + mark.getKey()
+                                    + " for roll " + student.getRollNumber());
+                        }
+                        row[subject] = (short) value;
+                    }
+                    for (int i = 0; i < row.length; i++) {
+                        marksOut[i].writeShort(row[i]);
+                    }
+
+                    startOut.writeLong(paymentRow);
+                    long totalPaise = 0;
+                    int lastDay = NO_PAYMENT;
+                    for (SchoolManagementSystem.FeePayment payment : student.getFeePayments()) {
+                        long paise = Math.round(payment.getAmount() * 100);
+                        int day = (int) payment.getPaymentDate().toEpochDay();
+                        Integer method = methodIds.computeIfAbsent(payment.getPaymentMethod(), m -> methodIds.size());
+                        paymentsOut.writeLong(paise);
+                        paymentsOut.writeInt(day);
+                        paymentsOut.writeInt(method);
+                        paymentsOut.writeLong(stringOffset);
+                        stringOffset += writeString(stringsOut, payment.getReceiptNumber());
+                        totalPaise += paise;
+                        lastDay = Math.max(lastDay, day);
+                        paymentRow++;
+                    }
+                    totalOut.writeLong(totalPaise);
+                    lastOut.writeInt(lastDay);
+                    rows++;
+                }
+                startOut.writeLong(paymentRow);
+            } finally {
+                for (DataOutputStream out : marksOut) {
+                    if (out != null) {
+                        out.close();
+                    }
+                }
+            }
+        }
+
+        int capacity = writeIndex(directory, "roll.col", "roll.idx", "roll number", rows);
+        int admissionCapacity = writeIndex(directory, "admission.col", "admission.idx", "admission number", rows);
+
+        try (DataOutputStream meta = column(directory, "roster.meta")) {
+            meta.writeLong(MAGIC);
+            meta.writeInt(VERSION);
+            meta.writeInt(rows);
+            meta.writeInt(subjectIds.size());
+            for (String subject : subjectIds.keySet()) {
+                meta.writeUTF(subject);
+            }
+            meta.writeInt(methodIds.size());
+            for (String method : methodIds.keySet()) {
+                meta.writeUTF(method);
+            }
+            meta.writeInt(capacity);
+            meta.writeInt(admissionCapacity);
+            meta.writeInt(enrolmentIds.size());
+            for (Enrolment enrolment : enrolmentIds.keySet()) {
+                meta.writeUTF(enrolment.getSchool());
+                meta.writeUTF(enrolment.getClassName());
+                meta.writeUTF(enrolment.getSection());
+            }
+        }
+    }
+
+    // Builds an index file from a freshly written int column
+    private static int writeIndex(Path directory, String columnFile, String indexFile, String what, int rows)
+            throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(rows, 1) * 2 - 1) << 1;
+        int mask = capacity - 1;
+        int[] slots = new int[capacity * 2];
+        MappedRegion column = MappedRegion.map(directory.resolve(columnFile));
+        for (int row = 0; row < rows; row++) {
+            int key = column.getInt((long) row * 4);
+            int slot = mix(key) & mask;
+            while (slots[slot * 2 + 1] != 0) {
+                if (slots[slot * 2] == key) {
+                    throw new IllegalArgumentException("Duplicate " + what + " " + key);
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot * 2] = key;
+            slots[slot * 2 + 1] = row + 1;
+        }
+        try (DataOutputStream out = column(directory, indexFile)) {
+            for (int value : slots) {
+                out.writeInt(value);
+            }
+        }
+        return capacity;
+    }
+
+    private static DataOutputStream column(Path directory, String name) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(directory.resolve(name)), 1 << 16));
+    }
+
+    private static int writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return 4 + bytes.length;
+    }
+}
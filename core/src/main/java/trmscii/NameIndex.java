@@ -0,0 +1,726 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Finds students by their own name or by their mother's or father's name.
+ * Names are split into lower-case tokens, and each distinct token keeps a
+ * postings list of the students carrying it, with bits recording in which
+ * of the three names it occurs. A sorted token dictionary answers prefixes
+ * such as "priy bor", and a trigram index over the dictionary finds tokens
+ * within one edit of a misspelt word (two for long words), so "Baruah"
+ * still finds "Barua". Every query word must match some name; "Mr"/"Shri"
+ * limits a query to fathers and "Mrs"/"Smt"/"Ms" to mothers.
+ *
+ * Students with the same father and mother form a family, so a parent's
+ * name leads to all of their children at once.
+ *
+ * Students are added incrementally. A student replacing another with the
+ * same roll number is indexed afresh under a new ID, and the old ID is
+ * dropped from its postings and family. Postings hold compact IDs; results
+ * are looked up in the roster by roll number.
+ */
+class NameIndex {
+    static final int NAME = 1;
+    static final int MOTHER = 2;
+    static final int FATHER = 4;
+    private static final int PARENTS = MOTHER | FATHER;
+    private static final int ALL_NAMES = NAME | PARENTS;
+
+    // Scores are whole hundredths, so the bounds that stop a scan early compare exactly
+    private static final int EXACT = 100;
+    private static final int PREFIX = 80;
+    private static final int ONE_EDIT = 60;
+    private static final int TWO_EDITS = 40;
+    // Added when every query word matched within one of the three names
+    private static final int SAME_NAME_BONUS = 50;
+    // Prefixes expand to at most this many tokens, the most common ones first
+    private static final int MAX_EXPANSIONS = 32;
+
+    private static final Map<String, Integer> HONORIFICS = new HashMap<>();
+    static {
+        for (String title : new String[] {"mr", "shri", "sri"}) {
+            HONORIFICS.put(title, FATHER);
+        }
+        for (String title : new String[] {"mrs", "smt", "ms", "miss"}) {
+            HONORIFICS.put(title, MOTHER);
+        }
+        HONORIFICS.put("dr", PARENTS);
+    }
+
+    static final class Match {
+        private final SchoolManagementSystem.Student student;
+        private final double score;
+        private final int fields;
+
+        Match(SchoolManagementSystem.Student student, double score, int fields) {
+            this.student = student;
+            this.score = score;
+            this.fields = fields;
+        }
+
+        public SchoolManagementSystem.Student getStudent() { return student; }
+        public double getScore() { return score; }
+        // NAME, MOTHER and FATHER bits of the names the query matched
+        public int getFields() { return fields; }
+    }
+
+    static final class Family {
+        private final String fatherName;
+        private final String motherName;
+        private final List<SchoolManagementSystem.Student> children;
+
+        Family(String fatherName, String motherName, List<SchoolManagementSystem.Student> children) {
+            this.fatherName = fatherName;
+            this.motherName = motherName;
+            this.children = children;
+        }
+
+        public String getFatherName() { return fatherName; }
+        public String getMotherName() { return motherName; }
+        // Ordered by roll number
+        public List<SchoolManagementSystem.Student> getChildren() { return children; }
+
+        // The last word of the father's name, or of the mother's if his is blank
+        public String getSurname() {
+            String name = fatherName.trim().isEmpty() ? motherName.trim() : fatherName.trim();
+            return name.substring(name.lastIndexOf(' ') + 1);
+        }
+    }
+
+    private static final class IntList {
+        int[] items = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == value) {
+                    System.arraycopy(items, i + 1, items, i, --size - i);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Entries are student ID << 3 | name bits, one per student, in ascending ID order
+    private static final class Term {
+        final String text;
+        final int id;
+        int[] postings = new int[4];
+        int length;
+
+        Term(String text, int id) {
+            this.text = text;
+            this.id = id;
+        }
+
+        void add(int student, int field) {
+            if (length == postings.length) {
+                postings = Arrays.copyOf(postings, length * 2);
+            }
+            postings[length++] = student << 3 | field;
+        }
+
+        void remove(int student) {
+            int low = 0;
+            int high = length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int id = postings[mid] >>> 3;
+                if (id < student) {
+                    low = mid + 1;
+                } else if (id > student) {
+                    high = mid - 1;
+                } else {
+                    System.arraycopy(postings, mid + 1, postings, mid, --length - mid);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class FamilyEntry {
+        final String fatherName;
+        final String motherName;
+        final IntList members = new IntList();
+
+        FamilyEntry(String fatherName, String motherName) {
+            this.fatherName = fatherName;
+            this.motherName = motherName;
+        }
+    }
+
+    // The tokens a query word may stand for, sorted by term ID, and how well each matches
+    private static final class Word {
+        final int[] termIds;
+        final int[] weights;
+        final long postings;
+        final int best;
+
+        Word(int[] termIds, int[] weights, long postings) {
+            this.termIds = termIds;
+            this.weights = weights;
+            this.postings = postings;
+            this.best = Arrays.stream(weights).max().orElse(0);
+        }
+    }
+
+    // The best students seen so far, best first
+    private final class Best {
+        final int[] ids;
+        final int[] scores;
+        final int[] fields;
+        final boolean perFamily;
+        int size;
+
+        Best(int limit, boolean perFamily) {
+            ids = new int[Math.max(0, limit)];
+            scores = new int[ids.length];
+            fields = new int[ids.length];
+            this.perFamily = perFamily;
+        }
+
+        void offer(int id, int score, int matched) {
+            if (size == ids.length && !better(id, score, ids[size - 1], scores[size - 1])) {
+                return;
+            }
+            if (perFamily) {
+                // Siblings score the same on their parents' names, so one stands for the family
+                for (int k = 0; k < size; k++) {
+                    if (familyOf[ids[k]] == familyOf[id]) {
+                        if (!better(id, score, ids[k], scores[k])) {
+                            return;
+                        }
+                        System.arraycopy(ids, k + 1, ids, k, size - k - 1);
+                        System.arraycopy(scores, k + 1, scores, k, size - k - 1);
+                        System.arraycopy(fields, k + 1, fields, k, size - k - 1);
+                        size--;
+                        break;
+                    }
+                }
+            }
+            int position = Math.min(size, ids.length - 1);
+            while (position > 0 && better(id, score, ids[position - 1], scores[position - 1])) {
+                position--;
+            }
+            if (size < ids.length) {
+                size++;
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position - 1);
+            System.arraycopy(scores, position, scores, position + 1, size - position - 1);
+            System.arraycopy(fields, position, fields, position + 1, size - position - 1);
+            ids[position] = id;
+            scores[position] = score;
+            fields[position] = matched;
+        }
+
+        // Whether a student scoring at most that could still make the list
+        boolean admits(int id, int score) {
+            return size < ids.length && ids.length > 0 || size > 0 && better(id, score, ids[size - 1], scores[size - 1]);
+        }
+
+        // Ties go to the student indexed first
+        private boolean better(int id, int score, int otherId, int otherScore) {
+            return score != otherScore ? score > otherScore : id < otherId;
+        }
+    }
+
+    private final StudentStore store;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+    private final List<Term> termsById = new ArrayList<>();
+    private final Map<String, IntList> trigrams = new HashMap<>();
+    private final Map<String, Integer> familyIds = new HashMap<>();
+    private final List<FamilyEntry> families = new ArrayList<>();
+    // Indexed by student ID
+    private int[] rolls = new int[64];
+    private int[] familyOf = new int[64];
+    private int count;
+    // IDs left behind by replaced students
+    private int removed;
+    // Each student's tokens as term ID << 3 | name bits, from termOffsets[id] to termOffsets[id + 1]
+    private int[] studentTerms = new int[256];
+    private int[] termOffsets = new int[65];
+    // Open-addressing roll number -> student ID + 1, so a student is never indexed twice
+    private int[] rollKeys = new int[128];
+    private int[] rollIds = new int[128];
+
+    NameIndex(StudentStore store) {
+        this.store = store;
+    }
+
+    // Indexes in roll number order, so equally good matches come back by roll number
+    void addAll(Collection<SchoolManagementSystem.Student> students) {
+        List<SchoolManagementSystem.Student> sorted = new ArrayList<>(students);
+        sorted.sort(Comparator.comparingInt(SchoolManagementSystem.Student::getRollNumber));
+        lock.writeLock().lock();
+        try {
+            for (SchoolManagementSystem.Student student : sorted) {
+                index(student);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void add(SchoolManagementSystem.Student student) {
+        lock.writeLock().lock();
+        try {
+            index(student);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Indexes student in place of previous, the student it replaced in the roster, if any
+    void replace(SchoolManagementSystem.Student previous, SchoolManagementSystem.Student student) {
+        if (previous == null || previous == student) {
+            add(student);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int id = idOf(student.getRollNumber());
+            if (id >= 0) {
+                unindex(id);
+            }
+            indexNew(student);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return count - removed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(SchoolManagementSystem.Student student) {
+        if (idOf(student.getRollNumber()) < 0) {
+            indexNew(student);
+        }
+    }
+
+    // Gives the student a new ID, taking over its roll number if an older ID had it
+    private void indexNew(SchoolManagementSystem.Student student) {
+        int roll = student.getRollNumber();
+        int id = count++;
+        if (id == rolls.length) {
+            rolls = Arrays.copyOf(rolls, id * 2);
+            familyOf = Arrays.copyOf(familyOf, id * 2);
+            termOffsets = Arrays.copyOf(termOffsets, id * 2 + 1);
+        }
+        rolls[id] = roll;
+        putId(roll, id);
+
+        List<String> tokens = new ArrayList<>();
+        Map<Term, Integer> found = new LinkedHashMap<>();
+        indexName(student.getName(), NAME, tokens, found);
+        indexName(student.getMotherName(), MOTHER, tokens, found);
+        indexName(student.getFatherName(), FATHER, tokens, found);
+        int offset = termOffsets[id];
+        if (offset + found.size() > studentTerms.length) {
+            studentTerms = Arrays.copyOf(studentTerms, Math.max(offset + found.size(), studentTerms.length * 2));
+        }
+        for (Map.Entry<Term, Integer> entry : found.entrySet()) {
+            entry.getKey().add(id, entry.getValue());
+            studentTerms[offset++] = entry.getKey().id << 3 | entry.getValue();
+        }
+        termOffsets[id + 1] = offset;
+
+        String key = normalize(student.getFatherName(), tokens) + '|' + normalize(student.getMotherName(), tokens);
+        Integer family = familyIds.get(key);
+        if (family == null) {
+            family = families.size();
+            families.add(new FamilyEntry(student.getFatherName(), student.getMotherName()));
+            familyIds.put(key, family);
+        }
+        familyOf[id] = family;
+        families.get(family).members.add(id);
+    }
+
+    // Leaves the ID in the arrays but takes it out of every postings list and its family, so no search reaches it
+    private void unindex(int id) {
+        for (int i = termOffsets[id]; i < termOffsets[id + 1]; i++) {
+            termsById.get(studentTerms[i] >>> 3).remove(id);
+        }
+        families.get(familyOf[id]).members.remove(id);
+        removed++;
+    }
+
+    private void indexName(String name, int field, List<String> tokens, Map<Term, Integer> found) {
+        SearchIndex.tokenize(name, tokens);
+        for (String token : tokens) {
+            if (HONORIFICS.containsKey(token)) {
+                continue;
+            }
+            Term term = terms.get(token);
+            if (term == null) {
+                term = new Term(token, termsById.size());
+                terms.put(token, term);
+                termsById.add(term);
+                Set<String> grams = new HashSet<>();
+                trigramsOf(token, grams);
+                for (String gram : grams) {
+                    trigrams.computeIfAbsent(gram, g -> new IntList()).add(term.id);
+                }
+            }
+            found.merge(term, field, (a, b) -> a | b);
+        }
+    }
+
+    // Tokens of a name without titles, so "Mrs. Anjali Borah" and "Anjali Borah" are one parent
+    private static String normalize(String name, List<String> tokens) {
+        SearchIndex.tokenize(name, tokens);
+        StringBuilder key = new StringBuilder();
+        for (String token : tokens) {
+            if (!HONORIFICS.containsKey(token)) {
+                key.append(token).append(' ');
+            }
+        }
+        return key.toString();
+    }
+
+    // Trigrams of the word padded with $ at both ends; a word of n letters has n of them
+    private static void trigramsOf(String word, Collection<String> grams) {
+        String padded = '$' + word + '$';
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+    }
+
+    /**
+     * Students whose names match every word of the query, best first.
+     * Ties go to the student indexed first.
+     */
+    List<Match> search(String query, int limit) {
+        List<String> words = new ArrayList<>();
+        int fields = parse(query, words, ALL_NAMES);
+        lock.readLock().lock();
+        try {
+            Best best = new Best(limit, false);
+            match(words, fields, best);
+            List<Match> matches = new ArrayList<>(best.size);
+            for (int k = 0; k < best.size; k++) {
+                SchoolManagementSystem.Student student = store.get(rolls[best.ids[k]]);
+                if (student != null) {
+                    matches.add(new Match(student, best.scores[k] / 100.0, best.fields[k]));
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Families whose father's or mother's name matches every word of the
+     * query, best first, each with all of its children.
+     */
+    List<Family> families(String query, int limit) {
+        List<String> words = new ArrayList<>();
+        int fields = parse(query, words, PARENTS);
+        lock.readLock().lock();
+        try {
+            Best best = new Best(limit, true);
+            match(words, fields, best);
+            List<Family> result = new ArrayList<>(best.size);
+            for (int k = 0; k < best.size; k++) {
+                FamilyEntry family = families.get(familyOf[best.ids[k]]);
+                List<SchoolManagementSystem.Student> children = new ArrayList<>(family.members.size);
+                for (int i = 0; i < family.members.size; i++) {
+                    SchoolManagementSystem.Student child = store.get(rolls[family.members.items[i]]);
+                    if (child != null) {
+                        children.add(child);
+                    }
+                }
+                children.sort(Comparator.comparingInt(SchoolManagementSystem.Student::getRollNumber));
+                result.add(new Family(family.fatherName, family.motherName, children));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Splits the query into words and returns the names they may match, narrowed by any title
+    private static int parse(String query, List<String> words, int fields) {
+        List<String> tokens = new ArrayList<>();
+        SearchIndex.tokenize(query, tokens);
+        for (String token : tokens) {
+            Integer title = HONORIFICS.get(token);
+            if (title != null) {
+                fields &= title;
+            } else {
+                words.add(token);
+            }
+        }
+        return fields;
+    }
+
+    /*
+     * Walks the postings of the word with the fewest of them and checks every
+     * other word against each student's own handful of tokens, so the cost
+     * follows the rarest word rather than the commonest.
+     */
+    private void match(List<String> queryWords, int fields, Best best) {
+        if (queryWords.isEmpty() || fields == 0) {
+            return;
+        }
+        Word[] words = new Word[queryWords.size()];
+        int driver = 0;
+        for (int w = 0; w < words.length; w++) {
+            words[w] = expand(queryWords.get(w));
+            if (words[w].termIds.length == 0) {
+                return;
+            }
+            if (words[w].postings < words[driver].postings) {
+                driver = w;
+            }
+        }
+        Word driving = words[driver];
+        int othersBest = 0;
+        for (Word word : words) {
+            if (word != driving) {
+                othersBest += word.best;
+            }
+        }
+        int bonus = words.length > 1 ? SAME_NAME_BONUS : 0;
+
+        // Best matching tokens first, so later ones can stop as soon as they cannot compete
+        int[] order = new int[driving.termIds.length];
+        int[] rank = new int[order.length];
+        List<Integer> byWeight = new ArrayList<>();
+        for (int k = 0; k < order.length; k++) {
+            byWeight.add(k);
+        }
+        byWeight.sort((a, b) -> Integer.compare(driving.weights[b], driving.weights[a]));
+        for (int r = 0; r < order.length; r++) {
+            order[r] = byWeight.get(r);
+            rank[order[r]] = r;
+        }
+
+        for (int r = 0; r < order.length; r++) {
+            int weight = driving.weights[order[r]];
+            // A student reached here may still match a later token of the driving word in its own name
+            int nextWeight = r + 1 < order.length && (fields & NAME) != 0 ? driving.weights[order[r + 1]] : 0;
+            Term term = termsById.get(driving.termIds[order[r]]);
+            int termBound = bound(weight, nextWeight, fields, othersBest, bonus);
+            students:
+            for (int p = 0; p < term.length; p++) {
+                int entry = term.postings[p];
+                int names = entry & fields;
+                if (names == 0) {
+                    continue;
+                }
+                int id = entry >>> 3;
+                // IDs only grow along the postings, so once the list stops competing it is done
+                if (!best.admits(id, termBound)) {
+                    break;
+                }
+                if (!best.admits(id, bound(weight, nextWeight, names, othersBest, bonus))) {
+                    continue;
+                }
+                int score = 0;
+                int common = fields;
+                for (Word word : words) {
+                    int wordScore = 0;
+                    int matched = 0;
+                    for (int t = termOffsets[id]; t < termOffsets[id + 1]; t++) {
+                        int token = studentTerms[t];
+                        int tokenNames = token & fields;
+                        int index = tokenNames == 0 ? -1 : Arrays.binarySearch(word.termIds, token >>> 3);
+                        if (index < 0) {
+                            continue;
+                        }
+                        // Reached through an earlier token of the driving word already
+                        if (word == driving && rank[index] < r) {
+                            continue students;
+                        }
+                        int tokenScore = (tokenNames & NAME) != 0 ? word.weights[index] : parent(word.weights[index]);
+                        wordScore = Math.max(wordScore, tokenScore);
+                        matched |= tokenNames;
+                    }
+                    if (matched == 0) {
+                        continue students;
+                    }
+                    score += wordScore;
+                    common &= matched;
+                }
+                if (words.length > 1 && common != 0) {
+                    score += SAME_NAME_BONUS;
+                }
+                best.offer(id, score, common);
+            }
+        }
+    }
+
+    /*
+     * The most a student can score whose driving word matched with that
+     * weight in those names, and with at most nextWeight through any later
+     * token. Each other word scores its best over all three names while the
+     * bonus only asks that some name matched every word, so both can count
+     * in full even when the driving word matched only a parent.
+     */
+    private static int bound(int weight, int nextWeight, int names, int othersBest, int bonus) {
+        int own = (names & NAME) != 0 ? weight : Math.max(parent(weight), nextWeight);
+        return own + othersBest + bonus;
+    }
+
+    // A parent's name is slightly less likely to be what the caller meant
+    private static int parent(int weight) {
+        return weight * 9 / 10;
+    }
+
+    private Word expand(String word) {
+        Map<Integer, Integer> expansions = new HashMap<>();
+        Term exact = terms.get(word);
+        if (exact != null) {
+            expansions.put(exact.id, EXACT);
+        }
+
+        // The most common tokens starting with the word
+        PriorityQueue<Term> prefixed = new PriorityQueue<>(Comparator.comparingInt((Term t) -> t.length));
+        for (Term term : terms.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+            prefixed.add(term);
+            if (prefixed.size() > MAX_EXPANSIONS) {
+                prefixed.poll();
+            }
+        }
+        for (Term term : prefixed) {
+            expansions.put(term.id, PREFIX);
+        }
+
+        if (word.length() >= 4) {
+            int maxEdits = word.length() >= 8 ? 2 : 1;
+            for (Term term : similarTerms(word, maxEdits)) {
+                int distance = editDistance(word, term.text, maxEdits);
+                if (distance > 0 && distance <= maxEdits) {
+                    expansions.putIfAbsent(term.id, distance == 1 ? ONE_EDIT : TWO_EDITS);
+                }
+            }
+        }
+
+        int[] termIds = new int[expansions.size()];
+        int i = 0;
+        for (int id : expansions.keySet()) {
+            termIds[i++] = id;
+        }
+        Arrays.sort(termIds);
+        int[] weights = new int[termIds.length];
+        long postings = 0;
+        for (i = 0; i < termIds.length; i++) {
+            weights[i] = expansions.get(termIds[i]);
+            postings += termsById.get(termIds[i]).length;
+        }
+        return new Word(termIds, weights, postings);
+    }
+
+    // Tokens sharing enough trigrams with the word to be within maxEdits of it
+    private List<Term> similarTerms(String word, int maxEdits) {
+        Set<String> grams = new HashSet<>();
+        trigramsOf(word, grams);
+        // Each edit destroys at most three trigrams
+        int needed = Math.max(1, word.length() - 3 * maxEdits);
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            IntList ids = trigrams.get(gram);
+            if (ids != null) {
+                for (int i = 0; i < ids.size; i++) {
+                    shared.merge(ids.items[i], 1, Integer::sum);
+                }
+            }
+        }
+        List<Term> similar = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+            Term term = termsById.get(entry.getKey());
+            if (entry.getValue() >= needed && Math.abs(term.text.length() - word.length()) <= maxEdits) {
+                similar.add(term);
+            }
+        }
+        return similar;
+    }
+
+    // Optimal string alignment distance, or maxEdits + 1 once it is certain to exceed maxEdits
+    static int editDistance(String a, String b, int maxEdits) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, previous2[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMinimum = Math.min(rowMinimum, distance);
+            }
+            if (rowMinimum > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private int idOf(int roll) {
+        int mask = rollKeys.length - 1;
+        for (int slot = mix(roll) & mask; rollIds[slot] != 0; slot = (slot + 1) & mask) {
+            if (rollKeys[slot] == roll) {
+                return rollIds[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void putId(int roll, int id) {
+        if ((count + 1) * 2 > rollKeys.length) {
+            int[] oldKeys = rollKeys;
+            int[] oldIds = rollIds;
+            rollKeys = new int[oldKeys.length * 2];
+            rollIds = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldIds[i] != 0) {
+                    insert(oldKeys[i], oldIds[i]);
+                }
+            }
+        }
+        insert(roll, id + 1);
+    }
+
+    private void insert(int roll, int storedId) {
+        int mask = rollKeys.length - 1;
+        int slot = mix(roll) & mask;
+        while (rollIds[slot] != 0 && rollKeys[slot] != roll) {
+            slot = (slot + 1) & mask;
+        }
+        rollKeys[slot] = roll;
+        rollIds[slot] = storedId;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,192 @@
+package trmscii;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Every notice ever posted, indexed by post date and by expiry date.
+ * The notices still active today are kept as a ready-made list, so showing
+ * the board costs the same however many years of notices lie behind it.
+ * The list is rebuilt from the expiry index when a notice is posted or
+ * revised and when the earliest expiry in it has passed: either by the
+ * scheduled sweep just after midnight or, failing that, by the first
+ * reader of the new day.
+ *
+ * Writers are serialised on the board; readers never lock.
+ */
+class NoticeBoard {
+    private static final class ActiveSet {
+        final List<SchoolManagementSystem.Notice> notices;
+        // Valid up to and including this epoch day: the earliest expiry in the set
+        final long validThrough;
+        // One more than the set it replaced
+        final int version;
+
+        ActiveSet(List<SchoolManagementSystem.Notice> notices, long validThrough, int version) {
+            this.notices = notices;
+            this.validThrough = validThrough;
+            this.version = version;
+        }
+    }
+
+    private final Clock clock;
+    // Board order; append-only, so an index names a notice for good
+    private volatile SchoolManagementSystem.Notice[] all = new SchoolManagementSystem.Notice[16];
+    private volatile int size;
+    // Keys are epoch day << 32 | board index, so equal dates keep board order
+    private final ConcurrentSkipListMap<Long, SchoolManagementSystem.Notice> byPostDate = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, SchoolManagementSystem.Notice> byExpiryDate = new ConcurrentSkipListMap<>();
+    private volatile ActiveSet active = new ActiveSet(Collections.emptyList(), Long.MAX_VALUE, 0);
+    private ScheduledExecutorService sweeper;
+
+    NoticeBoard() {
+        this(Clock.systemDefaultZone());
+    }
+
+    NoticeBoard(Clock clock) {
+        this.clock = clock;
+    }
+
+    private static long key(LocalDate date, int index) {
+        return date.toEpochDay() << 32 | index;
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    synchronized void add(SchoolManagementSystem.Notice notice) {
+        int index = size;
+        if (index == all.length) {
+            all = Arrays.copyOf(all, index * 2);
+        }
+        all[index] = notice;
+        notice.boardIndex = index;
+        byPostDate.put(key(notice.getPostDate(), index), notice);
+        byExpiryDate.put(key(notice.getExpiryDate(), index), notice);
+        size = index + 1;
+
+        // A new notice has the highest index, so appending keeps board order
+        ActiveSet current = active;
+        long today = today().toEpochDay();
+        long expiry = notice.getExpiryDate().toEpochDay();
+        if (current.validThrough < today) {
+            sweep();
+        } else if (expiry >= today) {
+            List<SchoolManagementSystem.Notice> notices = new ArrayList<>(current.notices.size() + 1);
+            notices.addAll(current.notices);
+            notices.add(notice);
+            active = new ActiveSet(Collections.unmodifiableList(notices), Math.min(current.validThrough, expiry),
+                    current.version + 1);
+        }
+    }
+
+    // Revises a notice, moving it in the expiry index if its expiry changed
+    synchronized void update(SchoolManagementSystem.Notice notice, String title, String content, LocalDate expiryDate) {
+        int index = notice.boardIndex;
+        if (index < 0 || index >= size || all[index] != notice) {
+            throw new IllegalArgumentException("Notice is not on the board: " + notice.getTitle());
+        }
+        byExpiryDate.remove(key(notice.getExpiryDate(), index));
+        notice.update(title, content, expiryDate);
+        byExpiryDate.put(key(expiryDate, index), notice);
+        sweep();
+    }
+
+    // Rebuilds the active set from the notices expiring today or later
+    synchronized void sweep() {
+        long today = today().toEpochDay();
+        Collection<SchoolManagementSystem.Notice> live = byExpiryDate.tailMap(today << 32).values();
+        List<SchoolManagementSystem.Notice> notices = new ArrayList<>(live);
+        notices.sort(Comparator.comparingInt(notice -> notice.boardIndex));
+        long validThrough = live.isEmpty() ? Long.MAX_VALUE : byExpiryDate.ceilingKey(today << 32) >> 32;
+        active = new ActiveSet(Collections.unmodifiableList(notices), validThrough, active.version + 1);
+    }
+
+    // Notices whose expiry date is today or later, in board order
+    List<SchoolManagementSystem.Notice> active() {
+        return current().notices;
+    }
+
+    /*
+     * Changes whenever the active notices do, so a reader that took it before
+     * calling active() can tell whether it has seen that list already.
+     */
+    int activeVersion() {
+        return current().version;
+    }
+
+    private ActiveSet current() {
+        ActiveSet current = active;
+        if (today().toEpochDay() > current.validThrough) {
+            sweep();
+            current = active;
+        }
+        return current;
+    }
+
+    // Notices posted from..to inclusive, oldest first
+    List<SchoolManagementSystem.Notice> postedBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(byPostDate.subMap(from.toEpochDay() << 32, (to.toEpochDay() + 1) << 32).values());
+    }
+
+    // Notices posted in the last days days, today included
+    List<SchoolManagementSystem.Notice> postedInLast(int days) {
+        LocalDate today = today();
+        return postedBetween(today.minusDays(days - 1), today);
+    }
+
+    SchoolManagementSystem.Notice get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No notice " + index);
+        }
+        return all[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Read-only view of every notice in board order, as of this call
+    List<SchoolManagementSystem.Notice> asList() {
+        int count = size;
+        return Collections.unmodifiableList(Arrays.asList(all).subList(0, count));
+    }
+
+    // Sweeps shortly after every midnight, so the first viewer of the day does not have to
+    synchronized void startSweeps() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notice-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNextSweep();
+    }
+
+    private synchronized void scheduleNextSweep() {
+        if (sweeper == null) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+        long delay = Math.max(0, Duration.between(now, midnight).toMillis()) + 1;
+        sweeper.schedule(() -> {
+            sweep();
+            scheduleNextSweep();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void stopSweeps() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+}
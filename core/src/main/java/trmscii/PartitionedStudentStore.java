@@ -0,0 +1,249 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Roster for a group of schools, partitioned by school, class and section.
+ * Each partition owns a StudentRegistry of its own students and an executor
+ * that runs its queries one at a time, in order. Partitions are created the
+ * first time a student of their section is stored.
+ *
+ * Queries over many partitions (a whole school's fee totals, the group's
+ * report cards) are handed to every matching partition at once and the
+ * results merged in partition order. The executors share one pool with a
+ * thread per core, so a query over a hundred sections keeps every core busy
+ * while one partition can never hold more than a single thread of it.
+ *
+ * Roll and admission numbers stay unique across the group, as logins and
+ * the fee office quote them without a school. Lookups by either go through
+ * a directory of the whole group, itself a lock-striped StudentRegistry;
+ * everything else stays within a partition.
+ */
+final class PartitionedStudentStore implements StudentStore {
+    private static final int PARTITION_STRIPES = 4;
+    // Tasks an executor runs before giving its pool thread to another partition
+    private static final int BATCH = 16;
+
+    private final StudentRegistry directory = new StudentRegistry();
+    private final ConcurrentSkipListMap<Enrolment, Partition> partitions = new ConcurrentSkipListMap<>();
+    private final ThreadPoolExecutor workers;
+
+    PartitionedStudentStore() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    PartitionedStudentStore(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "partition-worker-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    // One school, class and section: its students, and the executor its queries run on
+    static final class Partition {
+        private final Enrolment enrolment;
+        private final StudentRegistry students = new StudentRegistry(PARTITION_STRIPES);
+        private final SerialExecutor executor;
+
+        private Partition(Enrolment enrolment, Executor workers) {
+            this.enrolment = enrolment;
+            this.executor = new SerialExecutor(workers);
+        }
+
+        Enrolment getEnrolment() {
+            return enrolment;
+        }
+
+        StudentStore getStudents() {
+            return students;
+        }
+
+        Executor getExecutor() {
+            return executor;
+        }
+    }
+
+    @Override
+    public SchoolManagementSystem.Student get(int rollNumber) {
+        return directory.get(rollNumber);
+    }
+
+    @Override
+    public SchoolManagementSystem.Student getByAdmissionNumber(int admissionNumber) {
+        return directory.getByAdmissionNumber(admissionNumber);
+    }
+
+    @Override
+    public boolean contains(int rollNumber) {
+        return directory.contains(rollNumber);
+    }
+
+    /**
+     * Adds the student to its section's partition, or replaces the one with
+     * the same roll number there. Throws IllegalArgumentException when the
+     * admission number belongs to another student, or when the roll number
+     * belongs to a student of another section: moving students between
+     * sections is not supported yet. Both checks, commit and the partition's
+     * put run under the directory's locks for the student's numbers, so two
+     * puts of one roll number cannot land in two partitions.
+     */
+    @Override
+    public void put(SchoolManagementSystem.Student student, Consumer<SchoolManagementSystem.Student> commit) {
+        Enrolment enrolment = student.getEnrolment();
+        // The directory checks the admission number first, so a rejected student never reaches a partition
+        directory.put(student, previous -> {
+            if (previous != null && !previous.getEnrolment().equals(enrolment)) {
+                throw new IllegalArgumentException("Roll number " + student.getRollNumber() + " is enrolled in "
+                        + previous.getEnrolment() + ", not " + enrolment);
+            }
+            commit.accept(previous);
+            partition(enrolment).students.put(student);
+        });
+    }
+
+    private Partition partition(Enrolment enrolment) {
+        Partition partition = partitions.get(enrolment);
+        return partition != null ? partition
+                : partitions.computeIfAbsent(enrolment, key -> new Partition(key, workers));
+    }
+
+    @Override
+    public int size() {
+        return directory.size();
+    }
+
+    // A point-in-time copy, partition by partition
+    @Override
+    public Collection<SchoolManagementSystem.Student> values() {
+        List<SchoolManagementSystem.Student> all = new ArrayList<>(size());
+        for (Partition partition : partitions.values()) {
+            all.addAll(partition.students.values());
+        }
+        return all;
+    }
+
+    // Every partition, sorted by school, class and section
+    Collection<Partition> partitions() {
+        return Collections.unmodifiableCollection(partitions.values());
+    }
+
+    // Null when nobody is enrolled in the section
+    Partition partition(String school, String className, String section) {
+        return partitions.get(Enrolment.of(school, className, section));
+    }
+
+    SortedSet<String> schools() {
+        SortedSet<String> schools = new TreeSet<>();
+        for (Enrolment enrolment : partitions.keySet()) {
+            schools.add(enrolment.getSchool());
+        }
+        return schools;
+    }
+
+    static Predicate<Enrolment> all() {
+        return enrolment -> true;
+    }
+
+    static Predicate<Enrolment> school(String school) {
+        return enrolment -> enrolment.getSchool().equals(school);
+    }
+
+    /**
+     * Runs task over the students of every matching partition, each on its
+     * partition's executor and all at the same time, and returns the results
+     * sorted by school, class and section.
+     */
+    <R> SortedMap<Enrolment, R> queryEach(Predicate<Enrolment> which,
+            Function<Collection<SchoolManagementSystem.Student>, R> task) {
+        Map<Enrolment, CompletableFuture<R>> pending = new LinkedHashMap<>();
+        for (Partition partition : partitions.values()) {
+            if (which.test(partition.enrolment)) {
+                pending.put(partition.enrolment,
+                        CompletableFuture.supplyAsync(() -> task.apply(partition.students.values()), partition.executor));
+            }
+        }
+        SortedMap<Enrolment, R> results = new TreeMap<>();
+        for (Map.Entry<Enrolment, CompletableFuture<R>> entry : pending.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    // As queryEach, with the results folded into one in partition order
+    <R> R query(Predicate<Enrolment> which, Function<Collection<SchoolManagementSystem.Student>, R> task,
+            R identity, BinaryOperator<R> merge) {
+        R result = identity;
+        for (R partial : queryEach(which, task).values()) {
+            result = merge.apply(result, partial);
+        }
+        return result;
+    }
+
+    /*
+     * Runs tasks one at a time in submission order on a shared pool, so a
+     * partition never uses more than one of its threads. After a batch the
+     * thread is handed back, so a busy partition cannot starve the others.
+     */
+    private static final class SerialExecutor implements Executor {
+        private final Executor pool;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean scheduled;
+
+        SerialExecutor(Executor pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+            if (!scheduled) {
+                scheduled = true;
+                pool.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            for (int run = 0; run < BATCH; run++) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+            synchronized (this) {
+                if (tasks.isEmpty()) {
+                    scheduled = false;
+                } else {
+                    pool.execute(this::drain);
+                }
+            }
+        }
+    }
+}
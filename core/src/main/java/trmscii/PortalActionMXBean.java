@@ -0,0 +1,26 @@
+package trmscii;
+
+/**
+ * Latency, throughput and errors of one portal action, as seen in JConsole
+ * or any other JMX client under trmscii:type=PortalMetrics,action=NAME.
+ * Latencies are in microseconds and cover everything since startup.
+ * Public only because JMX requires management interfaces to be.
+ */
+public interface PortalActionMXBean {
+    long getCount();
+
+    long getErrors();
+
+    // Calls per second since startup
+    double getRatePerSecond();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
@@ -0,0 +1,284 @@
+package trmscii;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.*;
+
+/**
+ * Latency histograms, throughput and error counts for each portal action.
+ *
+ * Latencies go into log-linear buckets: exact below 16ns, then sixteen
+ * buckets per power of two, so a percentile is never more than 1/16 above
+ * the true value. Every action has a few stripes of buckets and a thread
+ * records into the stripe its id picks, so recording is two array
+ * increments on mostly uncontended cache lines, with no lock and no
+ * allocation. Reading merges the stripes, and may see a call that is
+ * counted in one stripe slot but not yet the next; for monitoring that is
+ * close enough.
+ *
+ * Published through JMX as one PortalActionMXBean per action, and as a
+ * text table on demand or every few seconds.
+ */
+class PortalMetrics {
+    enum Action {
+        LOGIN, PROFILE, FEES, MARKS, NOTICES, TIMETABLE, TESTS;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // Latencies are capped at 2^40ns, about 18 minutes
+    private static final int MAX_MAGNITUDE = 40;
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BITS + 2) * SUB_COUNT;
+    // Slots after the buckets in every stripe
+    private static final int ERRORS = BUCKETS;
+    private static final int TOTAL_NANOS = BUCKETS + 1;
+    private static final int MAX_NANOS = BUCKETS + 2;
+    private static final int SLOTS = BUCKETS + 3;
+    // A power of two, about twice the cores and at most 8
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2);
+
+    private final AtomicLongArray[][] stripes = new AtomicLongArray[Action.values().length][STRIPES];
+    private final long startedAt = System.nanoTime();
+    private ScheduledExecutorService dumper;
+
+    PortalMetrics() {
+        for (AtomicLongArray[] action : stripes) {
+            for (int i = 0; i < STRIPES; i++) {
+                action[i] = new AtomicLongArray(SLOTS);
+            }
+        }
+    }
+
+    void record(Action action, long nanos, boolean failed) {
+        AtomicLongArray stripe = stripes[action.ordinal()][(int) Thread.currentThread().threadId() & (STRIPES - 1)];
+        stripe.getAndIncrement(bucket(nanos));
+        stripe.getAndAdd(TOTAL_NANOS, nanos);
+        if (failed) {
+            stripe.getAndIncrement(ERRORS);
+        }
+        if (nanos > stripe.getPlain(MAX_NANOS)) {
+            stripe.accumulateAndGet(MAX_NANOS, nanos, Math::max);
+        }
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_COUNT) {
+            return (int) Math.max(0, nanos);
+        }
+        int magnitude = Math.min(MAX_MAGNITUDE, 63 - Long.numberOfLeadingZeros(nanos));
+        long top = magnitude == MAX_MAGNITUDE && nanos >= 1L << (MAX_MAGNITUDE + 1)
+                ? SUB_COUNT - 1
+                : (nanos >>> (magnitude - SUB_BITS)) & (SUB_COUNT - 1);
+        return (magnitude - SUB_BITS + 1) * SUB_COUNT + (int) top;
+    }
+
+    // The highest latency that falls into the bucket
+    static long bucketLimit(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1;
+        long lower = (long) (SUB_COUNT + bucket % SUB_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    Snapshot snapshot(Action action) {
+        long[] buckets = new long[BUCKETS];
+        long errors = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        for (AtomicLongArray stripe : stripes[action.ordinal()]) {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] += stripe.get(i);
+            }
+            errors += stripe.get(ERRORS);
+            totalNanos += stripe.get(TOTAL_NANOS);
+            maxNanos = Math.max(maxNanos, stripe.get(MAX_NANOS));
+        }
+        return new Snapshot(buckets, errors, totalNanos, maxNanos);
+    }
+
+    /**
+     * Everything recorded for one action up to the moment it was taken.
+     */
+    static final class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long errors;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Snapshot(long[] buckets, long errors, long totalNanos, long maxNanos) {
+            long count = 0;
+            for (long n : buckets) {
+                count += n;
+            }
+            this.buckets = buckets;
+            this.count = count;
+            this.errors = errors;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        long getErrors() {
+            return errors;
+        }
+
+        long getMaxNanos() {
+            return maxNanos;
+        }
+
+        double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        // The latency that the given fraction of calls stayed within
+        long getPercentileNanos(double fraction) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(bucketLimit(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+
+    // Registers one MBean per action with the platform MBean server
+    void registerMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Action action : Action.values()) {
+            ObjectName name = new ObjectName("trmscii:type=PortalMetrics,action=" + action.label());
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new StandardMBean(new ActionBean(action), PortalActionMXBean.class, true), name);
+            }
+        }
+    }
+
+    private final class ActionBean implements PortalActionMXBean {
+        private final Action action;
+
+        ActionBean(Action action) {
+            this.action = action;
+        }
+
+        @Override
+        public long getCount() {
+            return snapshot(action).getCount();
+        }
+
+        @Override
+        public long getErrors() {
+            return snapshot(action).getErrors();
+        }
+
+        @Override
+        public double getRatePerSecond() {
+            return snapshot(action).getCount() / ((System.nanoTime() - startedAt) / 1e9);
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return snapshot(action).getMeanNanos() / 1e3;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return snapshot(action).getPercentileNanos(0.5) / 1e3;
+        }
+
+        @Override
+        public double getP99Micros() {
+            return snapshot(action).getPercentileNanos(0.99) / 1e3;
+        }
+
+        @Override
+        public double getP999Micros() {
+            return snapshot(action).getPercentileNanos(0.999) / 1e3;
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return snapshot(action).getMaxNanos() / 1e3;
+        }
+    }
+
+    // Every action since startup
+    String toText() {
+        Snapshot[] now = new Snapshot[Action.values().length];
+        for (Action action : Action.values()) {
+            now[action.ordinal()] = snapshot(action);
+        }
+        return toText(now, new long[now.length], System.nanoTime() - startedAt);
+    }
+
+    // Rates are over the interval since the counts in before were taken
+    private static String toText(Snapshot[] now, long[] before, long intervalNanos) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Portal metrics at ").append(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)).append('\n');
+        sb.append(String.format("%-10s %10s %8s %9s %10s %10s %10s %10s %10s%n",
+                "action", "count", "errors", "per sec", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Action action : Action.values()) {
+            Snapshot snapshot = now[action.ordinal()];
+            double rate = (snapshot.getCount() - before[action.ordinal()]) / (intervalNanos / 1e9);
+            sb.append(String.format(Locale.ROOT, "%-10s %10d %8d %9.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    action.label(), snapshot.getCount(), snapshot.getErrors(), rate,
+                    snapshot.getMeanNanos() / 1e3, snapshot.getPercentileNanos(0.5) / 1e3,
+                    snapshot.getPercentileNanos(0.99) / 1e3, snapshot.getPercentileNanos(0.999) / 1e3,
+                    snapshot.getMaxNanos() / 1e3));
+        }
+        return sb.toString();
+    }
+
+    // Prints the table every period, with rates over the last period
+    synchronized void startDumps(long periodSeconds, PrintStream out) {
+        if (dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long[] before = new long[Action.values().length];
+        long[] lastDump = {System.nanoTime()};
+        dumper.scheduleAtFixedRate(() -> {
+            Snapshot[] now = new Snapshot[before.length];
+            for (Action action : Action.values()) {
+                now[action.ordinal()] = snapshot(action);
+            }
+            long time = System.nanoTime();
+            out.print(toText(now, before, time - lastDump[0]));
+            out.flush();
+            for (int i = 0; i < now.length; i++) {
+                before[i] = now[i].getCount();
+            }
+            lastDump[0] = time;
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    synchronized void stopDumps() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+        }
+    }
+}
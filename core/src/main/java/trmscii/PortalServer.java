@@ -0,0 +1,91 @@
+package trmscii;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the student portal menus over TCP with a telnet-style line protocol.
+ * Every connection gets its own PortalSession, and so its own logged-in
+ * student, running on its own virtual thread. Blocking reads park the
+ * virtual thread instead of pinning a platform thread, so thousands of
+ * mostly idle parents cost little more than their sockets.
+ */
+class PortalServer implements Closeable {
+    private final SchoolManagementSystem system;
+    private final int idleTimeoutMillis;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicInteger peakSessions = new AtomicInteger();
+    private Thread acceptor;
+
+    PortalServer(SchoolManagementSystem system, int port, int idleTimeoutMillis) throws IOException {
+        this.system = system;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.serverSocket = new ServerSocket(port, 4096);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    int getPeakSessions() {
+        return peakSessions.get();
+    }
+
+    void start() {
+        acceptor = Thread.ofPlatform().name("portal-acceptor").start(this::acceptLoop);
+    }
+
+    // Blocks until the server is closed
+    void awaitTermination() throws InterruptedException {
+        acceptor.join();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Failed to accept connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        int active = activeSessions.incrementAndGet();
+        peakSessions.accumulateAndGet(active, Math::max);
+        try (socket) {
+            socket.setSoTimeout(idleTimeoutMillis);
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintStream out = new PrintStream(new BufferedOutputStream(socket.getOutputStream()), false, StandardCharsets.UTF_8);
+            try {
+                system.newSession(in, out).run();
+            } catch (SocketTimeoutException e) {
+                out.println("\n\nSession closed after " + idleTimeoutMillis / 1000 + " seconds of inactivity.");
+            }
+            out.flush();
+        } catch (IOException e) {
+            // The client went away; nothing else to clean up
+        } finally {
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+    }
+}
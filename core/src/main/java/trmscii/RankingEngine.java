@@ -0,0 +1,381 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Class rank, percentile and top K, overall and per subject.
+ * Each ranking keeps a Fenwick tree over its score range, 0-40 for a subject
+ * and the overall percentage in hundredths, so "how many scored higher" is
+ * a logarithmic prefix sum and rank and percentile follow from it. For top
+ * K it also keeps (score, roll number) pairs packed into longs, sorted best
+ * first in blocks, so the K best are the first K keys.
+ *
+ * The engine follows marks as they are entered: it listens to every student
+ * it has been given and moves them between scores incrementally. Ties share
+ * a rank; top K breaks them by roll number.
+ */
+class RankingEngine implements SchoolManagementSystem.MarksListener {
+    private static final int MAX_MARK = ReportCard.MAX_MARK;
+    // Overall percentages are ranked in hundredths of a percent
+    private static final int MAX_OVERALL = 100_00;
+
+    private final StudentStore store;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Ranking overall = new Ranking(MAX_OVERALL);
+    // By subject ID, created when the subject gets its first mark
+    private final Ranking[] subjects = new Ranking[SubjectRegistry.MAX_SUBJECTS];
+
+    RankingEngine(StudentStore store) {
+        this.store = store;
+    }
+
+    void addAll(Collection<SchoolManagementSystem.Student> students) {
+        for (SchoolManagementSystem.Student student : students) {
+            add(student);
+        }
+    }
+
+    /*
+     * Ranks the student's marks so far and follows later ones. The student's
+     * lock keeps a mark from slipping in between; it is always taken before
+     * the engine's, as addMarks does.
+     */
+    void add(SchoolManagementSystem.Student student) {
+        synchronized (student) {
+            if (student.getMarksListener() == this) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                int roll = student.getRollNumber();
+                for (long remaining = student.getSubjectMask(); remaining != 0; remaining &= remaining - 1) {
+                    int subject = Long.numberOfTrailingZeros(remaining);
+                    subject(subject).add(subjectScore(student.getMark(subject)), roll);
+                }
+                if (student.getSubjectCount() > 0) {
+                    overall.add(overallScore(student.getTotalMarks(), student.getSubjectCount()), roll);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            student.setMarksListener(this);
+        }
+    }
+
+    // Ranks student in place of previous, the student it replaced in the roster, if any
+    void replace(SchoolManagementSystem.Student previous, SchoolManagementSystem.Student student) {
+        if (previous != null && previous != student) {
+            remove(previous);
+        }
+        add(student);
+    }
+
+    // Drops the student's scores and stops following its marks
+    private void remove(SchoolManagementSystem.Student student) {
+        synchronized (student) {
+            if (student.getMarksListener() != this) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                int roll = student.getRollNumber();
+                for (long remaining = student.getSubjectMask(); remaining != 0; remaining &= remaining - 1) {
+                    int subject = Long.numberOfTrailingZeros(remaining);
+                    subject(subject).remove(subjectScore(student.getMark(subject)), roll);
+                }
+                if (student.getSubjectCount() > 0) {
+                    overall.remove(overallScore(student.getTotalMarks(), student.getSubjectCount()), roll);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            student.setMarksListener(null);
+        }
+    }
+
+    // Called under the student's lock once the mark is stored
+    @Override
+    public void markAdded(SchoolManagementSystem.Student student, int subject, int previousMark, int mark) {
+        int roll = student.getRollNumber();
+        int total = student.getTotalMarks();
+        int count = student.getSubjectCount();
+        int previousTotal = total - mark + Math.max(previousMark, 0);
+        int previousCount = previousMark < 0 ? count - 1 : count;
+        lock.writeLock().lock();
+        try {
+            Ranking ranking = subject(subject);
+            if (previousMark >= 0) {
+                ranking.remove(subjectScore(previousMark), roll);
+            }
+            ranking.add(subjectScore(mark), roll);
+            if (previousCount > 0) {
+                overall.remove(overallScore(previousTotal, previousCount), roll);
+            }
+            overall.add(overallScore(total, count), roll);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 1 for the best overall percentage, or 0 when the student has no marks
+    int rank(SchoolManagementSystem.Student student) {
+        if (student.getSubjectCount() == 0) {
+            return 0;
+        }
+        return rank(overall, overallScore(student.getTotalMarks(), student.getSubjectCount()));
+    }
+
+    // 1 for the best mark in the subject, or 0 when the student has none in it
+    int rank(SchoolManagementSystem.Student student, String subject) {
+        int id = SubjectRegistry.shared().lookup(subject);
+        if (id < 0 || !student.hasMark(id)) {
+            return 0;
+        }
+        return rank(subjects[id], subjectScore(student.getMark(id)));
+    }
+
+    // Share of ranked students scoring below, counting ties as half; -1 when unranked
+    double percentile(SchoolManagementSystem.Student student) {
+        if (student.getSubjectCount() == 0) {
+            return -1;
+        }
+        return percentile(overall, overallScore(student.getTotalMarks(), student.getSubjectCount()));
+    }
+
+    double percentile(SchoolManagementSystem.Student student, String subject) {
+        int id = SubjectRegistry.shared().lookup(subject);
+        if (id < 0 || !student.hasMark(id)) {
+            return -1;
+        }
+        return percentile(subjects[id], subjectScore(student.getMark(id)));
+    }
+
+    // Students with at least one mark
+    int rankedCount() {
+        lock.readLock().lock();
+        try {
+            return overall.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int rankedCount(String subject) {
+        int id = SubjectRegistry.shared().lookup(subject);
+        lock.readLock().lock();
+        try {
+            return id < 0 || subjects[id] == null ? 0 : subjects[id].size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The k best overall percentages, best first
+    List<SchoolManagementSystem.Student> top(int k) {
+        return top(overall, k);
+    }
+
+    // The k best marks in the subject, best first
+    List<SchoolManagementSystem.Student> top(String subject, int k) {
+        int id = SubjectRegistry.shared().lookup(subject);
+        return id < 0 ? Collections.emptyList() : top(subjects[id], k);
+    }
+
+    private int rank(Ranking ranking, int score) {
+        lock.readLock().lock();
+        try {
+            return ranking.countAbove(score) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double percentile(Ranking ranking, int score) {
+        lock.readLock().lock();
+        try {
+            int above = ranking.countAbove(score);
+            int tied = ranking.countAt(score);
+            return 100.0 * (ranking.size - above - tied + tied / 2.0) / ranking.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SchoolManagementSystem.Student> top(Ranking ranking, int k) {
+        long[] keys;
+        lock.readLock().lock();
+        try {
+            keys = ranking == null ? new long[0] : ranking.order.first(k);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<SchoolManagementSystem.Student> best = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            SchoolManagementSystem.Student student = store.get((int) key);
+            if (student != null) {
+                best.add(student);
+            }
+        }
+        return best;
+    }
+
+    private Ranking subject(int id) {
+        if (subjects[id] == null) {
+            subjects[id] = new Ranking(MAX_MARK);
+        }
+        return subjects[id];
+    }
+
+    // Marks above the paper's maximum are ranked with it
+    private static int subjectScore(int mark) {
+        return Math.min(mark, MAX_MARK);
+    }
+
+    private static int overallScore(int total, int count) {
+        return (int) Math.min(MAX_OVERALL, (long) total * MAX_OVERALL / ((long) count * MAX_MARK));
+    }
+
+    private static final class Ranking {
+        final int maxScore;
+        // Fenwick tree over scores 0..maxScore, stored one-based
+        final int[] counts;
+        final SortedLongs order = new SortedLongs();
+        int size;
+
+        Ranking(int maxScore) {
+            this.maxScore = maxScore;
+            this.counts = new int[maxScore + 2];
+        }
+
+        // Best scores sort first, ties by roll number
+        private long key(int score, int roll) {
+            return (long) (maxScore - score) << 32 | (roll & 0xFFFFFFFFL);
+        }
+
+        void add(int score, int roll) {
+            if (order.add(key(score, roll))) {
+                update(score, 1);
+                size++;
+            }
+        }
+
+        void remove(int score, int roll) {
+            if (order.remove(key(score, roll))) {
+                update(score, -1);
+                size--;
+            }
+        }
+
+        private void update(int score, int delta) {
+            for (int i = score + 1; i < counts.length; i += i & -i) {
+                counts[i] += delta;
+            }
+        }
+
+        // Students with a score of at most the given one
+        private int atMost(int score) {
+            int sum = 0;
+            for (int i = score + 1; i > 0; i -= i & -i) {
+                sum += counts[i];
+            }
+            return sum;
+        }
+
+        int countAbove(int score) {
+            return size - atMost(score);
+        }
+
+        int countAt(int score) {
+            return atMost(score) - (score == 0 ? 0 : atMost(score - 1));
+        }
+    }
+
+    /*
+     * A sorted set of longs in blocks of at most BLOCK keys, found through a
+     * map from each block's first key. Adding or removing touches one block;
+     * reading the first k keys walks the blocks in order.
+     */
+    private static final class SortedLongs {
+        private static final int BLOCK = 512;
+
+        private static final class Block {
+            long[] keys = new long[16];
+            int size;
+        }
+
+        private final TreeMap<Long, Block> blocks = new TreeMap<>();
+
+        boolean add(long key) {
+            Map.Entry<Long, Block> entry = blocks.floorEntry(key);
+            if (entry == null) {
+                entry = blocks.firstEntry();
+                if (entry == null) {
+                    Block block = new Block();
+                    block.keys[block.size++] = key;
+                    blocks.put(key, block);
+                    return true;
+                }
+            }
+            Block block = entry.getValue();
+            int index = Arrays.binarySearch(block.keys, 0, block.size, key);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (block.size == block.keys.length) {
+                block.keys = Arrays.copyOf(block.keys, Math.min(BLOCK, block.size * 2));
+            }
+            System.arraycopy(block.keys, index, block.keys, index + 1, block.size - index);
+            block.keys[index] = key;
+            block.size++;
+            if (index == 0) {
+                blocks.remove(entry.getKey());
+                blocks.put(key, block);
+            }
+            if (block.size == BLOCK) {
+                Block upper = new Block();
+                upper.keys = Arrays.copyOfRange(block.keys, BLOCK / 2, BLOCK);
+                upper.size = BLOCK / 2;
+                block.size = BLOCK / 2;
+                blocks.put(upper.keys[0], upper);
+            }
+            return true;
+        }
+
+        boolean remove(long key) {
+            Map.Entry<Long, Block> entry = blocks.floorEntry(key);
+            if (entry == null) {
+                return false;
+            }
+            Block block = entry.getValue();
+            int index = Arrays.binarySearch(block.keys, 0, block.size, key);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(block.keys, index + 1, block.keys, index, block.size - index - 1);
+            block.size--;
+            if (index == 0) {
+                blocks.remove(entry.getKey());
+                if (block.size > 0) {
+                    blocks.put(block.keys[0], block);
+                }
+            }
+            return true;
+        }
+
+        long[] first(int k) {
+            long[] first = new long[Math.max(0, k)];
+            int n = 0;
+            for (Block block : blocks.values()) {
+                for (int i = 0; i < block.size && n < first.length; i++) {
+                    first[n++] = block.keys[i];
+                }
+                if (n == first.length) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(first, n);
+        }
+    }
+}
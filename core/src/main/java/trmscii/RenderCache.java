@@ -0,0 +1,161 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Rendered text of students, notices, tests and timetables, keyed by entity
+ * and version.
+ * An entity bumps its version whenever something its views show changes,
+ * so an entry rendered from an older version is simply never hit again and
+ * is replaced on the next view. Students are keyed by roll number, since a
+ * mapped roster builds a new Student on every lookup; everything else by
+ * identity. A student replaced under the same roll number starts again at
+ * version 0, so forgetStudent drops its entries. Entries live in
+ * lock-striped LRU segments; once a segment is full its least recently
+ * viewed entry is evicted. Rendering happens outside the segment lock.
+ */
+class RenderCache {
+    enum View { PROFILE, ACADEMIC_PERFORMANCE, NOTICE, TEST, TIMETABLE }
+
+    static final int DEFAULT_CAPACITY = 16_384;
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    RenderCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    RenderCache(int capacity) {
+        int perSegment = Math.max(1, capacity / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    <T> String get(View view, T entity, long version, Function<T, String> renderer) {
+        Key key = entity instanceof SchoolManagementSystem.Student
+                ? new Key(view, null, ((SchoolManagementSystem.Student) entity).getRollNumber())
+                : new Key(view, entity, System.identityHashCode(entity));
+        Segment segment = segments[key.hash & (SEGMENTS - 1)];
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+        }
+        if (entry != null && entry.version == version) {
+            hits.increment();
+            return entry.text;
+        }
+        misses.increment();
+        String text = renderer.apply(entity);
+        synchronized (segment) {
+            // A slower thread must not replace a newer rendering with its older one
+            Entry current = segment.get(key);
+            if (current == null || current.version <= version) {
+                segment.put(key, new Entry(version, text));
+            }
+        }
+        return text;
+    }
+
+    // Drops every view of the student with this roll number
+    void forgetStudent(int rollNumber) {
+        for (View view : new View[] {View.PROFILE, View.ACADEMIC_PERFORMANCE}) {
+            Key key = new Key(view, null, rollNumber);
+            Segment segment = segments[key.hash & (SEGMENTS - 1)];
+            synchronized (segment) {
+                segment.remove(key);
+            }
+        }
+    }
+
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return String.format("%d entries, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                size(), hitCount, total - hitCount, total == 0 ? 0.0 : 100.0 * hitCount / total, evictions.sum());
+    }
+
+    /*
+     * Entities do not override equals, so identity is what tells them apart;
+     * a student has no entity here and is told apart by its roll number, in id.
+     */
+    private static final class Key {
+        final View view;
+        final Object entity;
+        final int id;
+        final int hash;
+
+        Key(View view, Object entity, int id) {
+            this.view = view;
+            this.entity = entity;
+            this.id = id;
+            int h = id * 31 + view.ordinal();
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return key.entity == entity && key.id == id && key.view == view;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        final long version;
+        final String text;
+
+        Entry(long version, String text) {
+            this.version = version;
+            this.text = text;
+        }
+    }
+
+    // Access-ordered, so the eldest entry is the least recently viewed one
+    @SuppressWarnings("serial")
+    private final class Segment extends LinkedHashMap<Key, Entry> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package trmscii;
+
+import java.util.Locale;
+
+/**
+ * One student's academic result: marks per subject, totals and grade.
+ * Built from a snapshot of the student's marks, so it stays consistent
+ * even if marks are entered while report cards are being produced.
+ */
+final class ReportCard {
+    static final int MAX_MARK = 40;
+
+    static final String CSV_HEADER = "roll,name,admission,subjects,total,max_total,average,percentage,grade";
+
+    enum Grade {
+        A_PLUS("A+", 90, "Excellent performance! Keep up the outstanding work."),
+        A("A", 80, "Very good performance. Continue your dedication."),
+        B_PLUS("B+", 70, "Good performance with room for improvement."),
+        B("B", 60, "Satisfactory performance. Work on weaker subjects."),
+        C("C", 50, "Average performance. Needs improvement in several areas."),
+        D("D", 40, "Below average performance. Requires significant improvement."),
+        F("F", 0, "Unsatisfactory performance. Immediate attention required.");
+
+        private static final Grade[] BANDS = values();
+
+        private final String label;
+        private final int minimumPercentage;
+        private final String comments;
+
+        Grade(String label, int minimumPercentage, String comments) {
+            this.label = label;
+            this.minimumPercentage = minimumPercentage;
+            this.comments = comments;
+        }
+
+        public String getLabel() { return label; }
+        public String getComments() { return comments; }
+        public int getMinimumPercentage() { return minimumPercentage; }
+
+        static Grade of(double percentage) {
+            for (Grade grade : BANDS) {
+                if (percentage >= grade.minimumPercentage) {
+                    return grade;
+                }
+            }
+            return F;
+        }
+    }
+
+    private final int rollNumber;
+    private final String name;
+    private final int admissionNumber;
+    private final long subjectMask;
+    // Marks of the subjects in subjectMask, in subject ID order
+    private final short[] marks;
+    private final int totalMarks;
+    private final Grade grade;
+
+    private ReportCard(int rollNumber, String name, int admissionNumber, long subjectMask, short[] marks) {
+        this.rollNumber = rollNumber;
+        this.name = name;
+        this.admissionNumber = admissionNumber;
+        this.subjectMask = subjectMask;
+        this.marks = marks;
+        int total = 0;
+        for (short mark : marks) {
+            total += mark;
+        }
+        this.totalMarks = total;
+        this.grade = Grade.of(getPercentage());
+    }
+
+    static ReportCard of(SchoolManagementSystem.Student student) {
+        long mask = student.getSubjectMask();
+        short[] marks = new short[Long.bitCount(mask)];
+        int i = 0;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            marks[i++] = (short) student.getMark(Long.numberOfTrailingZeros(remaining));
+        }
+        return new ReportCard(student.getRollNumber(), student.getName(), student.getAdmissionNumber(), mask, marks);
+    }
+
+    public int getRollNumber() { return rollNumber; }
+    public String getName() { return name; }
+    public int getAdmissionNumber() { return admissionNumber; }
+    public long getSubjectMask() { return subjectMask; }
+    public int getSubjectCount() { return marks.length; }
+    public int getTotalMarks() { return totalMarks; }
+    public int getMaxTotal() { return marks.length * MAX_MARK; }
+    public Grade getGrade() { return grade; }
+
+    public double getAverageMark() {
+        return marks.length == 0 ? 0 : (double) totalMarks / marks.length;
+    }
+
+    public double getPercentage() {
+        return marks.length == 0 ? 0 : (double) totalMarks / getMaxTotal() * 100;
+    }
+
+    // Mark for the i-th subject in subject ID order
+    public int getMarkAt(int index) { return marks[index]; }
+
+    // The subject-wise table and summary shown on the academic performance screen
+    String toText() {
+        SubjectRegistry registry = SubjectRegistry.shared();
+        StringBuilder text = new StringBuilder(512);
+        text.append("\nSubject-wise Performance:\n");
+        text.append("---------------------------\n");
+        int i = 0;
+        for (long remaining = subjectMask; remaining != 0; remaining &= remaining - 1) {
+            text.append(String.format("%-20s: %d/%d\n",
+                    registry.nameOf(Long.numberOfTrailingZeros(remaining)), marks[i++], MAX_MARK));
+        }
+        text.append("\nPerformance Summary:\n");
+        text.append("---------------------------\n");
+        text.append(String.format("Total Marks: %d/%d\n", totalMarks, getMaxTotal()));
+        text.append(String.format("Average Mark: %.2f/%d\n", getAverageMark(), MAX_MARK));
+        text.append(String.format("Percentage: %.2f%%\n", getPercentage()));
+        text.append("Overall Grade: ").append(grade.getLabel()).append('\n');
+        text.append("Comments: ").append(grade.getComments()).append('\n');
+        return text.toString();
+    }
+
+    String toCsvRow() {
+        return rollNumber + "," + csvField(name) + "," + admissionNumber + "," + marks.length + ","
+                + totalMarks + "," + getMaxTotal() + ","
+                + String.format(Locale.ROOT, "%.2f,%.2f", getAverageMark(), getPercentage()) + ","
+                + grade.getLabel();
+    }
+
+    static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,108 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Produces report cards for the whole school at once.
+ * The roster is split recursively on a fork-join pool until each task holds
+ * a few thousand students, which are then graded sequentially; idle workers
+ * steal the larger halves still waiting. Cards come back in roll-number
+ * order.
+ */
+class ReportCardGenerator {
+    private static final int THRESHOLD = 2048;
+
+    private final ForkJoinPool pool;
+
+    ReportCardGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    ReportCardGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    ReportCard[] generate(Collection<SchoolManagementSystem.Student> students) {
+        SchoolManagementSystem.Student[] roster = students.toArray(new SchoolManagementSystem.Student[0]);
+        ReportCard[] cards = new ReportCard[roster.length];
+        pool.invoke(new GradeTask(roster, cards, 0, roster.length));
+        Arrays.parallelSort(cards, Comparator.comparingInt(ReportCard::getRollNumber));
+        return cards;
+    }
+
+    // The single-threaded loop the fork-join version is measured against
+    static ReportCard[] generateSequentially(Collection<SchoolManagementSystem.Student> students) {
+        ReportCard[] cards = new ReportCard[students.size()];
+        int i = 0;
+        for (SchoolManagementSystem.Student student : students) {
+            cards[i++] = ReportCard.of(student);
+        }
+        Arrays.sort(cards, Comparator.comparingInt(ReportCard::getRollNumber));
+        return cards;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class GradeTask extends RecursiveAction {
+        private final SchoolManagementSystem.Student[] roster;
+        private final ReportCard[] cards;
+        private final int from;
+        private final int to;
+
+        GradeTask(SchoolManagementSystem.Student[] roster, ReportCard[] cards, int from, int to) {
+            this.roster = roster;
+            this.cards = cards;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    cards[i] = ReportCard.of(roster[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new GradeTask(roster, cards, from, mid), new GradeTask(roster, cards, mid, to));
+        }
+    }
+
+    // One row per student under a header line
+    static void writeCsv(ReportCard[] cards, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(ReportCard.CSV_HEADER);
+            out.write('\n');
+            for (ReportCard card : cards) {
+                out.write(card.toCsvRow());
+                out.write('\n');
+            }
+        }
+    }
+
+    // Every student's card one after another; formatting runs in parallel, writing in roll order
+    static void writeText(ReportCard[] cards, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            String[] texts = new String[Math.min(cards.length, THRESHOLD * 8)];
+            for (int start = 0; start < cards.length; start += texts.length) {
+                int count = Math.min(texts.length, cards.length - start);
+                int offset = start;
+                Arrays.parallelSetAll(texts, i -> i < count ? render(cards[offset + i]) : null);
+                for (int i = 0; i < count; i++) {
+                    out.write(texts[i]);
+                }
+            }
+        }
+    }
+
+    private static String render(ReportCard card) {
+        return "\n\tREPORT CARD - " + card.getName()
+                + "\nRoll Number: " + card.getRollNumber()
+                + "   Admission Number: " + card.getAdmissionNumber() + "\n"
+                + card.toText();
+    }
+}
@@ -0,0 +1,1654 @@
+package trmscii;
+
+import java.time.temporal.ChronoUnit;
+import java.time.LocalDate;
+import java.util.*;
+import java.io.*;
+import java.time.*;
+import java.time.format.*;
+import java.util.stream.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.nio.file.*;
+import java.nio.charset.StandardCharsets;
+import javax.management.JMException;
+
+/**
+ * Enhanced School Management System
+ * A modernized version of the original School application with improved architecture,
+ * additional features, and better user experience.
+ */
+public final class SchoolManagementSystem {
+    // Formatters are immutable and thread-safe, so every view shares this one
+    static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("MMMM d, yyyy");
+    
+    // Receives every mutation before it is applied, so it can be made durable first.
+    // beginMutation/endMutation bracket the notification and the in-memory change.
+    interface MutationListener {
+        default void beginMutation() {
+        }
+        
+        default void endMutation() {
+        }
+        
+        // Blocks until the calling thread's last mutation is durable; called once no lock is held
+        default void awaitCommit() {
+        }
+        
+        void studentAdded(Student student);
+        void marksAdded(Student student, String subject, int mark);
+        void feePaymentAdded(Student student, FeePayment payment);
+        void noticeAdded(Notice notice);
+        void noticeUpdated(int index, String title, String content, LocalDate expiryDate);
+        void testAdded(Test test);
+    }
+    
+    // Told about every mark once it is stored, while the student's lock is held
+    interface MarksListener {
+        // previousMark is -1 when the student had no mark in the subject
+        void markAdded(Student student, int subjectId, int previousMark, int mark);
+    }
+    
+    // Database classes
+    // Writes are serialised on the student's monitor; reads never lock
+    static class Student {
+        private int rollNumber;
+        private String name;
+        private String motherName;
+        private String fatherName;
+        private int admissionNumber;
+        private Enrolment enrolment;
+        // Marks indexed by SubjectRegistry ID; bit i of subjectMask is set when subject i has a mark
+        private short[] marks;
+        // Volatile and written last, so a reader that sees a bit also sees its mark
+        private volatile long subjectMask;
+        private FeeLedger feeLedger;
+        private MutationListener listener;
+        private MarksListener marksListener;
+        // Bumped after every change to marks or payments; keys the render cache
+        private volatile int version;
+        
+        public Student(int rollNumber, String name, String motherName, String fatherName, int admissionNumber) {
+            this(rollNumber, name, motherName, fatherName, admissionNumber, Enrolment.DEFAULT);
+        }
+        
+        public Student(int rollNumber, String name, String motherName, String fatherName, int admissionNumber,
+                Enrolment enrolment) {
+            this.rollNumber = rollNumber;
+            this.name = name;
+            this.motherName = motherName;
+            this.fatherName = fatherName;
+            this.admissionNumber = admissionNumber;
+            this.enrolment = enrolment;
+            this.marks = new short[SubjectRegistry.shared().size()];
+            this.feeLedger = new FeeLedger();
+        }
+        
+        // Getters and setters
+        public int getRollNumber() { return rollNumber; }
+        public String getName() { return name; }
+        public String getMotherName() { return motherName; }
+        public String getFatherName() { return fatherName; }
+        public int getAdmissionNumber() { return admissionNumber; }
+        public Enrolment getEnrolment() { return enrolment; }
+        public int getVersion() { return version; }
+        
+        synchronized void setMutationListener(MutationListener listener) {
+            this.listener = listener;
+        }
+        
+        synchronized void setMarksListener(MarksListener listener) {
+            this.marksListener = listener;
+        }
+        
+        synchronized MarksListener getMarksListener() {
+            return marksListener;
+        }
+        
+        public void addMarks(String subject, int mark) {
+            MutationListener listener = storeMarks(subject, mark);
+            if (listener != null) {
+                listener.awaitCommit();
+            }
+        }
+        
+        // Returns the listener told about the mark, so the caller can wait for it outside the monitor
+        private synchronized MutationListener storeMarks(String subject, int mark) {
+            if (mark < 0 || mark > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Mark out of range: " + mark);
+            }
+            int id = SubjectRegistry.shared().idOf(subject);
+            MutationListener listener = this.listener;
+            if (listener != null) {
+                listener.beginMutation();
+            }
+            try {
+                if (listener != null) {
+                    listener.marksAdded(this, subject, mark);
+                }
+                if (id >= marks.length) {
+                    marks = Arrays.copyOf(marks, SubjectRegistry.shared().size());
+                }
+                int previous = getMark(id);
+                marks[id] = (short) mark;
+                subjectMask = subjectMask | 1L << id;
+                version++;
+                if (marksListener != null) {
+                    marksListener.markAdded(this, id, previous, mark);
+                }
+            } finally {
+                if (listener != null) {
+                    listener.endMutation();
+                }
+            }
+            return listener;
+        }
+        
+        // Read-only view over the mark arrays, in subject ID order
+        public Map<String, Integer> getMarks() {
+            return new MarksView();
+        }
+        
+        public long getSubjectMask() {
+            return subjectMask;
+        }
+        
+        // Which of Hindi/Assamese and Computer/Economics this student takes
+        public long getOptionalSubjectMask() {
+            return subjectMask & SubjectRegistry.OPTIONAL_SUBJECTS;
+        }
+        
+        public boolean hasMark(int subjectId) {
+            return (subjectMask & (1L << subjectId)) != 0;
+        }
+        
+        public int getMark(int subjectId) {
+            // Read the mask before the array
+            return hasMark(subjectId) ? marks[subjectId] : -1;
+        }
+        
+        public int getSubjectCount() {
+            return Long.bitCount(subjectMask);
+        }
+        
+        public int getTotalMarks() {
+            long mask = subjectMask;
+            short[] values = marks;
+            int total = 0;
+            for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                total += values[Long.numberOfTrailingZeros(remaining)];
+            }
+            return total;
+        }
+        
+        private class MarksView extends AbstractMap<String, Integer> {
+            @Override
+            public Integer get(Object subject) {
+                int id = subject instanceof String ? SubjectRegistry.shared().lookup((String) subject) : -1;
+                return id >= 0 && hasMark(id) ? Integer.valueOf(marks[id]) : null;
+            }
+            
+            @Override
+            public boolean containsKey(Object subject) {
+                return get(subject) != null;
+            }
+            
+            @Override
+            public int size() {
+                return getSubjectCount();
+            }
+            
+            @Override
+            public Set<Map.Entry<String, Integer>> entrySet() {
+                return new AbstractSet<Map.Entry<String, Integer>>() {
+                    @Override
+                    public int size() {
+                        return getSubjectCount();
+                    }
+                    
+                    @Override
+                    public Iterator<Map.Entry<String, Integer>> iterator() {
+                        return new Iterator<Map.Entry<String, Integer>>() {
+                            private long remaining = subjectMask;
+                            
+                            @Override
+                            public boolean hasNext() {
+                                return remaining != 0;
+                            }
+                            
+                            @Override
+                            public Map.Entry<String, Integer> next() {
+                                if (remaining == 0) {
+                                    throw new NoSuchElementException();
+                                }
+                                int id = Long.numberOfTrailingZeros(remaining);
+                                remaining &= remaining - 1;
+                                return new AbstractMap.SimpleImmutableEntry<>(
+                                    SubjectRegistry.shared().nameOf(id), Integer.valueOf(marks[id]));
+                            }
+                        };
+                    }
+                };
+            }
+        }
+        
+        public void addFeePayment(FeePayment payment) {
+            MutationListener listener = storeFeePayment(payment);
+            if (listener != null) {
+                listener.awaitCommit();
+            }
+        }
+        
+        private synchronized MutationListener storeFeePayment(FeePayment payment) {
+            MutationListener listener = this.listener;
+            if (listener != null) {
+                listener.beginMutation();
+            }
+            try {
+                if (listener != null) {
+                    listener.feePaymentAdded(this, payment);
+                }
+                feeLedger.add(payment);
+                version++;
+            } finally {
+                if (listener != null) {
+                    listener.endMutation();
+                }
+            }
+            return listener;
+        }
+        
+        // Every payment, oldest first
+        public List<FeePayment> getFeePayments() {
+            return feeLedger.asList();
+        }
+        
+        public FeeLedger getFeeLedger() {
+            return feeLedger;
+        }
+        
+        public FeePayment getLastFeePayment() {
+            return feeLedger.latest();
+        }
+        
+        public String displayProfile() {
+            StringBuilder profile = new StringBuilder(192);
+            profile.append("\nNAME: ").append(name);
+            profile.append("\nSCHOOL: ").append(enrolment.getSchool());
+            profile.append("\nCLASS: ").append(enrolment.getClassName());
+            profile.append("\nSECTION: ").append(enrolment.getSection());
+            profile.append("\nROLL NUMBER: ").append(rollNumber);
+            profile.append("\nMOTHER'S NAME: ").append(motherName);
+            profile.append("\nFATHER'S NAME: ").append(fatherName);
+            profile.append("\nADMISSION NUMBER: ").append(admissionNumber);
+            return profile.toString();
+        }
+    }
+    
+    static class FeePayment {
+        private double amount;
+        private LocalDate paymentDate;
+        private String paymentMethod;
+        private String receiptNumber;
+        
+        public FeePayment(double amount, LocalDate paymentDate, String paymentMethod, String receiptNumber) {
+            this.amount = amount;
+            this.paymentDate = paymentDate;
+            this.paymentMethod = paymentMethod;
+            this.receiptNumber = receiptNumber;
+        }
+        
+        public double getAmount() { return amount; }
+        public LocalDate getPaymentDate() { return paymentDate; }
+        public String getPaymentMethod() { return paymentMethod; }
+        public String getReceiptNumber() { return receiptNumber; }
+        
+        @Override
+        public String toString() {
+            return String.format("Payment of Rs. %.2f made on %s via %s (Receipt: %s)", 
+                    amount, paymentDate.format(DISPLAY_DATE), paymentMethod, receiptNumber);
+        }
+    }
+    
+    // Title, content and expiry can be revised; each revision bumps the version
+    static class Notice {
+        // Position on the NoticeBoard, assigned when the notice is posted
+        int boardIndex = -1;
+        private volatile String title;
+        private volatile String content;
+        private LocalDate postDate;
+        private volatile LocalDate expiryDate;
+        private volatile int version;
+        
+        public Notice(String title, String content, LocalDate postDate, LocalDate expiryDate) {
+            this.title = title;
+            this.content = content;
+            this.postDate = postDate;
+            this.expiryDate = expiryDate;
+        }
+        
+        public String getTitle() { return title; }
+        public String getContent() { return content; }
+        public LocalDate getPostDate() { return postDate; }
+        public LocalDate getExpiryDate() { return expiryDate; }
+        public int getVersion() { return version; }
+        
+        synchronized void update(String title, String content, LocalDate expiryDate) {
+            this.title = title;
+            this.content = content;
+            this.expiryDate = expiryDate;
+            version++;
+        }
+        
+        public boolean isActive() {
+            return !LocalDate.now().isAfter(expiryDate);
+        }
+        
+        @Override
+        public synchronized String toString() {
+            StringBuilder sb = new StringBuilder(160 + content.length());
+            sb.append("\n-----------------------------------------\n");
+            sb.append("TITLE: ").append(title).append('\n');
+            sb.append("POSTED: ").append(postDate.format(DISPLAY_DATE)).append('\n');
+            sb.append("EXPIRES: ").append(expiryDate.format(DISPLAY_DATE)).append("\n\n");
+            sb.append(content);
+            sb.append("\n-----------------------------------------\n");
+            return sb.toString();
+        }
+    }
+    
+    static class Test {
+        private String subject;
+        private String description;
+        private LocalDate testDate;
+        private String syllabus;
+        private int maxMarks;
+        
+        public Test(String subject, String description, LocalDate testDate, String syllabus, int maxMarks) {
+            this.subject = subject;
+            this.description = description;
+            this.testDate = testDate;
+            this.syllabus = syllabus;
+            this.maxMarks = maxMarks;
+        }
+        
+        public String getSubject() { return subject; }
+        public String getDescription() { return description; }
+        public LocalDate getTestDate() { return testDate; }
+        public String getSyllabus() { return syllabus; }
+        public int getMaxMarks() { return maxMarks; }
+        
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(192 + description.length() + syllabus.length());
+            sb.append("\n-----------------------------------------\n");
+            sb.append("SUBJECT: ").append(subject).append('\n');
+            sb.append("DESCRIPTION: ").append(description).append('\n');
+            sb.append("DATE: ").append(testDate.format(DISPLAY_DATE)).append('\n');
+            sb.append("MAX MARKS: ").append(maxMarks).append('\n');
+            sb.append("SYLLABUS: ").append(syllabus).append('\n');
+            sb.append("-----------------------------------------\n");
+            return sb.toString();
+        }
+    }
+    
+    // Main database
+    private StudentStore students;
+    private NoticeBoard notices;
+    private List<Test> upcomingTests;
+    private TimeTable timeTable;
+    
+    private volatile MutationListener mutationListener = null;
+    private final RenderCache renderCache = new RenderCache();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final PortalMetrics metrics = new PortalMetrics();
+    // Built on first use, since a stored roster may be large and never searched by name
+    private volatile NameIndex nameIndex = null;
+    // Built on first use as well; from then on it follows every mark entered
+    private volatile RankingEngine rankingEngine = null;
+    // Bumped once a student has replaced another with the same roll number
+    private final AtomicLong rosterVersion = new AtomicLong();
+    private DatabaseJournal journal = null;
+    // An image whose notices, tests and timetable are read on first use; see ensureSchool
+    private volatile Path pendingSchool = null;
+    
+    public SchoolManagementSystem() {
+        this(new PartitionedStudentStore(), true);
+    }
+    
+    // Uses the given roster; the sample students are only added when it is empty
+    public SchoolManagementSystem(StudentStore students) {
+        this(students, true);
+    }
+    
+    private SchoolManagementSystem(StudentStore students, boolean seed) {
+        this.students = students;
+        this.notices = new NoticeBoard();
+        this.upcomingTests = new CopyOnWriteArrayList<>();
+        this.timeTable = new TimeTable();
+        
+        // Initialize data
+        if (seed) {
+            initializeData();
+        }
+    }
+    
+    /**
+     * Opens a system backed by the write-ahead log and snapshots in dataDir.
+     * The sample data is only seeded when the directory holds no database yet.
+     */
+    public static SchoolManagementSystem open(Path dataDir) throws IOException {
+        SchoolManagementSystem system = new SchoolManagementSystem(new PartitionedStudentStore(), false);
+        DatabaseJournal journal = new DatabaseJournal(dataDir);
+        try {
+            if (!journal.recover(system)) {
+                system.initializeData();
+                journal.attach(system);
+                journal.checkpoint();
+            } else {
+                journal.attach(system);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                journal.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        system.journal = journal;
+        return system;
+    }
+    
+    /**
+     * Opens a prebuilt database image without seeding or replaying anything:
+     * the roster stays mapped and students are built on first lookup.
+     */
+    public static SchoolManagementSystem openImage(Path imageDir) throws IOException {
+        SchoolManagementSystem system = new SchoolManagementSystem(MappedStudentStore.open(imageDir), false);
+        system.pendingSchool = imageDir;
+        return system;
+    }
+    
+    // Everything that reads or changes notices, tests or the timetable calls this first
+    private void ensureSchool() {
+        if (pendingSchool != null) {
+            loadPendingSchool();
+        }
+    }
+    
+    private synchronized void loadPendingSchool() {
+        Path imageDir = pendingSchool;
+        if (imageDir == null) {
+            return;
+        }
+        DatabaseImage.School school;
+        try {
+            school = DatabaseImage.readSchool(imageDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the database image in " + imageDir, e);
+        }
+        for (Notice notice : school.notices) {
+            notices.add(notice);
+            searchIndex.add(notice);
+        }
+        upcomingTests.addAll(school.tests);
+        for (Test test : school.tests) {
+            searchIndex.add(test);
+        }
+        timeTable = school.timeTable;
+        pendingSchool = null;
+    }
+    
+    // Blocks until every recorded mutation is durable on disk
+    public void sync() throws IOException {
+        if (journal != null) {
+            journal.sync();
+        }
+    }
+    
+    public void close() throws IOException {
+        notices.stopSweeps();
+        metrics.stopDumps();
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+    
+    void setMutationListener(MutationListener listener) {
+        this.mutationListener = listener;
+        for (Student student : students.values()) {
+            student.setMutationListener(listener);
+        }
+    }
+    
+    // Database access
+    public void addStudent(Student student) {
+        MutationListener listener = mutationListener;
+        // The student this one replaces, if its roll number was taken
+        Student[] replaced = new Student[1];
+        if (listener == null) {
+            students.put(student, previous -> replaced[0] = previous);
+        } else {
+            listener.beginMutation();
+            try {
+                // Journaled once the store has accepted the student and before anyone else can claim its numbers
+                students.put(student, previous -> {
+                    replaced[0] = previous;
+                    listener.studentAdded(student);
+                    student.setMutationListener(listener);
+                });
+            } finally {
+                listener.endMutation();
+            }
+            listener.awaitCommit();
+        }
+        if (replaced[0] != null) {
+            rosterVersion.incrementAndGet();
+        }
+        // A replaced student's views are keyed by the same roll number
+        renderCache.forgetStudent(student.getRollNumber());
+        // Read after the put: a name index published later finds the student in the roster
+        NameIndex index = nameIndex;
+        if (index != null) {
+            index.replace(replaced[0], student);
+        }
+        RankingEngine ranking = rankingEngine;
+        if (ranking != null) {
+            ranking.replace(replaced[0], student);
+        }
+    }
+    
+    public void addNotice(Notice notice) {
+        ensureSchool();
+        MutationListener listener = mutationListener;
+        if (listener == null) {
+            notices.add(notice);
+            searchIndex.add(notice);
+            return;
+        }
+        listener.beginMutation();
+        try {
+            listener.noticeAdded(notice);
+            notices.add(notice);
+            searchIndex.add(notice);
+        } finally {
+            listener.endMutation();
+        }
+        listener.awaitCommit();
+    }
+    
+    // Revises a notice in place; readers see the new text on their next view
+    public void updateNotice(Notice notice, String title, String content, LocalDate expiryDate) {
+        ensureSchool();
+        MutationListener listener = mutationListener;
+        // Serialised per notice so the journal records revisions in the order they are applied
+        synchronized (notice) {
+            int index = notice.boardIndex;
+            if (index < 0) {
+                throw new IllegalArgumentException("Notice is not on the board: " + notice.getTitle());
+            }
+            if (listener == null) {
+                notices.update(notice, title, content, expiryDate);
+                searchIndex.update(notice);
+                return;
+            }
+            listener.beginMutation();
+            try {
+                listener.noticeUpdated(index, title, content, expiryDate);
+                notices.update(notice, title, content, expiryDate);
+                searchIndex.update(notice);
+            } finally {
+                listener.endMutation();
+            }
+        }
+        listener.awaitCommit();
+    }
+    
+    public void addTest(Test test) {
+        ensureSchool();
+        MutationListener listener = mutationListener;
+        if (listener == null) {
+            upcomingTests.add(test);
+            searchIndex.add(test);
+            return;
+        }
+        listener.beginMutation();
+        try {
+            listener.testAdded(test);
+            upcomingTests.add(test);
+            searchIndex.add(test);
+        } finally {
+            listener.endMutation();
+        }
+        listener.awaitCommit();
+    }
+    
+    RenderCache getRenderCache() {
+        return renderCache;
+    }
+    
+    PortalMetrics getMetrics() {
+        return metrics;
+    }
+    
+    Student getStudent(int rollNumber) {
+        return students.get(rollNumber);
+    }
+    
+    Student getStudentByAdmissionNumber(int admissionNumber) {
+        return students.getByAdmissionNumber(admissionNumber);
+    }
+    
+    // Read before a student: views of a roll number taken over since then carry a newer one
+    long getRosterVersion() {
+        return rosterVersion.get();
+    }
+    
+    Collection<Student> getStudents() {
+        return students.values();
+    }
+    
+    // True for a mapped roster: students, marks and payments cannot be added to it
+    boolean isRosterReadOnly() {
+        return students.isReadOnly();
+    }
+    
+    // Fee totals per school, class and section, fanned out over the partitions when the roster has them
+    FeeTotals getFeeTotals() {
+        return FeeTotals.of(students);
+    }
+    
+    // Every notice in board order
+    List<Notice> getNotices() {
+        ensureSchool();
+        return notices.asList();
+    }
+    
+    SearchIndex getSearchIndex() {
+        ensureSchool();
+        return searchIndex;
+    }
+    
+    // Published before it is filled like the name index; a student is never ranked twice
+    synchronized RankingEngine getRankingEngine() {
+        if (rankingEngine == null) {
+            RankingEngine engine = new RankingEngine(students);
+            rankingEngine = engine;
+            engine.addAll(students.values());
+        }
+        return rankingEngine;
+    }
+    
+    // Published before it is filled; students added meanwhile are indexed once either way
+    synchronized NameIndex getNameIndex() {
+        if (nameIndex == null) {
+            NameIndex index = new NameIndex(students);
+            nameIndex = index;
+            index.addAll(students.values());
+        }
+        return nameIndex;
+    }
+    
+    NoticeBoard getNoticeBoard() {
+        ensureSchool();
+        return notices;
+    }
+    
+    List<Test> getUpcomingTests() {
+        ensureSchool();
+        return upcomingTests;
+    }
+    
+    TimeTable getTimeTable() {
+        ensureSchool();
+        return timeTable;
+    }
+    
+    private void initializeData() {
+        // Initialize students unless the roster was loaded from a store
+        if (students.size() == 0) {
+            initializeStudents();
+        }
+        
+        // Initialize notices
+        addNotice(new Notice(
+            "Fee Payment Reminder",
+            "The second installment of fees has started. Kindly pay the fees between 1st of September and 16th of September. " +
+            "You are requested to pay the fees online to prevent the spread of COVID-19. " +
+            "Also, follow the protocols as instructed by the bank. Stay Safe, Stay Home.",
+            LocalDate.of(2025, 2, 1),
+            LocalDate.of(2025, 3, 16)
+        ));
+        
+        addNotice(new Notice(
+            "Annual Sports Meet Announcement",
+            "The Annual Sports Meet will be held from March 15-20, 2025. " +
+            "All students are encouraged to participate. Registration forms are available online. " +
+            "Last date for registration is March 5, 2025.",
+            LocalDate.of(2025, 2, 15),
+            LocalDate.of(2025, 3, 5)
+        ));
+        
+        // Initialize upcoming tests
+        addTest(new Test(
+            "Mathematics",
+            "Unit Test - Trigonometry and Statistics",
+            LocalDate.of(2025, 3, 10),
+            "Chapter 8 (Trigonometry) and Chapter 9 (Statistics) from the textbook",
+            50
+        ));
+        
+        addTest(new Test(
+            "Science",
+            "Practical Examination - Physics and Chemistry",
+            LocalDate.of(2025, 3, 15),
+            "Physics: Ohm's Law and Resistance, Chemistry: Acid-Base Titration",
+            25
+        ));
+        
+        // Initialize time table
+        initializeTimeTable();
+    }
+    
+    private void initializeStudents() {
+        String[] names = {"Arjun Mehta", "Bhavna Agarwal", "Dhirendra Gogoi", "Debasmita Borah", 
+                          "Jyotismoye Deka", "Keshabh Agarwal", "Mintu Borah", "Nisha Boruah", 
+                          "Seema Jain", "Sunil Borah"};
+        String[] mothers = {"Nisha Mehta", "Seema Agarwal", "Neema Gogoi", "Nirma Borah", 
+                            "Emon Deka", "Bharti Agarwal", "Monti Borah", "Sangita Boruah", 
+                            "Sneha Jain", "Manali Borah"};
+        String[] fathers = {"Rajiv Mehta", "Sunil Agarwal", "Raktim Gogoi", "Sumon Borah", 
+                            "Mintu Kumar Deka", "Sanjiv Agarwal", "Ojha Borah", "Dhiren Boruah", 
+                            "Niresh Jain", "Ashok Borah"};
+        int[] admNums = {12304, 25374, 67823, 54732, 86238, 27829, 71826, 74692, 23864, 87354};
+        
+        for (int i = 0; i < 10; i++) {
+            Student student = new Student(i+1, names[i], mothers[i], fathers[i], admNums[i]);
+            addStudent(student);
+            
+            // Add marks for each student
+            addMarksForStudent(student, i);
+            
+            // Add fee payments
+            addFeePaymentsForStudent(student, i);
+        }
+    }
+    
+    private void addMarksForStudent(Student student, int index) {
+        int[][] marks = {
+            {35, 24, 23, 34, 40, 21}, // Student 1
+            {40, 23, 33, 23, 32, 34}, // Student 2
+            {36, 30, 34, 28, 35, 33}, // Student 3
+            {12, 20, 40, 37, 36, 40}, // Student 4
+            {23, 20, 23, 34, 35, 23}, // Student 5
+            {26, 39, 34, 24, 40, 34}, // Student 6
+            {27, 32, 25, 35, 34, 35}, // Student 7
+            {40, 34, 35, 16, 21, 37}, // Student 8
+            {38, 23, 45, 11, 23, 35}, // Student 9
+            {13, 32, 34, 12, 10, 11}  // Student 10
+        };
+        
+        String[] subjects = {"English Literature", "English Language", "Mathematics", "Biology", 
+                            "Chemistry", "Physics", "Geography", "History and Civics"};
+        
+        // Add common subjects for all students
+        for (int i = 0; i < 6; i++) {
+            student.addMarks(subjects[i], marks[index][i]);
+        }
+        
+        // Seeded by admission number, so every run shows the same marks
+        SplittableRandom random = new SplittableRandom(student.getAdmissionNumber());
+        
+        // Add Geography and History marks
+        student.addMarks("Geography", 20 + random.nextInt(20));
+        student.addMarks("History and Civics", 20 + random.nextInt(20));
+        
+        // Add either Hindi or Assamese and either Computer or Economics
+        if (index % 2 == 0) {
+            student.addMarks("Hindi", 20 + random.nextInt(20));
+        } else {
+            student.addMarks("Assamese", 20 + random.nextInt(20));
+        }
+        
+        if (index % 3 == 0) {
+            student.addMarks("Computer", 20 + random.nextInt(20));
+        } else {
+            student.addMarks("Economics", 20 + random.nextInt(20));
+        }
+    }
+    
+    private void addFeePaymentsForStudent(Student student, int index) {
+        // Add a payment from last term (May 2024)
+        if (index != 2 && index != 5 && index != 6 && index != 9) {
+            // Students who paid in May
+            int day = 14 + index;
+            student.addFeePayment(new FeePayment(
+                5000.00,
+                LocalDate.of(2024, 5, day),
+                "Online Transfer",
+                "RCT" + (10000 + index)
+            ));
+        } else {
+            // Students who paid in September
+            int day = 1 + index % 4;
+            student.addFeePayment(new FeePayment(
+                5000.00,
+                LocalDate.of(2025, 2, day),
+                "Online Transfer",
+                "RCT" + (20000 + index)
+            ));
+        }
+    }
+    
+    // The section of Enrolment.DEFAULT, whose timetable is filled in at first start
+    static final String DEFAULT_SECTION = "10A";
+    
+    private void initializeTimeTable() {
+        String[][] weeklySchedule = {
+            {"Geography", "Chemistry", "Economics/Computer", "Mathematics", "BREAK", "Physics", "English", "Hindi/Assamese", "Games"},
+            {"Geography", "Hindi/Assamese", "History and Civics", "English", "BREAK", "Economics/Computer", "Biology", "Mathematics", "SUPW"},
+            {"P.T.", "Physics", "Library", "Mathematics", "BREAK", "Biology", "English", "Economics/Computer", "Hindi/Assamese"},
+            {"History and Civics", "Biology", "Hindi/Assamese", "Mathematics", "BREAK", "Chemistry", "V.E.D.", "Mathematics", "English"},
+            {"Geography", "Hindi/Assamese", "English", "Mathematics", "BREAK", "V.E.D.", "Chemistry", "Physics", "History"}
+        };
+        TimeTable.Section section = timeTable.section(DEFAULT_SECTION);
+        for (int day = 0; day < weeklySchedule.length; day++) {
+            for (int period = 1; period <= TimeTable.PERIODS; period++) {
+                timeTable.assign(section, DayOfWeek.of(day + 1), period, weeklySchedule[day][period - 1]);
+            }
+        }
+    }
+    
+    /**
+     * One user's walk through the menus: its own input, output and logged-in
+     * student over the shared database. The console runs a single session;
+     * the network server runs one per connection.
+     */
+    class PortalSession {
+        private final BufferedReader in;
+        private final PrintStream out;
+        private Student currentStudent = null;
+        
+        PortalSession(BufferedReader in, PrintStream out) {
+            this.in = in;
+            this.out = out;
+        }
+        
+        // Main menu methods
+        public void displayMainMenu() {
+            out.println("\n\t WELCOME TO THE SCHOOL MANAGEMENT SYSTEM");
+            out.println("\n\tCARMEL SCHOOL - JORHAT");
+            out.println("\n1. Login with student roll number");
+            out.println("2. Login with admission number");
+            out.println("3. Find a student by name or parent's name");
+            out.println("4. About the application");
+            out.println("5. Exit");
+            out.print("\nEnter your choice: ");
+        }
+    
+        public void displayStudentMenu() {
+            out.println("\n\tSTUDENT PORTAL - " + currentStudent.getName());
+            out.println("\n1. View Profile");
+            out.println("2. View Fee Payment History");
+            out.println("3. View Academic Performance");
+            out.println("4. View Notice Board");
+            out.println("5. View Time Table");
+            out.println("6. View Upcoming Tests");
+            out.println("7. Search Notices and Tests");
+            out.println("8. Return to Main Menu");
+            out.println("9. Exit");
+            out.print("\nEnter your choice: ");
+        }
+    
+        // Student authentication
+        public boolean authenticateStudent(int rollNumber) {
+            if (students.contains(rollNumber)) {
+                currentStudent = students.get(rollNumber);
+                return true;
+            }
+            return false;
+        }
+    
+        public boolean authenticateByAdmissionNumber(int admissionNumber) {
+            Student student = students.getByAdmissionNumber(admissionNumber);
+            if (student != null) {
+                currentStudent = student;
+                return true;
+            }
+            return false;
+        }
+    
+        // Student portal methods
+        public void displayStudentProfile() {
+            // The profile shows only identity fields, which never change
+            out.println(renderCache.get(RenderCache.View.PROFILE, currentStudent, 0, Student::displayProfile));
+        }
+    
+        public void displayFeePaymentHistory() {
+            FeeLedger ledger = currentStudent.getFeeLedger();
+            FeePayment lastPayment = ledger.latest();
+        
+            if (lastPayment == null) {
+                out.println("\nNo fee payment history found.");
+                return;
+            }
+        
+            out.println("\n\tFEE PAYMENT HISTORY");
+            out.println();
+            for (FeePayment payment : ledger.asList()) {
+                out.println("- " + payment);
+            }
+            out.println("\nLast Payment: " + lastPayment);
+        
+            // Calculate days since last payment
+            LocalDate today = LocalDate.now();
+            long daysSinceLastPayment = ChronoUnit.DAYS.between(lastPayment.getPaymentDate(), today);
+            out.println("Days since last payment: " + daysSinceLastPayment);
+        
+            FeeSchedule schedule = FeeSchedule.standard();
+            double outstanding = Math.max(0, schedule.amountDueBy(today) - ledger.totalPaid());
+            out.printf("Total paid: Rs. %.2f\n", ledger.totalPaid());
+            out.printf("Outstanding balance: Rs. %.2f\n", outstanding);
+        
+            // Display next payment information
+            FeeSchedule.Instalment next = schedule.nextDue(today);
+            out.println("\nNext Payment Due:");
+            out.println(next);
+            out.printf("Amount: Rs. %.2f\n", next.getAmount());
+        
+            // Late fees for the windows already missed, judged the way the defaulter job does
+            FeeDefaulterJob.Windows windows = new FeeDefaulterJob.Windows(schedule, today);
+            long missed = windows.missed(ledger, 0, 0);
+            out.printf("\nNOTE: An installment not paid by the end of its window is charged a late fee of Rs. %.2f.\n",
+                    schedule.getLateFee());
+            if (missed != 0) {
+                out.printf("Late fees owed: Rs. %.2f for %s.\n", windows.lateFees(missed), windows.describe(missed));
+            }
+            out.println("Please pay online to prevent the spread of COVID-19 and follow the bank's safety protocols.");
+        }
+    
+        public void displayAcademicPerformance() {
+            out.println("\n\tACADEMIC PERFORMANCE - " + currentStudent.getName());
+            out.print(renderCache.get(RenderCache.View.ACADEMIC_PERFORMANCE, currentStudent,
+                    currentStudent.getVersion(), student -> ReportCard.of(student).toText()));
+            displayClassStanding();
+        }
+    
+        // Not cached with the report card: it moves whenever any classmate's marks do
+        private void displayClassStanding() {
+            RankingEngine ranking = getRankingEngine();
+            int rank = ranking.rank(currentStudent);
+            if (rank == 0) {
+                return;
+            }
+            out.println("\nClass Standing:");
+            out.println("---------------------------");
+            out.printf("Overall: rank %d of %d (percentile %.1f)\n",
+                    rank, ranking.rankedCount(), ranking.percentile(currentStudent));
+            for (String subject : currentStudent.getMarks().keySet()) {
+                out.printf("%-20s: rank %d of %d (percentile %.1f)\n", subject, ranking.rank(currentStudent, subject),
+                        ranking.rankedCount(subject), ranking.percentile(currentStudent, subject));
+            }
+        }
+    
+        public void displayNoticeBoard() {
+            ensureSchool();
+            out.println("\n\tNOTICE BOARD");
+            out.println("\nActive Notices:");
+        
+            List<Notice> activeNotices = notices.active();
+            
+            if (activeNotices.isEmpty()) {
+                out.println("\nNo active notices at the moment.");
+            } else {
+                for (Notice notice : activeNotices) {
+                    out.println(renderCache.get(RenderCache.View.NOTICE, notice, notice.getVersion(), Notice::toString));
+                }
+            }
+        }
+    
+        public void displayTimeTable() {
+            ensureSchool();
+            String sectionName = currentStudent != null ? currentStudent.getEnrolment().getSectionName() : DEFAULT_SECTION;
+            TimeTable.Section section = timeTable.findSection(sectionName);
+            out.println("\n\tTIME TABLE - CLASS " + sectionName);
+        
+            LocalDateTime now = LocalDateTime.now();
+            out.println("\nCurrent Date: " + now.toLocalDate());
+            String today = now.getDayOfWeek().toString().toLowerCase();
+            today = today.substring(0, 1).toUpperCase() + today.substring(1);
+        
+            out.println("\nToday's Schedule (" + today + "):");
+            if (section != null && (timeTable.occupiedSlots(section) & TimeTable.dayMask(now.getDayOfWeek())) != 0) {
+                out.println("---------------------------");
+                out.printf("%-5s | %-20s\n", "Period", "Subject");
+                out.println("---------------------------");
+            
+                for (int i = 1; i <= TimeTable.PERIODS; i++) {
+                    String subject = timeTable.subjectAt(section, now.getDayOfWeek(), i);
+                    out.printf("%-5s | %-20s\n", i, subject != null ? subject : "N/A");
+                }
+                int period = timeTable.periodAt(now.toLocalTime());
+                if (period != 0) {
+                    String subject = timeTable.subjectAt(section, now.getDayOfWeek(), period);
+                    out.println("\nNow (Period " + period + "): " + (subject != null ? subject : "Free"));
+                }
+            } else {
+                out.println("\nNo schedule available for today.");
+            }
+        
+            if (section != null) {
+                out.print(renderCache.get(RenderCache.View.TIMETABLE, section, section.getVersion(), this::renderWeek));
+            }
+        }
+    
+        // The weekly grid, Monday to the last day with anything scheduled
+        private String renderWeek(TimeTable.Section section) {
+            StringBuilder week = new StringBuilder(2048);
+            week.append("\nWeekly Schedule:\n");
+        
+            // Column widths fit the longest content in each column, e.g. "Economics/Computer"
+            int dayWidth = 10;
+            int[] periodWidths = {20, 15, 20, 14, 8, 20, 14, 20, 14};
+        
+            int totalWidth = dayWidth;
+            for (int width : periodWidths) {
+                totalWidth += width + 3; // +3 for " | "
+            }
+            String divider = "-".repeat(totalWidth);
+            week.append(divider).append('\n');
+        
+            week.append(String.format("%-" + dayWidth + "s", "DAY"));
+            for (int i = 0; i < TimeTable.PERIODS; i++) {
+                week.append(String.format(" | %-" + periodWidths[i] + "s", "Period " + (i + 1)));
+            }
+            week.append('\n').append(divider).append('\n');
+        
+            long occupied = timeTable.occupiedSlots(section);
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if ((occupied & TimeTable.dayMask(day)) == 0) {
+                    continue;
+                }
+                String name = day.toString().charAt(0) + day.toString().substring(1).toLowerCase();
+                week.append(String.format("%-" + dayWidth + "s", name));
+                for (int i = 0; i < TimeTable.PERIODS; i++) {
+                    String subject = timeTable.subjectAt(section, day, i + 1);
+                    week.append(String.format(" | %-" + periodWidths[i] + "s", subject != null ? subject : ""));
+                }
+                week.append('\n');
+            }
+            week.append(divider).append('\n');
+            return week.toString();
+        }
+    
+        public void displayUpcomingTests() {
+            ensureSchool();
+            out.println("\n\tUPCOMING TESTS");
+        
+            if (upcomingTests.isEmpty()) {
+                out.println("\nNo upcoming tests at the moment.");
+                out.println("\nPlease check the Notice Board regularly for updates on examination schedules.");
+            } else {
+                // Tests never change once posted
+                for (Test test : upcomingTests) {
+                    out.println(renderCache.get(RenderCache.View.TEST, test, 0, Test::toString));
+                }
+            }
+        }
+    
+        // Returns false once the input is exhausted
+        public boolean searchNoticesAndTests() throws IOException {
+            ensureSchool();
+            out.println("\n\tSEARCH NOTICES AND TESTS");
+            out.println("\nUse \"quotes\" for a phrase and a trailing * for a prefix, e.g. trigonom* \"sports day\"");
+            out.print("Search for: ");
+            out.flush();
+            String query = in.readLine();
+            if (query == null) {
+                return false;
+            }
+        
+            List<SearchIndex.Hit> hits = searchIndex.search(query, 10);
+            if (hits.isEmpty()) {
+                out.println("\nNo notices or tests match \"" + query.trim() + "\".");
+                return true;
+            }
+            out.println("\nTop " + hits.size() + " result(s):");
+            for (SearchIndex.Hit hit : hits) {
+                if (hit.getDocument() instanceof Notice) {
+                    Notice notice = (Notice) hit.getDocument();
+                    out.println(renderCache.get(RenderCache.View.NOTICE, notice, notice.getVersion(), Notice::toString));
+                } else {
+                    Test test = (Test) hit.getDocument();
+                    out.println(renderCache.get(RenderCache.View.TEST, test, 0, Test::toString));
+                }
+            }
+            return true;
+        }
+    
+        // Returns false once the input is exhausted
+        public boolean findStudents() throws IOException {
+            out.println("\n\tFIND A STUDENT");
+            out.println("\nEnter part of a name, e.g. \"Mrs. Borah\", \"priya bor\" or a misspelt \"Boruha\"");
+            out.print("Name: ");
+            out.flush();
+            String query = in.readLine();
+            if (query == null) {
+                return false;
+            }
+        
+            NameIndex index = getNameIndex();
+            List<NameIndex.Family> families = index.families(query, 5);
+            Set<Student> listed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (NameIndex.Family family : families) {
+                out.println("\n" + family.getSurname() + " family - Father: " + family.getFatherName()
+                        + ", Mother: " + family.getMotherName());
+                for (Student child : family.getChildren()) {
+                    out.println("  Roll " + child.getRollNumber() + ": " + child.getName());
+                    listed.add(child);
+                }
+            }
+            
+            boolean heading = false;
+            for (NameIndex.Match match : index.search(query, 10)) {
+                Student student = match.getStudent();
+                if (!listed.add(student)) {
+                    continue;
+                }
+                if (!heading) {
+                    out.println("\nStudents:");
+                    heading = true;
+                }
+                out.println("  Roll " + student.getRollNumber() + ": " + student.getName()
+                        + " (parents " + student.getFatherName() + " and " + student.getMotherName() + ")");
+            }
+            
+            if (listed.isEmpty()) {
+                out.println("\nNo student or parent matches \"" + query.trim() + "\".");
+            }
+            return true;
+        }
+    
+        public void displayAboutApp() {
+            out.println("\n\tABOUT THE APPLICATION");
+            out.println("\nSchool Management System v2.0");
+            out.println("Original release: January 1, 2020");
+            out.println("First update: September 4, 2020");
+            out.println("Latest update: February 28, 2025");
+            out.println("\nDeveloped by: J.B. Ltd (Enhanced for SWOC 2025)");
+            out.println("\nFeatures:");
+            out.println("- Student Information Management");
+            out.println("- Fee Payment Tracking");
+            out.println("- Academic Performance Analysis");
+            out.println("- Notice Board");
+            out.println("- Time Table Management");
+            out.println("- Test Schedule Tracking");
+        }
+    
+        // Main execution method
+        public void run() throws IOException {
+            boolean running = true;
+        
+            while (running) {
+                displayMainMenu();
+                int choice = getValidIntInput(1, 5);
+            
+                switch (choice) {
+                    case -1:
+                        running = false;
+                        break;
+                    
+                    case 1:
+                        out.print("\nEnter Student Roll Number: ");
+                        int rollNumber = getValidIntInput(1, Integer.MAX_VALUE);
+                    
+                        if (rollNumber < 0) {
+                            running = false;
+                        } else if (timedLogin(rollNumber, false)) {
+                            out.println("\nLogin successful. Welcome, " + currentStudent.getName() + "!");
+                            running = runStudentPortal();
+                        } else {
+                            out.println("\nInvalid roll number. Please try again.");
+                        }
+                        break;
+                    
+                    case 2:
+                        out.print("\nEnter Admission Number: ");
+                        int admissionNumber = getValidIntInput(1, Integer.MAX_VALUE);
+                    
+                        if (admissionNumber < 0) {
+                            running = false;
+                        } else if (timedLogin(admissionNumber, true)) {
+                            out.println("\nLogin successful. Welcome, " + currentStudent.getName()
+                                    + " (Roll " + currentStudent.getRollNumber() + ")!");
+                            running = runStudentPortal();
+                        } else {
+                            out.println("\nInvalid admission number. Please try again.");
+                        }
+                        break;
+                    
+                    case 3:
+                        if (findStudents()) {
+                            continuePrompt();
+                        } else {
+                            running = false;
+                        }
+                        break;
+                    
+                    case 4:
+                        displayAboutApp();
+                        continuePrompt();
+                        break;
+                    
+                    case 5:
+                        out.println("\n\tThank you for using the School Management System!");
+                        out.println("\tWe are committed to the betterment of every child.");
+                        running = false;
+                        break;
+                }
+            }
+        }
+    
+        // Returns false when the user chose to exit altogether
+        private boolean runStudentPortal() throws IOException {
+            boolean inStudentPortal = true;
+        
+            while (inStudentPortal) {
+                displayStudentMenu();
+                int choice = getValidIntInput(1, 9);
+            
+                switch (choice) {
+                    case -1:
+                        return false;
+                    
+                    case 1:
+                        timedView(PortalMetrics.Action.PROFILE);
+                        continuePrompt();
+                        break;
+                    
+                    case 2:
+                        timedView(PortalMetrics.Action.FEES);
+                        continuePrompt();
+                        break;
+                    
+                    case 3:
+                        timedView(PortalMetrics.Action.MARKS);
+                        continuePrompt();
+                        break;
+                    
+                    case 4:
+                        timedView(PortalMetrics.Action.NOTICES);
+                        continuePrompt();
+                        break;
+                    
+                    case 5:
+                        timedView(PortalMetrics.Action.TIMETABLE);
+                        continuePrompt();
+                        break;
+                    
+                    case 6:
+                        timedView(PortalMetrics.Action.TESTS);
+                        continuePrompt();
+                        break;
+                    
+                    case 7:
+                        if (!searchNoticesAndTests()) {
+                            return false;
+                        }
+                        continuePrompt();
+                        break;
+                    
+                    case 8:
+                        inStudentPortal = false;
+                        currentStudent = null;
+                        out.println("\nLogged out successfully.");
+                        break;
+                    
+                    case 9:
+                        out.println("\n\tThank you for using the School Management System!");
+                        out.println("\tWe are committed to the betterment of every child.");
+                        return false;
+                }
+            }
+            return true;
+        }
+    
+        // A failed login counts as an error, so a run of them shows up in the metrics
+        private boolean timedLogin(int number, boolean admissionNumber) {
+            long start = System.nanoTime();
+            boolean authenticated = false;
+            try {
+                authenticated = admissionNumber ? authenticateByAdmissionNumber(number) : authenticateStudent(number);
+                return authenticated;
+            } finally {
+                metrics.record(PortalMetrics.Action.LOGIN, System.nanoTime() - start, !authenticated);
+            }
+        }
+    
+        // Times the screen itself, not the wait at the prompt that follows it
+        private void timedView(PortalMetrics.Action action) {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                switch (action) {
+                    case PROFILE:
+                        displayStudentProfile();
+                        break;
+                    case FEES:
+                        displayFeePaymentHistory();
+                        break;
+                    case MARKS:
+                        displayAcademicPerformance();
+                        break;
+                    case NOTICES:
+                        displayNoticeBoard();
+                        break;
+                    case TIMETABLE:
+                        displayTimeTable();
+                        break;
+                    case TESTS:
+                        displayUpcomingTests();
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Not a screen: " + action);
+                }
+                failed = false;
+            } finally {
+                metrics.record(action, System.nanoTime() - start, failed);
+            }
+        }
+    
+        // Utility methods
+        // Returns -1 once the input is exhausted, which ends the session
+        private int getValidIntInput(int min, int max) throws IOException {
+            while (true) {
+                out.flush();
+                String line = in.readLine();
+                if (line == null) {
+                    return -1;
+                }
+            
+                long input = CommandMode.parseInt(line.trim());
+                if (input == CommandMode.INVALID) {
+                    out.print("\nInvalid input. Please enter a number: ");
+                } else if (input >= min && input <= max) {
+                    return (int) input;
+                } else {
+                    out.print("\nPlease enter a number between " + min + " and " + max + ": ");
+                }
+            }
+        }
+    
+        private void continuePrompt() throws IOException {
+            out.print("\nPress Enter to continue...");
+            out.flush();
+            in.readLine();
+        }
+    
+    }
+    
+    PortalSession newSession(BufferedReader in, PrintStream out) {
+        return new PortalSession(in, out);
+    }
+    
+    // Runs a single session on the console
+    public void run() {
+        PortalSession session = newSession(new BufferedReader(new InputStreamReader(System.in)), System.out);
+        try {
+            session.run();
+        } catch (IOException e) {
+            System.err.println("Console input failed: " + e.getMessage());
+        }
+    }
+    
+    // Main method
+    public static void main(String[] args) throws IOException {
+        Path dataDir = null;
+        Path storeDir = null;
+        Path buildStoreDir = null;
+        Path imageDir = null;
+        Path buildImageDir = null;
+        Path reportCardDir = null;
+        Path cohortStatsFile = null;
+        Path defaulterDir = null;
+        Path feeTotalsFile = null;
+        LocalDate asOf = LocalDate.now();
+        String commandSource = null;
+        CommandMode.Format format = CommandMode.Format.JSON;
+        int serverPort = -1;
+        int httpPort = -1;
+        int idleTimeoutSeconds = 300;
+        int metricsIntervalSeconds = 0;
+        int syntheticStudents = 0;
+        int syntheticSchools = 1;
+        long seed = 42;
+        // EnumMap iterates students, marks, fees: the order the files depend on each other
+        Map<BulkImporter.Kind, Path> imports = new EnumMap<>(BulkImporter.Kind.class);
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--data-dir") && i + 1 < args.length) {
+                dataDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--store") && i + 1 < args.length) {
+                storeDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--build-store") && i + 1 < args.length) {
+                buildStoreDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--image") && i + 1 < args.length) {
+                imageDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--build-image") && i + 1 < args.length) {
+                buildImageDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--report-cards") && i + 1 < args.length) {
+                reportCardDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--cohort-stats") && i + 1 < args.length) {
+                cohortStatsFile = Paths.get(args[++i]);
+            } else if (args[i].equals("--fee-defaulters") && i + 1 < args.length) {
+                defaulterDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--fee-totals") && i + 1 < args.length) {
+                feeTotalsFile = Paths.get(args[++i]);
+            } else if (args[i].equals("--as-of") && i + 1 < args.length) {
+                asOf = LocalDate.parse(args[++i]);
+            } else if (args[i].equals("--commands") && i + 1 < args.length) {
+                commandSource = args[++i];
+            } else if (args[i].equals("--format") && i + 1 < args.length) {
+                format = CommandMode.Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+            } else if (args[i].equals("--server") && i + 1 < args.length) {
+                serverPort = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--http") && i + 1 < args.length) {
+                httpPort = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--idle-timeout") && i + 1 < args.length) {
+                idleTimeoutSeconds = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--metrics-interval") && i + 1 < args.length) {
+                metricsIntervalSeconds = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--synthetic") && i + 1 < args.length) {
+                syntheticStudents = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--schools") && i + 1 < args.length) {
+                syntheticSchools = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--import-students") && i + 1 < args.length) {
+                imports.put(BulkImporter.Kind.STUDENTS, Paths.get(args[++i]));
+            } else if (args[i].equals("--import-marks") && i + 1 < args.length) {
+                imports.put(BulkImporter.Kind.MARKS, Paths.get(args[++i]));
+            } else if (args[i].equals("--import-fees") && i + 1 < args.length) {
+                imports.put(BulkImporter.Kind.FEES, Paths.get(args[++i]));
+            }
+        }
+        
+        // The same seed and as-of date always generate the same school
+        SyntheticSchool school = syntheticStudents > 0 ? new SyntheticSchool(seed, asOf, syntheticSchools) : null;
+        if (school != null && (buildStoreDir != null || buildImageDir != null)) {
+            // Straight from the generator to disk, never holding the roster
+            Path directory = buildImageDir != null ? buildImageDir : buildStoreDir;
+            MappedStudentStore.write(directory, Arrays.asList(SyntheticSchool.SUBJECTS), school.students(syntheticStudents));
+            if (buildImageDir != null) {
+                SchoolManagementSystem image = new SchoolManagementSystem(MappedStudentStore.open(directory));
+                school.addNotices(image, SyntheticSchool.NOTICES);
+                school.addTests(image, SyntheticSchool.TESTS);
+                DatabaseImage.writeSchool(directory, image);
+            }
+            System.out.println("Wrote " + syntheticStudents + " generated students to " + directory);
+            return;
+        }
+        
+        SchoolManagementSystem system;
+        if (dataDir != null) {
+            system = open(dataDir);
+        } else if (imageDir != null) {
+            system = openImage(imageDir);
+        } else if (storeDir != null) {
+            system = new SchoolManagementSystem(MappedStudentStore.open(storeDir));
+        } else if (school != null) {
+            PartitionedStudentStore roster = new PartitionedStudentStore();
+            school.fill(roster, syntheticStudents);
+            system = new SchoolManagementSystem(roster);
+            school.addNotices(system, SyntheticSchool.NOTICES);
+            school.addTests(system, SyntheticSchool.TESTS);
+        } else {
+            system = new SchoolManagementSystem();
+        }
+        
+        if (!imports.isEmpty()) {
+            if (system.isRosterReadOnly()) {
+                System.err.println("Cannot import into a read-only --store or --image roster; import with --data-dir, then --build-store or --build-image");
+                system.close();
+                return;
+            }
+            try (BulkImporter importer = new BulkImporter(system)) {
+                for (Map.Entry<BulkImporter.Kind, Path> entry : imports.entrySet()) {
+                    BulkImporter.ImportReport report = importer.importFile(entry.getKey(), entry.getValue());
+                    System.out.println(report);
+                    for (BulkImporter.RowError error : report.getErrors()) {
+                        System.err.println("  " + error);
+                    }
+                    if (report.getErrorCount() > report.getErrors().size()) {
+                        System.err.println("  ... and " + (report.getErrorCount() - report.getErrors().size()) + " more");
+                    }
+                }
+            }
+            system.sync();
+            // An import on its own is a batch job; otherwise it feeds the mode that follows
+            if (buildStoreDir == null && buildImageDir == null && reportCardDir == null && cohortStatsFile == null && defaulterDir == null
+                    && feeTotalsFile == null && commandSource == null && serverPort < 0 && httpPort < 0) {
+                system.close();
+                return;
+            }
+        }
+        
+        if (buildStoreDir != null) {
+            MappedStudentStore.write(buildStoreDir, system.getStudents());
+            System.out.println("Wrote " + system.getStudents().size() + " students to " + buildStoreDir);
+            system.close();
+            return;
+        }
+        
+        if (buildImageDir != null) {
+            DatabaseImage.write(buildImageDir, system);
+            System.out.println("Wrote an image of " + system.getStudents().size() + " students to " + buildImageDir);
+            system.close();
+            return;
+        }
+        
+        if (reportCardDir != null) {
+            Files.createDirectories(reportCardDir);
+            ReportCard[] cards = new ReportCardGenerator().generate(system.getStudents());
+            ReportCardGenerator.writeCsv(cards, reportCardDir.resolve("report-cards.csv"));
+            ReportCardGenerator.writeText(cards, reportCardDir.resolve("report-cards.txt"));
+            System.out.println("Wrote " + cards.length + " report cards to " + reportCardDir);
+            system.close();
+            return;
+        }
+        
+        if (cohortStatsFile != null) {
+            CohortStats stats = CohortStats.of(system.getStudents());
+            Files.write(cohortStatsFile, stats.toText().getBytes(StandardCharsets.UTF_8));
+            System.out.println("Wrote statistics for " + stats.getStudentCount() + " students to " + cohortStatsFile);
+            system.close();
+            return;
+        }
+        
+        if (defaulterDir != null) {
+            System.out.println(new FeeDefaulterJob().run(system.getStudents(), asOf, defaulterDir));
+            system.close();
+            return;
+        }
+        
+        if (feeTotalsFile != null) {
+            FeeTotals totals = system.getFeeTotals();
+            Files.write(feeTotalsFile, totals.toTsv().getBytes(StandardCharsets.UTF_8));
+            System.out.println("Wrote fee totals for " + totals.getSections().size() + " sections of "
+                    + totals.getSchools().size() + " schools to " + feeTotalsFile);
+            system.close();
+            return;
+        }
+        
+        if (commandSource != null) {
+            // "-" reads the commands from standard input
+            BufferedReader in = commandSource.equals("-")
+                    ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                    : Files.newBufferedReader(Paths.get(commandSource), StandardCharsets.UTF_8);
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            CommandMode commands = new CommandMode(system, format, asOf);
+            try (BufferedReader input = in) {
+                commands.run(input, out);
+            }
+            System.err.println("Ran " + commands.getCommands() + " commands, " + commands.getErrors() + " failed");
+            system.close();
+            return;
+        }
+        
+        // Only the portal gets this far, so batch runs never pay for starting JMX. The
+        // platform MBean server takes longer to start than the portal, so it starts alongside.
+        Thread.ofPlatform().daemon().name("metrics-jmx").start(() -> {
+            try {
+                system.metrics.registerMBeans();
+            } catch (JMException e) {
+                System.err.println("Could not publish metrics over JMX: " + e.getMessage());
+            }
+        });
+        if (metricsIntervalSeconds > 0) {
+            system.metrics.startDumps(metricsIntervalSeconds, System.err);
+        }
+        
+        if (serverPort >= 0 || httpPort >= 0) {
+            // The portal and the HTTP API can run side by side; either keeps the process up
+            PortalServer server = serverPort >= 0 ? new PortalServer(system, serverPort, idleTimeoutSeconds * 1000) : null;
+            HttpApi api = httpPort >= 0 ? new HttpApi(system, httpPort) : null;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    if (api != null) {
+                        api.close();
+                    }
+                    if (server != null) {
+                        server.close();
+                    }
+                    System.err.print(system.metrics.toText());
+                    system.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to shut down cleanly: " + e.getMessage());
+                }
+            }));
+            system.notices.startSweeps();
+            if (api != null) {
+                api.start();
+                System.out.println("HTTP API listening on port " + api.getPort());
+            }
+            if (server != null) {
+                server.start();
+                System.out.println("Student portal listening on port " + server.getPort());
+            }
+            try {
+                if (server != null) {
+                    server.awaitTermination();
+                } else {
+                    api.awaitTermination();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        
+        system.run();
+        system.close();
+    }
+}
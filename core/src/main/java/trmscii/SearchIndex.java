@@ -0,0 +1,562 @@
+package trmscii;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over notice titles and contents and test subjects,
+ * descriptions and syllabi.
+ * Text is split into lower-case letter/digit tokens, and common English
+ * stop words are dropped while keeping their positions. Each term keeps a
+ * postings list of the documents it occurs in, with a field-weighted term
+ * frequency and token positions, in ascending document order. A query is
+ * a list of clauses that must all match: a plain word, a word ending in *
+ * for a prefix, or a quoted phrase. Matches are ranked with BM25, and title
+ * and subject hits count three times.
+ *
+ * The index is maintained as documents come and go: a revised notice is
+ * re-indexed, and notices past their expiry date and tests past their
+ * test date drop out on the first query of a new day. Removed documents
+ * are skipped by queries and purged from the postings once they outnumber
+ * the live ones.
+ */
+class SearchIndex {
+    private static final int TITLE_WEIGHT = 3;
+    // Positions jump between fields so a phrase never spans two of them
+    private static final int FIELD_GAP = 1_000;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Words nearly every document contains; they would only make queries slower, not better
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "in", "is", "it",
+            "of", "on", "or", "the", "to", "was", "will", "with"));
+
+    static final class Hit {
+        private final Object document;
+        private final double score;
+
+        Hit(Object document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        // A SchoolManagementSystem.Notice or SchoolManagementSystem.Test
+        public Object getDocument() { return document; }
+        public double getScore() { return score; }
+    }
+
+    // Entries are [doc, weighted frequency, position count, positions...]
+    private static final class Postings {
+        int[] data = new int[8];
+        int length;
+        int documentFrequency;
+
+        void add(int doc, int weight, int[] positions, int count) {
+            int needed = length + 3 + count;
+            if (needed > data.length) {
+                data = Arrays.copyOf(data, Math.max(needed, data.length * 2));
+            }
+            data[length++] = doc;
+            data[length++] = weight;
+            data[length++] = count;
+            System.arraycopy(positions, 0, data, length, count);
+            length += count;
+            documentFrequency++;
+        }
+    }
+
+    private final Clock clock;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Object, Integer> ids = new IdentityHashMap<>();
+    // Indexed by document ID; null once a document is removed
+    private Object[] documents = new Object[64];
+    private String[][] documentTerms = new String[64][];
+    private int[] documentLengths = new int[64];
+    private long[] lastDayKeys = new long[64];
+    private int nextId;
+    private int liveDocuments;
+    private int deadDocuments;
+    private long totalLength;
+    // Keys are epoch day << 32 | document ID: the last day each document is searchable
+    private final TreeMap<Long, Integer> lastDays = new TreeMap<>();
+    private volatile long sweptDay = Long.MIN_VALUE;
+
+    SearchIndex() {
+        this(Clock.systemDefaultZone());
+    }
+
+    SearchIndex(Clock clock) {
+        this.clock = clock;
+    }
+
+    void add(SchoolManagementSystem.Notice notice) {
+        index(notice, notice.getExpiryDate(), new String[] {notice.getTitle(), notice.getContent()});
+    }
+
+    void add(SchoolManagementSystem.Test test) {
+        index(test, test.getTestDate(), new String[] {test.getSubject(), test.getDescription(), test.getSyllabus()});
+    }
+
+    // Re-indexes a notice after its text or expiry changed
+    void update(SchoolManagementSystem.Notice notice) {
+        lock.writeLock().lock();
+        try {
+            remove(notice);
+            add(notice);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The first field of every document is its title
+    private void index(Object document, LocalDate lastDay, String[] fields) {
+        Map<String, int[]> occurrences = new HashMap<>();
+        Map<String, Integer> weights = new HashMap<>();
+        List<String> tokens = new ArrayList<>();
+        int length = 0;
+        for (int field = 0; field < fields.length; field++) {
+            tokenize(fields[field], tokens);
+            int weight = field == 0 ? TITLE_WEIGHT : 1;
+            for (int i = 0; i < tokens.size(); i++) {
+                String term = tokens.get(i);
+                if (STOP_WORDS.contains(term)) {
+                    continue;
+                }
+                int position = field * FIELD_GAP + i;
+                int[] positions = occurrences.get(term);
+                if (positions == null) {
+                    positions = new int[] {0, 0, 0, 0, 0};
+                    occurrences.put(term, positions);
+                } else if (positions[0] + 1 == positions.length) {
+                    positions = Arrays.copyOf(positions, positions.length * 2);
+                    occurrences.put(term, positions);
+                }
+                positions[++positions[0]] = position;
+                weights.merge(term, weight, Integer::sum);
+            }
+            length += tokens.size() * weight;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (ids.containsKey(document)) {
+                return;
+            }
+            int id = nextId++;
+            if (id == documents.length) {
+                documents = Arrays.copyOf(documents, id * 2);
+                documentTerms = Arrays.copyOf(documentTerms, id * 2);
+                documentLengths = Arrays.copyOf(documentLengths, id * 2);
+                lastDayKeys = Arrays.copyOf(lastDayKeys, id * 2);
+            }
+            documents[id] = document;
+            documentTerms[id] = occurrences.keySet().toArray(new String[0]);
+            documentLengths[id] = length;
+            ids.put(document, id);
+            liveDocuments++;
+            totalLength += length;
+            for (Map.Entry<String, int[]> entry : occurrences.entrySet()) {
+                int[] positions = entry.getValue();
+                int count = positions[0];
+                System.arraycopy(positions, 1, positions, 0, count);
+                terms.computeIfAbsent(entry.getKey(), term -> new Postings())
+                        .add(id, weights.get(entry.getKey()), positions, count);
+            }
+            lastDayKeys[id] = lastDay.toEpochDay() << 32 | id;
+            lastDays.put(lastDayKeys[id], id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void remove(Object document) {
+        Integer id = ids.remove(document);
+        if (id == null) {
+            return;
+        }
+        for (String term : documentTerms[id]) {
+            Postings postings = terms.get(term);
+            if (--postings.documentFrequency == 0) {
+                terms.remove(term);
+            }
+        }
+        lastDays.remove(lastDayKeys[id]);
+        documents[id] = null;
+        documentTerms[id] = null;
+        totalLength -= documentLengths[id];
+        liveDocuments--;
+        deadDocuments++;
+        if (deadDocuments > liveDocuments && deadDocuments > 1024) {
+            purge();
+        }
+    }
+
+    // Drops removed documents' entries from every postings list
+    private void purge() {
+        for (Postings postings : terms.values()) {
+            int[] data = postings.data;
+            int write = 0;
+            for (int read = 0; read < postings.length; ) {
+                int entryLength = 3 + data[read + 2];
+                if (documents[data[read]] != null) {
+                    System.arraycopy(data, read, data, write, entryLength);
+                    write += entryLength;
+                }
+                read += entryLength;
+            }
+            postings.length = write;
+        }
+        deadDocuments = 0;
+    }
+
+    // Drops notices that expired and tests that took place before today
+    private void retireExpired() {
+        long today = LocalDate.now(clock).toEpochDay();
+        if (today == sweptDay) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            SortedMap<Long, Integer> expired = lastDays.headMap(today << 32);
+            while (!expired.isEmpty()) {
+                remove(documents[expired.get(expired.firstKey())]);
+            }
+            sweptDay = today;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to limit documents matching every clause of the query,
+     * best first. An empty or all-punctuation query matches nothing.
+     */
+    List<Hit> search(String query, int limit) {
+        List<List<String>> clauses = new ArrayList<>();
+        List<Boolean> prefixes = new ArrayList<>();
+        parse(query, clauses, prefixes);
+        if (clauses.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        retireExpired();
+
+        lock.readLock().lock();
+        try {
+            double averageLength = liveDocuments == 0 ? 1 : (double) totalLength / liveDocuments;
+            Matches result = null;
+            for (int i = 0; i < clauses.size() && (result == null || result.size > 0); i++) {
+                List<String> clause = clauses.get(i);
+                Matches matches;
+                if (prefixes.get(i)) {
+                    matches = matchPrefix(clause.get(0), averageLength);
+                } else if (clause.size() == 1) {
+                    matches = matchTerm(terms.get(clause.get(0)), averageLength);
+                } else {
+                    matches = matchPhrase(clause, averageLength);
+                }
+                result = result == null ? matches : result.intersect(matches);
+            }
+            return result.top(limit, documents);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Quoted text is a phrase; a trailing * makes a prefix; a word that splits into several tokens is a phrase
+    private static void parse(String query, List<List<String>> clauses, List<Boolean> prefixes) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            int end;
+            boolean prefix = false;
+            if (c == '"') {
+                int close = query.indexOf('"', i + 1);
+                end = close < 0 ? query.length() : close;
+                tokenize(query.substring(i + 1, end), tokens);
+                end = Math.min(query.length(), end + 1);
+            } else {
+                end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end))) {
+                    end++;
+                }
+                String word = query.substring(i, end);
+                prefix = word.endsWith("*");
+                tokenize(word, tokens);
+                prefix &= tokens.size() == 1;
+            }
+            // Stop words become gaps, so "sports day at school" still needs the words in that order
+            List<String> clause = new ArrayList<>(tokens.size());
+            boolean meaningful = false;
+            for (String token : tokens) {
+                boolean stop = STOP_WORDS.contains(token) && !prefix;
+                clause.add(stop ? null : token);
+                meaningful |= !stop;
+            }
+            if (meaningful) {
+                while (clause.get(0) == null) {
+                    clause.remove(0);
+                }
+                while (clause.get(clause.size() - 1) == null) {
+                    clause.remove(clause.size() - 1);
+                }
+                clauses.add(clause);
+                prefixes.add(prefix);
+            }
+            i = end;
+        }
+    }
+
+    static void tokenize(String text, List<String> tokens) {
+        tokens.clear();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    private double idf(Postings postings) {
+        double n = postings.documentFrequency;
+        return Math.log(1 + (liveDocuments - n + 0.5) / (n + 0.5));
+    }
+
+    private double bm25(double idf, int frequency, int doc, double averageLength) {
+        double norm = K1 * (1 - B + B * documentLengths[doc] / averageLength);
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private Matches matchTerm(Postings postings, double averageLength) {
+        Matches matches = new Matches(postings == null ? 0 : postings.documentFrequency);
+        if (postings == null) {
+            return matches;
+        }
+        double idf = idf(postings);
+        int[] data = postings.data;
+        for (int i = 0; i < postings.length; i += 3 + data[i + 2]) {
+            int doc = data[i];
+            if (documents[doc] != null) {
+                matches.add(doc, bm25(idf, data[i + 1], doc, averageLength));
+            }
+        }
+        return matches;
+    }
+
+    private Matches matchPrefix(String prefix, double averageLength) {
+        Matches union = new Matches(0);
+        for (Postings postings : terms.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            union = union.union(matchTerm(postings, averageLength));
+        }
+        return union;
+    }
+
+    // Null entries in the phrase are stop words: any token may stand in that position
+    private Matches matchPhrase(List<String> phrase, double averageLength) {
+        List<Postings> found = new ArrayList<>(phrase.size());
+        int[] offsets = new int[phrase.size()];
+        for (int t = 0; t < phrase.size(); t++) {
+            if (phrase.get(t) == null) {
+                continue;
+            }
+            Postings postings = terms.get(phrase.get(t));
+            if (postings == null) {
+                return new Matches(0);
+            }
+            offsets[found.size()] = t;
+            found.add(postings);
+        }
+        Postings[] lists = found.toArray(new Postings[0]);
+        // Walk every list in step, doc by doc
+        int[] cursors = new int[lists.length];
+        Matches matches = new Matches(0);
+        double idf = 0;
+        for (Postings postings : lists) {
+            idf += idf(postings);
+        }
+        outer:
+        while (cursors[0] < lists[0].length) {
+            int doc = lists[0].data[cursors[0]];
+            for (int t = 1; t < lists.length; t++) {
+                int[] data = lists[t].data;
+                while (cursors[t] < lists[t].length && data[cursors[t]] < doc) {
+                    cursors[t] += 3 + data[cursors[t] + 2];
+                }
+                if (cursors[t] >= lists[t].length) {
+                    break outer;
+                }
+                if (data[cursors[t]] > doc) {
+                    // Skip the first list forward to this doc
+                    int[] first = lists[0].data;
+                    int target = data[cursors[t]];
+                    while (cursors[0] < lists[0].length && first[cursors[0]] < target) {
+                        cursors[0] += 3 + first[cursors[0] + 2];
+                    }
+                    continue outer;
+                }
+            }
+            if (documents[doc] != null) {
+                int frequency = phraseFrequency(lists, offsets, cursors);
+                if (frequency > 0) {
+                    matches.add(doc, bm25(idf, frequency, doc, averageLength));
+                }
+            }
+            cursors[0] += 3 + lists[0].data[cursors[0] + 2];
+        }
+        return matches;
+    }
+
+    // How often the terms appear at consecutive positions in the doc under the cursors
+    private static int phraseFrequency(Postings[] lists, int[] offsets, int[] cursors) {
+        int[] first = lists[0].data;
+        int start = cursors[0];
+        int frequency = 0;
+        for (int p = 0; p < first[start + 2]; p++) {
+            int position = first[start + 3 + p];
+            boolean found = true;
+            for (int t = 1; t < lists.length && found; t++) {
+                int[] data = lists[t].data;
+                int entry = cursors[t];
+                int count = data[entry + 2];
+                found = Arrays.binarySearch(data, entry + 3, entry + 3 + count, position + offsets[t]) >= 0;
+            }
+            if (found) {
+                frequency++;
+            }
+        }
+        return frequency;
+    }
+
+    // Documents in ascending ID order with their scores
+    private static final class Matches {
+        int[] docs;
+        double[] scores;
+        int size;
+
+        Matches(int capacity) {
+            docs = new int[Math.max(4, capacity)];
+            scores = new double[docs.length];
+        }
+
+        void add(int doc, double score) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            docs[size] = doc;
+            scores[size++] = score;
+        }
+
+        Matches intersect(Matches other) {
+            Matches result = new Matches(Math.min(size, other.size));
+            for (int i = 0, j = 0; i < size && j < other.size; ) {
+                if (docs[i] < other.docs[j]) {
+                    i++;
+                } else if (docs[i] > other.docs[j]) {
+                    j++;
+                } else {
+                    result.add(docs[i], scores[i++] + other.scores[j++]);
+                }
+            }
+            return result;
+        }
+
+        Matches union(Matches other) {
+            Matches result = new Matches(size + other.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && docs[i] < other.docs[j])) {
+                    result.add(docs[i], scores[i++]);
+                } else if (i == size || docs[i] > other.docs[j]) {
+                    result.add(other.docs[j], other.scores[j++]);
+                } else {
+                    result.add(docs[i], scores[i++] + other.scores[j++]);
+                }
+            }
+            return result;
+        }
+
+        // The best limit matches, highest score first and older documents first on ties
+        List<Hit> top(int limit, Object[] documents) {
+            // Min-heap of match indexes, so the weakest of the best is at the root
+            int[] heap = new int[Math.min(limit, size)];
+            int heapSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (heapSize < heap.length) {
+                    heap[heapSize] = i;
+                    siftUp(heap, heapSize++);
+                } else if (weaker(heap[0], i)) {
+                    heap[0] = i;
+                    siftDown(heap, heapSize);
+                }
+            }
+            Hit[] hits = new Hit[heapSize];
+            while (heapSize > 0) {
+                int index = heap[0];
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize);
+                hits[heapSize] = new Hit(documents[docs[index]], scores[index]);
+            }
+            return Arrays.asList(hits);
+        }
+
+        // Whether match a ranks below match b
+        private boolean weaker(int a, int b) {
+            return scores[a] < scores[b] || (scores[a] == scores[b] && docs[a] > docs[b]);
+        }
+
+        private void siftUp(int[] heap, int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!weaker(heap[index], heap[parent])) {
+                    return;
+                }
+                int swap = heap[index];
+                heap[index] = heap[parent];
+                heap[parent] = swap;
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int size) {
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && weaker(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!weaker(heap[child], heap[index])) {
+                    return;
+                }
+                int swap = heap[index];
+                heap[index] = heap[child];
+                heap[child] = swap;
+                index = child;
+            }
+        }
+    }
+}
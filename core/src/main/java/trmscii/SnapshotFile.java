@@ -0,0 +1,240 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.DayOfWeek;
+import java.util.*;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compacted, checksummed image of the whole database at a given log position.
+ * Snapshots are written to a temporary file, forced and atomically renamed,
+ * so a crash mid-write leaves the previous snapshot in place. The directory
+ * is forced after the rename, so once write returns the log it covers can
+ * be deleted safely.
+ */
+class SnapshotFile {
+    private static final long MAGIC = 0x54524D534E415031L; // "TRMSNAP1"
+    // Version 2 stores the timetable per section and slot, version 3 each student's enrolment; older files still load
+    private static final int VERSION = 3;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".dat";
+
+    private SnapshotFile() {
+    }
+
+    static Path write(Path directory, long lsn, SchoolManagementSystem system) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        CRC32C crc = new CRC32C();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lsn);
+
+            Collection<SchoolManagementSystem.Student> students = system.getStudents();
+            out.writeInt(students.size());
+            for (SchoolManagementSystem.Student student : students) {
+                DatabaseJournal.writeStudentIdentity(out, student);
+                Map<String, Integer> marks = student.getMarks();
+                out.writeInt(marks.size());
+                for (Map.Entry<String, Integer> entry : marks.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+                List<SchoolManagementSystem.FeePayment> payments = student.getFeePayments();
+                out.writeInt(payments.size());
+                for (SchoolManagementSystem.FeePayment payment : payments) {
+                    DatabaseJournal.writeFeePayment(out, payment);
+                }
+            }
+
+            List<SchoolManagementSystem.Notice> notices = system.getNotices();
+            out.writeInt(notices.size());
+            for (SchoolManagementSystem.Notice notice : notices) {
+                DatabaseJournal.writeNotice(out, notice);
+            }
+
+            List<SchoolManagementSystem.Test> tests = system.getUpcomingTests();
+            out.writeInt(tests.size());
+            for (SchoolManagementSystem.Test test : tests) {
+                DatabaseJournal.writeTest(out, test);
+            }
+
+            writeTimeTable(out, system.getTimeTable());
+
+            out.flush();
+            // The checksum trails the body and is not part of what it covers
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+            file.getFD().sync();
+        }
+
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // The rename must be durable before the older snapshot or any log it covers is deleted
+        WriteAheadLog.forceDirectory(directory);
+        for (Path older : list(directory)) {
+            if (!older.equals(target)) {
+                Files.deleteIfExists(older);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Loads the newest snapshot into system and returns its LSN,
+     * or -1 when the directory holds no snapshot.
+     */
+    static long loadLatest(Path directory, SchoolManagementSystem system) throws IOException {
+        List<Path> snapshots = list(directory);
+        if (snapshots.isEmpty()) {
+            return -1;
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        long bodyLength = Files.size(latest) - 4;
+
+        CRC32C crc = new CRC32C();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(latest), 1 << 16)) {
+            DataInputStream in = new DataInputStream(
+                    new CheckedInputStream(new BoundedInputStream(file, bodyLength), crc));
+            if (in.readLong() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + latest);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + latest);
+            }
+            long lsn = in.readLong();
+
+            int studentCount = in.readInt();
+            for (int i = 0; i < studentCount; i++) {
+                SchoolManagementSystem.Student student = DatabaseJournal.readStudentIdentity(in, version >= 3);
+                int markCount = in.readInt();
+                for (int j = 0; j < markCount; j++) {
+                    student.addMarks(in.readUTF(), in.readInt());
+                }
+                int paymentCount = in.readInt();
+                for (int j = 0; j < paymentCount; j++) {
+                    student.addFeePayment(DatabaseJournal.readFeePayment(in));
+                }
+                system.addStudent(student);
+            }
+
+            int noticeCount = in.readInt();
+            for (int i = 0; i < noticeCount; i++) {
+                system.addNotice(DatabaseJournal.readNotice(in));
+            }
+
+            int testCount = in.readInt();
+            for (int i = 0; i < testCount; i++) {
+                system.addTest(DatabaseJournal.readTest(in));
+            }
+
+            if (version == 1) {
+                readDayMapTimeTable(in, system.getTimeTable());
+            } else {
+                readTimeTable(in, system.getTimeTable());
+            }
+
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(file).readInt() != expected) {
+                throw new IOException("Snapshot checksum mismatch: " + latest);
+            }
+            return lsn;
+        }
+    }
+
+    // Each section's occupied-slot mask, then the subject in every occupied slot
+    static void writeTimeTable(DataOutput out, TimeTable timeTable) throws IOException {
+        List<TimeTable.Section> sections = timeTable.getSections();
+        out.writeInt(sections.size());
+        for (TimeTable.Section section : sections) {
+            out.writeUTF(section.getName());
+            long occupied = timeTable.occupiedSlots(section);
+            out.writeLong(occupied);
+            for (long remaining = occupied; remaining != 0; remaining &= remaining - 1) {
+                int slot = Long.numberOfTrailingZeros(remaining);
+                out.writeUTF(timeTable.subjectAt(section, TimeTable.dayOf(slot), TimeTable.periodOf(slot)));
+            }
+        }
+    }
+
+    static void readTimeTable(DataInput in, TimeTable timeTable) throws IOException {
+        int sectionCount = in.readInt();
+        for (int i = 0; i < sectionCount; i++) {
+            TimeTable.Section section = timeTable.section(in.readUTF());
+            long occupied = in.readLong();
+            for (long remaining = occupied; remaining != 0; remaining &= remaining - 1) {
+                int slot = Long.numberOfTrailingZeros(remaining);
+                timeTable.assign(section, TimeTable.dayOf(slot), TimeTable.periodOf(slot), in.readUTF());
+            }
+        }
+    }
+
+    // Version 1 kept one section as day name -> period number -> subject
+    private static void readDayMapTimeTable(DataInputStream in, TimeTable timeTable) throws IOException {
+        TimeTable.Section section = timeTable.section(SchoolManagementSystem.DEFAULT_SECTION);
+        int dayCount = in.readInt();
+        for (int i = 0; i < dayCount; i++) {
+            DayOfWeek day = DayOfWeek.valueOf(in.readUTF().toUpperCase());
+            int periodCount = in.readInt();
+            for (int j = 0; j < periodCount; j++) {
+                int period = Integer.parseInt(in.readUTF());
+                timeTable.assign(section, day, period, in.readUTF());
+            }
+        }
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                snapshots.add(path);
+            }
+        }
+        Collections.sort(snapshots);
+        return snapshots;
+    }
+
+    private static class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = super.read(bytes, offset, (int) Math.min(length, remaining));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+            // The underlying stream is still needed for the trailing checksum
+        }
+    }
+}
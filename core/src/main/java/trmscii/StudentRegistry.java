@@ -0,0 +1,284 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe roster keyed by roll number, split into lock stripes.
+ * Each stripe holds primitive open-addressing tables guarded by a StampedLock:
+ * one for the roll numbers hashing to it and one for the admission numbers.
+ * Lookups run under an optimistic stamp and only fall back to a read lock
+ * if a writer touched the same stripe meanwhile, so readers never write to
+ * shared memory and scale with the number of cores. Writers lock only the
+ * stripes their roll and admission numbers hash to, always in stripe order,
+ * and change both tables before unlocking, so a lookup by either number
+ * never sees one index ahead of the other.
+ */
+class StudentRegistry implements StudentStore {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final AtomicInteger size = new AtomicInteger();
+
+    StudentRegistry() {
+        this(DEFAULT_STRIPES);
+    }
+
+    StudentRegistry(int stripeCount) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeMask = count - 1;
+    }
+
+    // Both the stripe and the slot inside it come from one well-mixed hash
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public SchoolManagementSystem.Student get(int rollNumber) {
+        int hash = mix(rollNumber);
+        return stripes[hash & stripeMask].get(false, rollNumber, hash >>> 6);
+    }
+
+    @Override
+    public SchoolManagementSystem.Student getByAdmissionNumber(int admissionNumber) {
+        int hash = mix(admissionNumber);
+        return stripes[hash & stripeMask].get(true, admissionNumber, hash >>> 6);
+    }
+
+    @Override
+    public boolean contains(int rollNumber) {
+        return get(rollNumber) != null;
+    }
+
+    /**
+     * Adds the student, or replaces the one with the same roll number.
+     * Throws IllegalArgumentException when the admission number belongs to
+     * a student with another roll number. commit runs with the stripes of
+     * both numbers write-locked, so nobody can claim them in between.
+     */
+    @Override
+    public void put(SchoolManagementSystem.Student student, Consumer<SchoolManagementSystem.Student> commit) {
+        int rollNumber = student.getRollNumber();
+        int admissionNumber = student.getAdmissionNumber();
+        int rollHash = mix(rollNumber);
+        int admissionHash = mix(admissionNumber);
+        Stripe rollStripe = stripes[rollHash & stripeMask];
+        Stripe admissionStripe = stripes[admissionHash & stripeMask];
+        while (true) {
+            // A replaced student's admission number may live in a third stripe
+            SchoolManagementSystem.Student previous = rollStripe.get(false, rollNumber, rollHash >>> 6);
+            int previousAdmission = previous == null ? admissionNumber : previous.getAdmissionNumber();
+            int previousHash = mix(previousAdmission);
+            int[] locked = {rollHash & stripeMask, admissionHash & stripeMask, previousHash & stripeMask};
+            long[] stamps = lockInOrder(locked);
+            try {
+                if (Stripe.probe(rollStripe.byRoll, rollNumber, rollHash >>> 6) != previous) {
+                    continue;
+                }
+                SchoolManagementSystem.Student holder =
+                        Stripe.probe(admissionStripe.byAdmission, admissionNumber, admissionHash >>> 6);
+                if (holder != null && holder.getRollNumber() != rollNumber) {
+                    throw new IllegalArgumentException("Admission number " + admissionNumber
+                            + " already belongs to roll number " + holder.getRollNumber());
+                }
+                commit.accept(previous);
+                if (previousAdmission != admissionNumber) {
+                    stripes[previousHash & stripeMask].removeAdmission(previousAdmission, previousHash >>> 6);
+                }
+                admissionStripe.putAdmission(admissionNumber, admissionHash >>> 6, student);
+                if (rollStripe.putRoll(rollNumber, rollHash >>> 6, student)) {
+                    size.incrementAndGet();
+                }
+                return;
+            } finally {
+                unlock(locked, stamps);
+            }
+        }
+    }
+
+    // Sorts the stripe indexes in place and write-locks each distinct one in that order
+    private long[] lockInOrder(int[] indexes) {
+        Arrays.sort(indexes);
+        long[] stamps = new long[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            if (i == 0 || indexes[i] != indexes[i - 1]) {
+                stamps[i] = stripes[indexes[i]].lock.writeLock();
+            }
+        }
+        return stamps;
+    }
+
+    private void unlock(int[] indexes, long[] stamps) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            if (stamps[i] != 0) {
+                stripes[indexes[i]].lock.unlockWrite(stamps[i]);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    // A point-in-time copy, stripe by stripe
+    @Override
+    public Collection<SchoolManagementSystem.Student> values() {
+        List<SchoolManagementSystem.Student> all = new ArrayList<>(size());
+        for (Stripe stripe : stripes) {
+            stripe.copyTo(all);
+        }
+        return all;
+    }
+
+    private static final class Table {
+        final int[] keys;
+        final SchoolManagementSystem.Student[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new SchoolManagementSystem.Student[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        // Replaced wholesale on resize, so an optimistic reader always sees matching arrays
+        private Table byRoll = new Table(16);
+        private Table byAdmission = new Table(16);
+        private int rollCount;
+        private int admissionCount;
+
+        SchoolManagementSystem.Student get(boolean admission, int key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                SchoolManagementSystem.Student found = probe(admission ? byAdmission : byRoll, key, hash);
+                if (lock.validate(stamp)) {
+                    return found;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return probe(admission ? byAdmission : byRoll, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // Occupied slots always hold a value, and at most half the slots are used
+        static SchoolManagementSystem.Student probe(Table table, int key, int hash) {
+            int[] keys = table.keys;
+            SchoolManagementSystem.Student[] values = table.values;
+            for (int slot = hash & table.mask, probes = 0; probes <= table.mask; slot = (slot + 1) & table.mask, probes++) {
+                SchoolManagementSystem.Student value = values[slot];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[slot] == key) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        // The caller holds the write lock. Returns true when the roll number was not present before.
+        boolean putRoll(int key, int hash, SchoolManagementSystem.Student student) {
+            if (!insert(byRoll, key, hash, student)) {
+                return false;
+            }
+            if (++rollCount * 2 > byRoll.keys.length) {
+                byRoll = grow(byRoll);
+            }
+            return true;
+        }
+
+        // The caller holds the write lock
+        void putAdmission(int key, int hash, SchoolManagementSystem.Student student) {
+            if (insert(byAdmission, key, hash, student) && ++admissionCount * 2 > byAdmission.keys.length) {
+                byAdmission = grow(byAdmission);
+            }
+        }
+
+        /*
+         * The caller holds the write lock. Later entries of the probe run are
+         * shifted back into the gap, so no lookup ever stops short at it.
+         */
+        void removeAdmission(int key, int hash) {
+            Table table = byAdmission;
+            int slot = hash & table.mask;
+            while (table.values[slot] != null && table.keys[slot] != key) {
+                slot = (slot + 1) & table.mask;
+            }
+            if (table.values[slot] == null) {
+                return;
+            }
+            int gap = slot;
+            for (int next = (gap + 1) & table.mask; table.values[next] != null; next = (next + 1) & table.mask) {
+                int home = (mix(table.keys[next]) >>> 6) & table.mask;
+                // Move the entry unless its home lies cyclically in (gap, next]
+                if (((next - home) & table.mask) >= ((next - gap) & table.mask)) {
+                    table.keys[gap] = table.keys[next];
+                    table.values[gap] = table.values[next];
+                    gap = next;
+                }
+            }
+            table.values[gap] = null;
+            admissionCount--;
+        }
+
+        // Returns true when the key was not present before
+        private static boolean insert(Table table, int key, int hash, SchoolManagementSystem.Student student) {
+            int slot = hash & table.mask;
+            while (table.values[slot] != null) {
+                if (table.keys[slot] == key) {
+                    table.values[slot] = student;
+                    return false;
+                }
+                slot = (slot + 1) & table.mask;
+            }
+            table.keys[slot] = key;
+            table.values[slot] = student;
+            return true;
+        }
+
+        private static Table grow(Table old) {
+            Table grown = new Table(old.keys.length * 2);
+            for (int i = 0; i < old.keys.length; i++) {
+                SchoolManagementSystem.Student value = old.values[i];
+                if (value != null) {
+                    int slot = (mix(old.keys[i]) >>> 6) & grown.mask;
+                    while (grown.values[slot] != null) {
+                        slot = (slot + 1) & grown.mask;
+                    }
+                    grown.keys[slot] = old.keys[i];
+                    grown.values[slot] = value;
+                }
+            }
+            return grown;
+        }
+
+        void copyTo(List<SchoolManagementSystem.Student> target) {
+            long stamp = lock.readLock();
+            try {
+                for (SchoolManagementSystem.Student value : byRoll.values) {
+                    if (value != null) {
+                        target.add(value);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
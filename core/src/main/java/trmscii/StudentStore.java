@@ -0,0 +1,40 @@
+package trmscii;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Storage backend for the student roster.
+ * The system only talks to students through this interface, so the roster
+ * can live on the heap or in an off-heap image without touching the menus.
+ */
+interface StudentStore {
+    SchoolManagementSystem.Student get(int rollNumber);
+
+    // Admission numbers are what the fee office and bank slips quote; null when unknown
+    SchoolManagementSystem.Student getByAdmissionNumber(int admissionNumber);
+
+    boolean contains(int rollNumber);
+
+    default void put(SchoolManagementSystem.Student student) {
+        put(student, previous -> { });
+    }
+
+    /**
+     * Stores the student as put does, but first runs commit while still
+     * holding the locks that make the checks stick, so a student commit saw
+     * accepted is the one stored. commit receives the student being replaced,
+     * or null; if it throws, nothing is stored.
+     */
+    void put(SchoolManagementSystem.Student student, Consumer<SchoolManagementSystem.Student> commit);
+
+    // A read-only roster throws UnsupportedOperationException from put, and its students are rebuilt on every lookup
+    default boolean isReadOnly() {
+        return false;
+    }
+
+    int size();
+
+    // Iteration may materialise students one at a time; do not hold on to the collection
+    Collection<SchoolManagementSystem.Student> values();
+}
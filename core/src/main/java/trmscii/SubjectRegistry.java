@@ -0,0 +1,80 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns subject names into dense int IDs.
+ * Marks are stored in primitive arrays indexed by these IDs, and which
+ * subjects a student takes is a bitmask over them, so the registry is capped
+ * at 64 subjects. The school's own subjects are registered up front so their
+ * IDs are stable from run to run.
+ */
+final class SubjectRegistry {
+    static final int MAX_SUBJECTS = 64;
+
+    private static final SubjectRegistry SHARED = new SubjectRegistry(
+            "English Literature", "English Language", "Mathematics", "Biology",
+            "Chemistry", "Physics", "Geography", "History and Civics",
+            "Hindi", "Assamese", "Computer", "Economics");
+
+    // Students choose one of Hindi/Assamese and one of Computer/Economics
+    static final long OPTIONAL_SUBJECTS = SHARED.maskOf("Hindi", "Assamese", "Computer", "Economics");
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+
+    SubjectRegistry(String... subjects) {
+        for (String subject : subjects) {
+            idOf(subject);
+        }
+    }
+
+    static SubjectRegistry shared() {
+        return SHARED;
+    }
+
+    // Returns the subject's ID, registering it if it is new
+    int idOf(String subject) {
+        Integer id = ids.get(subject);
+        return id != null ? id : register(subject);
+    }
+
+    // Returns the subject's ID, or -1 if it was never registered
+    int lookup(String subject) {
+        Integer id = ids.get(subject);
+        return id != null ? id : -1;
+    }
+
+    String nameOf(int id) {
+        return names[id];
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    long maskOf(String... subjects) {
+        long mask = 0;
+        for (String subject : subjects) {
+            mask |= 1L << idOf(subject);
+        }
+        return mask;
+    }
+
+    private synchronized int register(String subject) {
+        Integer existing = ids.get(subject);
+        if (existing != null) {
+            return existing;
+        }
+        int id = names.length;
+        if (id >= MAX_SUBJECTS) {
+            throw new IllegalStateException("Cannot register more than " + MAX_SUBJECTS + " subjects");
+        }
+        String[] grown = Arrays.copyOf(names, id + 1);
+        grown[id] = subject;
+        names = grown;
+        ids.put(subject, id);
+        return id;
+    }
+}
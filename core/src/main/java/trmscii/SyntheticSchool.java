@@ -0,0 +1,306 @@
+package trmscii;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Seeded synthetic school for load tests: students with names, marks and
+ * fee histories, plus notices and upcoming tests, as many as asked for.
+ *
+ * Students are generated in chunks of 4096 rolls on the common pool, a few
+ * chunks ahead of whoever is consuming them, so a store can be filled
+ * without the whole roster ever being on the heap. Each chunk draws from
+ * its own SplittableRandom, split off the seed in chunk order before the
+ * chunk is handed to a thread, so the same seed and as-of date always give
+ * the same school, whatever the thread count; a student's data also does
+ * not depend on how many students were asked for.
+ *
+ * Students come in blocks of 40 in roll order, dealt round the group's
+ * schools in turn. Each school has classes 1 to 12 with sections A to D
+ * and takes its blocks into them in that order, starting again at 1 A once
+ * every section has one.
+ *
+ * The distributions are rough but not uniform: surnames follow a skewed
+ * popularity curve, marks come from a per-student ability plus per-subject
+ * difficulty, and most families pay on time while a few pay late, short
+ * or not at all.
+ */
+final class SyntheticSchool {
+    static final int CHUNK = 4096;
+    // A busy year's worth of circulars, and the tests announced for the coming term
+    static final int NOTICES = 1000;
+    static final int TESTS = 200;
+    static final int SECTION_SIZE = 40;
+    static final int CLASSES = 12;
+    static final String[] SECTIONS = {"A", "B", "C", "D"};
+    // The first is the school every student was in before the group grew
+    private static final String[] TOWNS = {
+        "JORHAT", "DIBRUGARH", "GUWAHATI", "TEZPUR", "SIVASAGAR", "GOLAGHAT", "NAGAON", "TINSUKIA",
+        "SILCHAR", "BONGAIGAON", "NORTH LAKHIMPUR", "DHEMAJI", "BARPETA", "GOALPARA", "KOKRAJHAR", "DIPHU"
+    };
+
+    static final String[] SUBJECTS = {
+        "English Literature", "English Language", "Mathematics", "Biology", "Chemistry",
+        "Physics", "Geography", "History and Civics", "Hindi", "Assamese", "Computer", "Economics"
+    };
+    // Added to a student's ability, so some subjects are harder than others
+    private static final double[] DIFFICULTY = {0.02, 0.05, -0.08, 0, -0.05, -0.07, 0.03, 0.01, 0.04, 0.04, 0.02, -0.02};
+    private static final String[] SURNAMES = {
+        "Borah", "Gogoi", "Saikia", "Deka", "Das", "Kalita", "Baruah", "Sharma", "Hazarika", "Dutta",
+        "Phukan", "Bora", "Agarwal", "Choudhury", "Boruah", "Konwar", "Sonowal", "Rajkhowa", "Jain", "Mehta",
+        "Chetia", "Neog", "Gohain", "Barman", "Medhi", "Talukdar", "Mahanta", "Bhuyan", "Nath", "Sarma"
+    };
+    private static final String[] GIRLS = {
+        "Ananya", "Bhavna", "Debasmita", "Nisha", "Seema", "Priyanka", "Riya", "Pallavi", "Anjali", "Kritika",
+        "Mousumi", "Trishna", "Jahnavi", "Bornali", "Dipanjali", "Sneha", "Manali", "Ishita", "Rimjhim", "Puja"
+    };
+    private static final String[] BOYS = {
+        "Arjun", "Dhirendra", "Jyotismoye", "Keshabh", "Mintu", "Sunil", "Rahul", "Ankur", "Bhaskar", "Pranjal",
+        "Rituraj", "Himangshu", "Nilotpal", "Dhruba", "Kaushik", "Abhijit", "Manash", "Partha", "Rajiv", "Tapan"
+    };
+    private static final String[] MOTHERS = {
+        "Neema", "Nirma", "Emon", "Bharti", "Monti", "Sangita", "Sneha", "Manali", "Rupali", "Anita",
+        "Junmoni", "Gitanjali", "Mamoni", "Rina", "Bandana", "Kalpana", "Minakshi", "Archana", "Jonali", "Lakhi"
+    };
+    private static final String[] FATHERS = {
+        "Rajiv", "Sunil", "Raktim", "Sumon", "Sanjiv", "Ojha", "Dhiren", "Niresh", "Ashok", "Pradip",
+        "Bipul", "Nabajit", "Dilip", "Hemanta", "Jayanta", "Prabin", "Ramen", "Lakhya", "Utpal", "Gautam"
+    };
+    private static final String[] METHODS = {"Online Transfer", "Cash", "Cheque", "Demand Draft"};
+    // Cumulative percentages for METHODS
+    private static final int[] METHOD_SHARE = {70, 85, 95, 100};
+    private static final String[] NOTICE_TOPICS = {
+        "Fee Payment Reminder", "Parent-Teacher Meeting", "Holiday Notice", "Annual Sports Meet",
+        "Science Exhibition", "Examination Schedule", "Library Books Return", "Uniform Inspection",
+        "Vaccination Camp", "Cultural Programme"
+    };
+    private static final int ON_TIME = 0, LATE = 1, SHORT = 2;
+    private static final int[] TEST_MARKS = {25, 50, 80};
+    // Large prime; admission numbers are rolls scrambled by multiplying modulo it, unique below 100M rolls
+    private static final long ADMISSION_MODULUS = 100_000_007L;
+
+    private final long seed;
+    private final LocalDate asOf;
+    private final Enrolment[] schoolSections;
+    private final int schools;
+    private final FeeSchedule schedule = FeeSchedule.standard();
+
+    SyntheticSchool(long seed, LocalDate asOf) {
+        this(seed, asOf, 1);
+    }
+
+    SyntheticSchool(long seed, LocalDate asOf, int schools) {
+        if (schools < 1) {
+            throw new IllegalArgumentException("A group needs at least one school");
+        }
+        this.seed = seed;
+        this.asOf = asOf;
+        this.schools = schools;
+        // School s's sections start at s * CLASSES * SECTIONS.length
+        schoolSections = new Enrolment[schools * CLASSES * SECTIONS.length];
+        for (int school = 0, i = 0; school < schools; school++) {
+            for (int grade = 1; grade <= CLASSES; grade++) {
+                for (String section : SECTIONS) {
+                    schoolSections[i++] = Enrolment.of(schoolName(school), String.valueOf(grade), section);
+                }
+            }
+        }
+    }
+
+    // CARMEL SCHOOL - JORHAT, - DIBRUGARH, ..., then - JORHAT 2 and so on
+    static String schoolName(int school) {
+        String town = TOWNS[school % TOWNS.length];
+        return "CARMEL SCHOOL - " + (school < TOWNS.length ? town : town + " " + (school / TOWNS.length + 1));
+    }
+
+    // The section the block holding roll goes to
+    Enrolment enrolmentOf(int roll) {
+        int block = (roll - 1) / SECTION_SIZE;
+        int perSchool = CLASSES * SECTIONS.length;
+        return schoolSections[(block % schools) * perSchool + (block / schools) % perSchool];
+    }
+
+    /**
+     * The first count students, generated while the collection is iterated.
+     * Every iteration generates them afresh and identically, so nothing is
+     * kept; MappedStudentStore.write can stream it straight to disk.
+     */
+    Collection<SchoolManagementSystem.Student> students(int count) {
+        return new AbstractCollection<SchoolManagementSystem.Student>() {
+            @Override
+            public Iterator<SchoolManagementSystem.Student> iterator() {
+                return new ChunkIterator(count);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    // Fills store with count students, one chunk at a time
+    void fill(StudentStore store, int count) {
+        for (SchoolManagementSystem.Student student : students(count)) {
+            store.put(student);
+        }
+    }
+
+    private final class ChunkIterator implements Iterator<SchoolManagementSystem.Student> {
+        private final int count;
+        private final SplittableRandom chunkSeeds = new SplittableRandom(seed);
+        // Chunks in roll order; a few are being generated while the first is consumed
+        private final ArrayDeque<CompletableFuture<SchoolManagementSystem.Student[]>> ahead = new ArrayDeque<>();
+        private final int lookahead = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+        private int nextChunkStart = 1;
+        private SchoolManagementSystem.Student[] chunk = new SchoolManagementSystem.Student[0];
+        private int position;
+        private int returned;
+
+        ChunkIterator(int count) {
+            this.count = count;
+            while (ahead.size() < lookahead && submitNext()) {
+                // Fill the pipeline
+            }
+        }
+
+        private boolean submitNext() {
+            if (nextChunkStart > count) {
+                return false;
+            }
+            int first = nextChunkStart;
+            int last = (int) Math.min(count, (long) first + CHUNK - 1);
+            // Split here, in chunk order, so chunk k always gets the same generator
+            SplittableRandom random = chunkSeeds.split();
+            ahead.add(CompletableFuture.supplyAsync(() -> generate(first, last, random)));
+            nextChunkStart = last + 1;
+            return true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return returned < count;
+        }
+
+        @Override
+        public SchoolManagementSystem.Student next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (position == chunk.length) {
+                chunk = ahead.removeFirst().join();
+                position = 0;
+                submitNext();
+            }
+            returned++;
+            return chunk[position++];
+        }
+    }
+
+    private SchoolManagementSystem.Student[] generate(int first, int last, SplittableRandom random) {
+        SchoolManagementSystem.Student[] students = new SchoolManagementSystem.Student[last - first + 1];
+        for (int roll = first; roll <= last; roll++) {
+            students[roll - first] = student(roll, random);
+        }
+        return students;
+    }
+
+    private SchoolManagementSystem.Student student(int roll, SplittableRandom random) {
+        String surname = SURNAMES[skewed(random, SURNAMES.length)];
+        String name = (random.nextBoolean() ? GIRLS : BOYS)[random.nextInt(GIRLS.length)] + " " + surname;
+        String mother = MOTHERS[random.nextInt(MOTHERS.length)] + " " + surname;
+        // One father in ten goes by a middle name as well
+        String father = FATHERS[random.nextInt(FATHERS.length)] + (random.nextInt(10) == 0 ? " Kumar " : " ") + surname;
+        int admission = (int) (ADMISSION_MODULUS + roll * 48_271L % ADMISSION_MODULUS);
+        SchoolManagementSystem.Student student =
+                new SchoolManagementSystem.Student(roll, name, mother, father, admission, enrolmentOf(roll));
+
+        // Eight common subjects, then Hindi or Assamese and Computer or Economics
+        double ability = clamp(0.65 + 0.15 * random.nextGaussian(), 0.1, 1);
+        int language = random.nextInt(3) == 0 ? 9 : 8;
+        int elective = random.nextBoolean() ? 10 : 11;
+        for (int subject = 0; subject < SUBJECTS.length; subject++) {
+            if ((subject >= 8 && subject != language && subject != elective) || random.nextInt(50) == 0) {
+                // Not taken, or absent for the paper
+                continue;
+            }
+            double score = clamp(ability + DIFFICULTY[subject] + 0.08 * random.nextGaussian(), 0, 1);
+            student.addMarks(SUBJECTS[subject], (int) Math.round(score * ReportCard.MAX_MARK));
+        }
+
+        addPayments(student, random);
+        return student;
+    }
+
+    private void addPayments(SchoolManagementSystem.Student student, SplittableRandom random) {
+        // 90% pay within the window and 7% late; the last 3% pay late, short or not at all
+        int habit = random.nextInt(100);
+        int receipt = 0;
+        for (FeeSchedule.Instalment instalment : schedule.instalmentsUpTo(asOf)) {
+            int behaviour = habit < 90 ? ON_TIME : habit < 97 ? LATE : LATE + random.nextInt(3);
+            LocalDate date;
+            double amount = instalment.getAmount();
+            if (behaviour == ON_TIME) {
+                int windowDays = (int) (instalment.getWindowEnd().toEpochDay() - instalment.getWindowStart().toEpochDay()) + 1;
+                date = instalment.getWindowStart().plusDays(random.nextInt(windowDays));
+            } else if (behaviour == LATE) {
+                date = instalment.getWindowEnd().plusDays(1 + random.nextInt(60));
+            } else if (behaviour == SHORT) {
+                date = instalment.getWindowEnd().plusDays(1 + random.nextInt(30));
+                amount /= 2;
+            } else {
+                continue;
+            }
+            if (date.isAfter(asOf)) {
+                continue;
+            }
+            int method = random.nextInt(100);
+            int m = 0;
+            while (method >= METHOD_SHARE[m]) {
+                m++;
+            }
+            student.addFeePayment(new SchoolManagementSystem.FeePayment(amount, date, METHODS[m],
+                    "RCT" + student.getRollNumber() + "-" + ++receipt));
+        }
+    }
+
+    // Notices posted over the past year, each running for three days to six weeks
+    void addNotices(SchoolManagementSystem system, int count) {
+        SplittableRandom random = new SplittableRandom(seed ^ 0x4E4F54494345L);
+        for (int i = 0; i < count; i++) {
+            String topic = NOTICE_TOPICS[skewed(random, NOTICE_TOPICS.length)];
+            LocalDate posted = asOf.minusDays(random.nextInt(365));
+            LocalDate expiry = posted.plusDays(3 + random.nextInt(40));
+            system.addNotice(new SchoolManagementSystem.Notice(topic,
+                    "Circular " + (i + 1) + ": " + topic + " for all students of classes " + (1 + random.nextInt(6))
+                            + " to " + (7 + random.nextInt(6)) + ". Parents are requested to take note by "
+                            + expiry.format(SchoolManagementSystem.DISPLAY_DATE) + ".",
+                    posted, expiry));
+        }
+    }
+
+    // Tests over the next four months, in the subjects students take
+    void addTests(SchoolManagementSystem system, int count) {
+        SplittableRandom random = new SplittableRandom(seed ^ 0x5445535453L);
+        for (int i = 0; i < count; i++) {
+            String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+            int chapter = 1 + random.nextInt(15);
+            system.addTest(new SchoolManagementSystem.Test(subject,
+                    "Unit Test - Chapter " + chapter,
+                    asOf.plusDays(1 + random.nextInt(120)),
+                    "Chapters " + chapter + " and " + (chapter + 1) + " from the textbook",
+                    TEST_MARKS[random.nextInt(TEST_MARKS.length)]));
+        }
+    }
+
+    // An index below bound, low ones far more often than high ones
+    private static int skewed(SplittableRandom random, int bound) {
+        double u = random.nextDouble();
+        return (int) (bound * u * u);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
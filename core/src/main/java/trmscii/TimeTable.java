@@ -0,0 +1,213 @@
+package trmscii;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The weekly timetable of every class section.
+ * A week is 7 days of PERIODS periods, 63 slots in all, so any set of slots
+ * fits in one long. Each section owns 63 entries of a dense short array
+ * holding timetable subject IDs, plus one slot mask per subject, so "what
+ * is on", "where is Mathematics taught" and "which periods are free" are
+ * single array reads. The bell schedule maps every minute of the day to its
+ * period up front, which makes "what is on now" O(1) as well.
+ *
+ * Writes are serialised on the timetable; reads never lock.
+ */
+class TimeTable {
+    static final int PERIODS = 9;
+    static final int SLOTS = 7 * PERIODS;
+    static final long ALL_SLOTS = (1L << SLOTS) - 1;
+    private static final short FREE = -1;
+
+    // Period start times; the last entry is when the school day ends
+    private static final LocalTime[] DEFAULT_BELLS = {
+        LocalTime.of(8, 0), LocalTime.of(8, 40), LocalTime.of(9, 20), LocalTime.of(10, 0),
+        LocalTime.of(10, 40), LocalTime.of(11, 0), LocalTime.of(11, 40), LocalTime.of(12, 20),
+        LocalTime.of(13, 0), LocalTime.of(13, 40)
+    };
+
+    static final class Section {
+        private final int id;
+        private final String name;
+        private volatile int version;
+
+        private Section(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+        // Bumped on every change to this section's timetable; keys the render cache
+        public int getVersion() { return version; }
+    }
+
+    // Subjects of the timetable, which also include BREAK, Games, Library and the like
+    private final SubjectRegistry subjects = new SubjectRegistry();
+    private final Map<String, Section> sectionsByName = new ConcurrentHashMap<>();
+    private volatile Section[] sections = new Section[0];
+    // slots[section * SLOTS + slot] is the subject ID taught in that slot, or FREE
+    private volatile short[] slots = new short[0];
+    // subjectSlots[section * MAX_SUBJECTS + subject] is the mask of slots teaching it
+    private volatile long[] subjectSlots = new long[0];
+    // Per minute of the day, the period in progress, or 0 outside school hours
+    private final byte[] periodAtMinute = new byte[24 * 60];
+
+    TimeTable() {
+        this(DEFAULT_BELLS);
+    }
+
+    TimeTable(LocalTime[] bells) {
+        if (bells.length != PERIODS + 1) {
+            throw new IllegalArgumentException("Need " + (PERIODS + 1) + " bell times, got " + bells.length);
+        }
+        for (int period = 1; period <= PERIODS; period++) {
+            int from = bells[period - 1].toSecondOfDay() / 60;
+            int to = bells[period].toSecondOfDay() / 60;
+            Arrays.fill(periodAtMinute, from, to, (byte) period);
+        }
+    }
+
+    static int slot(DayOfWeek day, int period) {
+        if (period < 1 || period > PERIODS) {
+            throw new IllegalArgumentException("Period out of range: " + period);
+        }
+        return (day.getValue() - 1) * PERIODS + period - 1;
+    }
+
+    static DayOfWeek dayOf(int slot) {
+        return DayOfWeek.of(slot / PERIODS + 1);
+    }
+
+    static int periodOf(int slot) {
+        return slot % PERIODS + 1;
+    }
+
+    // The slots of one day
+    static long dayMask(DayOfWeek day) {
+        return ((1L << PERIODS) - 1) << (day.getValue() - 1) * PERIODS;
+    }
+
+    // Returns the section, registering it on first use
+    synchronized Section section(String name) {
+        Section existing = sectionsByName.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        int id = sections.length;
+        Section section = new Section(id, name);
+        short[] grownSlots = Arrays.copyOf(slots, (id + 1) * SLOTS);
+        Arrays.fill(grownSlots, id * SLOTS, (id + 1) * SLOTS, FREE);
+        long[] grownMasks = Arrays.copyOf(subjectSlots, (id + 1) * SubjectRegistry.MAX_SUBJECTS);
+        Section[] grownSections = Arrays.copyOf(sections, id + 1);
+        grownSections[id] = section;
+        slots = grownSlots;
+        subjectSlots = grownMasks;
+        sections = grownSections;
+        sectionsByName.put(name, section);
+        return section;
+    }
+
+    // The section with that name, or null
+    Section findSection(String name) {
+        return sectionsByName.get(name);
+    }
+
+    // Every section in registration order
+    List<Section> getSections() {
+        return Collections.unmodifiableList(Arrays.asList(sections));
+    }
+
+    synchronized void assign(Section section, DayOfWeek day, int period, String subject) {
+        int slot = slot(day, period);
+        int subjectId = subjects.idOf(subject);
+        unassign(section, slot);
+        slots[section.id * SLOTS + slot] = (short) subjectId;
+        subjectSlots[section.id * SubjectRegistry.MAX_SUBJECTS + subjectId] |= 1L << slot;
+        section.version++;
+    }
+
+    synchronized void clear(Section section, DayOfWeek day, int period) {
+        unassign(section, slot(day, period));
+        section.version++;
+    }
+
+    private void unassign(Section section, int slot) {
+        int index = section.id * SLOTS + slot;
+        short previous = slots[index];
+        if (previous != FREE) {
+            subjectSlots[section.id * SubjectRegistry.MAX_SUBJECTS + previous] &= ~(1L << slot);
+            slots[index] = FREE;
+        }
+    }
+
+    // The subject taught in that period, or null when it is free
+    String subjectAt(Section section, DayOfWeek day, int period) {
+        short id = slots[section.id * SLOTS + slot(day, period)];
+        return id == FREE ? null : subjects.nameOf(id);
+    }
+
+    // The period in progress at that time of day, or 0 outside school hours
+    int periodAt(LocalTime time) {
+        return periodAtMinute[time.getHour() * 60 + time.getMinute()];
+    }
+
+    // What the section has at that moment, or null outside school hours and in free periods
+    String subjectAt(Section section, LocalDateTime time) {
+        int period = periodAt(time.toLocalTime());
+        return period == 0 ? null : subjectAt(section, time.getDayOfWeek(), period);
+    }
+
+    // Every slot in which the section is taught that subject
+    long slotsOf(Section section, String subject) {
+        int id = subjects.lookup(subject);
+        return id < 0 ? 0 : subjectSlots[section.id * SubjectRegistry.MAX_SUBJECTS + id];
+    }
+
+    // Slots with something assigned
+    long occupiedSlots(Section section) {
+        long occupied = 0;
+        int base = section.id * SLOTS;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (slots[base + slot] != FREE) {
+                occupied |= 1L << slot;
+            }
+        }
+        return occupied;
+    }
+
+    // Unassigned periods on the days the section attends at all
+    long freeSlots(Section section) {
+        long occupied = occupiedSlots(section);
+        long schoolDays = 0;
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((occupied & dayMask(day)) != 0) {
+                schoolDays |= dayMask(day);
+            }
+        }
+        return schoolDays & ~occupied;
+    }
+
+    // Sections that have the subject in that slot
+    List<Section> sectionsTeaching(String subject, DayOfWeek day, int period) {
+        int id = subjects.lookup(subject);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        long bit = 1L << slot(day, period);
+        Section[] all = sections;
+        long[] masks = subjectSlots;
+        List<Section> found = new ArrayList<>();
+        for (Section section : all) {
+            if ((masks[section.id * SubjectRegistry.MAX_SUBJECTS + id] & bit) != 0) {
+                found.add(section);
+            }
+        }
+        return found;
+    }
+
+    SubjectRegistry getSubjects() {
+        return subjects;
+    }
+}
@@ -0,0 +1,390 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, checksummed write-ahead log with group commit.
+ * Records are framed as [payload length][crc32c][lsn][type][payload] and
+ * written to segment files named after the first LSN they hold. Appends only
+ * copy into a shared buffer; a background flusher writes and fsyncs whatever
+ * has accumulated, so concurrent writers share a single force per batch.
+ */
+class WriteAheadLog implements Closeable {
+    interface RecordHandler {
+        void onRecord(long lsn, byte type, ByteBuffer payload) throws IOException;
+    }
+
+    static final int HEADER_SIZE = 4 + 4 + 8 + 1;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int INITIAL_BUFFER = 1 << 20;
+    private static final int MAX_BUFFER = 64 << 20;
+
+    private final Path directory;
+    private final long commitIntervalNanos;
+    private final long segmentBytes;
+
+    // Appenders only take lock; the flusher and segment rolls take ioLock first, then lock
+    private final Object lock = new Object();
+    private final Object ioLock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer crcHeader = ByteBuffer.allocate(8 + 1);
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER);
+    private ByteBuffer flushing = ByteBuffer.allocate(INITIAL_BUFFER);
+    private long nextLsn = 1;
+    private long appendedLsn = 0;
+    private long durableLsn = 0;
+    private boolean flusherIdle = false;
+    private boolean closed = false;
+    private IOException failure;
+
+    private FileChannel segment;
+    private long segmentStartLsn;
+    private Thread flusher;
+
+    WriteAheadLog(Path directory) {
+        this(directory, 1, 256L << 20);
+    }
+
+    WriteAheadLog(Path directory, long commitIntervalMillis, long segmentBytes) {
+        this.directory = directory;
+        this.commitIntervalNanos = commitIntervalMillis * 1_000_000L;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Validates every segment, truncates a torn or corrupt tail, hands each
+     * record after afterLsn to the handler and opens the log for appending.
+     * Must be called once before the first append.
+     */
+    long recover(long afterLsn, RecordHandler handler) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments();
+        long lastLsn = afterLsn;
+        long previousLsn = 0;
+        boolean truncated = false;
+
+        for (Path path : segments) {
+            if (truncated) {
+                // Anything after a corrupt record was never acknowledged as a whole
+                Files.delete(path);
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                long validEnd = 0;
+                ByteBuffer data = size == 0 ? ByteBuffer.allocate(0)
+                        : channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                CRC32C check = new CRC32C();
+
+                while (data.remaining() >= HEADER_SIZE) {
+                    int start = data.position();
+                    int length = data.getInt();
+                    int storedCrc = data.getInt();
+                    if (length < 0 || data.remaining() < 8 + 1 + length) {
+                        break;
+                    }
+                    check.reset();
+                    ByteBuffer covered = data.slice(data.position(), 8 + 1 + length);
+                    check.update(covered);
+                    long lsn = data.getLong();
+                    byte type = data.get();
+                    if ((int) check.getValue() != storedCrc || lsn <= previousLsn) {
+                        data.position(start);
+                        break;
+                    }
+                    ByteBuffer payload = data.slice(data.position(), length).asReadOnlyBuffer();
+                    data.position(data.position() + length);
+                    if (lsn > afterLsn) {
+                        handler.onRecord(lsn, type, payload);
+                    }
+                    previousLsn = lsn;
+                    lastLsn = Math.max(lastLsn, lsn);
+                    validEnd = data.position();
+                }
+
+                if (validEnd < size) {
+                    channel.truncate(validEnd);
+                    channel.force(true);
+                    truncated = true;
+                }
+            }
+        }
+
+        synchronized (lock) {
+            nextLsn = lastLsn + 1;
+            appendedLsn = lastLsn;
+            durableLsn = lastLsn;
+        }
+        List<Path> remaining = listSegments();
+        if (remaining.isEmpty()) {
+            openSegment(nextLsn);
+        } else {
+            Path last = remaining.get(remaining.size() - 1);
+            segment = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            segmentStartLsn = startLsnOf(last);
+        }
+
+        flusher = new Thread(this::flushLoop, "wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        return lastLsn;
+    }
+
+    /**
+     * Buffers one record and returns its LSN. The record is durable once
+     * {@link #awaitDurable(long)} returns for that LSN.
+     */
+    long append(byte type, byte[] payload) throws IOException {
+        int size = HEADER_SIZE + payload.length;
+        synchronized (lock) {
+            ensureWritable();
+            while (pending.remaining() < size) {
+                if (pending.capacity() >= MAX_BUFFER && pending.position() > 0) {
+                    // Back-pressure: wait for the flusher to drain the buffer
+                    wakeFlusher();
+                    waitOnLock();
+                    ensureWritable();
+                } else {
+                    ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, size));
+                    pending.flip();
+                    larger.put(pending);
+                    pending = larger;
+                }
+            }
+
+            long lsn = nextLsn++;
+            crc.reset();
+            crcHeader.clear();
+            crcHeader.putLong(lsn).put(type);
+            crc.update(crcHeader.array(), 0, crcHeader.position());
+            crc.update(payload);
+            pending.putInt(payload.length).putInt((int) crc.getValue()).putLong(lsn).put(type).put(payload);
+            appendedLsn = lsn;
+            wakeFlusher();
+            return lsn;
+        }
+    }
+
+    void awaitDurable(long lsn) throws IOException {
+        synchronized (lock) {
+            while (durableLsn < lsn) {
+                if (failure != null) {
+                    throw new IOException("Write-ahead log failed", failure);
+                }
+                if (closed) {
+                    throw new IOException("Write-ahead log is closed");
+                }
+                wakeFlusher();
+                waitOnLock();
+            }
+        }
+    }
+
+    // Blocks until everything appended so far has been forced to disk
+    long sync() throws IOException {
+        long target;
+        synchronized (lock) {
+            target = appendedLsn;
+        }
+        awaitDurable(target);
+        return target;
+    }
+
+    /**
+     * Forces all pending records and starts a new segment. Returns the last
+     * LSN written to the previous segments, which is where a snapshot taken
+     * now would begin.
+     */
+    long rollSegment() throws IOException {
+        synchronized (ioLock) {
+            synchronized (lock) {
+                ensureWritable();
+                writeAndForce(pending);
+                durableLsn = appendedLsn;
+                lock.notifyAll();
+                if (appendedLsn >= segmentStartLsn) {
+                    segment.close();
+                    openSegment(nextLsn);
+                }
+                return appendedLsn;
+            }
+        }
+    }
+
+    // Deletes whole segments whose records are all covered by a snapshot at lsn
+    void compactUpTo(long lsn) throws IOException {
+        List<Path> segments = listSegments();
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long nextStart = startLsnOf(segments.get(i + 1));
+            if (nextStart - 1 <= lsn) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    long lastLsn() {
+        synchronized (lock) {
+            return appendedLsn;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher == null) {
+            return;
+        }
+        sync();
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (ioLock) {
+            segment.close();
+        }
+        flusher = null;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    flusherIdle = true;
+                    waitOnLockUninterruptibly();
+                    flusherIdle = false;
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+            }
+
+            synchronized (ioLock) {
+                long target;
+                synchronized (lock) {
+                    // A segment roll may have drained the buffer in the meantime
+                    if (pending.position() == 0) {
+                        continue;
+                    }
+                    ByteBuffer full = pending;
+                    pending = flushing;
+                    flushing = full;
+                    target = appendedLsn;
+                }
+
+                try {
+                    writeAndForce(flushing);
+                    if (segment.size() >= segmentBytes) {
+                        synchronized (lock) {
+                            segment.close();
+                            openSegment(target + 1);
+                        }
+                    }
+                } catch (IOException e) {
+                    synchronized (lock) {
+                        failure = e;
+                        lock.notifyAll();
+                    }
+                    return;
+                }
+
+                synchronized (lock) {
+                    durableLsn = Math.max(durableLsn, target);
+                    lock.notifyAll();
+                }
+            }
+
+            // Group commit window: let more appends gather before the next force
+            if (commitIntervalNanos > 0) {
+                LockSupport.parkNanos(commitIntervalNanos);
+            }
+        }
+    }
+
+    private void writeAndForce(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        segment.force(false);
+        buffer.clear();
+    }
+
+    private void openSegment(long startLsn) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, startLsn, SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentStartLsn = startLsn;
+        // Forcing the segment does not make its name durable; the directory has to be forced too
+        forceDirectory(directory);
+    }
+
+    /**
+     * Makes file creations, renames and deletions in directory durable.
+     * Windows cannot open a directory for this, and is skipped.
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        segments.sort(Comparator.comparingLong(WriteAheadLog::startLsnOf));
+        return segments;
+    }
+
+    private static long startLsnOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void ensureWritable() throws IOException {
+        if (failure != null) {
+            throw new IOException("Write-ahead log failed", failure);
+        }
+        if (closed || segment == null) {
+            throw new IOException("Write-ahead log is not open");
+        }
+    }
+
+    private void wakeFlusher() {
+        if (flusherIdle) {
+            lock.notifyAll();
+        }
+    }
+
+    private void waitOnLock() throws IOException {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the write-ahead log");
+        }
+    }
+
+    private void waitOnLockUninterruptibly() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            // The flusher only stops once the log is closed
+        }
+    }
+}
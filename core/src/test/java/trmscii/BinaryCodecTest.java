@@ -0,0 +1,101 @@
+package trmscii;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecTest {
+    @Test
+    void roundTripsAStudentWithMarksPaymentsAndEnrolment() {
+        SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                17, "Priya Borah", "Rita Borah", "Mohan Borah", 90_017, Enrolment.of("Carmel", "10", "A"));
+        student.addMarks("Mathematics", 38);
+        // Not in the subject dictionary, so written inline
+        student.addMarks("Sanskrit", 29);
+        student.addFeePayment(new SchoolManagementSystem.FeePayment(5000.25, LocalDate.of(2026, 4, 1), "Cash", "RCT-1"));
+        student.addFeePayment(new SchoolManagementSystem.FeePayment(12.5, LocalDate.of(2026, 5, 1), "UPI", "RCT-2"));
+
+        ByteBuffer in = direct(new BinaryCodec.Writer().student(student).toByteArray());
+        SchoolManagementSystem.Student decoded = BinaryCodec.readStudent(in);
+
+        assertFalse(in.hasRemaining());
+        assertEquals(17, decoded.getRollNumber());
+        assertEquals(90_017, decoded.getAdmissionNumber());
+        assertEquals("Priya Borah", decoded.getName());
+        assertEquals("Rita Borah", decoded.getMotherName());
+        assertEquals("Mohan Borah", decoded.getFatherName());
+        assertEquals(Enrolment.of("Carmel", "10", "A"), decoded.getEnrolment());
+        assertEquals(student.getMarks(), decoded.getMarks());
+        List<SchoolManagementSystem.FeePayment> payments = decoded.getFeePayments();
+        assertEquals(2, payments.size());
+        assertEquals(5000.25, payments.get(0).getAmount());
+        assertEquals("UPI", payments.get(1).getPaymentMethod());
+        assertEquals(LocalDate.of(2026, 5, 1), payments.get(1).getPaymentDate());
+    }
+
+    @Test
+    void roundTripsNoticesAndTestsInOneStream() {
+        String assamese = "\u0985\u09b8\u09ae\u09c0\u09af\u09bc\u09be text";
+        SchoolManagementSystem.Notice notice = new SchoolManagementSystem.Notice("Sports Day", assamese,
+                LocalDate.of(2026, 1, 5), LocalDate.of(2026, 2, 5));
+        SchoolManagementSystem.Test test = new SchoolManagementSystem.Test("Physics", "Unit test",
+                LocalDate.of(2026, 3, 3), "Optics", 40);
+        BinaryCodec.Writer writer = new BinaryCodec.Writer(16).notice(notice).test(test)
+                .feePayment(new SchoolManagementSystem.FeePayment(100, LocalDate.of(1999, 12, 31), "Cheque", "R"));
+
+        ByteBuffer in = writer.buffer();
+        SchoolManagementSystem.Notice decodedNotice = (SchoolManagementSystem.Notice) BinaryCodec.read(in);
+        SchoolManagementSystem.Test decodedTest = (SchoolManagementSystem.Test) BinaryCodec.read(in);
+        SchoolManagementSystem.FeePayment payment = (SchoolManagementSystem.FeePayment) BinaryCodec.read(in);
+
+        assertFalse(in.hasRemaining());
+        assertEquals(assamese, decodedNotice.getContent());
+        assertEquals(LocalDate.of(2026, 2, 5), decodedNotice.getExpiryDate());
+        assertEquals("Physics", decodedTest.getSubject());
+        assertEquals("Optics", decodedTest.getSyllabus());
+        assertEquals(40, decodedTest.getMaxMarks());
+        assertEquals(LocalDate.of(1999, 12, 31), payment.getPaymentDate());
+    }
+
+    @Test
+    void skipsFieldsAppendedByANewerVersion() {
+        SchoolManagementSystem.FeePayment payment =
+                new SchoolManagementSystem.FeePayment(750, LocalDate.of(2026, 7, 1), "Cash", "RCT-9");
+        byte[] record = new BinaryCodec.Writer().feePayment(payment).toByteArray();
+        // The same record from a newer writer with three more bytes on the body
+        byte[] newer = Arrays.copyOf(record, record.length + 3);
+        newer[1] = (byte) (BinaryCodec.VERSION + 1);
+        newer[2] += 3;
+        ByteBuffer in = ByteBuffer.allocate(newer.length + record.length).put(newer).put(record).flip();
+
+        assertEquals("RCT-9", BinaryCodec.readFeePayment(in).getReceiptNumber());
+        assertEquals("RCT-9", BinaryCodec.readFeePayment(in).getReceiptNumber());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void growsBodiesPastTwoLengthBytes() {
+        String content = "x".repeat(20_000);
+        SchoolManagementSystem.Notice notice = new SchoolManagementSystem.Notice("Long", content,
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 2));
+        ByteBuffer in = new BinaryCodec.Writer().notice(notice).notice(notice).buffer();
+
+        assertEquals(content, BinaryCodec.readNotice(in).getContent());
+        assertEquals(content, BinaryCodec.readNotice(in).getContent());
+    }
+
+    @Test
+    void rejectsARecordOfAnotherType() {
+        ByteBuffer in = new BinaryCodec.Writer().feePayment(
+                new SchoolManagementSystem.FeePayment(1, LocalDate.of(2026, 1, 1), "Cash", "R")).buffer();
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.readStudent(in));
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+}
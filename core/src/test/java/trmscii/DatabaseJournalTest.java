@@ -0,0 +1,197 @@
+package trmscii;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseJournalTest {
+    private static final long SNAPSHOT_MAGIC = 0x54524D534E415031L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopensWithEveryChangeFromTheLogAndSnapshot() throws IOException {
+        SchoolManagementSystem system = SchoolManagementSystem.open(dir);
+        int seeded = system.getStudents().size();
+        SchoolManagementSystem.Student student = new SchoolManagementSystem.Student(
+                500, "Priya Borah", "Rita Borah", "Mohan Borah", 75_000, Enrolment.of("Carmel", "9", "B"));
+        system.addStudent(student);
+        student.addMarks("Mathematics", 37);
+        student.addFeePayment(new SchoolManagementSystem.FeePayment(5000, LocalDate.of(2026, 4, 10), "Cash", "RCT-1"));
+        system.addNotice(new SchoolManagementSystem.Notice("Holiday", "School is closed on Friday.",
+                LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 30)));
+        system.close();
+
+        SchoolManagementSystem reopened = SchoolManagementSystem.open(dir);
+        assertEquals(seeded + 1, reopened.getStudents().size());
+        SchoolManagementSystem.Student recovered = reopened.getStudent(500);
+        assertEquals("Priya Borah", recovered.getName());
+        assertEquals(Enrolment.of("Carmel", "9", "B"), recovered.getEnrolment());
+        assertEquals(Integer.valueOf(37), recovered.getMarks().get("Mathematics"));
+        assertEquals("RCT-1", recovered.getLastFeePayment().getReceiptNumber());
+        assertTrue(reopened.getNotices().stream().anyMatch(notice -> notice.getTitle().equals("Holiday")));
+        reopened.close();
+    }
+
+    @Test
+    void aMutationIsDurableOnceItReturns() throws IOException {
+        SchoolManagementSystem system = SchoolManagementSystem.open(dir);
+        system.getStudent(1).addFeePayment(
+                new SchoolManagementSystem.FeePayment(1234.5, LocalDate.of(2026, 5, 1), "Cheque", "RCT-DURABLE"));
+
+        // Read the log as a crash right now would leave it: no sync, no close
+        Path copy = Files.createDirectories(dir.resolve("copy"));
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(dir.resolve("wal"))) {
+            for (Path segment : segments) {
+                Files.copy(segment, copy.resolve(segment.getFileName()));
+            }
+        }
+        List<Byte> types = new ArrayList<>();
+        WriteAheadLog log = new WriteAheadLog(copy);
+        log.recover(0, (lsn, type, payload) -> types.add(type));
+        log.close();
+        assertTrue(types.contains(DatabaseJournal.FEE_PAYMENT));
+        system.close();
+    }
+
+    @Test
+    void aRejectedStudentIsNeverJournaled() throws IOException {
+        SchoolManagementSystem system = SchoolManagementSystem.open(dir);
+        SchoolManagementSystem.Student first = system.getStudent(1);
+        // Roll 1 moved to another section, and another roll taking roll 1's admission number
+        assertThrows(IllegalArgumentException.class, () -> system.addStudent(new SchoolManagementSystem.Student(
+                1, "Someone", "Mother", "Father", 999_001, Enrolment.of("Elsewhere", "9", "B"))));
+        assertThrows(IllegalArgumentException.class, () -> system.addStudent(new SchoolManagementSystem.Student(
+                999_002, "Someone", "Mother", "Father", first.getAdmissionNumber(), first.getEnrolment())));
+        system.close();
+
+        SchoolManagementSystem reopened = SchoolManagementSystem.open(dir);
+        assertEquals(first.getEnrolment(), reopened.getStudent(1).getEnrolment());
+        assertNull(reopened.getStudent(999_002));
+        reopened.close();
+    }
+
+    @Test
+    void loadsAVersion2SnapshotIntoTheDefaultEnrolment() throws IOException {
+        writeSnapshot(dir, 2, out -> {
+            out.writeInt(1);
+            out.writeInt(42);
+            out.writeUTF("Anjali Das");
+            out.writeUTF("Anjali Borah");
+            out.writeUTF("Ramen Das");
+            out.writeInt(4242);
+            out.writeInt(1);
+            out.writeUTF("Physics");
+            out.writeInt(31);
+            out.writeInt(1);
+            DatabaseJournal.writeFeePayment(out,
+                    new SchoolManagementSystem.FeePayment(2500, LocalDate.of(2025, 6, 1), "Online Transfer", "RCT-42"));
+            out.writeInt(0); // notices
+            out.writeInt(0); // tests
+            out.writeInt(1); // sections
+            out.writeUTF("10A");
+            out.writeLong(1L << TimeTable.slot(DayOfWeek.MONDAY, 1));
+            out.writeUTF("Physics");
+        });
+
+        SchoolManagementSystem system = SchoolManagementSystem.open(dir);
+        SchoolManagementSystem.Student student = system.getStudent(42);
+        assertEquals(1, system.getStudents().size(), "a snapshot means nothing is seeded");
+        assertEquals("Anjali Das", student.getName());
+        assertEquals(Enrolment.DEFAULT, student.getEnrolment());
+        assertEquals(Integer.valueOf(31), student.getMarks().get("Physics"));
+        assertEquals("RCT-42", student.getLastFeePayment().getReceiptNumber());
+        TimeTable timeTable = system.getTimeTable();
+        assertEquals("Physics", timeTable.subjectAt(timeTable.findSection("10A"), DayOfWeek.MONDAY, 1));
+        system.close();
+    }
+
+    @Test
+    void rejectsASnapshotWithABadChecksum() throws IOException {
+        Path snapshot = writeSnapshot(dir, 3, out -> {
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(0);
+        });
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshot, bytes);
+
+        assertThrows(IOException.class, () -> SchoolManagementSystem.open(dir));
+    }
+
+    @Test
+    void refusesToOpenPastALogRecordThatCannotBeApplied() throws IOException {
+        SchoolManagementSystem.open(dir).close();
+        // Marks for a student nobody ever added
+        appendToLog(dir, DatabaseJournal.MARKS, out -> {
+            out.writeInt(123_456);
+            out.writeUTF("Mathematics");
+            out.writeInt(20);
+        });
+
+        assertThrows(IOException.class, () -> SchoolManagementSystem.open(dir));
+    }
+
+    @Test
+    void skipsAJournaledStudentTheRosterRejects() throws IOException {
+        SchoolManagementSystem system = SchoolManagementSystem.open(dir);
+        SchoolManagementSystem.Student first = system.getStudent(1);
+        system.close();
+        // Roll 1 moved to another section, as a log from before the roster checked first could hold
+        appendToLog(dir, DatabaseJournal.STUDENT, out -> DatabaseJournal.writeStudentIdentity(out,
+                new SchoolManagementSystem.Student(1, "Someone", "Mother", "Father", 999_001,
+                        Enrolment.of("Elsewhere", "9", "B"))));
+        appendToLog(dir, DatabaseJournal.MARKS, out -> {
+            out.writeInt(1);
+            out.writeUTF("Mathematics");
+            out.writeInt(33);
+        });
+
+        SchoolManagementSystem reopened = SchoolManagementSystem.open(dir);
+        assertEquals(first.getEnrolment(), reopened.getStudent(1).getEnrolment());
+        assertEquals(Integer.valueOf(33), reopened.getStudent(1).getMarks().get("Mathematics"));
+        reopened.close();
+    }
+
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static void appendToLog(Path dir, byte type, Body body) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(dir.resolve("wal"));
+        log.recover(0, (lsn, t, payload) -> { });
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        body.write(new DataOutputStream(bytes));
+        log.append(type, bytes.toByteArray());
+        log.close();
+    }
+
+    // A snapshot as SnapshotFile lays it out: header, body, then the checksum of both
+    private static Path writeSnapshot(Path dir, int version, Body body) throws IOException {
+        Path path = dir.resolve(String.format("snapshot-%020d.dat", 0));
+        CRC32C crc = new CRC32C();
+        try (OutputStream file = Files.newOutputStream(path)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, crc));
+            out.writeLong(SNAPSHOT_MAGIC);
+            out.writeInt(version);
+            out.writeLong(0);
+            body.write(out);
+            out.flush();
+            file.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+        }
+        return path;
+    }
+}
@@ -0,0 +1,109 @@
+package trmscii;
+
+import java.util.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+    private StudentRegistry roster;
+    private NameIndex index;
+
+    @BeforeEach
+    void buildRoster() {
+        roster = new StudentRegistry();
+        add(1, "Borah Anjalika", "Rita Borah", "Mohan Borah");
+        add(2, "Anjali Das", "Anjali Borah", "Ramen Das");
+        add(3, "Priyanka Barua", "Mitali Barua", "Dipen Barua");
+        add(4, "Rahul Barua", "Mitali Barua", "Dipen Barua");
+        add(5, "Priya Sharma", "Nandini Sharma", "Anil Sharma");
+        index = new NameIndex(roster);
+        index.addAll(roster.values());
+    }
+
+    @Test
+    void ranksTheStudentsOwnNameFirst() {
+        assertEquals(List.of(5, 3), rolls(index.search("priya", 10)));
+        assertEquals(List.of(3), rolls(index.search("priyanka", 10)));
+    }
+
+    @Test
+    void findsTheBestMatchWhenOnlyAParentMatchesTheRarestWord() {
+        // Anjali Das scores exactly on "anjali" and matches "borah" through her mother
+        List<NameIndex.Match> best = index.search("borah anjali", 1);
+        assertEquals(List.of(2), rolls(best));
+        assertEquals(rolls(index.search("borah anjali", 10)).get(0), Integer.valueOf(2));
+    }
+
+    @Test
+    void aLimitOnlyCutsTheFullRanking() {
+        List<Integer> all = rolls(index.search("barua", 10));
+        for (int limit = 1; limit <= all.size(); limit++) {
+            assertEquals(all.subList(0, limit), rolls(index.search("barua", limit)));
+        }
+    }
+
+    @Test
+    void toleratesATypoAndCompletesAPrefix() {
+        assertTrue(rolls(index.search("baruah", 10)).containsAll(List.of(3, 4)));
+        // "anjali" is one edit away too, but a prefix scores higher
+        assertEquals(List.of(1, 2), rolls(index.search("anjalik", 10)));
+    }
+
+    @Test
+    void honorificsNarrowToOneParent() {
+        List<NameIndex.Match> fathers = index.search("mr dipen", 10);
+        assertEquals(List.of(3, 4), rolls(fathers));
+        for (NameIndex.Match match : fathers) {
+            assertEquals(NameIndex.FATHER, match.getFields());
+        }
+        assertTrue(index.search("mrs dipen", 10).isEmpty());
+    }
+
+    @Test
+    void groupsSiblingsIntoOneFamily() {
+        List<NameIndex.Family> families = index.families("dipen barua", 10);
+        assertEquals(1, families.size());
+        assertEquals("Barua", families.get(0).getSurname());
+        assertEquals(2, families.get(0).getChildren().size());
+    }
+
+    @Test
+    void findsStudentsAddedLater() {
+        SchoolManagementSystem.Student student =
+                new SchoolManagementSystem.Student(6, "Zubeen Garg", "Ily Garg", "Mohini Garg", 1006);
+        roster.put(student);
+        index.add(student);
+        assertEquals(List.of(6), rolls(index.search("zubeen", 10)));
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    void aReplacedStudentIsFoundOnlyByTheNewNames() {
+        SchoolManagementSystem.Student previous = roster.get(4);
+        SchoolManagementSystem.Student student =
+                new SchoolManagementSystem.Student(4, "Zubeen Garg", "Ily Garg", "Mohini Garg", 1004);
+        roster.put(student);
+        index.replace(previous, student);
+
+        assertEquals(List.of(4), rolls(index.search("zubeen", 10)));
+        assertTrue(index.search("rahul", 10).isEmpty());
+        assertEquals(List.of(3), rolls(index.search("dipen barua", 10)));
+        assertEquals(1, index.families("dipen barua", 10).get(0).getChildren().size());
+        assertEquals(5, index.size());
+    }
+
+    private void add(int roll, String name, String mother, String father) {
+        roster.put(new SchoolManagementSystem.Student(roll, name, mother, father, 1000 + roll));
+    }
+
+    private static List<Integer> rolls(List<NameIndex.Match> matches) {
+        List<Integer> rolls = new ArrayList<>();
+        for (NameIndex.Match match : matches) {
+            rolls.add(match.getStudent().getRollNumber());
+        }
+        return rolls;
+    }
+}
@@ -0,0 +1,89 @@
+package trmscii;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedStudentStoreTest {
+    private static final Enrolment NINE_A = Enrolment.of("Carmel", "9", "A");
+    private static final Enrolment NINE_B = Enrolment.of("Carmel", "9", "B");
+
+    @Test
+    void storesEachStudentInItsSection() {
+        PartitionedStudentStore store = new PartitionedStudentStore(2);
+        store.put(student(1, 101, NINE_A));
+        store.put(student(2, 102, NINE_B));
+        store.put(student(3, 103, NINE_B));
+
+        assertEquals(3, store.size());
+        assertEquals(1, store.partition("Carmel", "9", "A").getStudents().size());
+        assertEquals(2, store.partition("Carmel", "9", "B").getStudents().size());
+        assertEquals(102, store.getByAdmissionNumber(102).getAdmissionNumber());
+    }
+
+    @Test
+    void rejectsMovesAndTakenAdmissionNumbersWithoutCommitting() {
+        PartitionedStudentStore store = new PartitionedStudentStore(2);
+        store.put(student(1, 101, NINE_A));
+        List<Integer> committed = new ArrayList<>();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.put(student(1, 101, NINE_B), previous -> committed.add(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.put(student(2, 101, NINE_A), previous -> committed.add(2)));
+
+        assertTrue(committed.isEmpty());
+        assertNull(store.partition("Carmel", "9", "B"));
+        assertEquals(1, store.values().size());
+    }
+
+    @Test
+    void commitSeesTheStudentItReplaces() {
+        PartitionedStudentStore store = new PartitionedStudentStore(2);
+        SchoolManagementSystem.Student first = student(1, 101, NINE_A);
+        store.put(first);
+        SchoolManagementSystem.Student[] seen = new SchoolManagementSystem.Student[1];
+        store.put(student(1, 201, NINE_A), previous -> seen[0] = previous);
+
+        assertSame(first, seen[0]);
+        assertNull(store.getByAdmissionNumber(101));
+        assertEquals(1, store.values().size());
+    }
+
+    @Test
+    void concurrentPutsOfOneRollNumberLandInOneSection() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 200; round++) {
+                PartitionedStudentStore store = new PartitionedStudentStore(1);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> puts = new ArrayList<>();
+                for (String section : new String[] {"A", "B", "C", "D"}) {
+                    puts.add(pool.submit(() -> {
+                        start.await();
+                        try {
+                            store.put(student(7, 707, Enrolment.of("Carmel", "9", section)));
+                        } catch (IllegalArgumentException e) {
+                            // Another section got there first
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> put : puts) {
+                    put.get();
+                }
+                assertEquals(1, store.values().size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static SchoolManagementSystem.Student student(int roll, int admission, Enrolment enrolment) {
+        return new SchoolManagementSystem.Student(roll, "Student " + roll, "Mother", "Father", admission, enrolment);
+    }
+}
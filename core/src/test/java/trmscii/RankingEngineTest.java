@@ -0,0 +1,60 @@
+package trmscii;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankingEngineTest {
+    private SchoolManagementSystem system;
+    private RankingEngine ranking;
+
+    @BeforeEach
+    void rankTheRoster() {
+        system = new SchoolManagementSystem(new StudentRegistry());
+        ranking = system.getRankingEngine();
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        system.close();
+    }
+
+    @Test
+    void followsMarksEnteredAfterTheStudentIsRanked() {
+        SchoolManagementSystem.Student student = student(900, "Priya Borah", 901);
+        system.addStudent(student);
+        int ranked = ranking.rankedCount();
+
+        student.addMarks("Mathematics", 40);
+        assertEquals(ranked + 1, ranking.rankedCount());
+        assertEquals(1, ranking.rank(student, "Mathematics"));
+    }
+
+    @Test
+    void aReplacedStudentLeavesNoScoresBehind() {
+        int ranked = ranking.rankedCount();
+        int rankedInMathematics = ranking.rankedCount("Mathematics");
+        SchoolManagementSystem.Student first = student(900, "Priya Borah", 901);
+        first.addMarks("Mathematics", 40);
+        system.addStudent(first);
+
+        SchoolManagementSystem.Student second = student(900, "Anjali Das", 902);
+        second.addMarks("Mathematics", 0);
+        system.addStudent(second);
+
+        assertEquals(ranked + 1, ranking.rankedCount());
+        assertEquals(rankedInMathematics + 1, ranking.rankedCount("Mathematics"));
+        assertEquals(rankedInMathematics + 1, ranking.rank(second, "Mathematics"));
+        assertFalse(ranking.top(ranked + 1).contains(first));
+        // Marks entered through the replaced student no longer move the rankings
+        int rankedInPhysics = ranking.rankedCount("Physics");
+        first.addMarks("Physics", 40);
+        assertEquals(rankedInPhysics, ranking.rankedCount("Physics"));
+    }
+
+    private static SchoolManagementSystem.Student student(int roll, String name, int admission) {
+        return new SchoolManagementSystem.Student(roll, name, "Mother", "Father", admission);
+    }
+}
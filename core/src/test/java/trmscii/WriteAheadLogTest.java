@@ -0,0 +1,128 @@
+package trmscii;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversEveryAcknowledgedRecordInOrder() throws IOException {
+        WriteAheadLog log = open(dir, new ArrayList<>());
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i, log.append((byte) 3, payload(i)));
+        }
+        log.close();
+
+        List<String> records = new ArrayList<>();
+        WriteAheadLog reopened = open(dir, records);
+        assertEquals(100, records.size());
+        assertEquals("1:3:record 1", records.get(0));
+        assertEquals("100:3:record 100", records.get(99));
+        // LSNs carry on after the recovered tail
+        assertEquals(101, reopened.append((byte) 3, payload(101)));
+        reopened.close();
+    }
+
+    @Test
+    void truncatesATornTailAndKeepsTheRecordsBeforeIt() throws IOException {
+        WriteAheadLog log = open(dir, new ArrayList<>());
+        for (int i = 1; i <= 10; i++) {
+            log.append((byte) 2, payload(i));
+        }
+        log.close();
+        Path segment = onlySegment();
+        long fullSize = Files.size(segment);
+        // A crash halfway through writing the last record
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(fullSize - 5);
+        }
+
+        List<String> records = new ArrayList<>();
+        WriteAheadLog reopened = open(dir, records);
+        assertEquals(9, records.size());
+        assertEquals("9:2:record 9", records.get(8));
+        assertTrue(Files.size(segment) < fullSize - 5, "the torn record is cut off");
+        assertEquals(10, reopened.append((byte) 2, payload(10)));
+        reopened.close();
+
+        records.clear();
+        open(dir, records).close();
+        assertEquals(10, records.size());
+        assertEquals("10:2:record 10", records.get(9));
+    }
+
+    @Test
+    void stopsAtACorruptRecord() throws IOException {
+        WriteAheadLog log = open(dir, new ArrayList<>());
+        for (int i = 1; i <= 3; i++) {
+            log.append((byte) 2, payload(i));
+        }
+        log.close();
+        Path segment = onlySegment();
+        // Flip a byte inside the second record's payload
+        int recordSize = WriteAheadLog.HEADER_SIZE + payload(1).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, recordSize + WriteAheadLog.HEADER_SIZE);
+            b.flip();
+            b.put(0, (byte) (b.get(0) ^ 0xFF));
+            channel.write(b, recordSize + WriteAheadLog.HEADER_SIZE);
+        }
+
+        List<String> records = new ArrayList<>();
+        open(dir, records).close();
+        assertEquals(List.of("1:2:record 1"), records);
+    }
+
+    @Test
+    void skipsRecordsCoveredByASnapshot() throws IOException {
+        WriteAheadLog log = open(dir, new ArrayList<>());
+        for (int i = 1; i <= 5; i++) {
+            log.append((byte) 2, payload(i));
+        }
+        log.close();
+
+        List<String> records = new ArrayList<>();
+        WriteAheadLog reopened = new WriteAheadLog(dir);
+        reopened.recover(3, (lsn, type, payload) -> records.add(lsn + ":" + type + ":" + text(payload)));
+        reopened.close();
+        assertEquals(List.of("4:2:record 4", "5:2:record 5"), records);
+    }
+
+    private static WriteAheadLog open(Path dir, List<String> records) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(dir);
+        log.recover(0, (lsn, type, payload) -> records.add(lsn + ":" + type + ":" + text(payload)));
+        return log;
+    }
+
+    private Path onlySegment() throws IOException {
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(dir, "wal-*.log")) {
+            Iterator<Path> it = segments.iterator();
+            Path segment = it.next();
+            assertFalse(it.hasNext());
+            return segment;
+        }
+    }
+
+    private static byte[] payload(int i) {
+        // The same length for every record below 10, so offsets are easy to work out
+        return String.format("record %d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+package trmscii;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * CohortKernels on the JDK Vector API, at the widest int shape the CPU has.
+ * Lanes accumulate in ints for the length of one chunk and are reduced into
+ * the long sums at the end; absent marks are masked out of every lane.
+ *
+ * The API is still an incubator module, so this file is kept out of
+ * src/main/java and needs the module both to compile and to run:
+ *   mvn -B package -Pvector
+ *   java --add-modules jdk.incubator.vector -jar core/target/trmscii-core-2.0-SNAPSHOT.jar ...
+ * Without it CohortKernels.best() uses the scalar loops.
+ */
+final class VectorCohortKernels implements CohortKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.length() + " x int)";
+    }
+
+    @Override
+    public void summarize(int[] column, int from, int to, int[] thresholds, long[] summary) {
+        IntVector zero = IntVector.zero(SPECIES);
+        IntVector count = zero;
+        IntVector sum = zero;
+        IntVector sumOfSquares = zero;
+        IntVector min = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+        IntVector max = IntVector.broadcast(SPECIES, -1);
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+        IntVector[] atLeast = new IntVector[thresholds.length];
+        for (int t = 0; t < thresholds.length; t++) {
+            atLeast[t] = zero;
+        }
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            IntVector marks = IntVector.fromArray(SPECIES, column, i);
+            VectorMask<Integer> present = marks.compare(VectorOperators.GE, 0);
+            IntVector values = zero.blend(marks, present);
+            count = count.add(one, present);
+            sum = sum.add(values);
+            sumOfSquares = sumOfSquares.add(values.mul(values));
+            min = min.min(marks.blend(Integer.MAX_VALUE, present.not()));
+            max = max.max(marks);
+            for (int t = 0; t < thresholds.length; t++) {
+                atLeast[t] = atLeast[t].add(one, marks.compare(VectorOperators.GE, thresholds[t]));
+            }
+        }
+        summary[COUNT] += count.reduceLanes(VectorOperators.ADD);
+        summary[SUM] += sum.reduceLanes(VectorOperators.ADD);
+        summary[SUM_OF_SQUARES] += sumOfSquares.reduceLanes(VectorOperators.ADD);
+        summary[MIN] = Math.min(summary[MIN], min.reduceLanes(VectorOperators.MIN));
+        summary[MAX] = Math.max(summary[MAX], max.reduceLanes(VectorOperators.MAX));
+        for (int t = 0; t < thresholds.length; t++) {
+            summary[AT_LEAST + t] += atLeast[t].reduceLanes(VectorOperators.ADD);
+        }
+        if (i < to) {
+            SCALAR.summarize(column, i, to, thresholds, summary);
+        }
+    }
+
+    @Override
+    public void pair(int[] x, int[] y, int from, int to, long[] sums) {
+        IntVector zero = IntVector.zero(SPECIES);
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+        IntVector pairs = zero;
+        IntVector sumX = zero;
+        IntVector sumY = zero;
+        IntVector sumXX = zero;
+        IntVector sumYY = zero;
+        IntVector sumXY = zero;
+        int i = from;
+        for (int end = from + SPECIES.loopBound(to - from); i < end; i += SPECIES.length()) {
+            IntVector a = IntVector.fromArray(SPECIES, x, i);
+            IntVector b = IntVector.fromArray(SPECIES, y, i);
+            VectorMask<Integer> both = a.or(b).compare(VectorOperators.GE, 0);
+            a = zero.blend(a, both);
+            b = zero.blend(b, both);
+            pairs = pairs.add(one, both);
+            sumX = sumX.add(a);
+            sumY = sumY.add(b);
+            sumXX = sumXX.add(a.mul(a));
+            sumYY = sumYY.add(b.mul(b));
+            sumXY = sumXY.add(a.mul(b));
+        }
+        sums[PAIRS] += pairs.reduceLanes(VectorOperators.ADD);
+        sums[SUM_X] += sumX.reduceLanes(VectorOperators.ADD);
+        sums[SUM_Y] += sumY.reduceLanes(VectorOperators.ADD);
+        sums[SUM_XX] += sumXX.reduceLanes(VectorOperators.ADD);
+        sums[SUM_YY] += sumYY.reduceLanes(VectorOperators.ADD);
+        sums[SUM_XY] += sumXY.reduceLanes(VectorOperators.ADD);
+        if (i < to) {
+            SCALAR.pair(x, y, i, to, sums);
+        }
+    }
+}